@@ -3,6 +3,8 @@
 
 SET NAMES utf8mb4;
 SET FOREIGN_KEY_CHECKS = 0;
+-- file_info 的 ngram 全文索引不使用默认英文停用词表，否则包含 a、at、or 等的名称分词被丢弃
+SET SESSION innodb_ft_enable_stopword = OFF;
 
 -- ----------------------------
 -- Table structure for file_info
@@ -15,24 +17,80 @@ CREATE TABLE `file_info`  (
   `display_name` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '资源别名',
   `suffix` varchar(20) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '后缀名',
   `size` bigint NULL DEFAULT NULL COMMENT '大小',
+  `total_size` bigint NOT NULL DEFAULT 0 COMMENT '目录聚合：子孙文件总大小',
+  `file_count` int NOT NULL DEFAULT 0 COMMENT '目录聚合：子孙文件数',
+  `folder_count` int NOT NULL DEFAULT 0 COMMENT '目录聚合：子孙文件夹数',
   `mime_type` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '存储标准MIME类型',
   `is_dir` tinyint(1) NOT NULL COMMENT '是否目录',
   `parent_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '父节点ID',
+  `path` varchar(2048) CHARACTER SET ascii COLLATE ascii_bin NULL DEFAULT NULL COMMENT '物化路径：/祖先ID/.../自身ID/',
   `user_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '用户id',
-  `content_md5` text CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL COMMENT '用于秒传和文件校验',
+  `content_md5` char(32) CHARACTER SET ascii COLLATE ascii_bin NULL DEFAULT NULL COMMENT '用于秒传和文件校验',
   `storage_platform_setting_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '存储平台标识符',
   `upload_time` datetime NOT NULL COMMENT '上传时间',
   `update_time` datetime NULL DEFAULT NULL COMMENT '修改时间',
   `last_access_time` datetime NULL DEFAULT NULL COMMENT '最后访问时间',
   `is_deleted` tinyint(1) NULL DEFAULT NULL COMMENT '软删除标记，回收站标识0：未删除 1：已删除',
   `deleted_time` datetime NULL DEFAULT NULL COMMENT '删除时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_object_key`(`object_key` ASC) USING BTREE,
+  INDEX `idx_path`(`path` ASC) USING BTREE,
+  INDEX `idx_list_update_time`(`user_id` ASC, `parent_id` ASC, `is_dir` ASC, `update_time` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_list_display_name`(`user_id` ASC, `parent_id` ASC, `is_dir` ASC, `display_name` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_list_size`(`user_id` ASC, `parent_id` ASC, `is_dir` ASC, `size` ASC, `id` ASC) USING BTREE,
+  INDEX `idx_user_platform_deleted`(`user_id` ASC, `storage_platform_setting_id` ASC, `is_deleted` ASC, `is_dir` ASC) USING BTREE,
+  INDEX `idx_user_recent`(`user_id` ASC, `is_dir` ASC, `last_access_time` ASC) USING BTREE,
+  INDEX `idx_deleted_time`(`is_deleted` ASC, `deleted_time` ASC) USING BTREE,
+  UNIQUE INDEX `uk_sibling_name`(`user_id`, (IFNULL(`storage_platform_setting_id`, '')), (IFNULL(`parent_id`, '')), `is_dir`, `display_name`, (IF(`is_deleted` = 0, 1, NULL))) USING BTREE,
+  FULLTEXT INDEX `ft_name`(`original_name`, `display_name`) WITH PARSER ngram
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '文件资源表' ROW_FORMAT = DYNAMIC;
 
 -- ----------------------------
 -- Records of file_info
 -- ----------------------------
 
+-- ----------------------------
+-- Table structure for file_content_hash
+-- ----------------------------
+DROP TABLE IF EXISTS `file_content_hash`;
+CREATE TABLE `file_content_hash`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `hash` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '内容哈希(MD5)',
+  `storage_platform_setting_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL DEFAULT '' COMMENT '存储平台配置ID，本地存储为空字符串',
+  `object_key` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '对象key',
+  `size` bigint NULL DEFAULT NULL COMMENT '文件大小(字节)',
+  `ref_count` int NOT NULL DEFAULT 0 COMMENT '引用该对象的文件记录数',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_hash_platform`(`hash` ASC, `storage_platform_setting_id` ASC) USING BTREE,
+  INDEX `idx_platform_object_key`(`storage_platform_setting_id` ASC, `object_key` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '文件内容哈希登记表' ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Records of file_content_hash
+-- ----------------------------
+
+-- ----------------------------
+-- Table structure for file_object_ref
+-- ----------------------------
+DROP TABLE IF EXISTS `file_object_ref`;
+CREATE TABLE `file_object_ref`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `storage_platform_setting_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL DEFAULT '' COMMENT '存储平台配置ID，本地存储为空字符串',
+  `object_key` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '对象key',
+  `ref_count` int NOT NULL DEFAULT 0 COMMENT '引用该对象的文件记录数，0表示等待回收',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_platform_object_key`(`storage_platform_setting_id` ASC, `object_key` ASC) USING BTREE,
+  INDEX `idx_ref_count`(`ref_count` ASC, `id` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '物理对象引用计数表' ROW_FORMAT = Dynamic;
+
+-- ----------------------------
+-- Records of file_object_ref
+-- ----------------------------
+
 -- ----------------------------
 -- Table structure for file_share_access_record
 -- ----------------------------
@@ -45,7 +103,8 @@ CREATE TABLE `file_share_access_record`  (
   `browser` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '浏览器类型',
   `os` varchar(512) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NULL DEFAULT NULL COMMENT '操作系统',
   `access_time` datetime NOT NULL COMMENT '访问时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_share_access_time`(`share_id` ASC, `access_time` ASC) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '分享页面访问记录表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -84,7 +143,8 @@ CREATE TABLE `file_shares`  (
   `max_download_count` int NULL DEFAULT NULL COMMENT '最大下载次数（NULL表示无限制）',
   `created_at` datetime NOT NULL,
   `updated_at` datetime NOT NULL,
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  INDEX `idx_user_created`(`user_id` ASC, `created_at` ASC) USING BTREE
 ) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '文件分享表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -122,7 +182,7 @@ CREATE TABLE `file_transfer_task`  (
   `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
   PRIMARY KEY (`id`) USING BTREE,
   UNIQUE INDEX `uk_task_id`(`task_id` ASC) USING BTREE,
-  INDEX `idx_user_id`(`user_id` ASC) USING BTREE,
+  INDEX `idx_user_platform_created`(`user_id` ASC, `storage_platform_setting_id` ASC, `created_at` ASC) USING BTREE,
   INDEX `idx_file_md5`(`file_md5` ASC) USING BTREE,
   INDEX `idx_status`(`status` ASC) USING BTREE,
   INDEX `idx_create_time`(`created_at` ASC) USING BTREE
@@ -288,13 +348,15 @@ DROP TABLE IF EXISTS `user_quota_usage`;
 CREATE TABLE `user_quota_usage`  (
   `id` bigint NOT NULL AUTO_INCREMENT,
   `user_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '用户ID',
-  `storage_used` int NOT NULL COMMENT '已使用存储(GB)',
-  `files_count` int NOT NULL COMMENT '文件数量',
-  `bandwidth_used_month` bigint NOT NULL COMMENT '带宽使用情况(按月统计)',
+  `storage_platform_setting_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL DEFAULT '' COMMENT '存储平台配置ID，本地存储为空字符串',
+  `storage_used` bigint NOT NULL DEFAULT 0 COMMENT '已使用存储(字节)',
+  `files_count` int NOT NULL DEFAULT 0 COMMENT '文件数量',
+  `bandwidth_used_month` bigint NOT NULL DEFAULT 0 COMMENT '带宽使用情况(按月统计)',
   `bandwidth_reset_date` date NULL DEFAULT NULL COMMENT '带宽重置日期',
   `last_calculated_at` datetime NOT NULL COMMENT '最后统计时间',
   `updated_at` datetime NOT NULL COMMENT '更新时间',
-  PRIMARY KEY (`id`) USING BTREE
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_user_platform`(`user_id` ASC, `storage_platform_setting_id` ASC) USING BTREE
 ) ENGINE = InnoDB AUTO_INCREMENT = 1 CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '用户配额使用情况表' ROW_FORMAT = Dynamic;
 
 -- ----------------------------
@@ -319,4 +381,5 @@ CREATE TABLE `user_subscription`  (
 -- Records of user_subscription
 -- ----------------------------
 
+SET SESSION innodb_ft_enable_stopword = DEFAULT;
 SET FOREIGN_KEY_CHECKS = 1;
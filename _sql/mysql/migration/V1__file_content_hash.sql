@@ -0,0 +1,30 @@
+-- 秒传内容哈希登记表
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+
+-- ----------------------------
+-- Table structure for file_content_hash
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS `file_content_hash`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `hash` varchar(64) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '内容哈希(MD5)',
+  `storage_platform_setting_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL DEFAULT '' COMMENT '存储平台配置ID，本地存储为空字符串',
+  `object_key` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '对象key',
+  `size` bigint NULL DEFAULT NULL COMMENT '文件大小(字节)',
+  `ref_count` int NOT NULL DEFAULT 0 COMMENT '引用该对象的文件记录数',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_hash_platform`(`hash` ASC, `storage_platform_setting_id` ASC) USING BTREE,
+  INDEX `idx_platform_object_key`(`storage_platform_setting_id` ASC, `object_key` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '文件内容哈希登记表' ROW_FORMAT = Dynamic;
+
+ALTER TABLE `file_info` ADD INDEX `idx_object_key`(`object_key` ASC) USING BTREE;
+
+-- 由现有文件记录回填登记：每个 (MD5, 存储平台) 保留一个对象，引用计数为引用该对象的文件记录数（含回收站）
+INSERT IGNORE INTO `file_content_hash` (`hash`, `storage_platform_setting_id`, `object_key`, `size`, `ref_count`)
+SELECT `content_md5`, COALESCE(`storage_platform_setting_id`, ''), `object_key`, MAX(`size`), COUNT(*)
+FROM `file_info`
+WHERE `is_dir` = 0
+  AND `content_md5` IS NOT NULL AND `content_md5` <> ''
+  AND `object_key` IS NOT NULL AND `object_key` <> ''
+GROUP BY `content_md5`, `storage_platform_setting_id`, `object_key`;
@@ -0,0 +1,26 @@
+-- 物理对象引用计数表
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+-- 依赖 V1 中创建的 file_info.object_key 索引
+
+-- ----------------------------
+-- Table structure for file_object_ref
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS `file_object_ref`  (
+  `id` bigint NOT NULL AUTO_INCREMENT COMMENT '主键ID',
+  `storage_platform_setting_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL DEFAULT '' COMMENT '存储平台配置ID，本地存储为空字符串',
+  `object_key` varchar(255) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL COMMENT '对象key',
+  `ref_count` int NOT NULL DEFAULT 0 COMMENT '引用该对象的文件记录数，0表示等待回收',
+  `created_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP COMMENT '创建时间',
+  `updated_at` datetime NOT NULL DEFAULT CURRENT_TIMESTAMP ON UPDATE CURRENT_TIMESTAMP COMMENT '更新时间',
+  PRIMARY KEY (`id`) USING BTREE,
+  UNIQUE INDEX `uk_platform_object_key`(`storage_platform_setting_id` ASC, `object_key` ASC) USING BTREE,
+  INDEX `idx_ref_count`(`ref_count` ASC, `id` ASC) USING BTREE
+) ENGINE = InnoDB CHARACTER SET = utf8mb4 COLLATE = utf8mb4_general_ci COMMENT = '物理对象引用计数表' ROW_FORMAT = Dynamic;
+
+-- 由现有文件记录回填引用计数：每个 (存储平台, 对象key) 的引用数为引用该对象的文件记录数（含回收站）
+INSERT IGNORE INTO `file_object_ref` (`storage_platform_setting_id`, `object_key`, `ref_count`)
+SELECT COALESCE(`storage_platform_setting_id`, ''), `object_key`, COUNT(*)
+FROM `file_info`
+WHERE `is_dir` = 0
+  AND `object_key` IS NOT NULL AND `object_key` <> ''
+GROUP BY COALESCE(`storage_platform_setting_id`, ''), `object_key`;
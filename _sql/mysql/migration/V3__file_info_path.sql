@@ -0,0 +1,26 @@
+-- 文件树物化路径
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+-- 路径只包含十六进制ID与分隔符，使用 ascii_bin 以便前缀 LIKE 走索引范围扫描（需 MySQL 8.0+）
+
+ALTER TABLE `file_info`
+    ADD COLUMN `path` varchar(2048) CHARACTER SET ascii COLLATE ascii_bin NULL DEFAULT NULL COMMENT '物化路径：/祖先ID/.../自身ID/' AFTER `parent_id`,
+    ADD INDEX `idx_path`(`path` ASC) USING BTREE;
+
+-- 由 parent_id 递归回填路径
+UPDATE `file_info` f
+JOIN (
+    WITH RECURSIVE `tree` (`id`, `path`) AS (
+        SELECT `id`, CAST(CONCAT('/', `id`, '/') AS CHAR(2048) CHARACTER SET ascii)
+        FROM `file_info`
+        WHERE `parent_id` IS NULL
+        UNION ALL
+        SELECT c.`id`, CONCAT(t.`path`, c.`id`, '/')
+        FROM `file_info` c
+        JOIN `tree` t ON c.`parent_id` = t.`id`
+    )
+    SELECT `id`, `path` FROM `tree`
+) t ON f.`id` = t.`id`
+SET f.`path` = t.`path`;
+
+-- 父目录已不存在的孤儿记录按根节点处理
+UPDATE `file_info` SET `path` = CONCAT('/', `id`, '/') WHERE `path` IS NULL;
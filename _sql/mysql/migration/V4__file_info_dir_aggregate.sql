@@ -0,0 +1,25 @@
+-- 目录聚合计数
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+-- 依赖 V3 中创建的 file_info.path
+
+ALTER TABLE `file_info`
+    ADD COLUMN `total_size` bigint NOT NULL DEFAULT 0 COMMENT '目录聚合：子孙文件总大小' AFTER `size`,
+    ADD COLUMN `file_count` int NOT NULL DEFAULT 0 COMMENT '目录聚合：子孙文件数' AFTER `total_size`,
+    ADD COLUMN `folder_count` int NOT NULL DEFAULT 0 COMMENT '目录聚合：子孙文件夹数' AFTER `file_count`;
+
+-- 按物化路径回填目录聚合，只统计未删除的子孙
+UPDATE `file_info` d
+JOIN (
+    SELECT p.`id`,
+           COALESCE(SUM(CASE WHEN c.`is_dir` = 0 THEN c.`size` ELSE 0 END), 0) AS `total_size`,
+           SUM(CASE WHEN c.`is_dir` = 0 THEN 1 ELSE 0 END) AS `file_count`,
+           SUM(CASE WHEN c.`is_dir` = 1 THEN 1 ELSE 0 END) AS `folder_count`
+    FROM `file_info` p
+    JOIN `file_info` c ON c.`path` LIKE CONCAT(p.`path`, '%') AND c.`id` <> p.`id`
+    WHERE p.`is_dir` = 1
+      AND COALESCE(c.`is_deleted`, 0) = 0
+    GROUP BY p.`id`
+) a ON d.`id` = a.`id`
+SET d.`total_size` = a.`total_size`,
+    d.`file_count` = a.`file_count`,
+    d.`folder_count` = a.`folder_count`;
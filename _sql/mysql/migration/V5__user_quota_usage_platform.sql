@@ -0,0 +1,31 @@
+-- 用户存储用量按存储平台统计
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+-- storage_used 改为字节数，每个用户在每个存储平台一行，由 Redis 实时计数定期刷写
+
+ALTER TABLE `user_quota_usage`
+    ADD COLUMN `storage_platform_setting_id` varchar(128) CHARACTER SET utf8mb4 COLLATE utf8mb4_general_ci NOT NULL DEFAULT '' COMMENT '存储平台配置ID，本地存储为空字符串' AFTER `user_id`,
+    MODIFY COLUMN `storage_used` bigint NOT NULL DEFAULT 0 COMMENT '已使用存储(字节)',
+    MODIFY COLUMN `files_count` int NOT NULL DEFAULT 0 COMMENT '文件数量',
+    MODIFY COLUMN `bandwidth_used_month` bigint NOT NULL DEFAULT 0 COMMENT '带宽使用情况(按月统计)';
+
+-- 旧数据未按平台区分且单位不同，只重置存储用量列后按 file_info 重新汇总，带宽统计保留
+-- 旧表没有唯一约束，同一用户有多行时保留最新一行
+DELETE `u` FROM `user_quota_usage` `u`
+    JOIN `user_quota_usage` `k` ON `k`.`user_id` = `u`.`user_id` AND `k`.`id` > `u`.`id`;
+
+UPDATE `user_quota_usage` SET `storage_used` = 0, `files_count` = 0;
+
+ALTER TABLE `user_quota_usage`
+    ADD UNIQUE INDEX `uk_user_platform`(`user_id` ASC, `storage_platform_setting_id` ASC) USING BTREE;
+
+-- 回收站中未彻底删除的文件仍计入用量
+INSERT INTO `user_quota_usage` (`user_id`, `storage_platform_setting_id`, `storage_used`, `files_count`,
+                                `bandwidth_used_month`, `last_calculated_at`, `updated_at`)
+SELECT `user_id`, COALESCE(`storage_platform_setting_id`, ''), COALESCE(SUM(`size`), 0), COUNT(*), 0, NOW(), NOW()
+FROM `file_info`
+WHERE `is_dir` = 0
+GROUP BY `user_id`, COALESCE(`storage_platform_setting_id`, '')
+ON DUPLICATE KEY UPDATE `storage_used`       = VALUES(`storage_used`),
+                        `files_count`        = VALUES(`files_count`),
+                        `last_calculated_at` = VALUES(`last_calculated_at`),
+                        `updated_at`         = VALUES(`updated_at`);
@@ -0,0 +1,11 @@
+-- 文件列表游标分页复合索引
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+-- 列表按目录、文件两段查询，每段为 is_dir 等值条件下按 (排序键, id) 扫描
+
+-- 修改时间为空的历史数据按上传时间回填，保证同一段内排序键均不为空
+UPDATE `file_info` SET `update_time` = `upload_time` WHERE `update_time` IS NULL;
+
+ALTER TABLE `file_info`
+    ADD INDEX `idx_list_update_time`(`user_id` ASC, `parent_id` ASC, `is_dir` ASC, `update_time` ASC, `id` ASC) USING BTREE,
+    ADD INDEX `idx_list_display_name`(`user_id` ASC, `parent_id` ASC, `is_dir` ASC, `display_name` ASC, `id` ASC) USING BTREE,
+    ADD INDEX `idx_list_size`(`user_id` ASC, `parent_id` ASC, `is_dir` ASC, `size` ASC, `id` ASC) USING BTREE;
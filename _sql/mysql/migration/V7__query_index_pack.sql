@@ -0,0 +1,30 @@
+-- 热点查询复合索引与 content_md5 定长化
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+-- 索引按实际查询条件设计，列表分页索引见 V6
+
+-- content_md5 只保存32位十六进制MD5，非法值置空后改为定长 ASCII 列
+UPDATE `file_info` SET `content_md5` = NULL
+WHERE `content_md5` IS NOT NULL AND CHAR_LENGTH(`content_md5`) <> 32;
+UPDATE `file_info` SET `content_md5` = LOWER(`content_md5`) WHERE `content_md5` IS NOT NULL;
+
+ALTER TABLE `file_info`
+    MODIFY COLUMN `content_md5` char(32) CHARACTER SET ascii COLLATE ascii_bin NULL DEFAULT NULL COMMENT '用于秒传和文件校验',
+    -- 首页文件/目录计数（覆盖索引）、回收站列表：user_id + 平台 + is_deleted
+    ADD INDEX `idx_user_platform_deleted`(`user_id` ASC, `storage_platform_setting_id` ASC, `is_deleted` ASC, `is_dir` ASC) USING BTREE,
+    -- 最近使用：user_id + is_dir 等值，按 last_access_time 倒序取前20条
+    ADD INDEX `idx_user_recent`(`user_id` ASC, `is_dir` ASC, `last_access_time` ASC) USING BTREE,
+    -- 回收站过期清理：is_deleted 等值，deleted_time 范围
+    ADD INDEX `idx_deleted_time`(`is_deleted` ASC, `deleted_time` ASC) USING BTREE;
+
+-- 我的分享列表：user_id 等值，按创建时间倒序
+ALTER TABLE `file_shares`
+    ADD INDEX `idx_user_created`(`user_id` ASC, `created_at` ASC) USING BTREE;
+
+-- 分享访问记录：share_id 等值，按访问时间排序
+ALTER TABLE `file_share_access_record`
+    ADD INDEX `idx_share_access_time`(`share_id` ASC, `access_time` ASC) USING BTREE;
+
+-- 传输列表：user_id + 平台等值，按创建时间排序；原 user_id 单列索引是其前缀，一并删除
+ALTER TABLE `file_transfer_task`
+    ADD INDEX `idx_user_platform_created`(`user_id` ASC, `storage_platform_setting_id` ASC, `created_at` ASC) USING BTREE,
+    DROP INDEX `idx_user_id`;
@@ -0,0 +1,24 @@
+-- 同级目录名称唯一索引
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+-- 同一用户、同一存储平台、同一父目录下，未删除的同类型（文件/目录）名称唯一；
+-- 平台和父目录为空时按空串参与唯一约束，已删除记录不参与（回收站恢复时重新分配名称）
+
+-- 历史重复名称保留最早的一条，其余按 名称(ID前8位).扩展名 重命名
+UPDATE `file_info` f
+    JOIN (SELECT `id`,
+                 ROW_NUMBER() OVER (
+                     PARTITION BY `user_id`, IFNULL(`storage_platform_setting_id`, ''), IFNULL(`parent_id`, ''),
+                         `is_dir`, `display_name`
+                     ORDER BY `upload_time`, `id`) AS rn
+          FROM `file_info`
+          WHERE `is_deleted` = 0) d ON f.`id` = d.`id` AND d.rn > 1
+SET f.`display_name` = CASE
+    WHEN f.`is_dir` = 0 AND LOCATE('.', f.`display_name`) > 0 THEN CONCAT(
+        LEFT(LEFT(f.`display_name`, CHAR_LENGTH(f.`display_name`) - CHAR_LENGTH(SUBSTRING_INDEX(f.`display_name`, '.', -1)) - 1), 100),
+        '(', LEFT(f.`id`, 8), ').', LEFT(SUBSTRING_INDEX(f.`display_name`, '.', -1), 16))
+    ELSE CONCAT(LEFT(f.`display_name`, 100), '(', LEFT(f.`id`, 8), ')')
+END;
+
+ALTER TABLE `file_info`
+    ADD UNIQUE INDEX `uk_sibling_name`(`user_id`, (IFNULL(`storage_platform_setting_id`, '')), (IFNULL(`parent_id`, '')),
+        `is_dir`, `display_name`, (IF(`is_deleted` = 0, 1, NULL))) USING BTREE;
@@ -0,0 +1,12 @@
+-- 文件名全文搜索索引
+-- 适用于已部署的 free-fs.sql 库，新装环境直接使用 free-fs.sql 即可
+-- ngram 解析器按 ngram_token_size（默认2）切分名称，中日韩文本无需分词；
+-- 修改 ngram_token_size 后需同步 fs.search.ngram-token-size 并以 --fs.search.rebuild=true 重建索引
+-- InnoDB 默认英文停用词表含 a、i、at、or 等，ngram 解析器会丢弃包含停用词的分词，导致 "data"、"image" 等名称搜不到；
+-- 停用词表在建索引时绑定，建索引前关闭。已按旧版本脚本建过索引的库以 --fs.search.rebuild=true 重建
+SET SESSION innodb_ft_enable_stopword = OFF;
+
+ALTER TABLE `file_info`
+    ADD FULLTEXT INDEX `ft_name`(`original_name`, `display_name`) WITH PARSER ngram;
+
+SET SESSION innodb_ft_enable_stopword = DEFAULT;
@@ -1,6 +1,9 @@
 -- free-fs_pg.sql
 -- Date: 17/11/2025 16:57:34
 
+-- 文件名三元组搜索索引依赖
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
 -- ----------------------------
 -- Table structure for file_info
 -- ----------------------------
@@ -12,11 +15,15 @@ CREATE TABLE "file_info" (
                              "display_name" VARCHAR(128) NOT NULL,
                              "suffix" VARCHAR(20) DEFAULT NULL,
                              "size" BIGINT DEFAULT NULL,
+                             "total_size" BIGINT NOT NULL DEFAULT 0,
+                             "file_count" INTEGER NOT NULL DEFAULT 0,
+                             "folder_count" INTEGER NOT NULL DEFAULT 0,
                              "mime_type" VARCHAR(128) DEFAULT NULL,
                              "is_dir" BOOLEAN NOT NULL,
                              "parent_id" VARCHAR(128) DEFAULT NULL,
+                             "path" VARCHAR(2048) DEFAULT NULL,
                              "user_id" VARCHAR(128) NOT NULL,
-                             "content_md5" TEXT DEFAULT NULL,
+                             "content_md5" CHAR(32) DEFAULT NULL,
                              "storage_platform_setting_id" VARCHAR(128) DEFAULT NULL,
                              "upload_time" TIMESTAMP NOT NULL,
                              "update_time" TIMESTAMP DEFAULT NULL,
@@ -26,15 +33,30 @@ CREATE TABLE "file_info" (
                              PRIMARY KEY ("id")
 );
 
+CREATE INDEX "idx_file_info_object_key" ON "file_info" ("object_key");
+CREATE INDEX "idx_file_info_path" ON "file_info" ("path" varchar_pattern_ops);
+CREATE INDEX "idx_file_info_list_update_time" ON "file_info" ("user_id", "parent_id", "is_dir", "update_time", "id");
+CREATE INDEX "idx_file_info_list_display_name" ON "file_info" ("user_id", "parent_id", "is_dir", "display_name", "id");
+CREATE INDEX "idx_file_info_list_size" ON "file_info" ("user_id", "parent_id", "is_dir", "size", "id");
+CREATE INDEX "idx_file_info_user_platform_deleted" ON "file_info" ("user_id", "storage_platform_setting_id", "is_deleted", "is_dir");
+CREATE INDEX "idx_file_info_user_recent" ON "file_info" ("user_id", "is_dir", "last_access_time");
+CREATE INDEX "idx_file_info_deleted_time" ON "file_info" ("is_deleted", "deleted_time");
+CREATE UNIQUE INDEX "uk_file_info_sibling_name" ON "file_info" ("user_id", COALESCE("storage_platform_setting_id", ''), COALESCE("parent_id", ''), "is_dir", "display_name") WHERE "is_deleted" = false;
+CREATE INDEX "idx_file_info_name_trgm" ON "file_info" USING gin ("original_name" gin_trgm_ops, "display_name" gin_trgm_ops);
+
 COMMENT ON TABLE "file_info" IS '文件资源表';
 COMMENT ON COLUMN "file_info"."object_key" IS '资源名称';
 COMMENT ON COLUMN "file_info"."original_name" IS '资源原始名称';
 COMMENT ON COLUMN "file_info"."display_name" IS '资源别名';
 COMMENT ON COLUMN "file_info"."suffix" IS '后缀名';
 COMMENT ON COLUMN "file_info"."size" IS '大小';
+COMMENT ON COLUMN "file_info"."total_size" IS '目录聚合：子孙文件总大小';
+COMMENT ON COLUMN "file_info"."file_count" IS '目录聚合：子孙文件数';
+COMMENT ON COLUMN "file_info"."folder_count" IS '目录聚合：子孙文件夹数';
 COMMENT ON COLUMN "file_info"."mime_type" IS '存储标准MIME类型';
 COMMENT ON COLUMN "file_info"."is_dir" IS '是否目录';
 COMMENT ON COLUMN "file_info"."parent_id" IS '父节点ID';
+COMMENT ON COLUMN "file_info"."path" IS '物化路径：/祖先ID/.../自身ID/';
 COMMENT ON COLUMN "file_info"."user_id" IS '用户id';
 COMMENT ON COLUMN "file_info"."content_md5" IS '用于秒传和文件校验';
 COMMENT ON COLUMN "file_info"."storage_platform_setting_id" IS '存储平台标识符';
@@ -44,6 +66,60 @@ COMMENT ON COLUMN "file_info"."last_access_time" IS '最后访问时间';
 COMMENT ON COLUMN "file_info"."is_deleted" IS '软删除标记，回收站标识0：未删除 1：已删除';
 COMMENT ON COLUMN "file_info"."deleted_time" IS '删除时间';
 
+-- ----------------------------
+-- Table structure for file_content_hash
+-- ----------------------------
+DROP TABLE IF EXISTS "file_content_hash";
+CREATE TABLE "file_content_hash" (
+                                     "id" BIGSERIAL NOT NULL,
+                                     "hash" VARCHAR(64) NOT NULL,
+                                     "storage_platform_setting_id" VARCHAR(128) NOT NULL DEFAULT '',
+                                     "object_key" VARCHAR(255) NOT NULL,
+                                     "size" BIGINT DEFAULT NULL,
+                                     "ref_count" INTEGER NOT NULL DEFAULT 0,
+                                     "created_at" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     "updated_at" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     PRIMARY KEY ("id")
+);
+
+CREATE UNIQUE INDEX "uk_file_content_hash_hash_platform" ON "file_content_hash" ("hash", "storage_platform_setting_id");
+CREATE INDEX "idx_file_content_hash_platform_object_key" ON "file_content_hash" ("storage_platform_setting_id", "object_key");
+
+COMMENT ON TABLE "file_content_hash" IS '文件内容哈希登记表';
+COMMENT ON COLUMN "file_content_hash"."id" IS '主键ID';
+COMMENT ON COLUMN "file_content_hash"."hash" IS '内容哈希(MD5)';
+COMMENT ON COLUMN "file_content_hash"."storage_platform_setting_id" IS '存储平台配置ID，本地存储为空字符串';
+COMMENT ON COLUMN "file_content_hash"."object_key" IS '对象key';
+COMMENT ON COLUMN "file_content_hash"."size" IS '文件大小(字节)';
+COMMENT ON COLUMN "file_content_hash"."ref_count" IS '引用该对象的文件记录数';
+COMMENT ON COLUMN "file_content_hash"."created_at" IS '创建时间';
+COMMENT ON COLUMN "file_content_hash"."updated_at" IS '更新时间';
+
+-- ----------------------------
+-- Table structure for file_object_ref
+-- ----------------------------
+DROP TABLE IF EXISTS "file_object_ref";
+CREATE TABLE "file_object_ref" (
+                                     "id" BIGSERIAL NOT NULL,
+                                     "storage_platform_setting_id" VARCHAR(128) NOT NULL DEFAULT '',
+                                     "object_key" VARCHAR(255) NOT NULL,
+                                     "ref_count" INTEGER NOT NULL DEFAULT 0,
+                                     "created_at" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     "updated_at" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     PRIMARY KEY ("id")
+);
+
+CREATE UNIQUE INDEX "uk_file_object_ref_platform_object_key" ON "file_object_ref" ("storage_platform_setting_id", "object_key");
+CREATE INDEX "idx_file_object_ref_ref_count" ON "file_object_ref" ("ref_count", "id");
+
+COMMENT ON TABLE "file_object_ref" IS '物理对象引用计数表';
+COMMENT ON COLUMN "file_object_ref"."id" IS '主键ID';
+COMMENT ON COLUMN "file_object_ref"."storage_platform_setting_id" IS '存储平台配置ID，本地存储为空字符串';
+COMMENT ON COLUMN "file_object_ref"."object_key" IS '对象key';
+COMMENT ON COLUMN "file_object_ref"."ref_count" IS '引用该对象的文件记录数，0表示等待回收';
+COMMENT ON COLUMN "file_object_ref"."created_at" IS '创建时间';
+COMMENT ON COLUMN "file_object_ref"."updated_at" IS '更新时间';
+
 -- ----------------------------
 -- Table structure for file_share_access_record
 -- ----------------------------
@@ -59,6 +135,8 @@ CREATE TABLE "file_share_access_record" (
                                             PRIMARY KEY ("id")
 );
 
+CREATE INDEX "idx_file_share_access_record_share_time" ON "file_share_access_record" ("share_id", "access_time");
+
 COMMENT ON TABLE "file_share_access_record" IS '分享页面访问记录表';
 COMMENT ON COLUMN "file_share_access_record"."share_id" IS '分享ID';
 COMMENT ON COLUMN "file_share_access_record"."access_ip" IS '访问IP';
@@ -103,6 +181,8 @@ CREATE TABLE "file_shares" (
                                PRIMARY KEY ("id")
 );
 
+CREATE INDEX "idx_file_shares_user_created" ON "file_shares" ("user_id", "created_at");
+
 COMMENT ON TABLE "file_shares" IS '文件分享表';
 COMMENT ON COLUMN "file_shares"."id" IS '分享ID';
 COMMENT ON COLUMN "file_shares"."user_id" IS '分享人ID';
@@ -148,7 +228,7 @@ CREATE TABLE "file_transfer_task" (
 );
 
 CREATE UNIQUE INDEX "uk_task_id" ON "file_transfer_task" ("task_id");
-CREATE INDEX "idx_user_id" ON "file_transfer_task" ("user_id");
+CREATE INDEX "idx_file_transfer_task_user_platform_created" ON "file_transfer_task" ("user_id", "storage_platform_setting_id", "created_at");
 CREATE INDEX "idx_file_md5" ON "file_transfer_task" ("file_md5");
 CREATE INDEX "idx_status" ON "file_transfer_task" ("status");
 CREATE INDEX "idx_create_time" ON "file_transfer_task" ("created_at");
@@ -417,18 +497,22 @@ DROP TABLE IF EXISTS "user_quota_usage";
 CREATE TABLE "user_quota_usage" (
                                     "id" BIGSERIAL NOT NULL,
                                     "user_id" VARCHAR(128) NOT NULL,
-                                    "storage_used" INTEGER NOT NULL,
-                                    "files_count" INTEGER NOT NULL,
-                                    "bandwidth_used_month" BIGINT NOT NULL,
+                                    "storage_platform_setting_id" VARCHAR(128) NOT NULL DEFAULT '',
+                                    "storage_used" BIGINT NOT NULL DEFAULT 0,
+                                    "files_count" INTEGER NOT NULL DEFAULT 0,
+                                    "bandwidth_used_month" BIGINT NOT NULL DEFAULT 0,
                                     "bandwidth_reset_date" DATE DEFAULT NULL,
                                     "last_calculated_at" TIMESTAMP NOT NULL,
                                     "updated_at" TIMESTAMP NOT NULL,
                                     PRIMARY KEY ("id")
 );
 
+CREATE UNIQUE INDEX "uk_user_quota_usage_user_platform" ON "user_quota_usage" ("user_id", "storage_platform_setting_id");
+
 COMMENT ON TABLE "user_quota_usage" IS '用户配额使用情况表';
 COMMENT ON COLUMN "user_quota_usage"."user_id" IS '用户ID';
-COMMENT ON COLUMN "user_quota_usage"."storage_used" IS '已使用存储(GB)';
+COMMENT ON COLUMN "user_quota_usage"."storage_platform_setting_id" IS '存储平台配置ID，本地存储为空字符串';
+COMMENT ON COLUMN "user_quota_usage"."storage_used" IS '已使用存储(字节)';
 COMMENT ON COLUMN "user_quota_usage"."files_count" IS '文件数量';
 COMMENT ON COLUMN "user_quota_usage"."bandwidth_used_month" IS '带宽使用情况(按月统计)';
 COMMENT ON COLUMN "user_quota_usage"."bandwidth_reset_date" IS '带宽重置日期';
@@ -0,0 +1,42 @@
+-- 秒传内容哈希登记表
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+
+-- ----------------------------
+-- Table structure for file_content_hash
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS "file_content_hash" (
+                                     "id" BIGSERIAL NOT NULL,
+                                     "hash" VARCHAR(64) NOT NULL,
+                                     "storage_platform_setting_id" VARCHAR(128) NOT NULL DEFAULT '',
+                                     "object_key" VARCHAR(255) NOT NULL,
+                                     "size" BIGINT DEFAULT NULL,
+                                     "ref_count" INTEGER NOT NULL DEFAULT 0,
+                                     "created_at" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     "updated_at" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     PRIMARY KEY ("id")
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS "uk_file_content_hash_hash_platform" ON "file_content_hash" ("hash", "storage_platform_setting_id");
+CREATE INDEX IF NOT EXISTS "idx_file_content_hash_platform_object_key" ON "file_content_hash" ("storage_platform_setting_id", "object_key");
+
+COMMENT ON TABLE "file_content_hash" IS '文件内容哈希登记表';
+COMMENT ON COLUMN "file_content_hash"."id" IS '主键ID';
+COMMENT ON COLUMN "file_content_hash"."hash" IS '内容哈希(MD5)';
+COMMENT ON COLUMN "file_content_hash"."storage_platform_setting_id" IS '存储平台配置ID，本地存储为空字符串';
+COMMENT ON COLUMN "file_content_hash"."object_key" IS '对象key';
+COMMENT ON COLUMN "file_content_hash"."size" IS '文件大小(字节)';
+COMMENT ON COLUMN "file_content_hash"."ref_count" IS '引用该对象的文件记录数';
+COMMENT ON COLUMN "file_content_hash"."created_at" IS '创建时间';
+COMMENT ON COLUMN "file_content_hash"."updated_at" IS '更新时间';
+
+CREATE INDEX IF NOT EXISTS "idx_file_info_object_key" ON "file_info" ("object_key");
+
+-- 由现有文件记录回填登记：每个 (MD5, 存储平台) 保留一个对象，引用计数为引用该对象的文件记录数（含回收站）
+INSERT INTO "file_content_hash" ("hash", "storage_platform_setting_id", "object_key", "size", "ref_count")
+SELECT "content_md5", COALESCE("storage_platform_setting_id", ''), "object_key", MAX("size"), COUNT(*)
+FROM "file_info"
+WHERE "is_dir" = false
+  AND "content_md5" IS NOT NULL AND "content_md5" <> ''
+  AND "object_key" IS NOT NULL AND "object_key" <> ''
+GROUP BY "content_md5", "storage_platform_setting_id", "object_key"
+ON CONFLICT ("hash", "storage_platform_setting_id") DO NOTHING;
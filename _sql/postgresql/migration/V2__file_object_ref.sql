@@ -0,0 +1,36 @@
+-- 物理对象引用计数表
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+-- 依赖 V1 中创建的 file_info.object_key 索引
+
+-- ----------------------------
+-- Table structure for file_object_ref
+-- ----------------------------
+CREATE TABLE IF NOT EXISTS "file_object_ref" (
+                                     "id" BIGSERIAL NOT NULL,
+                                     "storage_platform_setting_id" VARCHAR(128) NOT NULL DEFAULT '',
+                                     "object_key" VARCHAR(255) NOT NULL,
+                                     "ref_count" INTEGER NOT NULL DEFAULT 0,
+                                     "created_at" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     "updated_at" TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+                                     PRIMARY KEY ("id")
+);
+
+CREATE UNIQUE INDEX IF NOT EXISTS "uk_file_object_ref_platform_object_key" ON "file_object_ref" ("storage_platform_setting_id", "object_key");
+CREATE INDEX IF NOT EXISTS "idx_file_object_ref_ref_count" ON "file_object_ref" ("ref_count", "id");
+
+COMMENT ON TABLE "file_object_ref" IS '物理对象引用计数表';
+COMMENT ON COLUMN "file_object_ref"."id" IS '主键ID';
+COMMENT ON COLUMN "file_object_ref"."storage_platform_setting_id" IS '存储平台配置ID，本地存储为空字符串';
+COMMENT ON COLUMN "file_object_ref"."object_key" IS '对象key';
+COMMENT ON COLUMN "file_object_ref"."ref_count" IS '引用该对象的文件记录数，0表示等待回收';
+COMMENT ON COLUMN "file_object_ref"."created_at" IS '创建时间';
+COMMENT ON COLUMN "file_object_ref"."updated_at" IS '更新时间';
+
+-- 由现有文件记录回填引用计数：每个 (存储平台, 对象key) 的引用数为引用该对象的文件记录数（含回收站）
+INSERT INTO "file_object_ref" ("storage_platform_setting_id", "object_key", "ref_count")
+SELECT COALESCE("storage_platform_setting_id", ''), "object_key", COUNT(*)
+FROM "file_info"
+WHERE "is_dir" = false
+  AND "object_key" IS NOT NULL AND "object_key" <> ''
+GROUP BY COALESCE("storage_platform_setting_id", ''), "object_key"
+ON CONFLICT ("storage_platform_setting_id", "object_key") DO NOTHING;
@@ -0,0 +1,25 @@
+-- 文件树物化路径
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+-- 索引使用 varchar_pattern_ops，前缀 LIKE 在任意排序规则下都能走索引范围扫描
+
+ALTER TABLE "file_info" ADD COLUMN IF NOT EXISTS "path" VARCHAR(2048) DEFAULT NULL;
+COMMENT ON COLUMN "file_info"."path" IS '物化路径：/祖先ID/.../自身ID/';
+CREATE INDEX IF NOT EXISTS "idx_file_info_path" ON "file_info" ("path" varchar_pattern_ops);
+
+-- 由 parent_id 递归回填路径
+WITH RECURSIVE "tree" ("id", "path") AS (
+    SELECT "id", CAST('/' || "id" || '/' AS VARCHAR(2048))
+    FROM "file_info"
+    WHERE "parent_id" IS NULL
+    UNION ALL
+    SELECT c."id", CAST(t."path" || c."id" || '/' AS VARCHAR(2048))
+    FROM "file_info" c
+    JOIN "tree" t ON c."parent_id" = t."id"
+)
+UPDATE "file_info" f
+SET "path" = "tree"."path"
+FROM "tree"
+WHERE f."id" = "tree"."id";
+
+-- 父目录已不存在的孤儿记录按根节点处理
+UPDATE "file_info" SET "path" = '/' || "id" || '/' WHERE "path" IS NULL;
@@ -0,0 +1,28 @@
+-- 目录聚合计数
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+-- 依赖 V3 中创建的 file_info.path
+
+ALTER TABLE "file_info" ADD COLUMN IF NOT EXISTS "total_size" BIGINT NOT NULL DEFAULT 0;
+ALTER TABLE "file_info" ADD COLUMN IF NOT EXISTS "file_count" INTEGER NOT NULL DEFAULT 0;
+ALTER TABLE "file_info" ADD COLUMN IF NOT EXISTS "folder_count" INTEGER NOT NULL DEFAULT 0;
+COMMENT ON COLUMN "file_info"."total_size" IS '目录聚合：子孙文件总大小';
+COMMENT ON COLUMN "file_info"."file_count" IS '目录聚合：子孙文件数';
+COMMENT ON COLUMN "file_info"."folder_count" IS '目录聚合：子孙文件夹数';
+
+-- 按物化路径回填目录聚合，只统计未删除的子孙
+UPDATE "file_info" d
+SET "total_size" = a."total_size",
+    "file_count" = a."file_count",
+    "folder_count" = a."folder_count"
+FROM (
+    SELECT p."id",
+           COALESCE(SUM(CASE WHEN NOT c."is_dir" THEN c."size" ELSE 0 END), 0) AS "total_size",
+           SUM(CASE WHEN NOT c."is_dir" THEN 1 ELSE 0 END) AS "file_count",
+           SUM(CASE WHEN c."is_dir" THEN 1 ELSE 0 END) AS "folder_count"
+    FROM "file_info" p
+    JOIN "file_info" c ON c."path" LIKE p."path" || '%' AND c."id" <> p."id"
+    WHERE p."is_dir"
+      AND NOT COALESCE(c."is_deleted", false)
+    GROUP BY p."id"
+) a
+WHERE d."id" = a."id";
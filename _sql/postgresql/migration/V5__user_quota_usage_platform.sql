@@ -0,0 +1,34 @@
+-- 用户存储用量按存储平台统计
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+-- storage_used 改为字节数，每个用户在每个存储平台一行，由 Redis 实时计数定期刷写
+
+ALTER TABLE "user_quota_usage" ADD COLUMN IF NOT EXISTS "storage_platform_setting_id" VARCHAR(128) NOT NULL DEFAULT '';
+ALTER TABLE "user_quota_usage" ALTER COLUMN "storage_used" TYPE BIGINT;
+ALTER TABLE "user_quota_usage" ALTER COLUMN "storage_used" SET DEFAULT 0;
+ALTER TABLE "user_quota_usage" ALTER COLUMN "files_count" SET DEFAULT 0;
+ALTER TABLE "user_quota_usage" ALTER COLUMN "bandwidth_used_month" SET DEFAULT 0;
+COMMENT ON COLUMN "user_quota_usage"."storage_platform_setting_id" IS '存储平台配置ID，本地存储为空字符串';
+COMMENT ON COLUMN "user_quota_usage"."storage_used" IS '已使用存储(字节)';
+
+-- 旧数据未按平台区分且单位不同，只重置存储用量列后按 file_info 重新汇总，带宽统计保留
+-- 旧表没有唯一约束，同一用户有多行时保留最新一行
+DELETE FROM "user_quota_usage" "u"
+    USING "user_quota_usage" "k"
+WHERE "k"."user_id" = "u"."user_id" AND "k"."id" > "u"."id";
+
+UPDATE "user_quota_usage" SET "storage_used" = 0, "files_count" = 0;
+
+CREATE UNIQUE INDEX IF NOT EXISTS "uk_user_quota_usage_user_platform" ON "user_quota_usage" ("user_id", "storage_platform_setting_id");
+
+-- 回收站中未彻底删除的文件仍计入用量
+INSERT INTO "user_quota_usage" ("user_id", "storage_platform_setting_id", "storage_used", "files_count",
+                                "bandwidth_used_month", "last_calculated_at", "updated_at")
+SELECT "user_id", COALESCE("storage_platform_setting_id", ''), COALESCE(SUM("size"), 0), COUNT(*), 0, NOW(), NOW()
+FROM "file_info"
+WHERE NOT "is_dir"
+GROUP BY "user_id", COALESCE("storage_platform_setting_id", '')
+ON CONFLICT ("user_id", "storage_platform_setting_id") DO UPDATE
+    SET "storage_used"       = EXCLUDED."storage_used",
+        "files_count"        = EXCLUDED."files_count",
+        "last_calculated_at" = EXCLUDED."last_calculated_at",
+        "updated_at"         = EXCLUDED."updated_at";
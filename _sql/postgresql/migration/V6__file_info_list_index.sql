@@ -0,0 +1,10 @@
+-- 文件列表游标分页复合索引
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+-- 列表按目录、文件两段查询，每段为 is_dir 等值条件下按 (排序键, id) 扫描
+
+-- 修改时间为空的历史数据按上传时间回填，保证同一段内排序键均不为空
+UPDATE "file_info" SET "update_time" = "upload_time" WHERE "update_time" IS NULL;
+
+CREATE INDEX IF NOT EXISTS "idx_file_info_list_update_time" ON "file_info" ("user_id", "parent_id", "is_dir", "update_time", "id");
+CREATE INDEX IF NOT EXISTS "idx_file_info_list_display_name" ON "file_info" ("user_id", "parent_id", "is_dir", "display_name", "id");
+CREATE INDEX IF NOT EXISTS "idx_file_info_list_size" ON "file_info" ("user_id", "parent_id", "is_dir", "size", "id");
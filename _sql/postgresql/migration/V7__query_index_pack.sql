@@ -0,0 +1,25 @@
+-- 热点查询复合索引与 content_md5 定长化
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+-- 索引按实际查询条件设计，列表分页索引见 V6
+
+-- content_md5 只保存32位十六进制MD5，非法值置空后改为定长列
+UPDATE "file_info" SET "content_md5" = NULL
+WHERE "content_md5" IS NOT NULL AND CHAR_LENGTH("content_md5") <> 32;
+ALTER TABLE "file_info" ALTER COLUMN "content_md5" TYPE CHAR(32) USING LOWER("content_md5");
+
+-- 首页文件/目录计数（覆盖索引）、回收站列表：user_id + 平台 + is_deleted
+CREATE INDEX IF NOT EXISTS "idx_file_info_user_platform_deleted" ON "file_info" ("user_id", "storage_platform_setting_id", "is_deleted", "is_dir");
+-- 最近使用：user_id + is_dir 等值，按 last_access_time 倒序取前20条
+CREATE INDEX IF NOT EXISTS "idx_file_info_user_recent" ON "file_info" ("user_id", "is_dir", "last_access_time");
+-- 回收站过期清理：is_deleted 等值，deleted_time 范围
+CREATE INDEX IF NOT EXISTS "idx_file_info_deleted_time" ON "file_info" ("is_deleted", "deleted_time");
+
+-- 我的分享列表：user_id 等值，按创建时间倒序
+CREATE INDEX IF NOT EXISTS "idx_file_shares_user_created" ON "file_shares" ("user_id", "created_at");
+
+-- 分享访问记录：share_id 等值，按访问时间排序
+CREATE INDEX IF NOT EXISTS "idx_file_share_access_record_share_time" ON "file_share_access_record" ("share_id", "access_time");
+
+-- 传输列表：user_id + 平台等值，按创建时间排序；原 user_id 单列索引是其前缀，一并删除
+CREATE INDEX IF NOT EXISTS "idx_file_transfer_task_user_platform_created" ON "file_transfer_task" ("user_id", "storage_platform_setting_id", "created_at");
+DROP INDEX IF EXISTS "idx_user_id";
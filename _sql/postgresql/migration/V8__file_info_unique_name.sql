@@ -0,0 +1,25 @@
+-- 同级目录名称唯一索引
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+-- 同一用户、同一存储平台、同一父目录下，未删除的同类型（文件/目录）名称唯一；
+-- 平台和父目录为空时按空串参与唯一约束，已删除记录不参与（回收站恢复时重新分配名称）
+
+-- 历史重复名称保留最早的一条，其余按 名称(ID前8位).扩展名 重命名
+UPDATE "file_info" f
+SET "display_name" = CASE
+    WHEN NOT f."is_dir" AND POSITION('.' IN f."display_name") > 0 THEN
+        LEFT(REGEXP_REPLACE(f."display_name", '\.[^.]*$', ''), 100) || '(' || LEFT(f."id", 8) || ')'
+            || LEFT(SUBSTRING(f."display_name" FROM '\.[^.]*$'), 17)
+    ELSE LEFT(f."display_name", 100) || '(' || LEFT(f."id", 8) || ')'
+END
+FROM (SELECT "id",
+             ROW_NUMBER() OVER (
+                 PARTITION BY "user_id", COALESCE("storage_platform_setting_id", ''), COALESCE("parent_id", ''),
+                     "is_dir", "display_name"
+                 ORDER BY "upload_time", "id") AS rn
+      FROM "file_info"
+      WHERE "is_deleted" = false) d
+WHERE f."id" = d."id" AND d.rn > 1;
+
+CREATE UNIQUE INDEX IF NOT EXISTS "uk_file_info_sibling_name" ON "file_info"
+    ("user_id", COALESCE("storage_platform_setting_id", ''), COALESCE("parent_id", ''), "is_dir", "display_name")
+    WHERE "is_deleted" = false;
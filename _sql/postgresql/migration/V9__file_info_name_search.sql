@@ -0,0 +1,7 @@
+-- 文件名三元组搜索索引
+-- 适用于已部署的 free-fs_pg.sql 库，新装环境直接使用 free-fs_pg.sql 即可
+-- GIN 三元组索引服务 ILIKE '%kw%' 包含匹配与 <% 相似匹配，需要 pg_trgm 扩展（创建扩展需要相应权限）
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS "idx_file_info_name_trgm" ON "file_info"
+    USING gin ("original_name" gin_trgm_ops, "display_name" gin_trgm_ops);
@@ -0,0 +1,86 @@
+package com.xddcodec.fs.fsadmin;
+
+import cn.hutool.core.util.IdUtil;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.search.FileSearchEngineRegistry;
+import com.xddcodec.fs.file.search.FileSearchMode;
+import com.xddcodec.fs.file.search.MysqlNgramFileSearchEngine;
+import com.xddcodec.fs.file.service.FileInfoService;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.CsvSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+
+/**
+ * 文件名搜索测试
+ * 关键词的 ngram 分词包含英文停用词（如 "data" 中的 "a"、"image" 中的 "i"）时仍应命中，
+ * 用于发现全文索引建立时未关闭 InnoDB 默认停用词表
+ * 全文索引只在事务提交后可见，测试数据直接提交并在结束时删除
+ * 需要连接已执行全部迁移的数据库，运行方式：mvn test -Dfs.integration-test=true
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "fs.integration-test", matches = "true")
+class FileNameSearchTests {
+
+    @Autowired
+    private FileInfoService fileInfoService;
+
+    @Autowired
+    private FileSearchEngineRegistry fileSearchEngineRegistry;
+
+    @ParameterizedTest(name = "{1} -> {0}")
+    @CsvSource({
+            "data-report.txt, data",
+            "image_001.png, image",
+            "ordinary.txt, ordinary"
+    })
+    void keywordContainingStopwordShouldMatch(String fileName, String keyword) {
+        assumeTrue(MysqlNgramFileSearchEngine.NAME.equals(fileSearchEngineRegistry.getCurrent().getName()),
+                "仅 MySQL ngram 全文索引存在停用词问题");
+        String userId = "search-test-" + IdUtil.fastSimpleUUID();
+        FileInfo file = newFile(userId, fileName);
+        fileInfoService.save(file);
+        try {
+            QueryWrapper wrapper = new QueryWrapper()
+                    .select("fi.id")
+                    .from(FILE_INFO.as("fi"))
+                    .where(FILE_INFO.USER_ID.eq(userId));
+            fileSearchEngineRegistry.getCurrent().applyKeyword(wrapper, keyword, FileSearchMode.CONTAINS);
+            List<FileInfo> found = fileInfoService.list(wrapper);
+            assertEquals(1, found.size(), "关键词 [" + keyword + "] 未命中文件 [" + fileName + "]");
+            assertEquals(file.getId(), found.get(0).getId());
+        } finally {
+            fileInfoService.removeById(file.getId());
+        }
+    }
+
+    private FileInfo newFile(String userId, String fileName) {
+        String fileId = IdUtil.fastSimpleUUID();
+        LocalDateTime now = LocalDateTime.now();
+        FileInfo file = new FileInfo();
+        file.setId(fileId);
+        file.setObjectKey("search-test/" + fileId);
+        file.setOriginalName(fileName);
+        file.setDisplayName(fileName);
+        file.setSize(0L);
+        file.setIsDir(false);
+        file.setPath("/" + fileId + "/");
+        file.setUserId(userId);
+        file.setUploadTime(now);
+        file.setUpdateTime(now);
+        file.setIsDeleted(false);
+        return file;
+    }
+}
@@ -0,0 +1,89 @@
+package com.xddcodec.fs.fsadmin;
+
+import cn.hutool.core.util.IdUtil;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.xddcodec.fs.file.domain.FileContentHash;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.FileObjectRef;
+import com.xddcodec.fs.file.domain.FileTransferTask;
+import com.xddcodec.fs.file.enums.TransferTaskStatus;
+import com.xddcodec.fs.file.enums.TransferTaskType;
+import com.xddcodec.fs.file.service.FileContentHashService;
+import com.xddcodec.fs.file.service.FileObjectRefService;
+import com.xddcodec.fs.file.service.FileUploadCompletionService;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+
+import static com.xddcodec.fs.file.domain.table.FileObjectRefTableDef.FILE_OBJECT_REF;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+
+/**
+ * 跨用户秒传测试
+ * 两个用户上传相同内容：第一个用户合并后登记内容哈希，第二个用户秒传共享同一物理对象，
+ * 物理对象引用计数与内容哈希引用计数都等于共享的文件记录数
+ * 需要连接已执行全部迁移的数据库与 Redis，测试数据随事务回滚，运行方式：mvn test -Dfs.integration-test=true
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@SpringBootTest
+@Transactional
+@EnabledIfSystemProperty(named = "fs.integration-test", matches = "true")
+class InstantUploadSharingTests {
+
+    @Autowired
+    private FileUploadCompletionService fileUploadCompletionService;
+
+    @Autowired
+    private FileContentHashService fileContentHashService;
+
+    @Autowired
+    private FileObjectRefService fileObjectRefService;
+
+    @Test
+    void secondUserSharesObjectUploadedByFirstUser() {
+        String md5 = IdUtil.fastSimpleUUID();
+
+        FileTransferTask first = newUploadTask("sharing-test-user-a", md5);
+        fileObjectRefService.acquire(null, first.getObjectKey());
+        FileInfo firstFile = fileUploadCompletionService.completeMerge(first, 1);
+
+        FileContentHash contentHash = fileContentHashService.findByHash(md5, null);
+        assertNotNull(contentHash, "合并后应登记内容哈希");
+        assertEquals(first.getObjectKey(), contentHash.getObjectKey());
+
+        FileTransferTask second = newUploadTask("sharing-test-user-b", md5);
+        FileInfo secondFile = fileUploadCompletionService.completeQuickUpload(second, contentHash.getObjectKey(), md5);
+        assertNotNull(secondFile, "第二个用户应秒传成功");
+        assertEquals("sharing-test-user-b", secondFile.getUserId());
+        assertEquals(firstFile.getObjectKey(), secondFile.getObjectKey());
+
+        FileObjectRef ref = fileObjectRefService.getOne(new QueryWrapper()
+                .where(FILE_OBJECT_REF.STORAGE_PLATFORM_SETTING_ID.eq(""))
+                .and(FILE_OBJECT_REF.OBJECT_KEY.eq(first.getObjectKey())));
+        assertEquals(2, ref.getRefCount());
+        assertEquals(2, fileContentHashService.findByHash(md5, null).getRefCount());
+    }
+
+    private FileTransferTask newUploadTask(String userId, String md5) {
+        FileTransferTask task = new FileTransferTask();
+        task.setTaskId(IdUtil.fastSimpleUUID());
+        task.setUserId(userId);
+        task.setFileName("sharing-test.txt");
+        task.setSuffix("txt");
+        task.setMimeType("text/plain");
+        task.setFileSize(1024L);
+        task.setChunkSize(1024L);
+        task.setTotalChunks(1);
+        task.setUploadedChunks(0);
+        task.setTaskType(TransferTaskType.upload);
+        task.setObjectKey("sharing-test/" + IdUtil.fastSimpleUUID() + ".txt");
+        task.setFileMd5(md5);
+        task.setStatus(TransferTaskStatus.uploading);
+        return task;
+    }
+}
@@ -0,0 +1,119 @@
+package com.xddcodec.fs.fsadmin;
+
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.junit.jupiter.params.ParameterizedTest;
+import org.junit.jupiter.params.provider.Arguments;
+import org.junit.jupiter.params.provider.MethodSource;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.junit.jupiter.api.Assertions.fail;
+
+/**
+ * 热点查询执行计划回归测试
+ * 对与业务 QueryWrapper 等价的 SQL 执行 EXPLAIN，任一查询退化为全表扫描即失败：
+ * 1. MySQL：不存在可用索引（possible_keys 为空），或估算行数较多时仍选择 ALL
+ * 2. PostgreSQL：关闭顺序扫描后计划中仍出现 Seq Scan，说明没有索引能服务该查询
+ * 需要连接已执行全部迁移的数据库，运行方式：mvn test -Dfs.query-plan-test=true
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/26
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "fs.query-plan-test", matches = "true")
+class QueryPlanRegressionTests {
+
+    /**
+     * MySQL 估算行数达到该值仍全表扫描时判定为退化，数据量很小时优化器可能合理地选择全表扫描
+     */
+    private static final long MYSQL_SCAN_ROWS_THRESHOLD = 1000;
+
+    @Autowired
+    private DataSource dataSource;
+
+    static Stream<Arguments> hotQueries() {
+        return Stream.of(
+                Arguments.of("文件列表分页", "SELECT id FROM file_info WHERE user_id = 'u' AND is_deleted = false "
+                        + "AND storage_platform_setting_id IS NULL AND parent_id IS NULL AND is_dir = true "
+                        + "ORDER BY update_time DESC, id DESC LIMIT 101"),
+                Arguments.of("文件列表按名称分页", "SELECT id FROM file_info WHERE user_id = 'u' AND is_deleted = false "
+                        + "AND storage_platform_setting_id IS NULL AND parent_id = 'p' AND is_dir = false "
+                        + "ORDER BY display_name ASC, id ASC LIMIT 101"),
+                Arguments.of("同名检测", "SELECT id FROM file_info WHERE user_id = 'u' AND is_dir = false "
+                        + "AND display_name = 'a(4).txt' AND is_deleted = false AND parent_id = 'p' "
+                        + "AND storage_platform_setting_id IS NULL LIMIT 1"),
+                Arguments.of("最近使用", "SELECT id FROM file_info WHERE user_id = 'u' AND is_deleted = false "
+                        + "AND storage_platform_setting_id IS NULL AND is_dir = false "
+                        + "ORDER BY last_access_time DESC LIMIT 20"),
+                Arguments.of("首页计数", "SELECT is_dir, COUNT(*) FROM file_info WHERE user_id = 'u' "
+                        + "AND storage_platform_setting_id IS NULL AND is_deleted = false GROUP BY is_dir"),
+                Arguments.of("回收站列表", "SELECT id FROM file_info WHERE user_id = 'u' AND is_deleted = true "
+                        + "AND storage_platform_setting_id = 's' ORDER BY deleted_time DESC"),
+                Arguments.of("回收站过期清理", "SELECT id FROM file_info WHERE is_deleted = true "
+                        + "AND deleted_time < '2026-01-01 00:00:00' ORDER BY deleted_time ASC"),
+                Arguments.of("子树查询", "SELECT id FROM file_info WHERE path LIKE '/a/%'"),
+                Arguments.of("秒传对象查询", "SELECT id FROM file_info WHERE object_key = 'k' AND user_id = 'u'"),
+                Arguments.of("我的分享", "SELECT id FROM file_shares WHERE user_id = 'u' ORDER BY created_at DESC"),
+                Arguments.of("分享访问记录", "SELECT id FROM file_share_access_record WHERE share_id = 's' "
+                        + "ORDER BY access_time DESC"),
+                Arguments.of("传输列表", "SELECT id FROM file_transfer_task WHERE user_id = 'u' "
+                        + "AND storage_platform_setting_id = 's' ORDER BY created_at ASC")
+        );
+    }
+
+    @ParameterizedTest(name = "{0}")
+    @MethodSource("hotQueries")
+    void hotQueryShouldUseIndex(String name, String sql) throws Exception {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName().toLowerCase();
+            if (product.contains("postgresql")) {
+                assertPostgresqlPlan(connection, name, sql);
+            } else if (product.contains("mysql")) {
+                assertMysqlPlan(connection, name, sql);
+            } else {
+                fail("不支持的数据库: " + product);
+            }
+        }
+    }
+
+    private void assertMysqlPlan(Connection connection, String name, String sql) throws Exception {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+            while (rs.next()) {
+                String table = rs.getString("table");
+                String type = rs.getString("type");
+                String possibleKeys = rs.getString("possible_keys");
+                long rows = rs.getLong("rows");
+                assertTrue(possibleKeys != null && !possibleKeys.isEmpty(),
+                        name + ": 表 " + table + " 没有可用索引");
+                assertTrue(!"ALL".equals(type) || rows < MYSQL_SCAN_ROWS_THRESHOLD,
+                        name + ": 表 " + table + " 全表扫描, 估算行数 " + rows);
+            }
+        }
+    }
+
+    private void assertPostgresqlPlan(Connection connection, String name, String sql) throws Exception {
+        List<String> plan = new ArrayList<>();
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("SET enable_seqscan = off");
+            try (ResultSet rs = statement.executeQuery("EXPLAIN " + sql)) {
+                while (rs.next()) {
+                    plan.add(rs.getString(1));
+                }
+            } finally {
+                statement.execute("RESET enable_seqscan");
+            }
+        }
+        assertTrue(plan.stream().noneMatch(line -> line.contains("Seq Scan")),
+                name + ": 出现顺序扫描\n" + String.join("\n", plan));
+    }
+}
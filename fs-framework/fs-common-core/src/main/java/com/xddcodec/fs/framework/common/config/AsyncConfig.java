@@ -57,5 +57,63 @@ public class AsyncConfig {
 
         return executor;
     }
-}
 
+    /**
+     * 无引用物理对象回收线程池
+     * 单线程且最多排队一次唤醒，回收本身会处理排队期间新增的对象
+     */
+    @Bean("objectReapExecutor")
+    public ThreadPoolTaskExecutor objectReapExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setThreadNamePrefix("object-reap-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.AbortPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 物理对象删除线程池
+     * 回收器按存储平台并行删除，队列满时由回收线程执行，形成背压
+     */
+    @Bean("objectDeleteExecutor")
+    public ThreadPoolTaskExecutor objectDeleteExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(16);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(256);
+        executor.setThreadNamePrefix("object-delete-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        return executor;
+    }
+
+    /**
+     * 同步存储插件异步适配线程池
+     * 没有异步客户端的存储插件在此执行远程调用，队列满时由调用线程执行，形成背压
+     */
+    @Bean("storageBlockingExecutor")
+    public ThreadPoolTaskExecutor storageBlockingExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        int processors = Runtime.getRuntime().availableProcessors();
+
+        executor.setCorePoolSize(processors * 2);
+        executor.setMaxPoolSize(processors * 8);
+        executor.setQueueCapacity(500);
+        executor.setThreadNamePrefix("storage-blocking-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        executor.initialize();
+
+        return executor;
+    }
+}
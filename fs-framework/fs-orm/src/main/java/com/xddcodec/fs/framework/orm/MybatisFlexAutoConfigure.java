@@ -16,11 +16,15 @@ import com.xddcodec.fs.framework.orm.listener.EntityInsertListener;
 import com.xddcodec.fs.framework.orm.listener.EntityUpdateListener;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.ibatis.logging.stdout.StdOutImpl;
+import org.apache.ibatis.mapping.DatabaseIdProvider;
+import org.apache.ibatis.mapping.VendorDatabaseIdProvider;
 import org.mybatis.spring.annotation.MapperScan;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
+import java.util.Properties;
+
 /**
  * Mybatis-Flex自动配置
  *
@@ -52,6 +56,19 @@ public class MybatisFlexAutoConfigure implements ConfigurationCustomizer, MyBati
         return decipher;
     }
 
+    /**
+     * 数据库厂商标识，方言相关的语句（如 upsert）通过 databaseId 区分 MySQL 与 PostgreSQL
+     */
+    @Bean
+    public DatabaseIdProvider databaseIdProvider() {
+        Properties properties = new Properties();
+        properties.setProperty("MySQL", "mysql");
+        properties.setProperty("PostgreSQL", "postgresql");
+        VendorDatabaseIdProvider provider = new VendorDatabaseIdProvider();
+        provider.setProperties(properties);
+        return provider;
+    }
+
     @Override
     public void customize(FlexConfiguration configuration) {
         //mybatis实现的打印详细sql及返回结果到控制台，便于调试
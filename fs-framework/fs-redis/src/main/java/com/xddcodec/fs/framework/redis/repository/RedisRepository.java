@@ -3,10 +3,13 @@ package com.xddcodec.fs.framework.redis.repository;
 import com.xddcodec.fs.framework.common.utils.JsonUtils;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.redis.core.RedisCallback;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 import org.springframework.util.CollectionUtils;
 
+import java.nio.charset.StandardCharsets;
 import java.util.Collection;
 import java.util.List;
 import java.util.Map;
@@ -461,6 +464,17 @@ public class RedisRepository {
             return 0L;
         }
     }
+
+    /**
+     * 随机弹出set中的多个值
+     *
+     * @param key   键
+     * @param count 数量
+     * @return 弹出的值
+     */
+    public List<Object> sPop(String key, long count) {
+        return redisTemplate.opsForSet().pop(key, count);
+    }
     //===============================list=================================
 
     /**
@@ -622,4 +636,86 @@ public class RedisRepository {
         }
     }
 
+    /**
+     * 设置位图指定偏移量的值
+     *
+     * @param key    键
+     * @param offset 偏移量
+     * @param value  值
+     * @return 该偏移量原来的值
+     */
+    public Boolean setBit(String key, long offset, boolean value) {
+        return redisTemplate.opsForValue().setBit(key, offset, value);
+    }
+
+    /**
+     * 获取位图指定偏移量的值
+     *
+     * @param key    键
+     * @param offset 偏移量
+     * @return 值
+     */
+    public Boolean getBit(String key, long offset) {
+        return redisTemplate.opsForValue().getBit(key, offset);
+    }
+
+    /**
+     * 统计位图中值为1的位数
+     *
+     * @param key 键
+     * @return 位数
+     */
+    public Long bitCount(String key) {
+        return redisTemplate.execute((RedisCallback<Long>) connection ->
+                connection.stringCommands().bitCount(rawKey(key)));
+    }
+
+    /**
+     * 获取原始字节值（不经过 value 序列化器，用于位图等二进制数据）
+     *
+     * @param key 键
+     * @return 原始字节，不存在时返回 null
+     */
+    public byte[] getBytes(String key) {
+        return redisTemplate.execute((RedisCallback<byte[]>) connection ->
+                connection.stringCommands().get(rawKey(key)));
+    }
+
+    private byte[] rawKey(String key) {
+        return key.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * 发布消息到频道
+     *
+     * @param channel 频道
+     * @param message 消息（使用 value 序列化器序列化）
+     */
+    public void publish(String channel, Object message) {
+        redisTemplate.convertAndSend(channel, message);
+    }
+
+    /**
+     * 反序列化频道消息体
+     *
+     * @param body 消息体
+     * @return 消息
+     */
+    public Object deserializeMessage(byte[] body) {
+        return redisTemplate.getValueSerializer().deserialize(body);
+    }
+
+    /**
+     * 执行 Lua 脚本
+     * 参数与字符串类型的返回值使用 value 序列化器处理，整数返回值原样返回
+     *
+     * @param script 脚本
+     * @param keys   键列表
+     * @param args   参数
+     * @return 脚本返回值
+     */
+    public <T> T execute(RedisScript<T> script, List<String> keys, Object... args) {
+        return redisTemplate.execute(script, keys, args);
+    }
+
 }
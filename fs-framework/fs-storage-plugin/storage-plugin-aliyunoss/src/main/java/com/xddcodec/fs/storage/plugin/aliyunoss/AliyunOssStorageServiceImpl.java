@@ -1,5 +1,6 @@
 package com.xddcodec.fs.storage.plugin.aliyunoss;
 
+import cn.hutool.core.collection.ListUtil;
 import com.aliyun.oss.ClientBuilderConfiguration;
 import com.aliyun.oss.OSS;
 import com.aliyun.oss.OSSClientBuilder;
@@ -12,6 +13,7 @@ import com.xddcodec.fs.storage.plugin.aliyunoss.config.AliyunOssConfig;
 import com.xddcodec.fs.storage.plugin.core.AbstractStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.annotation.StoragePlugin;
 import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
+import com.xddcodec.fs.storage.plugin.core.utils.StorageUtils;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.InputStream;
@@ -34,6 +36,16 @@ import java.util.*;
 )
 public class AliyunOssStorageServiceImpl extends AbstractStorageOperationService {
 
+    /**
+     * 单次 DeleteObjects / ListObjectsV2 请求的对象数上限
+     */
+    private static final int MAX_BATCH_KEYS = 1000;
+
+    /**
+     * 同一目录下待检查对象达到该数量时改为列举目录，否则逐个检查
+     */
+    private static final int LIST_EXIST_THRESHOLD = 16;
+
     private OSS ossClient;
 
     private String bucketName;
@@ -193,6 +205,7 @@ public class AliyunOssStorageServiceImpl extends AbstractStorageOperationService
         } catch (OSSException e) {
             if ("NoSuchKey".equals(e.getErrorCode())) {
                 log.debug("{} 文件不存在，视为删除成功: objectKey={}", getLogPrefix(), objectKey);
+                return;
             }
             log.error("{} 文件删除失败: objectKey={}, errorCode={}, errorMessage={}",
                     getLogPrefix(), objectKey, e.getErrorCode(), e.getErrorMessage(), e);
@@ -204,6 +217,25 @@ public class AliyunOssStorageServiceImpl extends AbstractStorageOperationService
         }
     }
 
+    @Override
+    public Set<String> deleteFiles(Collection<String> objectKeys) {
+        ensureNotPrototype();
+        Set<String> deleted = new HashSet<>();
+        for (List<String> batch : ListUtil.partition(new ArrayList<>(objectKeys), MAX_BATCH_KEYS)) {
+            try {
+                // 非 quiet 模式返回删除成功的对象，OSS 对不存在的对象同样返回删除成功
+                DeleteObjectsResult result = ossClient.deleteObjects(
+                        new DeleteObjectsRequest(bucketName).withKeys(batch).withQuiet(false));
+                deleted.addAll(result.getDeletedObjects());
+                log.debug("{} 批量删除完成: 请求 {} 个, 成功 {} 个",
+                        getLogPrefix(), batch.size(), result.getDeletedObjects().size());
+            } catch (Exception e) {
+                log.error("{} 批量删除失败: count={}", getLogPrefix(), batch.size(), e);
+            }
+        }
+        return deleted;
+    }
+
     @Override
     public void rename(String objectKey, String newFileName) {
 
@@ -248,6 +280,60 @@ public class AliyunOssStorageServiceImpl extends AbstractStorageOperationService
         return ossClient.doesObjectExist(bucketName, objectKey);
     }
 
+    @Override
+    public Set<String> existFiles(Collection<String> objectKeys) {
+        ensureNotPrototype();
+        Set<String> existing = new HashSet<>();
+        StorageUtils.groupByDirectory(objectKeys).forEach((directory, keys) -> {
+            if (keys.size() < LIST_EXIST_THRESHOLD) {
+                keys.stream().filter(this::isFileExist).forEach(existing::add);
+            } else {
+                existing.addAll(listExisting(directory, keys));
+            }
+        });
+        return existing;
+    }
+
+    /**
+     * 列举目录判断对象是否存在，越过最大的待查对象后停止
+     */
+    private Set<String> listExisting(String directory, List<String> keys) {
+        Set<String> wanted = new HashSet<>(keys);
+        String firstKey = keys.get(0);
+        String lastKey = keys.get(keys.size() - 1);
+        Set<String> found = new HashSet<>();
+        try {
+            String continuationToken = null;
+            do {
+                ListObjectsV2Request request = new ListObjectsV2Request(bucketName)
+                        .withPrefix(directory)
+                        .withDelimiter("/")
+                        .withMaxKeys(MAX_BATCH_KEYS);
+                if (continuationToken != null) {
+                    request.setContinuationToken(continuationToken);
+                } else if (firstKey.length() > 1) {
+                    request.setStartAfter(firstKey.substring(0, firstKey.length() - 1));
+                }
+                ListObjectsV2Result result = ossClient.listObjectsV2(request);
+                String lastListed = null;
+                for (OSSObjectSummary summary : result.getObjectSummaries()) {
+                    lastListed = summary.getKey();
+                    if (wanted.contains(lastListed)) {
+                        found.add(lastListed);
+                    }
+                }
+                if (lastListed != null && lastListed.compareTo(lastKey) >= 0) {
+                    break;
+                }
+                continuationToken = result.isTruncated() ? result.getNextContinuationToken() : null;
+            } while (continuationToken != null);
+            return found;
+        } catch (Exception e) {
+            log.error("{} 批量检查文件存在失败: directory={}", getLogPrefix(), directory, e);
+            throw new StorageOperationException("阿里云OSS批量检查文件存在失败: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public String initiateMultipartUpload(String objectKey, String mimeType) {
         ensureNotPrototype();
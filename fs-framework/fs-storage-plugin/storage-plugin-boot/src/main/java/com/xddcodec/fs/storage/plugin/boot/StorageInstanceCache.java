@@ -1,26 +1,52 @@
 package com.xddcodec.fs.storage.plugin.boot;
 
 import com.google.common.util.concurrent.Striped;
+import com.xddcodec.fs.storage.plugin.boot.config.StorageInstanceCacheProperties;
 import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
 
 import java.io.IOException;
+import java.util.Comparator;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.Queue;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
 import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReentrantLock;
 import java.util.function.Supplier;
 
+/**
+ * 存储实例缓存
+ * 每个用户存储配置对应一个实例，实例持有客户端、连接池和线程，缓存按容量和空闲时间淘汰：
+ * 1. 超出容量时淘汰最久未使用的实例，空闲超时的实例由定时任务淘汰
+ * 2. 传输通过 acquire 持有租约，持有租约的实例不会被淘汰，失效后也要等租约归还才关闭
+ * 3. 短操作直接使用实例而不持有租约，淘汰或失效的实例距最后一次访问超过延迟关闭时间才关闭
+ * 4. 实例记录加载配置前的配置版本，收到更高版本的失效后旧版本实例视为过期，
+ *    失效前开始加载的旧配置不会在失效后被放回缓存
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
 @Slf4j
 @Component
+@RequiredArgsConstructor
 public class StorageInstanceCache {
 
+    private final StorageInstanceCacheProperties properties;
+
     /**
      * 主缓存：cacheKey -> 实例
      * cacheKey 格式：configId:platformIdentifier
      */
-    private final Map<String, IStorageOperationService> cache = new ConcurrentHashMap<>();
+    private final Map<String, CachedInstance> cache = new ConcurrentHashMap<>();
 
     /**
      * 反向索引：configId -> cacheKey
@@ -28,61 +54,135 @@ public class StorageInstanceCache {
      */
     private final Map<String, String> configIdToCacheKey = new ConcurrentHashMap<>();
 
+    /**
+     * 配置版本：configId -> 已收到的最高失效版本
+     */
+    private final Map<String, Long> configVersions = new ConcurrentHashMap<>();
+
+    /**
+     * 已移出缓存、等待关闭的实例
+     */
+    private final Queue<CachedInstance> retired = new ConcurrentLinkedQueue<>();
+
     private final Striped<Lock> locks = Striped.lock(128);
 
+    private final Lock evictionLock = new ReentrantLock();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final AtomicLong sizeEvictions = new AtomicLong();
+    private final AtomicLong idleEvictions = new AtomicLong();
+    private final AtomicLong invalidations = new AtomicLong();
+    private final AtomicLong closed = new AtomicLong();
+
     public IStorageOperationService get(String cacheKey) {
-        IStorageOperationService instance = cache.get(cacheKey);
-        if (instance != null) {
-            log.debug("缓存命中: cacheKey={}", cacheKey);
+        CachedInstance entry = currentEntry(cacheKey);
+        if (entry == null) {
+            misses.increment();
+            return null;
         }
-        return instance;
+        hits.increment();
+        entry.touch();
+        log.debug("缓存命中: cacheKey={}", cacheKey);
+        return entry.instance;
     }
 
     public void put(String cacheKey, IStorageOperationService instance) {
-        cache.put(cacheKey, instance);
+        putEntry(new CachedInstance(cacheKey, instance, configVersion(extractConfigId(cacheKey))));
+    }
 
-        // 维护反向索引
-        String configId = extractConfigId(cacheKey);
-        if (configId != null) {
-            configIdToCacheKey.put(configId, cacheKey);
-            log.debug("建立索引映射: configId={} -> cacheKey={}", configId, cacheKey);
-        }
+    public IStorageOperationService getOrCreate(String cacheKey, Supplier<IStorageOperationService> creator) {
+        return getOrCreate(cacheKey, configVersion(extractConfigId(cacheKey)), creator);
+    }
 
-        log.debug("放入缓存: cacheKey={}, 当前缓存数: {}", cacheKey, cache.size());
+    /**
+     * 获取或创建实例
+     *
+     * @param cacheKey 缓存键
+     * @param version  加载配置前读取的配置版本
+     * @param creator  实例创建器
+     * @return 存储实例
+     */
+    public IStorageOperationService getOrCreate(String cacheKey, long version,
+                                                Supplier<IStorageOperationService> creator) {
+        return getOrCreateEntry(cacheKey, version, creator).instance;
     }
 
-    public IStorageOperationService getOrCreate(String cacheKey, Supplier<IStorageOperationService> creator) {
-        IStorageOperationService instance = cache.get(cacheKey);
-        if (instance != null) {
-            return instance;
+    /**
+     * 获取或创建实例并持有租约
+     * 租约归还前实例不会被淘汰关闭，适用于分片上传、下载等持续时间较长的操作
+     *
+     * @param cacheKey 缓存键
+     * @param version  加载配置前读取的配置版本
+     * @param creator  实例创建器
+     * @return 租约，使用完毕后必须关闭
+     */
+    public StorageInstanceLease acquire(String cacheKey, long version, Supplier<IStorageOperationService> creator) {
+        while (true) {
+            CachedInstance entry = getOrCreateEntry(cacheKey, version, creator);
+            if (entry.tryRetain()) {
+                return new StorageInstanceLease(entry.instance, entry::release);
+            }
+            // 实例恰好在此期间被关闭（已移出缓存），重新获取
+        }
+    }
+
+    private CachedInstance getOrCreateEntry(String cacheKey, long version,
+                                            Supplier<IStorageOperationService> creator) {
+        CachedInstance entry = currentEntry(cacheKey);
+        if (entry != null) {
+            hits.increment();
+            entry.touch();
+            return entry;
         }
 
         Lock lock = locks.get(cacheKey);
         lock.lock();
         try {
-            instance = cache.get(cacheKey);
-            if (instance != null) {
-                return instance;
+            entry = currentEntry(cacheKey);
+            if (entry != null) {
+                hits.increment();
+                entry.touch();
+                return entry;
             }
+            misses.increment();
 
-            instance = creator.get();
+            entry = new CachedInstance(cacheKey, creator.get(), version);
 
-            // 使用 put 方法，自动维护索引
-            put(cacheKey, instance);
+            // 使用 putEntry 方法，自动维护索引
+            putEntry(entry);
 
             log.debug("实例创建并缓存: cacheKey={}", cacheKey);
-            return instance;
+            return entry;
 
         } finally {
             lock.unlock();
         }
     }
 
+    private void putEntry(CachedInstance entry) {
+        String cacheKey = entry.cacheKey;
+        CachedInstance previous = cache.put(cacheKey, entry);
+
+        // 维护反向索引
+        String configId = extractConfigId(cacheKey);
+        if (configId != null) {
+            configIdToCacheKey.put(configId, cacheKey);
+            log.debug("建立索引映射: configId={} -> cacheKey={}", configId, cacheKey);
+        }
+
+        if (previous != null && previous.instance != entry.instance) {
+            retire(previous);
+        }
+        log.debug("放入缓存: cacheKey={}, 当前缓存数: {}", cacheKey, cache.size());
+        evictOverflow(entry);
+    }
+
     /**
      * 根据 cacheKey 失效缓存
      */
     public void invalidate(String cacheKey) {
-        IStorageOperationService instance = cache.remove(cacheKey);
+        CachedInstance entry = cache.remove(cacheKey);
 
         // 同步移除反向索引
         String configId = extractConfigId(cacheKey);
@@ -91,14 +191,52 @@ public class StorageInstanceCache {
             log.debug("移除索引映射: configId={}", configId);
         }
 
-        if (instance != null) {
-            closeInstanceSafely(instance, cacheKey);
+        if (entry != null) {
+            invalidations.incrementAndGet();
+            retire(entry);
             log.info("缓存失效: cacheKey={}, 剩余缓存数: {}", cacheKey, cache.size());
         } else {
             log.debug("缓存中无实例需要失效: cacheKey={}", cacheKey);
         }
     }
 
+    /**
+     * 按版本失效配置的缓存实例
+     * 版本不高于已收到的版本时说明是乱序或重复的消息，直接忽略
+     *
+     * @param configId 配置ID
+     * @param version  配置版本
+     * @return true-已失效，false-消息过期被忽略
+     */
+    public boolean invalidateByConfigId(String configId, long version) {
+        while (true) {
+            Long current = configVersions.putIfAbsent(configId, version);
+            if (current == null) {
+                break;
+            }
+            if (current >= version) {
+                log.debug("忽略过期的配置失效: configId={}, version={}, current={}", configId, version, current);
+                return false;
+            }
+            if (configVersions.replace(configId, current, version)) {
+                break;
+            }
+        }
+        invalidateByConfigId(configId);
+        return true;
+    }
+
+    /**
+     * 获取配置当前版本，未收到过失效时为0
+     * 加载配置前读取，用于判断实例是否基于过期配置创建
+     *
+     * @param configId 配置ID
+     * @return 配置版本
+     */
+    public long configVersion(String configId) {
+        return configId != null ? configVersions.getOrDefault(configId, 0L) : 0L;
+    }
+
     /**
      * 根据 configId 失效缓存
      *
@@ -133,7 +271,7 @@ public class StorageInstanceCache {
     public void invalidateBatch(Iterable<String> cacheKeys) {
         int count = 0;
         for (String cacheKey : cacheKeys) {
-            IStorageOperationService instance = cache.remove(cacheKey);
+            CachedInstance entry = cache.remove(cacheKey);
 
             // 同步移除反向索引
             String configId = extractConfigId(cacheKey);
@@ -141,8 +279,9 @@ public class StorageInstanceCache {
                 configIdToCacheKey.remove(configId);
             }
 
-            if (instance != null) {
-                closeInstanceSafely(instance, cacheKey);
+            if (entry != null) {
+                invalidations.incrementAndGet();
+                retire(entry);
                 count++;
             }
         }
@@ -163,11 +302,12 @@ public class StorageInstanceCache {
         for (String configId : configIds) {
             String cacheKey = configIdToCacheKey.get(configId);
             if (cacheKey != null) {
-                IStorageOperationService instance = cache.remove(cacheKey);
+                CachedInstance entry = cache.remove(cacheKey);
                 configIdToCacheKey.remove(configId);
 
-                if (instance != null) {
-                    closeInstanceSafely(instance, cacheKey);
+                if (entry != null) {
+                    invalidations.incrementAndGet();
+                    retire(entry);
                     count++;
                 }
             }
@@ -178,14 +318,85 @@ public class StorageInstanceCache {
         }
     }
 
+    /**
+     * 清空缓存并立即关闭所有实例，包括仍持有租约的实例，仅用于应用关闭
+     */
     public void clear() {
-        log.warn("清空所有缓存，当前缓存数: {}", cache.size());
-        cache.forEach((cacheKey, instance) -> closeInstanceSafely(instance, cacheKey));
+        log.warn("清空所有缓存，当前缓存数: {}，等待关闭数: {}", cache.size(), retired.size());
+        cache.forEach((cacheKey, entry) -> closeInstanceSafely(entry.instance, cacheKey));
         cache.clear();
         configIdToCacheKey.clear();
+        CachedInstance entry;
+        while ((entry = retired.poll()) != null) {
+            if (entry.refCount.getAndSet(CachedInstance.CLOSED) != CachedInstance.CLOSED) {
+                closeInstanceSafely(entry.instance, entry.cacheKey);
+            }
+        }
         log.info("所有缓存已清空");
     }
 
+    /**
+     * 定时淘汰空闲实例，并关闭已淘汰且租约已归还的实例
+     */
+    @Scheduled(fixedDelayString = "${fs.storage.instance-cache.evict-interval:60000}")
+    public void evictIdle() {
+        long closedBefore = closed.get();
+        long now = System.currentTimeMillis();
+        int evicted = 0;
+        for (CachedInstance entry : cache.values()) {
+            if (entry.isIdle() && now - entry.lastAccess >= properties.getIdleTimeout()
+                    && cache.remove(entry.cacheKey, entry)) {
+                idleEvictions.incrementAndGet();
+                unindex(entry);
+                retire(entry);
+                evicted++;
+            }
+        }
+        // 容量淘汰时全部实例都在传输中的情况，在这里补充淘汰
+        evictOverflow(null);
+        closeRetired();
+        long closedNow = closed.get() - closedBefore;
+        if (evicted > 0 || closedNow > 0) {
+            log.info("存储实例空闲淘汰: 淘汰 {} 个，关闭 {} 个，{}", evicted, closedNow, getStats());
+        }
+    }
+
+    /**
+     * 获取缓存统计
+     */
+    public StorageInstanceCacheStats getStats() {
+        int activeLeases = 0;
+        for (CachedInstance entry : cache.values()) {
+            activeLeases += Math.max(entry.refCount.get(), 0);
+        }
+        for (CachedInstance entry : retired) {
+            activeLeases += Math.max(entry.refCount.get(), 0);
+        }
+        return StorageInstanceCacheStats.builder()
+                .size(cache.size())
+                .pendingClose(retired.size())
+                .hits(hits.sum())
+                .misses(misses.sum())
+                .sizeEvictions(sizeEvictions.get())
+                .idleEvictions(idleEvictions.get())
+                .invalidations(invalidations.get())
+                .closed(closed.get())
+                .activeLeases(activeLeases)
+                .build();
+    }
+
+    /**
+     * 根据 configId 获取已缓存的实例，不触发创建，也不计入访问
+     *
+     * @param configId 配置ID
+     * @return 缓存实例，不存在返回 null
+     */
+    public IStorageOperationService getByConfigId(String configId) {
+        String cacheKey = configIdToCacheKey.get(configId);
+        CachedInstance entry = cacheKey != null ? cache.get(cacheKey) : null;
+        return entry != null ? entry.instance : null;
+    }
+
     public int size() {
         return cache.size();
     }
@@ -201,6 +412,104 @@ public class StorageInstanceCache {
         return configIdToCacheKey.containsKey(configId);
     }
 
+    /**
+     * 超出容量时按最后访问时间淘汰没有租约的实例
+     * 其他线程正在淘汰时直接返回，不重复排序
+     *
+     * @param keep 刚放入的实例，不参与淘汰
+     */
+    private void evictOverflow(CachedInstance keep) {
+        int maxSize = properties.getMaxSize();
+        if (cache.size() <= maxSize || !evictionLock.tryLock()) {
+            return;
+        }
+        try {
+            List<CachedInstance> candidates = cache.values().stream()
+                    .filter(entry -> entry != keep && entry.isIdle())
+                    .sorted(Comparator.comparingLong(entry -> entry.lastAccess))
+                    .toList();
+            for (CachedInstance entry : candidates) {
+                if (cache.size() <= maxSize) {
+                    break;
+                }
+                if (cache.remove(entry.cacheKey, entry)) {
+                    sizeEvictions.incrementAndGet();
+                    unindex(entry);
+                    retire(entry);
+                    log.debug("超出容量淘汰实例: cacheKey={}", entry.cacheKey);
+                }
+            }
+            if (cache.size() > maxSize) {
+                log.warn("存储实例缓存超出容量且其余实例均在传输中: size={}, maxSize={}", cache.size(), maxSize);
+            }
+        } finally {
+            evictionLock.unlock();
+        }
+    }
+
+    /**
+     * 已移出缓存的实例进入待关闭队列，满足关闭条件时立即关闭
+     */
+    private void retire(CachedInstance entry) {
+        retired.add(entry);
+        if (tryClose(entry)) {
+            retired.remove(entry);
+        }
+    }
+
+    /**
+     * 获取未过期的缓存条目，基于旧版本配置创建的条目移出缓存并返回 null
+     */
+    private CachedInstance currentEntry(String cacheKey) {
+        CachedInstance entry = cache.get(cacheKey);
+        if (entry == null || entry.version >= configVersion(extractConfigId(cacheKey))) {
+            return entry;
+        }
+        if (cache.remove(cacheKey, entry)) {
+            invalidations.incrementAndGet();
+            unindex(entry);
+            retire(entry);
+            log.info("实例基于过期配置创建，已失效: cacheKey={}, version={}", cacheKey, entry.version);
+        }
+        return null;
+    }
+
+    /**
+     * 淘汰时移除反向索引（失效方法自行维护索引）
+     */
+    private void unindex(CachedInstance entry) {
+        String configId = extractConfigId(entry.cacheKey);
+        if (configId != null) {
+            configIdToCacheKey.remove(configId, entry.cacheKey);
+        }
+    }
+
+    private void closeRetired() {
+        Iterator<CachedInstance> iterator = retired.iterator();
+        while (iterator.hasNext()) {
+            if (tryClose(iterator.next())) {
+                iterator.remove();
+            }
+        }
+    }
+
+    /**
+     * 租约已全部归还且超过延迟关闭时间时关闭实例
+     *
+     * @return true-已关闭
+     */
+    private boolean tryClose(CachedInstance entry) {
+        if (System.currentTimeMillis() - entry.lastAccess < properties.getCloseGracePeriod()) {
+            return false;
+        }
+        if (!entry.refCount.compareAndSet(0, CachedInstance.CLOSED)) {
+            return entry.refCount.get() == CachedInstance.CLOSED;
+        }
+        closeInstanceSafely(entry.instance, entry.cacheKey);
+        closed.incrementAndGet();
+        return true;
+    }
+
     /**
      * 从 cacheKey 提取 configId
      * cacheKey 格式：configId:platformIdentifier
@@ -232,4 +541,55 @@ public class StorageInstanceCache {
             log.error("关闭实例时发生未知错误: cacheKey={}", cacheKey, e);
         }
     }
+
+    /**
+     * 缓存条目：实例及其配置版本、租约计数、最后访问时间
+     */
+    private static final class CachedInstance {
+
+        /**
+         * 租约计数为该值表示实例已关闭，不能再获取租约
+         */
+        static final int CLOSED = -1;
+
+        final String cacheKey;
+        final IStorageOperationService instance;
+        /**
+         * 加载配置前读取的配置版本
+         */
+        final long version;
+        final AtomicInteger refCount = new AtomicInteger();
+        volatile long lastAccess = System.currentTimeMillis();
+
+        CachedInstance(String cacheKey, IStorageOperationService instance, long version) {
+            this.cacheKey = cacheKey;
+            this.instance = instance;
+            this.version = version;
+        }
+
+        void touch() {
+            lastAccess = System.currentTimeMillis();
+        }
+
+        boolean isIdle() {
+            return refCount.get() == 0;
+        }
+
+        boolean tryRetain() {
+            while (true) {
+                int count = refCount.get();
+                if (count == CLOSED) {
+                    return false;
+                }
+                if (refCount.compareAndSet(count, count + 1)) {
+                    return true;
+                }
+            }
+        }
+
+        void release() {
+            touch();
+            refCount.decrementAndGet();
+        }
+    }
 }
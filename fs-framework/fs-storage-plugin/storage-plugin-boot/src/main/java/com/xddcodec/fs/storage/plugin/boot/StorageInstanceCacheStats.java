@@ -0,0 +1,60 @@
+package com.xddcodec.fs.storage.plugin.boot;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 存储实例缓存统计（自启动以来的累计值）
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Data
+@Builder
+public class StorageInstanceCacheStats {
+
+    /**
+     * 当前缓存实例数
+     */
+    private int size;
+
+    /**
+     * 已淘汰、等待传输结束后关闭的实例数
+     */
+    private int pendingClose;
+
+    /**
+     * 命中次数
+     */
+    private long hits;
+
+    /**
+     * 未命中次数（即实例创建次数）
+     */
+    private long misses;
+
+    /**
+     * 超出容量淘汰次数
+     */
+    private long sizeEvictions;
+
+    /**
+     * 空闲超时淘汰次数
+     */
+    private long idleEvictions;
+
+    /**
+     * 配置变更等主动失效次数
+     */
+    private long invalidations;
+
+    /**
+     * 已关闭实例数
+     */
+    private long closed;
+
+    /**
+     * 当前持有的租约数
+     */
+    private int activeLeases;
+}
@@ -1,10 +1,14 @@
 package com.xddcodec.fs.storage.plugin.boot;
 
 import com.xddcodec.fs.framework.common.exception.StorageOperationException;
+import com.xddcodec.fs.storage.plugin.boot.cache.CachingStorageOperationService;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCache;
 import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
 /**
@@ -19,6 +23,9 @@ import org.springframework.stereotype.Component;
 public class StorageInstanceFactory {
 
     private final StoragePluginRegistry pluginRegistry;
+    private final StorageDiskCache diskCache;
+    @Qualifier("storageBlockingExecutor")
+    private final ThreadPoolTaskExecutor storageBlockingExecutor;
 
     /**
      * 创建存储实例
@@ -40,10 +47,17 @@ public class StorageInstanceFactory {
         try {
             IStorageOperationService instance = prototype.createConfiguredInstance(config);
 
-            log.info("创建存储实例成功: configId={}, platform={}, userId={}",
+            // 远程存储按配置套上本地磁盘缓存
+            boolean diskCached = diskCache.isEnabledFor(config);
+            if (diskCached) {
+                instance = new CachingStorageOperationService(instance, diskCache, config, storageBlockingExecutor);
+            }
+
+            log.info("创建存储实例成功: configId={}, platform={}, userId={}, diskCache={}",
                     config.getConfigId(),
                     config.getPlatformIdentifier(),
-                    config.getUserId());
+                    config.getUserId(),
+                    diskCached);
 
             return instance;
 
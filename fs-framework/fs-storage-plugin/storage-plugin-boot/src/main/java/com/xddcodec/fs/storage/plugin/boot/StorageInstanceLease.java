@@ -0,0 +1,71 @@
+package com.xddcodec.fs.storage.plugin.boot;
+
+import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * 存储实例租约
+ * 持有租约期间实例不会被缓存淘汰关闭，传输结束后调用 close() 归还，重复归还无副作用
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+public final class StorageInstanceLease implements AutoCloseable {
+
+    private static final Runnable NO_OP = () -> {
+    };
+
+    private final IStorageOperationService service;
+    private final Runnable onRelease;
+    private final AtomicBoolean released = new AtomicBoolean();
+
+    StorageInstanceLease(IStorageOperationService service, Runnable onRelease) {
+        this.service = service;
+        this.onRelease = onRelease;
+    }
+
+    /**
+     * 不受缓存管理的实例（如 Local 全局单例）的租约，归还时不做任何处理
+     *
+     * @param service 存储实例
+     * @return 租约
+     */
+    public static StorageInstanceLease unmanaged(IStorageOperationService service) {
+        return new StorageInstanceLease(service, NO_OP);
+    }
+
+    public IStorageOperationService getService() {
+        return service;
+    }
+
+    /**
+     * 将租约绑定到输入流，流关闭时归还租约
+     * 适用于下载等把流交给调用方读取的场景
+     *
+     * @param inputStream 由该实例返回的输入流
+     * @return 关闭时归还租约的输入流
+     */
+    public InputStream bind(InputStream inputStream) {
+        return new FilterInputStream(inputStream) {
+            @Override
+            public void close() throws IOException {
+                try {
+                    super.close();
+                } finally {
+                    StorageInstanceLease.this.close();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void close() {
+        if (released.compareAndSet(false, true)) {
+            onRelease.run();
+        }
+    }
+}
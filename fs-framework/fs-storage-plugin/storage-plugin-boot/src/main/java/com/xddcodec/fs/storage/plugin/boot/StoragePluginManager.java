@@ -1,8 +1,12 @@
 package com.xddcodec.fs.storage.plugin.boot;
 
 import com.xddcodec.fs.framework.common.exception.StorageOperationException;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCache;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCacheStats;
 import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
+import com.xddcodec.fs.storage.plugin.core.s3.S3EventLoopGroups;
 import com.xddcodec.fs.storage.plugin.core.utils.StorageUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -22,6 +26,7 @@ public class StoragePluginManager implements DisposableBean {
     private final StorageInstanceFactory instanceFactory;
     private final StorageInstanceCache instanceCache;
     private final LocalStorageManager localStorageManager;
+    private final StorageDiskCache diskCache;
 
     public IStorageOperationService getCurrentInstance(String configId, Supplier<StorageConfig> configLoader) {
         if (StorageUtils.isLocalConfig(configId)) {
@@ -43,10 +48,34 @@ public class StoragePluginManager implements DisposableBean {
             return localStorageManager.getLocalInstance();
         }
 
+        // 先读取版本再加载配置，加载期间收到失效时该实例会被视为过期
+        long version = instanceCache.configVersion(configId);
         StorageConfig config = configLoader.get();
         String cacheKey = config.getCacheKey();
 
-        return instanceCache.getOrCreate(cacheKey, () -> {
+        return instanceCache.getOrCreate(cacheKey, version, () -> {
+            log.debug("开始创建存储实例: configId={}, cacheKey={}", configId, cacheKey);
+            return instanceFactory.createInstance(config);
+        });
+    }
+
+    /**
+     * 获取或创建实例并持有租约，租约归还前实例不会被缓存淘汰关闭
+     *
+     * @param configId     配置ID
+     * @param configLoader 配置加载器
+     * @return 租约，使用完毕后必须关闭
+     */
+    public StorageInstanceLease leaseInstance(String configId, Supplier<StorageConfig> configLoader) {
+        if (StorageUtils.isLocalConfig(configId)) {
+            return StorageInstanceLease.unmanaged(localStorageManager.getLocalInstance());
+        }
+
+        long version = instanceCache.configVersion(configId);
+        StorageConfig config = configLoader.get();
+        String cacheKey = config.getCacheKey();
+
+        return instanceCache.acquire(cacheKey, version, () -> {
             log.debug("开始创建存储实例: configId={}, cacheKey={}", configId, cacheKey);
             return instanceFactory.createInstance(config);
         });
@@ -71,6 +100,22 @@ public class StoragePluginManager implements DisposableBean {
         instanceCache.invalidateByConfigId(configId);
     }
 
+    /**
+     * 按版本使配置失效，用于集群失效通知
+     * 版本不高于本节点已收到的版本时忽略，乱序到达的旧消息不会影响新配置
+     *
+     * @param configId 配置ID
+     * @param version  配置版本
+     * @return true-已失效，false-消息过期被忽略
+     */
+    public boolean invalidateConfig(String configId, long version) {
+        if (StorageUtils.isLocalConfig(configId)) {
+            return false;
+        }
+        log.info("使配置失效: configId={}, version={}", configId, version);
+        return instanceCache.invalidateByConfigId(configId, version);
+    }
+
     /**
      * 批量使配置失效（通过 configId 列表）
      *
@@ -131,11 +176,42 @@ public class StoragePluginManager implements DisposableBean {
         return instanceCache.containsConfigId(configId);
     }
 
+    /**
+     * 获取已缓存实例的HTTP连接池指标，实例未创建时返回空列表
+     *
+     * @param configId 配置ID
+     * @return 连接池指标
+     */
+    public List<StorageTransportMetrics> getTransportMetrics(String configId) {
+        IStorageOperationService instance = StorageUtils.isLocalConfig(configId)
+                ? null : instanceCache.getByConfigId(configId);
+        return instance != null ? instance.getTransportMetrics() : List.of();
+    }
+
+    /**
+     * 获取存储实例缓存统计
+     */
+    public StorageInstanceCacheStats getCacheStats() {
+        return instanceCache.getStats();
+    }
+
+    /**
+     * 获取存储配置的本地磁盘缓存统计
+     *
+     * @param configId 配置ID
+     * @return 命中率、淘汰与占用空间统计
+     */
+    public StorageDiskCacheStats getDiskCacheStats(String configId) {
+        return diskCache.getStats(configId);
+    }
+
     @Override
     public void destroy() {
         log.info("开始关闭所有存储实例...");
         localStorageManager.destroy();
         instanceCache.clear();
+        // 所有S3实例关闭后再释放它们共享的事件循环组
+        S3EventLoopGroups.shutdown();
         log.info("所有存储实例已关闭");
     }
 }
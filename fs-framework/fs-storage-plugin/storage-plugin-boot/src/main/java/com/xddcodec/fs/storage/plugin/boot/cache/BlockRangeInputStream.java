@@ -0,0 +1,151 @@
+package com.xddcodec.fs.storage.plugin.boot.cache;
+
+import com.xddcodec.fs.framework.common.exception.StorageOperationException;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCache.BlockFetcher;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCache.CachedBlock;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCache.ObjectState;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 按块读取对象字节范围的输入流
+ * 读到哪个块才加载哪个块，命中时读取磁盘文件，未命中时由磁盘缓存回源填充；
+ * 块不可缓存或读取前被淘汰时直接回源读取该块的范围
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+class BlockRangeInputStream extends InputStream {
+
+    private final StorageDiskCache cache;
+    private final ObjectState state;
+    private final BlockFetcher fetcher;
+    private final long blockSize;
+    /**
+     * 下一个要读取的字节位置
+     */
+    private long position;
+    /**
+     * 结束字节（包含）
+     */
+    private final long endByte;
+    private InputStream current;
+    /**
+     * 当前块剩余可读字节数
+     */
+    private long remaining;
+    private boolean eof;
+    private boolean closed;
+
+    BlockRangeInputStream(StorageDiskCache cache, ObjectState state, long startByte, long endByte,
+                          BlockFetcher fetcher) {
+        this.cache = cache;
+        this.state = state;
+        this.fetcher = fetcher;
+        this.blockSize = cache.blockSize();
+        this.position = startByte;
+        this.endByte = endByte;
+        // 立即加载第一个块，对象不存在等错误在打开时抛出
+        try {
+            openNext();
+        } catch (IOException e) {
+            throw new StorageOperationException("读取磁盘缓存失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        while (true) {
+            if (current == null && !openNext()) {
+                return -1;
+            }
+            int read = current.read(b, off, (int) Math.min(len, remaining));
+            if (read < 0) {
+                // 块比预期短说明已到对象末尾
+                closeCurrent();
+                eof = true;
+                return -1;
+            }
+            position += read;
+            remaining -= read;
+            if (remaining == 0) {
+                closeCurrent();
+            }
+            if (read > 0) {
+                return read;
+            }
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        eof = true;
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            closeCurrent();
+        } finally {
+            cache.release(state);
+        }
+    }
+
+    /**
+     * 打开 position 所在的块
+     *
+     * @return false-已读到范围末尾或对象末尾
+     */
+    private boolean openNext() throws IOException {
+        long length = state.length;
+        if (eof || position > endByte || (length >= 0 && position >= length)) {
+            eof = true;
+            return false;
+        }
+        long index = position / blockSize;
+        long offset = position - index * blockSize;
+        long blockEnd = Math.min(endByte, index * blockSize + blockSize - 1);
+        for (int attempt = 0; attempt < 2; attempt++) {
+            CachedBlock block = cache.loadBlock(state, index, fetcher);
+            if (block == null) {
+                break;
+            }
+            if (offset >= block.length) {
+                eof = true;
+                return false;
+            }
+            InputStream in = cache.openBlock(block, offset);
+            if (in != null) {
+                current = in;
+                remaining = Math.min(block.length - offset, blockEnd - position + 1);
+                return true;
+            }
+            // 块在打开前被淘汰，重新加载一次
+        }
+        current = fetcher.fetch(position, blockEnd);
+        if (current == null) {
+            throw new StorageOperationException("存储未返回数据: " + state.objectId);
+        }
+        remaining = blockEnd - position + 1;
+        return true;
+    }
+
+    private void closeCurrent() throws IOException {
+        if (current != null) {
+            InputStream in = current;
+            current = null;
+            in.close();
+        }
+    }
+}
@@ -0,0 +1,162 @@
+package com.xddcodec.fs.storage.plugin.boot.cache;
+
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCache.ObjectState;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * 整对象回源流的旁路写缓存
+ * 调用方读取回源数据的同时按块写入临时文件，每写满一个块放入缓存，读到末尾时记录对象长度；
+ * 写缓存失败只停止缓存，不影响调用方读取，未读完就关闭时丢弃未写满的块
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Slf4j
+class BlockTeeInputStream extends FilterInputStream {
+
+    private final StorageDiskCache cache;
+    private final ObjectState state;
+    private final long generation;
+    private final int blockSize;
+
+    private long blockIndex;
+    private Path temp;
+    private OutputStream tempOut;
+    private int blockFilled;
+    private long total;
+    private boolean caching = true;
+    private boolean finished;
+    private boolean closed;
+
+    BlockTeeInputStream(StorageDiskCache cache, ObjectState state, long generation, InputStream source) {
+        super(source);
+        this.cache = cache;
+        this.state = state;
+        this.generation = generation;
+        this.blockSize = cache.blockSize();
+    }
+
+    @Override
+    public int read() throws IOException {
+        byte[] single = new byte[1];
+        int read = read(single, 0, 1);
+        return read < 0 ? -1 : single[0] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        int read = in.read(b, off, len);
+        if (read < 0) {
+            finish();
+            return -1;
+        }
+        if (caching) {
+            write(b, off, read);
+        }
+        total += read;
+        return read;
+    }
+
+    @Override
+    public long skip(long n) throws IOException {
+        // 跳过的数据无法写入缓存
+        abandon();
+        return in.skip(n);
+    }
+
+    @Override
+    public boolean markSupported() {
+        return false;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        try {
+            in.close();
+        } finally {
+            if (!finished) {
+                abandon();
+            }
+            cache.release(state);
+        }
+    }
+
+    private void write(byte[] b, int off, int len) {
+        try {
+            int written = 0;
+            while (written < len) {
+                if (tempOut == null) {
+                    temp = cache.createTempBlock();
+                    tempOut = Files.newOutputStream(temp);
+                }
+                int chunk = Math.min(len - written, blockSize - blockFilled);
+                tempOut.write(b, off + written, chunk);
+                blockFilled += chunk;
+                written += chunk;
+                if (blockFilled == blockSize) {
+                    commitBlock(false);
+                }
+            }
+        } catch (IOException e) {
+            log.warn("写入磁盘缓存失败，本次读取不再缓存: objectId={}", state.objectId, e);
+            abandon();
+        }
+    }
+
+    private void finish() {
+        if (finished) {
+            return;
+        }
+        finished = true;
+        if (!caching) {
+            return;
+        }
+        try {
+            if (blockFilled > 0) {
+                commitBlock(true);
+            } else {
+                cache.commitLength(state, generation, total);
+            }
+        } catch (IOException e) {
+            log.warn("写入磁盘缓存失败: objectId={}", state.objectId, e);
+            abandon();
+        }
+    }
+
+    private void commitBlock(boolean last) throws IOException {
+        tempOut.close();
+        tempOut = null;
+        cache.recordMiss(state);
+        cache.commit(state, generation, blockIndex, temp, blockFilled, last);
+        temp = null;
+        blockIndex++;
+        blockFilled = 0;
+    }
+
+    private void abandon() {
+        caching = false;
+        if (tempOut != null) {
+            try {
+                tempOut.close();
+            } catch (IOException e) {
+                log.debug("关闭磁盘缓存临时文件失败: {}", temp, e);
+            }
+            tempOut = null;
+        }
+        if (temp != null) {
+            cache.deleteQuietly(temp);
+            temp = null;
+        }
+    }
+}
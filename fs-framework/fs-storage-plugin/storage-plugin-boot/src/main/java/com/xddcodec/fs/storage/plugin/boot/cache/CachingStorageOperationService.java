@@ -0,0 +1,224 @@
+package com.xddcodec.fs.storage.plugin.boot.cache;
+
+import com.google.common.hash.Hashing;
+import com.xddcodec.fs.storage.plugin.core.BlockingStorageAsyncAdapter;
+import com.xddcodec.fs.storage.plugin.core.IAsyncStorageOperationService;
+import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
+import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 带本地磁盘缓存的存储服务装饰器
+ * 读取走磁盘缓存，写入、删除、重命名委托给原实例后失效对应对象的缓存：
+ * 1. Range 读取按块从缓存读取，缺失的块回源
+ * 2. 整对象读取在已知对象长度时按块读取，否则回源并旁路写入缓存
+ * 3. 缓存命名空间包含配置内容摘要，配置修改（如更换存储桶）后旧缓存不会被读到，由 LRU 淘汰
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+public class CachingStorageOperationService implements IStorageOperationService, IAsyncStorageOperationService {
+
+    private final IStorageOperationService delegate;
+    private final IAsyncStorageOperationService asyncDelegate;
+    private final StorageDiskCache diskCache;
+    private final Executor executor;
+    private final String configId;
+    private final String namespace;
+
+    /**
+     * @param delegate  原存储实例
+     * @param diskCache 磁盘缓存
+     * @param config    存储配置
+     * @param executor  原实例不支持异步时执行阻塞调用的线程池
+     */
+    public CachingStorageOperationService(IStorageOperationService delegate, StorageDiskCache diskCache,
+                                          StorageConfig config, Executor executor) {
+        this.delegate = delegate;
+        this.asyncDelegate = delegate instanceof IAsyncStorageOperationService asyncStorageService
+                ? asyncStorageService : new BlockingStorageAsyncAdapter(delegate, executor);
+        this.diskCache = diskCache;
+        this.executor = executor;
+        this.configId = config.getConfigId();
+        this.namespace = configId + "@" + fingerprint(config);
+    }
+
+    /**
+     * 被装饰的原存储实例
+     */
+    public IStorageOperationService getDelegate() {
+        return delegate;
+    }
+
+    /**
+     * 该存储配置的缓存统计
+     */
+    public StorageDiskCacheStats getDiskCacheStats() {
+        return diskCache.getStats(configId);
+    }
+
+    @Override
+    public IStorageOperationService createConfiguredInstance(StorageConfig config) {
+        return delegate.createConfiguredInstance(config);
+    }
+
+    @Override
+    public void uploadFile(InputStream inputStream, String objectKey) {
+        try {
+            delegate.uploadFile(inputStream, objectKey);
+        } finally {
+            diskCache.invalidate(namespace, objectKey);
+        }
+    }
+
+    @Override
+    public InputStream downloadFile(String objectKey) {
+        long length = diskCache.knownLength(namespace, objectKey);
+        if (length > 0) {
+            return diskCache.openRange(configId, namespace, objectKey, 0, length - 1, fetcher(objectKey));
+        }
+        InputStream source = delegate.downloadFile(objectKey);
+        return source != null ? diskCache.tee(configId, namespace, objectKey, source) : null;
+    }
+
+    @Override
+    public InputStream downloadFileRange(String objectKey, long startByte, long endByte) {
+        return diskCache.openRange(configId, namespace, objectKey, startByte, endByte, fetcher(objectKey));
+    }
+
+    @Override
+    public void deleteFile(String objectKey) {
+        try {
+            delegate.deleteFile(objectKey);
+        } finally {
+            diskCache.invalidate(namespace, objectKey);
+        }
+    }
+
+    @Override
+    public Set<String> deleteFiles(Collection<String> objectKeys) {
+        try {
+            return delegate.deleteFiles(objectKeys);
+        } finally {
+            objectKeys.forEach(objectKey -> diskCache.invalidate(namespace, objectKey));
+        }
+    }
+
+    @Override
+    public void rename(String objectKey, String newFileName) {
+        try {
+            delegate.rename(objectKey, newFileName);
+        } finally {
+            diskCache.invalidate(namespace, objectKey);
+        }
+    }
+
+    @Override
+    public String getFileUrl(String objectKey, Integer expireSeconds) {
+        return delegate.getFileUrl(objectKey, expireSeconds);
+    }
+
+    @Override
+    public InputStream getFileStream(String objectKey) {
+        long length = diskCache.knownLength(namespace, objectKey);
+        if (length > 0) {
+            return diskCache.openRange(configId, namespace, objectKey, 0, length - 1, fetcher(objectKey));
+        }
+        InputStream source = delegate.getFileStream(objectKey);
+        return source != null ? diskCache.tee(configId, namespace, objectKey, source) : null;
+    }
+
+    @Override
+    public boolean isFileExist(String objectKey) {
+        return delegate.isFileExist(objectKey);
+    }
+
+    @Override
+    public Set<String> existFiles(Collection<String> objectKeys) {
+        return delegate.existFiles(objectKeys);
+    }
+
+    @Override
+    public String initiateMultipartUpload(String objectKey, String mimeType) {
+        return delegate.initiateMultipartUpload(objectKey, mimeType);
+    }
+
+    @Override
+    public String initiateMultipartUpload(String objectKey, String mimeType, long fileSize, long partSize) {
+        return delegate.initiateMultipartUpload(objectKey, mimeType, fileSize, partSize);
+    }
+
+    @Override
+    public String uploadPart(String objectKey, String uploadId, int partNumber,
+                             long partSize, InputStream partInputStream) {
+        return delegate.uploadPart(objectKey, uploadId, partNumber, partSize, partInputStream);
+    }
+
+    @Override
+    public Set<Integer> listParts(String objectKey, String uploadId) {
+        return delegate.listParts(objectKey, uploadId);
+    }
+
+    @Override
+    public void completeMultipartUpload(String objectKey, String uploadId, List<Map<String, Object>> partETags) {
+        try {
+            delegate.completeMultipartUpload(objectKey, uploadId, partETags);
+        } finally {
+            diskCache.invalidate(namespace, objectKey);
+        }
+    }
+
+    @Override
+    public void abortMultipartUpload(String objectKey, String uploadId) {
+        delegate.abortMultipartUpload(objectKey, uploadId);
+    }
+
+    @Override
+    public List<StorageTransportMetrics> getTransportMetrics() {
+        return delegate.getTransportMetrics();
+    }
+
+    @Override
+    public CompletableFuture<String> uploadPartAsync(String objectKey, String uploadId, int partNumber,
+                                                     long partSize, InputStream partInputStream) {
+        return asyncDelegate.uploadPartAsync(objectKey, uploadId, partNumber, partSize, partInputStream);
+    }
+
+    @Override
+    public CompletableFuture<InputStream> downloadFileRangeAsync(String objectKey, long startByte, long endByte) {
+        // 首个块可能需要回源，在线程池中打开，调用线程不等待
+        return CompletableFuture.supplyAsync(() -> downloadFileRange(objectKey, startByte, endByte), executor);
+    }
+
+    @Override
+    public void close() throws IOException {
+        delegate.close();
+    }
+
+    private StorageDiskCache.BlockFetcher fetcher(String objectKey) {
+        return (startByte, endByte) -> delegate.downloadFileRange(objectKey, startByte, endByte);
+    }
+
+    /**
+     * 配置内容摘要，配置修改后缓存命名空间随之变化
+     */
+    private static String fingerprint(StorageConfig config) {
+        Map<String, Object> properties = config.getProperties() != null
+                ? new TreeMap<>(config.getProperties()) : Map.of();
+        return Hashing.sha256()
+                .hashString(config.getPlatformIdentifier() + properties, StandardCharsets.UTF_8)
+                .toString()
+                .substring(0, 16);
+    }
+}
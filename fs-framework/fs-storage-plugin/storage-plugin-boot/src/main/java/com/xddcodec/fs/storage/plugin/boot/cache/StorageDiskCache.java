@@ -0,0 +1,549 @@
+package com.xddcodec.fs.storage.plugin.boot.cache;
+
+import com.google.common.hash.Hashing;
+import com.xddcodec.fs.framework.common.exception.StorageOperationException;
+import com.xddcodec.fs.storage.plugin.boot.config.StorageDiskCacheProperties;
+import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+import java.util.stream.Stream;
+
+/**
+ * 远程存储本地磁盘缓存
+ * 所有开启缓存的存储实例共用一个磁盘预算，对象按固定大小的块缓存到本地目录：
+ * 1. 按字节预算做 LRU 淘汰，写入新块后淘汰最久未访问的块
+ * 2. 同一个块并发未命中时只有一个请求回源，其他请求等待其结果
+ * 3. Range 读取只回源缺失的块，整对象读取在回源的同时按块写入缓存
+ * 4. 对象写入、删除后递增对象版本，失效前开始的回源结果不会写入缓存
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorageDiskCache {
+
+    private static final String BLOCK_SUFFIX = ".blk";
+    private static final String FILL_PREFIX = "fill-";
+    private static final String FILL_SUFFIX = ".tmp";
+    /**
+     * 缓存自身产生的文件：块文件为 sha256 十六进制名，回源临时文件由 {@link Files#createTempFile} 生成
+     */
+    private static final Pattern OWN_FILE = Pattern.compile(
+            "[0-9a-f]{64}" + Pattern.quote(BLOCK_SUFFIX) + "|" + FILL_PREFIX + "\\d+" + Pattern.quote(FILL_SUFFIX));
+    private static final int MIN_BLOCK_SIZE = 64 * 1024;
+
+    private final StorageDiskCacheProperties properties;
+
+    private Path directory;
+
+    /**
+     * 块索引：blockId -> 块，按访问顺序排列，队首为最久未访问，由 lruLock 保护
+     */
+    private final LinkedHashMap<String, CachedBlock> blocks = new LinkedHashMap<>(256, 0.75f, true);
+    private final Object lruLock = new Object();
+
+    /**
+     * 对象状态：objectId -> 版本、已知长度、已缓存的块
+     */
+    private final Map<String, ObjectState> objects = new ConcurrentHashMap<>();
+
+    /**
+     * 回源中的块：blockId -> 回源结果
+     */
+    private final Map<String, CompletableFuture<CachedBlock>> inflight = new ConcurrentHashMap<>();
+
+    private final Counters total = new Counters();
+    private final Map<String, Counters> countersByConfig = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        if (!Boolean.TRUE.equals(properties.getEnabled())) {
+            return;
+        }
+        Path path = Paths.get(properties.getDirectory());
+        try {
+            Files.createDirectories(path);
+            // 块索引不持久化，清理上次运行残留的块文件和临时文件，目录中的其他文件不动
+            try (Stream<Path> files = Files.list(path)) {
+                files.filter(file -> OWN_FILE.matcher(file.getFileName().toString()).matches())
+                        .filter(Files::isRegularFile)
+                        .forEach(this::deleteQuietly);
+            }
+        } catch (IOException e) {
+            throw new StorageOperationException("初始化磁盘缓存目录失败: " + path, e);
+        }
+        directory = path;
+        log.info("存储磁盘缓存已启用: directory={}, maxSize={}, blockSize={}",
+                directory, properties.getMaxSize(), blockSize());
+    }
+
+    /**
+     * 该存储配置是否使用磁盘缓存，Local 存储本身在本地磁盘，不缓存
+     *
+     * @param config 存储配置
+     * @return true-使用缓存
+     */
+    public boolean isEnabledFor(StorageConfig config) {
+        return directory != null && !config.isLocal()
+                && config.getProperty(StorageDiskCacheProperties.SETTING_ENABLED_KEY, Boolean.class, true);
+    }
+
+    /**
+     * 已知的对象长度，整对象读取过或读到过最后一个块后才知道
+     *
+     * @return 对象长度，未知返回 -1
+     */
+    long knownLength(String namespace, String objectKey) {
+        ObjectState state = objects.get(objectId(namespace, objectKey));
+        return state != null ? state.length : -1;
+    }
+
+    /**
+     * 读取对象的字节范围，命中的块从磁盘读取，缺失的块通过 fetcher 回源并写入缓存
+     * 返回前已加载第一个块，对象不存在等错误在此抛出，此时释放对象状态
+     *
+     * @param startByte 起始字节（包含）
+     * @param endByte   结束字节（包含）
+     * @param fetcher   回源读取
+     */
+    InputStream openRange(String configId, String namespace, String objectKey,
+                          long startByte, long endByte, BlockFetcher fetcher) {
+        ObjectState state = state(configId, namespace, objectKey);
+        try {
+            return new BlockRangeInputStream(this, state, startByte, endByte, fetcher);
+        } catch (RuntimeException e) {
+            release(state);
+            throw e;
+        }
+    }
+
+    /**
+     * 包装整对象回源流，读取的同时按块写入缓存，读到末尾后记录对象长度
+     */
+    InputStream tee(String configId, String namespace, String objectKey, InputStream source) {
+        ObjectState state = state(configId, namespace, objectKey);
+        return new BlockTeeInputStream(this, state, state.generation.get(), source);
+    }
+
+    /**
+     * 读取流关闭后释放对象状态，没有读取者且没有已缓存的块时移除，
+     * 避免回源失败或对象不存在的读取在对象表中留下空状态
+     */
+    void release(ObjectState state) {
+        synchronized (lruLock) {
+            state.readers--;
+            if (state.readers <= 0 && state.blockIndexes.isEmpty()) {
+                objects.remove(state.objectId, state);
+            }
+        }
+    }
+
+    /**
+     * 对象被写入或删除后失效其缓存块
+     */
+    void invalidate(String namespace, String objectKey) {
+        ObjectState state = objects.get(objectId(namespace, objectKey));
+        if (state == null) {
+            return;
+        }
+        List<CachedBlock> removed = new ArrayList<>();
+        synchronized (lruLock) {
+            state.generation.incrementAndGet();
+            state.length = -1;
+            for (Long index : state.blockIndexes) {
+                CachedBlock block = blocks.remove(blockId(state.objectId, index));
+                if (block != null) {
+                    removed.add(block);
+                    record(state.configId, counters -> {
+                        counters.usedBytes.addAndGet(-block.length);
+                        counters.blocks.decrementAndGet();
+                    });
+                }
+            }
+            state.blockIndexes.clear();
+            objects.remove(state.objectId, state);
+        }
+        removed.forEach(block -> deleteQuietly(block.path));
+    }
+
+    /**
+     * 获取全局统计
+     */
+    public StorageDiskCacheStats getStats() {
+        return toStats(null, total);
+    }
+
+    /**
+     * 获取单个存储配置的统计
+     *
+     * @param configId 配置ID
+     */
+    public StorageDiskCacheStats getStats(String configId) {
+        return toStats(configId, countersByConfig.getOrDefault(configId, new Counters()));
+    }
+
+    int blockSize() {
+        return Math.max(properties.getBlockSize(), MIN_BLOCK_SIZE);
+    }
+
+    /**
+     * 获取块，未命中时回源填充；同一个块同时只有一个请求回源
+     *
+     * @return 缓存块，返回 null 表示本次不可缓存（对象在回源期间被失效或块为空），调用方应直接回源
+     */
+    CachedBlock loadBlock(ObjectState state, long index, BlockFetcher fetcher) {
+        String blockId = blockId(state.objectId, index);
+        CachedBlock block = lookup(blockId);
+        if (block != null) {
+            record(state.configId, counters -> counters.hits.increment());
+            return block;
+        }
+        CompletableFuture<CachedBlock> fill = new CompletableFuture<>();
+        CompletableFuture<CachedBlock> existing = inflight.putIfAbsent(blockId, fill);
+        if (existing != null) {
+            record(state.configId, counters -> counters.coalesced.increment());
+            try {
+                return existing.join();
+            } catch (CompletionException e) {
+                throw e.getCause() instanceof RuntimeException cause ? cause : e;
+            }
+        }
+        try {
+            block = lookup(blockId);
+            if (block != null) {
+                record(state.configId, counters -> counters.hits.increment());
+            } else {
+                record(state.configId, counters -> counters.misses.increment());
+                block = fill(state, index, fetcher);
+            }
+            fill.complete(block);
+            return block;
+        } catch (RuntimeException e) {
+            fill.completeExceptionally(e);
+            throw e;
+        } finally {
+            inflight.remove(blockId, fill);
+        }
+    }
+
+    /**
+     * 打开缓存块，块已被淘汰时返回 null
+     */
+    InputStream openBlock(CachedBlock block, long offset) throws IOException {
+        FileChannel channel;
+        try {
+            channel = FileChannel.open(block.path);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        channel.position(offset);
+        return Channels.newInputStream(channel);
+    }
+
+    Path createTempBlock() throws IOException {
+        return Files.createTempFile(directory, FILL_PREFIX, FILL_SUFFIX);
+    }
+
+    void recordMiss(ObjectState state) {
+        record(state.configId, counters -> counters.misses.increment());
+    }
+
+    /**
+     * 回源读取一个块写入临时文件后放入缓存
+     */
+    private CachedBlock fill(ObjectState state, long index, BlockFetcher fetcher) {
+        long generation = state.generation.get();
+        int blockSize = blockSize();
+        long blockStart = index * blockSize;
+        long blockEnd = blockStart + blockSize - 1;
+        long length = state.length;
+        if (length >= 0) {
+            // 已知长度时不请求超出对象末尾的范围
+            blockEnd = Math.min(blockEnd, length - 1);
+        }
+        Path temp;
+        long filled;
+        try {
+            temp = createTempBlock();
+        } catch (IOException e) {
+            throw new StorageOperationException("创建磁盘缓存文件失败: " + e.getMessage(), e);
+        }
+        try (InputStream in = fetcher.fetch(blockStart, blockEnd);
+             OutputStream out = Files.newOutputStream(temp)) {
+            if (in == null) {
+                throw new StorageOperationException("存储未返回数据: " + state.objectId);
+            }
+            filled = copy(in, out, blockSize);
+        } catch (IOException e) {
+            deleteQuietly(temp);
+            throw new StorageOperationException("写入磁盘缓存失败: " + e.getMessage(), e);
+        } catch (RuntimeException e) {
+            deleteQuietly(temp);
+            throw e;
+        }
+        return commit(state, generation, index, temp, filled, filled < blockSize);
+    }
+
+    /**
+     * 将临时文件放入缓存，对象版本已变化时丢弃；块已存在时保留已有块
+     *
+     * @param last 是否为对象的最后一个块，是则记录对象长度
+     * @return 缓存块，被丢弃时返回 null
+     */
+    CachedBlock commit(ObjectState state, long generation, long index, Path temp, long length, boolean last) {
+        String blockId = blockId(state.objectId, index);
+        CachedBlock block = null;
+        List<CachedBlock> evicted = List.of();
+        synchronized (lruLock) {
+            if (objects.get(state.objectId) == state && state.generation.get() == generation) {
+                if (last) {
+                    state.length = index * blockSize() + length;
+                }
+                block = blocks.get(blockId);
+                if (block == null && length > 0) {
+                    block = store(state, index, blockId, temp, length);
+                }
+                evicted = evictOverBudget(block);
+            }
+        }
+        deleteQuietly(temp);
+        evicted.forEach(victim -> deleteQuietly(victim.path));
+        return block;
+    }
+
+    /**
+     * 对象长度恰好是块大小的整数倍时，整对象读取结束后单独记录长度
+     */
+    void commitLength(ObjectState state, long generation, long length) {
+        synchronized (lruLock) {
+            if (objects.get(state.objectId) == state && state.generation.get() == generation) {
+                state.length = length;
+            }
+        }
+    }
+
+    private CachedBlock store(ObjectState state, long index, String blockId, Path temp, long length) {
+        Path target = directory.resolve(
+                Hashing.sha256().hashString(blockId, StandardCharsets.UTF_8) + BLOCK_SUFFIX);
+        try {
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            log.warn("写入磁盘缓存失败: objectId={}, index={}", state.objectId, index, e);
+            return null;
+        }
+        CachedBlock block = new CachedBlock(state, index, target, length);
+        blocks.put(blockId, block);
+        state.blockIndexes.add(index);
+        record(state.configId, counters -> {
+            counters.usedBytes.addAndGet(length);
+            counters.blocks.incrementAndGet();
+            counters.filledBytes.add(length);
+        });
+        return block;
+    }
+
+    /**
+     * 超出磁盘预算时从最久未访问的块开始淘汰，调用方持有 lruLock
+     *
+     * @param keep 刚写入的块，不参与淘汰
+     * @return 被淘汰的块，由调用方在锁外删除文件
+     */
+    private List<CachedBlock> evictOverBudget(CachedBlock keep) {
+        long maxSize = properties.getMaxSize();
+        if (total.usedBytes.get() <= maxSize) {
+            return List.of();
+        }
+        List<CachedBlock> evicted = new ArrayList<>();
+        Iterator<CachedBlock> iterator = blocks.values().iterator();
+        while (total.usedBytes.get() > maxSize && iterator.hasNext()) {
+            CachedBlock block = iterator.next();
+            if (block == keep) {
+                continue;
+            }
+            iterator.remove();
+            evicted.add(block);
+            ObjectState state = block.state;
+            state.blockIndexes.remove(block.index);
+            if (state.readers <= 0 && state.blockIndexes.isEmpty()) {
+                objects.remove(state.objectId, state);
+            }
+            record(state.configId, counters -> {
+                counters.usedBytes.addAndGet(-block.length);
+                counters.blocks.decrementAndGet();
+                counters.evictions.increment();
+                counters.evictedBytes.add(block.length);
+            });
+        }
+        log.debug("磁盘缓存淘汰 {} 个块，当前占用 {} 字节", evicted.size(), total.usedBytes.get());
+        return evicted;
+    }
+
+    private CachedBlock lookup(String blockId) {
+        synchronized (lruLock) {
+            return blocks.get(blockId);
+        }
+    }
+
+    /**
+     * 获取对象状态并登记一个读取者，读取结束后须调用 {@link #release(ObjectState)}
+     */
+    private ObjectState state(String configId, String namespace, String objectKey) {
+        synchronized (lruLock) {
+            ObjectState state = objects.computeIfAbsent(objectId(namespace, objectKey), id -> new ObjectState(id, configId));
+            state.readers++;
+            return state;
+        }
+    }
+
+    private long copy(InputStream in, OutputStream out, long limit) throws IOException {
+        byte[] buffer = new byte[64 * 1024];
+        long copied = 0;
+        while (copied < limit) {
+            int read = in.read(buffer, 0, (int) Math.min(buffer.length, limit - copied));
+            if (read < 0) {
+                break;
+            }
+            out.write(buffer, 0, read);
+            copied += read;
+        }
+        return copied;
+    }
+
+    private void record(String configId, Consumer<Counters> action) {
+        action.accept(total);
+        if (configId != null) {
+            action.accept(countersByConfig.computeIfAbsent(configId, k -> new Counters()));
+        }
+    }
+
+    private StorageDiskCacheStats toStats(String configId, Counters counters) {
+        long hits = counters.hits.sum();
+        long misses = counters.misses.sum();
+        long coalesced = counters.coalesced.sum();
+        long reads = hits + misses + coalesced;
+        return StorageDiskCacheStats.builder()
+                .configId(configId)
+                .usedBytes(counters.usedBytes.get())
+                .maxBytes(properties.getMaxSize())
+                .blocks(counters.blocks.get())
+                .hits(hits)
+                .misses(misses)
+                .coalesced(coalesced)
+                .hitRatio(reads == 0 ? 0 : (double) (hits + coalesced) / reads)
+                .evictions(counters.evictions.sum())
+                .evictedBytes(counters.evictedBytes.sum())
+                .filledBytes(counters.filledBytes.sum())
+                .build();
+    }
+
+    void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("删除磁盘缓存文件失败: {}", path, e);
+        }
+    }
+
+    private static String objectId(String namespace, String objectKey) {
+        return namespace + "\n" + objectKey;
+    }
+
+    private static String blockId(String objectId, long index) {
+        return objectId + "#" + index;
+    }
+
+    /**
+     * 回源读取对象的字节范围
+     */
+    @FunctionalInterface
+    interface BlockFetcher {
+
+        InputStream fetch(long startByte, long endByte);
+    }
+
+    /**
+     * 对象状态
+     */
+    static final class ObjectState {
+
+        final String objectId;
+        final String configId;
+        /**
+         * 对象版本，写入、删除时递增
+         */
+        final AtomicLong generation = new AtomicLong();
+        /**
+         * 对象长度，未知时为 -1
+         */
+        volatile long length = -1;
+        final Set<Long> blockIndexes = ConcurrentHashMap.newKeySet();
+        /**
+         * 正在使用该状态的读取流数量，由 lruLock 保护
+         */
+        int readers;
+
+        ObjectState(String objectId, String configId) {
+            this.objectId = objectId;
+            this.configId = configId;
+        }
+    }
+
+    /**
+     * 已缓存的块
+     */
+    static final class CachedBlock {
+
+        final ObjectState state;
+        final long index;
+        final Path path;
+        final long length;
+
+        CachedBlock(ObjectState state, long index, Path path, long length) {
+            this.state = state;
+            this.index = index;
+            this.path = path;
+            this.length = length;
+        }
+    }
+
+    private static final class Counters {
+
+        final LongAdder hits = new LongAdder();
+        final LongAdder misses = new LongAdder();
+        final LongAdder coalesced = new LongAdder();
+        final LongAdder evictions = new LongAdder();
+        final LongAdder evictedBytes = new LongAdder();
+        final LongAdder filledBytes = new LongAdder();
+        final AtomicLong usedBytes = new AtomicLong();
+        final AtomicLong blocks = new AtomicLong();
+    }
+}
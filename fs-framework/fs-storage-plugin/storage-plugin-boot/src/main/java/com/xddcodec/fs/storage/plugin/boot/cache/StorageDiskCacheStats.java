@@ -0,0 +1,70 @@
+package com.xddcodec.fs.storage.plugin.boot.cache;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 磁盘缓存统计（自启动以来的累计值）
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Data
+@Builder
+public class StorageDiskCacheStats {
+
+    /**
+     * 存储配置ID，全局统计时为空
+     */
+    private String configId;
+
+    /**
+     * 当前占用磁盘（字节）
+     */
+    private long usedBytes;
+
+    /**
+     * 磁盘上限（字节）
+     */
+    private long maxBytes;
+
+    /**
+     * 当前缓存块数
+     */
+    private long blocks;
+
+    /**
+     * 命中块数
+     */
+    private long hits;
+
+    /**
+     * 未命中、回源读取的块数
+     */
+    private long misses;
+
+    /**
+     * 等待其他请求回源完成的块数（不产生回源请求）
+     */
+    private long coalesced;
+
+    /**
+     * 命中率：(命中 + 合并等待) / 总读取块数
+     */
+    private double hitRatio;
+
+    /**
+     * 淘汰块数
+     */
+    private long evictions;
+
+    /**
+     * 淘汰字节数
+     */
+    private long evictedBytes;
+
+    /**
+     * 写入缓存的字节数
+     */
+    private long filledBytes;
+}
@@ -0,0 +1,44 @@
+package com.xddcodec.fs.storage.plugin.boot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 远程存储本地磁盘缓存配置
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "fs.storage.disk-cache")
+public class StorageDiskCacheProperties {
+
+    /**
+     * 存储配置（configData）中控制是否缓存的属性名，未配置时默认开启
+     */
+    public static final String SETTING_ENABLED_KEY = "diskCacheEnabled";
+
+    /**
+     * 是否启用磁盘缓存，默认关闭
+     * 开启后对未在存储配置中关闭缓存的远程存储生效，Local 存储不缓存
+     */
+    private Boolean enabled = false;
+
+    /**
+     * 缓存目录，建议使用本地SSD，启动时清空
+     */
+    private String directory = "/data/cache/storage";
+
+    /**
+     * 缓存占用磁盘上限（字节），默认10GB，超出后淘汰最久未访问的块
+     */
+    private Long maxSize = 10L * 1024 * 1024 * 1024;
+
+    /**
+     * 缓存块大小（字节），默认4MB
+     * 对象按块缓存，Range 读取只回源缺失的块
+     */
+    private Integer blockSize = 4 * 1024 * 1024;
+}
@@ -0,0 +1,39 @@
+package com.xddcodec.fs.storage.plugin.boot.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 存储实例缓存配置
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "fs.storage.instance-cache")
+public class StorageInstanceCacheProperties {
+
+    /**
+     * 最多缓存的存储实例数，默认500
+     * 超出后淘汰最久未使用且没有进行中传输的实例
+     */
+    private Integer maxSize = 500;
+
+    /**
+     * 实例空闲淘汰时间（毫秒），默认30分钟
+     */
+    private Long idleTimeout = 1800000L;
+
+    /**
+     * 淘汰后延迟关闭时间（毫秒），默认60秒
+     * 短操作直接使用实例而不持有租约，距最后一次访问超过该时间才关闭
+     */
+    private Long closeGracePeriod = 60000L;
+
+    /**
+     * 空闲淘汰及延迟关闭的检查间隔（毫秒），默认60秒
+     */
+    private Long evictInterval = 60000L;
+}
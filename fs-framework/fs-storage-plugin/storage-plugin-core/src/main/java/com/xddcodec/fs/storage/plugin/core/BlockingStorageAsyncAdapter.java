@@ -0,0 +1,45 @@
+package com.xddcodec.fs.storage.plugin.core;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+
+/**
+ * 同步存储插件的异步适配器
+ * 没有异步客户端的插件（本地、OSS、七牛等）在独立线程池中执行同步调用，
+ * 上层统一按异步接口编排，阻塞只发生在该线程池内
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+public class BlockingStorageAsyncAdapter implements IAsyncStorageOperationService {
+
+    private final IStorageOperationService delegate;
+    private final Executor executor;
+
+    public BlockingStorageAsyncAdapter(IStorageOperationService delegate, Executor executor) {
+        this.delegate = delegate;
+        this.executor = executor;
+    }
+
+    /**
+     * 同步上传需要在调用线程读取分片数据：输入流通常绑定请求线程（如 Servlet 请求体），
+     * 不能交给其他线程在请求结束后再读
+     */
+    @Override
+    public CompletableFuture<String> uploadPartAsync(String objectKey, String uploadId, int partNumber,
+                                                     long partSize, InputStream partInputStream) {
+        try {
+            return CompletableFuture.completedFuture(
+                    delegate.uploadPart(objectKey, uploadId, partNumber, partSize, partInputStream));
+        } catch (Exception e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<InputStream> downloadFileRangeAsync(String objectKey, long startByte, long endByte) {
+        return CompletableFuture.supplyAsync(
+                () -> delegate.downloadFileRange(objectKey, startByte, endByte), executor);
+    }
+}
@@ -0,0 +1,41 @@
+package com.xddcodec.fs.storage.plugin.core;
+
+import java.io.InputStream;
+import java.util.concurrent.CompletableFuture;
+
+/**
+ * 异步存储操作接口
+ * 传输热路径上的远程调用以 {@link CompletableFuture} 返回，等待存储响应期间不占用调用线程。
+ * 基于异步客户端的插件直接实现本接口，其余插件由 {@link BlockingStorageAsyncAdapter} 适配。
+ * 参数与语义同 {@link IStorageOperationService} 中的同名方法，失败时以
+ * {@link com.xddcodec.fs.framework.common.exception.StorageOperationException} 异常完成
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+public interface IAsyncStorageOperationService {
+
+    /**
+     * 异步上传分片
+     * 分片数据在返回前已读完，调用方可在返回后关闭输入流
+     *
+     * @param objectKey       对象键
+     * @param uploadId        上传ID
+     * @param partNumber      分片号（从0开始）
+     * @param partSize        分片大小
+     * @param partInputStream 分片数据流
+     * @return 分片ETag
+     */
+    CompletableFuture<String> uploadPartAsync(String objectKey, String uploadId, int partNumber,
+                                              long partSize, InputStream partInputStream);
+
+    /**
+     * 异步按范围读取文件，收到响应头即完成，数据由返回的流按需读取
+     *
+     * @param objectKey 对象键
+     * @param startByte 起始字节位置（包含）
+     * @param endByte   结束字节位置（包含）
+     * @return 指定范围的数据流
+     */
+    CompletableFuture<InputStream> downloadFileRangeAsync(String objectKey, long startByte, long endByte);
+}
@@ -1,10 +1,13 @@
 package com.xddcodec.fs.storage.plugin.core;
 
 import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
 
 import java.io.Closeable;
 import java.io.IOException;
 import java.io.InputStream;
+import java.util.Collection;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
@@ -61,6 +64,26 @@ public interface IStorageOperationService extends Closeable {
      */
     void deleteFile(String objectKey);
 
+    /**
+     * 批量删除文件，对象不存在视为删除成功
+     * 默认逐个调用 {@link #deleteFile(String)}，支持批量删除的存储应覆盖实现
+     *
+     * @param objectKeys 对象键集合
+     * @return 删除成功的对象键，未包含的对象由调用方稍后重试
+     */
+    default Set<String> deleteFiles(Collection<String> objectKeys) {
+        Set<String> deleted = new HashSet<>();
+        for (String objectKey : objectKeys) {
+            try {
+                deleteFile(objectKey);
+                deleted.add(objectKey);
+            } catch (Exception e) {
+                // 单个对象失败不影响其余对象，失败原因已由实现记录
+            }
+        }
+        return deleted;
+    }
+
     /**
      * 重命名文件
      *
@@ -94,6 +117,23 @@ public interface IStorageOperationService extends Closeable {
      */
     boolean isFileExist(String objectKey);
 
+    /**
+     * 批量检查文件是否存在
+     * 默认逐个调用 {@link #isFileExist(String)}，支持批量查询的存储应覆盖实现
+     *
+     * @param objectKeys 对象键集合
+     * @return 存在的对象键
+     */
+    default Set<String> existFiles(Collection<String> objectKeys) {
+        Set<String> existing = new HashSet<>();
+        for (String objectKey : objectKeys) {
+            if (isFileExist(objectKey)) {
+                existing.add(objectKey);
+            }
+        }
+        return existing;
+    }
+
     /**
      * 初始化分片上传
      *
@@ -103,6 +143,20 @@ public interface IStorageOperationService extends Closeable {
      */
     String initiateMultipartUpload(String objectKey, String mimeType);
 
+    /**
+     * 初始化分片上传（携带文件大小与分片大小）
+     * 支持按位置写入的存储可据此预分配目标文件，默认忽略尺寸信息
+     *
+     * @param objectKey 对象键
+     * @param mimeType  文件类型
+     * @param fileSize  文件大小（字节）
+     * @param partSize  分片大小（字节，最后一个分片可能更小）
+     * @return 全局唯一上传ID
+     */
+    default String initiateMultipartUpload(String objectKey, String mimeType, long fileSize, long partSize) {
+        return initiateMultipartUpload(objectKey, mimeType);
+    }
+
     /**
      * 上传分片
      *
@@ -144,6 +198,15 @@ public interface IStorageOperationService extends Closeable {
      */
     void abortMultipartUpload(String objectKey, String uploadId);
 
+    /**
+     * 获取HTTP连接池指标，不经过HTTP连接池的存储返回空列表
+     *
+     * @return 各客户端的连接池指标
+     */
+    default List<StorageTransportMetrics> getTransportMetrics() {
+        return List.of();
+    }
+
     /**
      * 关闭资源
      */
@@ -0,0 +1,40 @@
+package com.xddcodec.fs.storage.plugin.core.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+/**
+ * 存储实例 HTTP 连接池指标
+ * 取自最近一次请求上报的值，未发生过请求时各项为0
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Data
+@Builder
+public class StorageTransportMetrics {
+
+    /** 存储配置ID */
+    private String configId;
+
+    /** 平台标识符 */
+    private String platformIdentifier;
+
+    /** 客户端类型：sync / async */
+    private String client;
+
+    /** 连接池上限 */
+    private int maxConcurrency;
+
+    /** 已借出的连接数 */
+    private int leased;
+
+    /** 等待获取连接的请求数，持续大于0说明连接池不足 */
+    private int pending;
+
+    /** 空闲可用的连接数 */
+    private int available;
+
+    /** 指标更新时间（毫秒时间戳） */
+    private long updatedAt;
+}
@@ -1,14 +1,25 @@
 package com.xddcodec.fs.storage.plugin.core.s3;
 
+import cn.hutool.core.collection.ListUtil;
 import com.xddcodec.fs.framework.common.exception.StorageConfigException;
 import com.xddcodec.fs.framework.common.exception.StorageOperationException;
 import com.xddcodec.fs.storage.plugin.core.AbstractStorageOperationService;
+import com.xddcodec.fs.storage.plugin.core.IAsyncStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
+import com.xddcodec.fs.storage.plugin.core.utils.StorageUtils;
 import lombok.extern.slf4j.Slf4j;
 import software.amazon.awssdk.auth.credentials.AwsBasicCredentials;
 import software.amazon.awssdk.auth.credentials.StaticCredentialsProvider;
+import software.amazon.awssdk.core.async.AsyncRequestBody;
+import software.amazon.awssdk.core.async.AsyncResponseTransformer;
+import software.amazon.awssdk.core.async.BlockingInputStreamAsyncRequestBody;
 import software.amazon.awssdk.core.sync.RequestBody;
 import software.amazon.awssdk.core.sync.ResponseTransformer;
+import software.amazon.awssdk.http.Protocol;
+import software.amazon.awssdk.http.apache.ApacheHttpClient;
+import software.amazon.awssdk.http.nio.netty.NettyNioAsyncHttpClient;
+import software.amazon.awssdk.services.s3.S3AsyncClient;
 import software.amazon.awssdk.services.s3.S3Client;
 import software.amazon.awssdk.services.s3.S3Configuration;
 import software.amazon.awssdk.services.s3.model.*;
@@ -20,11 +31,14 @@ import java.io.InputStream;
 import java.net.URI;
 import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 /**
  * S3兼容存储抽象服务
- * 封装AWS S3 SDK的通用逻辑
+ * 封装AWS S3 SDK的通用逻辑，同步接口基于 {@link S3Client}，
+ * 异步接口基于 {@link S3AsyncClient}，网络读写由少量事件循环线程完成
  *
  * @param <T> 具体的S3兼容配置类型
  * @Author: xddcode
@@ -32,13 +46,35 @@ import java.util.stream.Collectors;
  */
 @Slf4j
 public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleConfig>
-        extends AbstractStorageOperationService {
+        extends AbstractStorageOperationService implements IAsyncStorageOperationService {
+
+    /**
+     * 单次 DeleteObjects / ListObjectsV2 请求的对象数上限
+     */
+    private static final int MAX_BATCH_KEYS = 1000;
+
+    /**
+     * 同一目录下待检查对象达到该数量时改为列举目录，否则逐个 HEAD
+     */
+    private static final int LIST_EXIST_THRESHOLD = 16;
 
     protected S3Client s3Client;
+    protected S3AsyncClient s3AsyncClient;
     protected S3Presigner s3Presigner;
     protected String bucketName;
     protected T s3Config;
 
+    /**
+     * 未知长度输入流的流式分片上传引擎
+     */
+    private S3StreamingUploader streamingUploader;
+
+    /**
+     * 同步/异步客户端的连接池指标
+     */
+    private S3TransportMetricsPublisher syncMetrics;
+    private S3TransportMetricsPublisher asyncMetrics;
+
     /**
      * 原型构造函数
      */
@@ -120,17 +156,25 @@ public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleC
                     .pathStyleAccessEnabled(s3Config.getPathStyleAccess());
             // 子类自定义配置
             customizeS3Configuration(s3ConfigBuilder);
-//            // 构建HTTP客户端
-//            SdkHttpClient.Builder httpClientBuilder = SdkHttpClient.builder()
-//                    .connectionTimeout(Duration.ofSeconds(s3Config.getConnectionTimeout()))
-//                    .socketTimeout(Duration.ofSeconds(s3Config.getSocketTimeout()));
-            // 构建S3客户端
+            syncMetrics = new S3TransportMetricsPublisher(config.getConfigId(), config.getPlatformIdentifier(), "sync");
+            asyncMetrics = new S3TransportMetricsPublisher(config.getConfigId(), config.getPlatformIdentifier(), "async");
+            // 构建S3客户端，HTTP客户端由SDK随S3客户端一起关闭
             this.s3Client = S3Client.builder()
                     .region(s3Config.getRegion())
                     .endpointOverride(URI.create(s3Config.getEndpoint()))
                     .credentialsProvider(StaticCredentialsProvider.create(credentials))
                     .serviceConfiguration(s3ConfigBuilder.build())
-//                    .httpClientBuilder(httpClientBuilder)
+                    .httpClientBuilder(syncHttpClientBuilder(s3Config))
+                    .overrideConfiguration(o -> o.addMetricPublisher(syncMetrics))
+                    .build();
+            // 构建异步客户端，与同步客户端使用相同的配置
+            this.s3AsyncClient = S3AsyncClient.builder()
+                    .region(s3Config.getRegion())
+                    .endpointOverride(URI.create(s3Config.getEndpoint()))
+                    .credentialsProvider(StaticCredentialsProvider.create(credentials))
+                    .serviceConfiguration(s3ConfigBuilder.build())
+                    .httpClientBuilder(asyncHttpClientBuilder(s3Config))
+                    .overrideConfiguration(o -> o.addMetricPublisher(asyncMetrics))
                     .build();
             // 构建预签名URL生成器
             this.s3Presigner = S3Presigner.builder()
@@ -140,6 +184,8 @@ public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleC
                     .serviceConfiguration(s3ConfigBuilder.build())
                     .build();
             this.bucketName = s3Config.getBucket();
+            this.streamingUploader = new S3StreamingUploader(s3Client, bucketName, getLogPrefix(),
+                    s3Config.getUploadPartSize(), s3Config.getUploadConcurrency());
             log.info("{} S3客户端初始化成功: endpoint={}, bucket={}",
                     getLogPrefix(), s3Config.getEndpoint(), this.bucketName);
         } catch (StorageConfigException e) {
@@ -150,16 +196,57 @@ public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleC
         }
     }
 
+    /**
+     * 同步客户端连接池：连接数、获取连接超时、空闲回收与TCP keep-alive
+     */
+    private ApacheHttpClient.Builder syncHttpClientBuilder(T s3Config) {
+        return ApacheHttpClient.builder()
+                .maxConnections(s3Config.getMaxConnections())
+                .connectionAcquisitionTimeout(Duration.ofMillis(s3Config.getConnectionAcquisitionTimeout()))
+                .connectionTimeout(Duration.ofMillis(s3Config.getConnectionTimeout()))
+                .socketTimeout(Duration.ofMillis(s3Config.getSocketTimeout()))
+                .connectionMaxIdleTime(Duration.ofMillis(s3Config.getConnectionMaxIdleTime()))
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(Boolean.TRUE.equals(s3Config.getTcpKeepAlive()));
+    }
+
+    /**
+     * 异步客户端连接池，配置与同步客户端一致，可选HTTP/2
+     * 事件循环组由所有实例共享，见 {@link S3EventLoopGroups}
+     */
+    private NettyNioAsyncHttpClient.Builder asyncHttpClientBuilder(T s3Config) {
+        Duration socketTimeout = Duration.ofMillis(s3Config.getSocketTimeout());
+        return NettyNioAsyncHttpClient.builder()
+                .eventLoopGroup(S3EventLoopGroups.shared())
+                .maxConcurrency(s3Config.getMaxConnections())
+                .connectionAcquisitionTimeout(Duration.ofMillis(s3Config.getConnectionAcquisitionTimeout()))
+                .connectionTimeout(Duration.ofMillis(s3Config.getConnectionTimeout()))
+                .readTimeout(socketTimeout)
+                .writeTimeout(socketTimeout)
+                .connectionMaxIdleTime(Duration.ofMillis(s3Config.getConnectionMaxIdleTime()))
+                .useIdleConnectionReaper(true)
+                .tcpKeepAlive(Boolean.TRUE.equals(s3Config.getTcpKeepAlive()))
+                .protocol(Boolean.TRUE.equals(s3Config.getHttp2Enabled()) ? Protocol.HTTP2 : Protocol.HTTP1_1);
+    }
+
+    @Override
+    public List<StorageTransportMetrics> getTransportMetrics() {
+        if (syncMetrics == null) {
+            return List.of();
+        }
+        return List.of(syncMetrics.snapshot(), asyncMetrics.snapshot());
+    }
+
     @Override
     public void uploadFile(InputStream inputStream, String objectKey) {
         ensureNotPrototype();
         try {
-            PutObjectRequest request = PutObjectRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .build();
-            s3Client.putObject(request, RequestBody.fromInputStream(inputStream, inputStream.available()));
+            // available() 不是对象长度，按分片流式上传，内存占用与文件大小无关
+            streamingUploader.upload(inputStream, objectKey);
             log.debug("{} 文件上传成功: objectKey={}", getLogPrefix(), objectKey);
+        } catch (StorageOperationException e) {
+            log.error("{} 文件上传失败: objectKey={}", getLogPrefix(), objectKey, e);
+            throw e;
         } catch (Exception e) {
             log.error("{} 文件上传失败: objectKey={}", getLogPrefix(), objectKey, e);
             throw new StorageOperationException("S3文件上传失败: " + e.getMessage(), e);
@@ -237,6 +324,60 @@ public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleC
         }
     }
 
+    @Override
+    public Set<String> deleteFiles(Collection<String> objectKeys) {
+        ensureNotPrototype();
+        Set<String> deleted = new HashSet<>();
+        for (List<String> batch : ListUtil.partition(new ArrayList<>(objectKeys), MAX_BATCH_KEYS)) {
+            try {
+                DeleteObjectsResponse response = s3Client.deleteObjects(deleteObjectsRequest(batch));
+                deleted.addAll(deletedKeys(batch, response));
+            } catch (Exception e) {
+                // 部分 S3 兼容存储不支持 DeleteObjects，退化为逐个删除
+                log.warn("{} 批量删除请求失败，改为逐个删除: count={}, error={}",
+                        getLogPrefix(), batch.size(), e.getMessage());
+                for (String key : batch) {
+                    try {
+                        deleteFile(key);
+                        deleted.add(key);
+                    } catch (StorageOperationException ignored) {
+                        // 失败原因已在 deleteFile 中记录
+                    }
+                }
+            }
+        }
+        return deleted;
+    }
+
+    /**
+     * 构建批量删除请求，quiet 模式下只返回失败的对象，对象不存在不算失败
+     */
+    private DeleteObjectsRequest deleteObjectsRequest(List<String> batch) {
+        List<ObjectIdentifier> identifiers = batch.stream()
+                .map(key -> ObjectIdentifier.builder().key(key).build())
+                .collect(Collectors.toList());
+        return DeleteObjectsRequest.builder()
+                .bucket(bucketName)
+                .delete(Delete.builder().objects(identifiers).quiet(true).build())
+                .build();
+    }
+
+    /**
+     * 从批量删除响应中得出删除成功的对象
+     */
+    private Set<String> deletedKeys(List<String> batch, DeleteObjectsResponse response) {
+        Set<String> failed = new HashSet<>();
+        for (S3Error error : response.errors()) {
+            failed.add(error.key());
+            log.warn("{} 批量删除对象失败: objectKey={}, code={}, message={}",
+                    getLogPrefix(), error.key(), error.code(), error.message());
+        }
+        Set<String> deleted = new HashSet<>();
+        batch.stream().filter(key -> !failed.contains(key)).forEach(deleted::add);
+        log.debug("{} 批量删除完成: 请求 {} 个, 失败 {} 个", getLogPrefix(), batch.size(), failed.size());
+        return deleted;
+    }
+
     @Override
     public void rename(String objectKey, String newFileName) {
         ensureNotPrototype();
@@ -313,6 +454,68 @@ public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleC
         }
     }
 
+    @Override
+    public Set<String> existFiles(Collection<String> objectKeys) {
+        ensureNotPrototype();
+        Set<String> existing = new HashSet<>();
+        StorageUtils.groupByDirectory(objectKeys).forEach((directory, keys) -> {
+            if (keys.size() < LIST_EXIST_THRESHOLD) {
+                keys.stream().filter(this::isFileExist).forEach(existing::add);
+            } else {
+                existing.addAll(listExisting(directory, keys));
+            }
+        });
+        return existing;
+    }
+
+    /**
+     * 列举目录判断对象是否存在，一次请求覆盖最多1000个对象
+     * 从最小的待查对象之前开始列举，越过最大的待查对象后停止
+     *
+     * @param directory 目录前缀
+     * @param keys      该目录下按字典序排列的对象键
+     * @return 存在的对象键
+     */
+    private Set<String> listExisting(String directory, List<String> keys) {
+        Set<String> wanted = new HashSet<>(keys);
+        String firstKey = keys.get(0);
+        String lastKey = keys.get(keys.size() - 1);
+        Set<String> found = new HashSet<>();
+        try {
+            String continuationToken = null;
+            do {
+                ListObjectsV2Request.Builder requestBuilder = ListObjectsV2Request.builder()
+                        .bucket(bucketName)
+                        .prefix(directory)
+                        .delimiter("/")
+                        .maxKeys(MAX_BATCH_KEYS);
+                if (continuationToken != null) {
+                    requestBuilder.continuationToken(continuationToken);
+                } else if (firstKey.length() > 1) {
+                    // 去掉末位字符得到严格小于 firstKey 的起点，跳过目录中排在前面的对象
+                    requestBuilder.startAfter(firstKey.substring(0, firstKey.length() - 1));
+                }
+                ListObjectsV2Response response = s3Client.listObjectsV2(requestBuilder.build());
+                String lastListed = null;
+                for (S3Object object : response.contents()) {
+                    lastListed = object.key();
+                    if (wanted.contains(lastListed)) {
+                        found.add(lastListed);
+                    }
+                }
+                if (lastListed != null && lastListed.compareTo(lastKey) >= 0) {
+                    break;
+                }
+                continuationToken = Boolean.TRUE.equals(response.isTruncated())
+                        ? response.nextContinuationToken() : null;
+            } while (continuationToken != null);
+            return found;
+        } catch (Exception e) {
+            log.error("{} 批量检查文件存在失败: directory={}", getLogPrefix(), directory, e);
+            throw new StorageOperationException("批量检查文件存在失败: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public String initiateMultipartUpload(String objectKey, String mimeType) {
         ensureNotPrototype();
@@ -379,22 +582,7 @@ public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleC
                                         List<Map<String, Object>> partETags) {
         ensureNotPrototype();
         try {
-            List<CompletedPart> completedParts = partETags.stream()
-                    .map(map -> CompletedPart.builder()
-                            .partNumber((int) map.get("partNumber") + 1)
-                            .eTag((String) map.get("eTag"))
-                            .build())
-                    .collect(Collectors.toList());
-            CompletedMultipartUpload completedUpload = CompletedMultipartUpload.builder()
-                    .parts(completedParts)
-                    .build();
-            CompleteMultipartUploadRequest request = CompleteMultipartUploadRequest.builder()
-                    .bucket(bucketName)
-                    .key(objectKey)
-                    .uploadId(uploadId)
-                    .multipartUpload(completedUpload)
-                    .build();
-            s3Client.completeMultipartUpload(request);
+            s3Client.completeMultipartUpload(completeMultipartUploadRequest(objectKey, uploadId, partETags));
             log.info("{} 分片合并成功: objectKey={}, uploadId={}",
                     getLogPrefix(), objectKey, uploadId);
         } catch (Exception e) {
@@ -404,6 +592,22 @@ public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleC
         }
     }
 
+    private CompleteMultipartUploadRequest completeMultipartUploadRequest(String objectKey, String uploadId,
+                                                                          List<Map<String, Object>> partETags) {
+        List<CompletedPart> completedParts = partETags.stream()
+                .map(map -> CompletedPart.builder()
+                        .partNumber((int) map.get("partNumber") + 1)
+                        .eTag((String) map.get("eTag"))
+                        .build())
+                .collect(Collectors.toList());
+        return CompleteMultipartUploadRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                .build();
+    }
+
     @Override
     public void abortMultipartUpload(String objectKey, String uploadId) {
         ensureNotPrototype();
@@ -423,13 +627,81 @@ public abstract class AbstractS3CompatibleStorageService<T extends S3CompatibleC
         }
     }
 
+    /**
+     * 调用线程只负责把分片数据写入请求体，数据写完即返回，等待存储响应不占用线程
+     */
+    @Override
+    public CompletableFuture<String> uploadPartAsync(String objectKey, String uploadId, int partNumber,
+                                                     long partSize, InputStream partInputStream) {
+        ensureNotPrototype();
+        UploadPartRequest request = UploadPartRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .uploadId(uploadId)
+                .partNumber(partNumber + 1) // AWS SDK partNumber从1开始
+                .contentLength(partSize)
+                .build();
+        BlockingInputStreamAsyncRequestBody body = AsyncRequestBody.forBlockingInputStream(partSize);
+        CompletableFuture<UploadPartResponse> future = s3AsyncClient.uploadPart(request, body);
+        try {
+            body.writeInputStream(partInputStream);
+        } catch (Exception e) {
+            future.cancel(true);
+            log.error("{} 分片上传失败: objectKey={}, partNumber={}", getLogPrefix(), objectKey, partNumber, e);
+            return CompletableFuture.failedFuture(new StorageOperationException("S3分片上传失败: " + e.getMessage(), e));
+        }
+        return translate(future, "分片上传", objectKey).thenApply(response -> {
+            log.debug("{} 分片上传成功: objectKey={}, partNumber={}, eTag={}",
+                    getLogPrefix(), objectKey, partNumber, response.eTag());
+            return response.eTag();
+        });
+    }
+
+    @Override
+    public CompletableFuture<InputStream> downloadFileRangeAsync(String objectKey, long startByte, long endByte) {
+        ensureNotPrototype();
+        GetObjectRequest request = GetObjectRequest.builder()
+                .bucket(bucketName)
+                .key(objectKey)
+                .range(String.format("bytes=%d-%d", startByte, endByte))
+                .build();
+        // 收到响应头即完成，响应体由返回的流按需读取
+        return translate(s3AsyncClient.getObject(request, AsyncResponseTransformer.toBlockingInputStream()),
+                "Range读取文件", objectKey).thenApply(stream -> stream);
+    }
+
+    /**
+     * 将异步客户端的异常统一转换为 StorageOperationException
+     */
+    private <R> CompletableFuture<R> translate(CompletableFuture<R> future, String action, String objectKey) {
+        return future.handle((result, e) -> {
+            if (e == null) {
+                return result;
+            }
+            Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+            if (cause instanceof NoSuchKeyException) {
+                throw new StorageOperationException("文件不存在: " + objectKey, cause);
+            }
+            log.error("{} {}失败: objectKey={}", getLogPrefix(), action, objectKey, cause);
+            throw new StorageOperationException("S3" + action + "失败: " + cause.getMessage(), cause);
+        });
+    }
+
     @Override
     public void close() {
+        // 关闭S3客户端时SDK一并关闭其HTTP连接池
+        if (streamingUploader != null) {
+            streamingUploader.close();
+        }
         if (s3Client != null) {
             s3Client.close();
         }
+        if (s3AsyncClient != null) {
+            s3AsyncClient.close();
+        }
         if (s3Presigner != null) {
             s3Presigner.close();
+            log.info("{} S3客户端已关闭", getLogPrefix());
         }
     }
 }
@@ -58,4 +58,41 @@ public abstract class S3CompatibleConfig {
      * 读取超时时间（毫秒，默认30秒）
      */
     private Integer socketTimeout = 30000;
+
+    /**
+     * 连接池最大连接数（默认64），同步与异步客户端各自独立
+     */
+    private Integer maxConnections = 64;
+
+    /**
+     * 从连接池获取连接的最大等待时间（毫秒，默认10秒）
+     */
+    private Integer connectionAcquisitionTimeout = 10000;
+
+    /**
+     * 空闲连接最大保留时间（毫秒，默认60秒），超过后由后台回收
+     */
+    private Integer connectionMaxIdleTime = 60000;
+
+    /**
+     * 是否开启TCP keep-alive（默认true）
+     */
+    private Boolean tcpKeepAlive = true;
+
+    /**
+     * 异步客户端是否使用HTTP/2（默认false）
+     * 仅对支持HTTP/2的HTTPS端点有效，AWS S3 本身只支持HTTP/1.1
+     */
+    private Boolean http2Enabled = false;
+
+    /**
+     * 流式上传分片大小（字节，默认8MB，最小5MB）
+     */
+    private Integer uploadPartSize = 8 * 1024 * 1024;
+
+    /**
+     * 流式上传同时进行的分片数（默认4）
+     * 单个存储实例上传占用的内存上限为 uploadPartSize × uploadConcurrency
+     */
+    private Integer uploadConcurrency = 4;
 }
@@ -0,0 +1,65 @@
+package com.xddcodec.fs.storage.plugin.core.s3;
+
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.http.nio.netty.SdkEventLoopGroup;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * S3 异步客户端共享的 Netty 事件循环组
+ * 存储实例按租户配置缓存，数量可达上千，每个实例各自创建事件循环组会使 Netty 线程随配置数成倍增长，
+ * 因此所有实例共用一个事件循环组；SDK 不会关闭外部传入的事件循环组，实例关闭时保持不变，
+ * 只在应用关闭时调用 {@link #shutdown()} 释放
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Slf4j
+public final class S3EventLoopGroups {
+
+    private static final Object LOCK = new Object();
+
+    private static volatile SdkEventLoopGroup shared;
+
+    private S3EventLoopGroups() {
+    }
+
+    /**
+     * 获取共享事件循环组，首次使用时创建，线程数为 Netty 默认值（CPU 核数 * 2）
+     */
+    public static SdkEventLoopGroup shared() {
+        SdkEventLoopGroup group = shared;
+        if (group == null) {
+            synchronized (LOCK) {
+                group = shared;
+                if (group == null) {
+                    group = SdkEventLoopGroup.builder().build();
+                    shared = group;
+                    log.info("已创建S3共享事件循环组");
+                }
+            }
+        }
+        return group;
+    }
+
+    /**
+     * 关闭共享事件循环组，应在所有存储实例关闭后调用
+     */
+    public static void shutdown() {
+        SdkEventLoopGroup group;
+        synchronized (LOCK) {
+            group = shared;
+            shared = null;
+        }
+        if (group == null) {
+            return;
+        }
+        try {
+            group.eventLoopGroup().shutdownGracefully(0, 5, TimeUnit.SECONDS).await(10, TimeUnit.SECONDS);
+            log.info("S3共享事件循环组已关闭");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("等待S3共享事件循环组关闭时被中断");
+        }
+    }
+}
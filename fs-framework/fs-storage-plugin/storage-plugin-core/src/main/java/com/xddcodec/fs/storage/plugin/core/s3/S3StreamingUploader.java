@@ -0,0 +1,248 @@
+package com.xddcodec.fs.storage.plugin.core.s3;
+
+import com.xddcodec.fs.framework.common.exception.StorageOperationException;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.core.sync.RequestBody;
+import software.amazon.awssdk.services.s3.S3Client;
+import software.amazon.awssdk.services.s3.model.*;
+
+import java.io.ByteArrayInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * S3 流式分片上传引擎
+ * 未知长度的输入流按固定分片大小切分后并行上传，内存占用与对象大小无关：
+ * 1. 缓冲池最多 concurrency 个分片缓冲区，读满一个分片才提交上传，上传完成后归还缓冲区
+ * 2. 缓冲池同时限制了在途分片数，单个存储实例的上传内存上限为 concurrency × partSize
+ * 3. 第一个分片未读满说明是小文件，直接 PutObject，不创建分片上传
+ * 4. 任一分片失败立即停止读取并中止分片上传，不会留下未完成的分片
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Slf4j
+class S3StreamingUploader {
+
+    /**
+     * S3 分片大小下限（最后一个分片除外）
+     */
+    static final int MIN_PART_SIZE = 5 * 1024 * 1024;
+
+    /**
+     * S3 单次分片上传的分片数上限
+     */
+    private static final int MAX_PART_COUNT = 10000;
+
+    private final S3Client s3Client;
+    private final String bucketName;
+    private final String logPrefix;
+    private final int partSize;
+    private final Semaphore bufferPermits;
+    private final Queue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+    private final ThreadPoolExecutor partExecutor;
+
+    S3StreamingUploader(S3Client s3Client, String bucketName, String logPrefix, int partSize, int concurrency) {
+        this.s3Client = s3Client;
+        this.bucketName = bucketName;
+        this.logPrefix = logPrefix;
+        this.partSize = Math.max(partSize, MIN_PART_SIZE);
+        int window = Math.max(concurrency, 1);
+        this.bufferPermits = new Semaphore(window);
+        AtomicInteger threadIndex = new AtomicInteger();
+        this.partExecutor = new ThreadPoolExecutor(window, window, 60, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, "s3-part-upload-" + threadIndex.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        // 空闲时回收线程，未使用的存储实例不占用线程
+        this.partExecutor.allowCoreThreadTimeOut(true);
+    }
+
+    /**
+     * 上传输入流到指定对象，不依赖 available() 获取长度
+     *
+     * @param inputStream 输入流，由调用方关闭
+     * @param objectKey   对象键
+     */
+    void upload(InputStream inputStream, String objectKey) {
+        byte[] buffer = acquireBuffer();
+        int length;
+        try {
+            length = readFully(inputStream, buffer);
+        } catch (IOException e) {
+            releaseBuffer(buffer);
+            throw new StorageOperationException("读取上传数据失败: " + e.getMessage(), e);
+        }
+        if (length < partSize) {
+            try {
+                putObject(objectKey, buffer, length);
+            } finally {
+                releaseBuffer(buffer);
+            }
+            return;
+        }
+        multipartUpload(inputStream, objectKey, buffer);
+    }
+
+    /**
+     * 首个分片已读满，按分片流式上传剩余数据
+     */
+    private void multipartUpload(InputStream inputStream, String objectKey, byte[] firstBuffer) {
+        String uploadId;
+        try {
+            uploadId = s3Client.createMultipartUpload(CreateMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .build()).uploadId();
+        } catch (Exception e) {
+            releaseBuffer(firstBuffer);
+            throw e;
+        }
+        List<CompletableFuture<CompletedPart>> parts = new ArrayList<>();
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        // 已读取但尚未提交的缓冲区，异常时需要归还
+        byte[] buffer = firstBuffer;
+        try {
+            int length = partSize;
+            int partNumber = 1;
+            while (true) {
+                parts.add(submitPart(objectKey, uploadId, partNumber, buffer, length, failure));
+                buffer = null;
+                if (length < partSize || failure.get() != null) {
+                    break;
+                }
+                buffer = acquireBuffer();
+                length = readFully(inputStream, buffer);
+                if (length == 0) {
+                    releaseBuffer(buffer);
+                    buffer = null;
+                    break;
+                }
+                if (++partNumber > MAX_PART_COUNT) {
+                    throw new StorageOperationException(
+                            String.format("文件超过分片上传上限: %d 个分片 × %d 字节", MAX_PART_COUNT, partSize));
+                }
+            }
+            List<CompletedPart> completedParts = new ArrayList<>(parts.size());
+            for (CompletableFuture<CompletedPart> part : parts) {
+                completedParts.add(part.join());
+            }
+            s3Client.completeMultipartUpload(CompleteMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .multipartUpload(CompletedMultipartUpload.builder().parts(completedParts).build())
+                    .build());
+            log.debug("{} 流式分片上传完成: objectKey={}, parts={}", logPrefix, objectKey, completedParts.size());
+        } catch (Exception e) {
+            if (buffer != null) {
+                releaseBuffer(buffer);
+            }
+            // 等待在途分片结束再中止，避免中止后仍有分片写入
+            parts.forEach(part -> part.exceptionally(ex -> null).join());
+            abort(objectKey, uploadId);
+            Throwable cause = failure.get() != null ? failure.get() : e;
+            if (cause instanceof CompletionException && cause.getCause() != null) {
+                cause = cause.getCause();
+            }
+            throw new StorageOperationException("S3流式分片上传失败: " + cause.getMessage(), cause);
+        }
+    }
+
+    /**
+     * 提交分片上传，完成后归还缓冲区
+     */
+    private CompletableFuture<CompletedPart> submitPart(String objectKey, String uploadId, int partNumber,
+                                                        byte[] buffer, int length,
+                                                        AtomicReference<Throwable> failure) {
+        return CompletableFuture.supplyAsync(() -> {
+            try {
+                UploadPartResponse response = s3Client.uploadPart(UploadPartRequest.builder()
+                                .bucket(bucketName)
+                                .key(objectKey)
+                                .uploadId(uploadId)
+                                .partNumber(partNumber)
+                                .contentLength((long) length)
+                                .build(),
+                        RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length));
+                return CompletedPart.builder().partNumber(partNumber).eTag(response.eTag()).build();
+            } catch (RuntimeException e) {
+                failure.compareAndSet(null, e);
+                throw e;
+            } finally {
+                releaseBuffer(buffer);
+            }
+        }, partExecutor);
+    }
+
+    private void putObject(String objectKey, byte[] buffer, int length) {
+        s3Client.putObject(PutObjectRequest.builder()
+                        .bucket(bucketName)
+                        .key(objectKey)
+                        .contentLength((long) length)
+                        .build(),
+                RequestBody.fromInputStream(new ByteArrayInputStream(buffer, 0, length), length));
+    }
+
+    private void abort(String objectKey, String uploadId) {
+        try {
+            s3Client.abortMultipartUpload(AbortMultipartUploadRequest.builder()
+                    .bucket(bucketName)
+                    .key(objectKey)
+                    .uploadId(uploadId)
+                    .build());
+        } catch (Exception e) {
+            log.warn("{} 中止分片上传失败，由存储生命周期规则清理: objectKey={}, uploadId={}",
+                    logPrefix, objectKey, uploadId, e);
+        }
+    }
+
+    /**
+     * 读满缓冲区或读到流末尾
+     *
+     * @return 实际读取的字节数
+     */
+    private int readFully(InputStream inputStream, byte[] buffer) throws IOException {
+        int total = 0;
+        while (total < buffer.length) {
+            int read = inputStream.read(buffer, total, buffer.length - total);
+            if (read < 0) {
+                break;
+            }
+            total += read;
+        }
+        return total;
+    }
+
+    private byte[] acquireBuffer() {
+        try {
+            bufferPermits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new StorageOperationException("等待上传缓冲区被中断", e);
+        }
+        byte[] buffer = freeBuffers.poll();
+        return buffer != null ? buffer : new byte[partSize];
+    }
+
+    private void releaseBuffer(byte[] buffer) {
+        freeBuffers.offer(buffer);
+        bufferPermits.release();
+    }
+
+    /**
+     * 关闭上传线程并释放缓冲区
+     */
+    void close() {
+        partExecutor.shutdown();
+        freeBuffers.clear();
+    }
+}
@@ -0,0 +1,107 @@
+package com.xddcodec.fs.storage.plugin.core.s3;
+
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
+import lombok.extern.slf4j.Slf4j;
+import software.amazon.awssdk.http.HttpMetric;
+import software.amazon.awssdk.metrics.MetricCollection;
+import software.amazon.awssdk.metrics.MetricPublisher;
+import software.amazon.awssdk.metrics.SdkMetric;
+
+import java.util.List;
+
+/**
+ * S3 客户端连接池指标收集器
+ * 每个请求结束时 SDK 上报一次指标集合，这里只保留连接池相关的最新值，
+ * 出现排队获取连接时按间隔打印告警，便于发现连接池不足
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Slf4j
+class S3TransportMetricsPublisher implements MetricPublisher {
+
+    /**
+     * 连接池排队告警的最小间隔（毫秒）
+     */
+    private static final long PENDING_WARN_INTERVAL = 60_000L;
+
+    private final String configId;
+    private final String platformIdentifier;
+    private final String client;
+
+    private volatile int maxConcurrency;
+    private volatile int leased;
+    private volatile int pending;
+    private volatile int available;
+    private volatile long updatedAt;
+    private volatile long lastPendingWarnAt;
+
+    S3TransportMetricsPublisher(String configId, String platformIdentifier, String client) {
+        this.configId = configId;
+        this.platformIdentifier = platformIdentifier;
+        this.client = client;
+    }
+
+    @Override
+    public void publish(MetricCollection metricCollection) {
+        Integer leasedValue = lastValue(metricCollection, HttpMetric.LEASED_CONCURRENCY);
+        if (leasedValue == null) {
+            // 请求未到达 HTTP 层（如参数校验失败），没有连接池指标
+            return;
+        }
+        leased = leasedValue;
+        pending = valueOrZero(lastValue(metricCollection, HttpMetric.PENDING_CONCURRENCY_ACQUIRES));
+        available = valueOrZero(lastValue(metricCollection, HttpMetric.AVAILABLE_CONCURRENCY));
+        maxConcurrency = valueOrZero(lastValue(metricCollection, HttpMetric.MAX_CONCURRENCY));
+        long now = System.currentTimeMillis();
+        updatedAt = now;
+        if (pending > 0 && now - lastPendingWarnAt >= PENDING_WARN_INTERVAL) {
+            lastPendingWarnAt = now;
+            log.warn("[{}|{}] {} 连接池出现排队: leased={}, pending={}, max={}",
+                    configId, platformIdentifier, client, leased, pending, maxConcurrency);
+        }
+    }
+
+    /**
+     * 当前连接池指标快照
+     */
+    StorageTransportMetrics snapshot() {
+        return StorageTransportMetrics.builder()
+                .configId(configId)
+                .platformIdentifier(platformIdentifier)
+                .client(client)
+                .maxConcurrency(maxConcurrency)
+                .leased(leased)
+                .pending(pending)
+                .available(available)
+                .updatedAt(updatedAt)
+                .build();
+    }
+
+    @Override
+    public void close() {
+        // 无需释放资源
+    }
+
+    /**
+     * HTTP 指标位于请求尝试的子集合中，重试时取最后一次尝试的值
+     */
+    private <T> T lastValue(MetricCollection collection, SdkMetric<T> metric) {
+        T value = null;
+        List<T> values = collection.metricValues(metric);
+        if (!values.isEmpty()) {
+            value = values.get(values.size() - 1);
+        }
+        for (MetricCollection child : collection.children()) {
+            T childValue = lastValue(child, metric);
+            if (childValue != null) {
+                value = childValue;
+            }
+        }
+        return value;
+    }
+
+    private int valueOrZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
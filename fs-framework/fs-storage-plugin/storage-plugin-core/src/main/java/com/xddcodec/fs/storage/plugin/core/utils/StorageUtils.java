@@ -2,6 +2,12 @@ package com.xddcodec.fs.storage.plugin.core.utils;
 
 import cn.hutool.core.util.StrUtil;
 
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
 /**
  * 存储工具类
  *
@@ -63,4 +69,21 @@ public class StorageUtils {
         // 格式：configId:platformIdentifier（configId 在前，方便提取）
         return configId + ":" + platformIdentifier;
     }
+
+    /**
+     * 按所在目录（最后一个 / 之前的部分，含 /）对对象键分组，组内按字典序排列
+     * 用于按目录范围列举对象，批量判断对象是否存在
+     *
+     * @param objectKeys 对象键集合
+     * @return 目录前缀 -> 该目录下的对象键
+     */
+    public static Map<String, List<String>> groupByDirectory(Collection<String> objectKeys) {
+        Map<String, List<String>> groups = new LinkedHashMap<>();
+        for (String objectKey : objectKeys) {
+            String directory = objectKey.substring(0, objectKey.lastIndexOf('/') + 1);
+            groups.computeIfAbsent(directory, k -> new ArrayList<>()).add(objectKey);
+        }
+        groups.values().forEach(keys -> keys.sort(null));
+        return groups;
+    }
 }
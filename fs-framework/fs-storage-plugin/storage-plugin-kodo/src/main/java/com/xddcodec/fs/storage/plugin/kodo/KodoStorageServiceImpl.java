@@ -1,11 +1,14 @@
 package com.xddcodec.fs.storage.plugin.kodo;
 
+import cn.hutool.core.collection.ListUtil;
 import com.qiniu.common.QiniuException;
 import com.qiniu.http.Client;
+import com.qiniu.http.Response;
 import com.qiniu.storage.ApiUploadV2InitUpload;
 import com.qiniu.storage.BucketManager;
 import com.qiniu.storage.Configuration;
 import com.qiniu.storage.UploadManager;
+import com.qiniu.storage.model.BatchStatus;
 import com.qiniu.util.Auth;
 import com.xddcodec.fs.framework.common.exception.StorageConfigException;
 import com.xddcodec.fs.framework.common.exception.StorageOperationException;
@@ -18,9 +21,7 @@ import lombok.extern.slf4j.Slf4j;
 import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
-import java.util.List;
-import java.util.Map;
-import java.util.Set;
+import java.util.*;
 
 @Slf4j
 @StoragePlugin(
@@ -33,6 +34,16 @@ import java.util.Set;
 )
 public class KodoStorageServiceImpl extends AbstractStorageOperationService {
 
+    /**
+     * 单次 batch 请求的操作数上限
+     */
+    private static final int MAX_BATCH_KEYS = 1000;
+
+    /**
+     * 资源不存在的状态码
+     */
+    private static final int CODE_NOT_FOUND = 612;
+
     private UploadManager uploadManager;
 
     private BucketManager bucketManager;
@@ -133,6 +144,31 @@ public class KodoStorageServiceImpl extends AbstractStorageOperationService {
         }
     }
 
+    @Override
+    public Set<String> deleteFiles(Collection<String> objectKeys) {
+        ensureNotPrototype();
+        Set<String> deleted = new HashSet<>();
+        for (List<String> batch : ListUtil.partition(new ArrayList<>(objectKeys), MAX_BATCH_KEYS)) {
+            try {
+                BucketManager.BatchOperations operations = new BucketManager.BatchOperations()
+                        .addDeleteOp(bucketName, batch.toArray(new String[0]));
+                BatchStatus[] statuses = batchStatuses(operations);
+                for (int i = 0; i < statuses.length; i++) {
+                    // 资源不存在视为删除成功
+                    int code = statuses[i].code;
+                    if (code == 200 || code == CODE_NOT_FOUND) {
+                        deleted.add(batch.get(i));
+                    } else {
+                        log.warn("{} 批量删除对象失败: objectKey={}, code={}", getLogPrefix(), batch.get(i), code);
+                    }
+                }
+            } catch (Exception e) {
+                log.error("{} 批量删除失败: count={}", getLogPrefix(), batch.size(), e);
+            }
+        }
+        return deleted;
+    }
+
     @Override
     public void rename(String objectKey, String newFileName) {
 
@@ -158,8 +194,52 @@ public class KodoStorageServiceImpl extends AbstractStorageOperationService {
 
     @Override
     public boolean isFileExist(String objectKey) {
+        ensureNotPrototype();
+        try {
+            bucketManager.stat(bucketName, objectKey);
+            return true;
+        } catch (QiniuException e) {
+            if (e.code() == CODE_NOT_FOUND) {
+                return false;
+            }
+            log.error("{} 检查文件存在失败: objectKey={}", getLogPrefix(), objectKey, e);
+            throw new StorageOperationException("七牛云Kodo检查文件存在失败: " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public Set<String> existFiles(Collection<String> objectKeys) {
+        ensureNotPrototype();
+        Set<String> existing = new HashSet<>();
+        for (List<String> batch : ListUtil.partition(new ArrayList<>(objectKeys), MAX_BATCH_KEYS)) {
+            try {
+                BucketManager.BatchOperations operations = new BucketManager.BatchOperations()
+                        .addStatOps(bucketName, batch.toArray(new String[0]));
+                BatchStatus[] statuses = batchStatuses(operations);
+                for (int i = 0; i < statuses.length; i++) {
+                    int code = statuses[i].code;
+                    if (code == 200) {
+                        existing.add(batch.get(i));
+                    } else if (code != CODE_NOT_FOUND) {
+                        throw new StorageOperationException(
+                                String.format("七牛云Kodo检查文件存在失败: objectKey=%s, code=%d", batch.get(i), code));
+                    }
+                }
+            } catch (QiniuException e) {
+                log.error("{} 批量检查文件存在失败: count={}", getLogPrefix(), batch.size(), e);
+                throw new StorageOperationException("七牛云Kodo批量检查文件存在失败: " + e.getMessage(), e);
+            }
+        }
+        return existing;
+    }
 
-        return false;
+    /**
+     * 执行批量操作，返回与操作顺序一一对应的状态
+     * 部分失败时七牛返回298，不会抛出异常
+     */
+    private BatchStatus[] batchStatuses(BucketManager.BatchOperations operations) throws QiniuException {
+        Response response = bucketManager.batch(operations);
+        return response.jsonToObject(BatchStatus[].class);
     }
 
     @Override
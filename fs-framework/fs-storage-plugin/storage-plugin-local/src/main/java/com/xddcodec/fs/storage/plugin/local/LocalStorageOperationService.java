@@ -10,11 +10,16 @@ import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
 import lombok.extern.slf4j.Slf4j;
 
 import java.io.*;
+import java.nio.ByteBuffer;
 import java.nio.channels.FileChannel;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * 本地存储插件实现
@@ -29,9 +34,23 @@ import java.util.*;
 )
 public class LocalStorageOperationService extends AbstractStorageOperationService {
 
+    /**
+     * 按位置写入模式下的预分配数据文件与元数据文件名（位于 temp/{uploadId}/ 下）
+     */
+    private static final String POSITIONAL_DATA_FILE = "data";
+    private static final String POSITIONAL_META_FILE = "upload.meta";
+    private static final String META_PART_SIZE = "partSize";
+    private static final String META_FILE_SIZE = "fileSize";
+    private static final int WRITE_BUFFER_SIZE = 64 * 1024;
+
     private String basePath;
     private String baseUrl;
 
+    /**
+     * 按位置写入模式的分片大小缓存（uploadId -> partSize），未命中时从元数据文件读取
+     */
+    private final Map<String, Long> positionalPartSizes = new ConcurrentHashMap<>();
+
     @SuppressWarnings("unused")
     public LocalStorageOperationService() {
         super();
@@ -185,6 +204,7 @@ public class LocalStorageOperationService extends AbstractStorageOperationServic
 
             if (!file.exists()) {
                 log.debug("{} 文件不存在，视为删除成功: objectKey={}", getLogPrefix(), objectKey);
+                return;
             }
 
             boolean deleted = file.delete();
@@ -200,6 +220,22 @@ public class LocalStorageOperationService extends AbstractStorageOperationServic
         }
     }
 
+    @Override
+    public Set<String> deleteFiles(Collection<String> objectKeys) {
+        ensureNotPrototype();
+        Set<String> deleted = new HashSet<>();
+        for (String objectKey : objectKeys) {
+            try {
+                // 不存在时直接返回，省去单独的存在性检查
+                Files.deleteIfExists(Paths.get(resolveFullPath(objectKey)).normalize());
+                deleted.add(objectKey);
+            } catch (IOException | SecurityException e) {
+                log.error("{} 文件删除失败: objectKey={}", getLogPrefix(), objectKey, e);
+            }
+        }
+        return deleted;
+    }
+
     @Override
     public void rename(String objectKey, String newFileName) {
 
@@ -284,10 +320,46 @@ public class LocalStorageOperationService extends AbstractStorageOperationServic
 
     }
 
+    /**
+     * 初始化按位置写入的分片上传
+     * 在临时目录预分配与文件等长的稀疏数据文件，分片直接写入最终位置，合并时无需再次拷贝
+     */
+    @Override
+    public String initiateMultipartUpload(String objectKey, String mimeType, long fileSize, long partSize) {
+        if (fileSize <= 0 || partSize <= 0) {
+            return initiateMultipartUpload(objectKey, mimeType);
+        }
+        String uploadId = initiateMultipartUpload(objectKey, mimeType);
+        String tempDir = getTempDir(uploadId);
+        try {
+            try (RandomAccessFile raf = new RandomAccessFile(tempDir + POSITIONAL_DATA_FILE, "rw")) {
+                raf.setLength(fileSize);
+            }
+            Properties meta = new Properties();
+            meta.setProperty(META_PART_SIZE, String.valueOf(partSize));
+            meta.setProperty(META_FILE_SIZE, String.valueOf(fileSize));
+            try (OutputStream out = new FileOutputStream(tempDir + POSITIONAL_META_FILE)) {
+                meta.store(out, objectKey);
+            }
+            positionalPartSizes.put(uploadId, partSize);
+            log.info("本地存储按位置写入初始化成功: objectKey={}, uploadId={}, fileSize={}, partSize={}",
+                    objectKey, uploadId, fileSize, partSize);
+            return uploadId;
+        } catch (IOException e) {
+            FileUtil.del(tempDir);
+            throw new StorageOperationException("分片初始化失败: " + e.getMessage(), e);
+        }
+    }
+
     @Override
     public String uploadPart(String objectKey, String uploadId, int partNumber, long partSize, InputStream partInputStream) {
         ensureNotPrototype();
 
+        Long positionalPartSize = getPositionalPartSize(uploadId);
+        if (positionalPartSize != null) {
+            return uploadPartPositional(objectKey, uploadId, partNumber, partSize, positionalPartSize, partInputStream);
+        }
+
         try {
             // 构建分片文件路径
             String tempDir = getTempDir(uploadId);
@@ -323,6 +395,89 @@ public class LocalStorageOperationService extends AbstractStorageOperationServic
         }
     }
 
+    /**
+     * 按位置写入分片：写入预分配数据文件的 partNumber * partSize 处
+     */
+    private String uploadPartPositional(String objectKey, String uploadId, int partNumber, long partSize,
+                                        long positionalPartSize, InputStream partInputStream) {
+        Path dataPath = Paths.get(getTempDir(uploadId) + POSITIONAL_DATA_FILE);
+        long position = partNumber * positionalPartSize;
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.WRITE)) {
+            if (position + partSize > channel.size()) {
+                throw new StorageOperationException(String.format("分片超出文件范围: partNumber=%d, position=%d, partSize=%d, fileSize=%d",
+                        partNumber, position, partSize, channel.size()));
+            }
+            ByteBuffer buffer = ByteBuffer.allocate((int) Math.min(WRITE_BUFFER_SIZE, Math.max(partSize, 1)));
+            long written = 0;
+            int bytesRead;
+            while ((bytesRead = partInputStream.read(buffer.array(), 0, buffer.capacity())) != -1) {
+                buffer.limit(bytesRead);
+                buffer.position(0);
+                while (buffer.hasRemaining()) {
+                    written += channel.write(buffer, position + written);
+                }
+                buffer.clear();
+            }
+            if (written != partSize) {
+                throw new StorageOperationException(String.format("分片大小不一致: partNumber=%d, 期望 %d 字节，实际 %d 字节",
+                        partNumber, partSize, written));
+            }
+            String etag = written + "_" + position;
+            log.debug("本地存储分片按位置写入成功: objectKey={}, partNumber={}, position={}, etag={}",
+                    objectKey, partNumber, position, etag);
+            return etag;
+        } catch (NoSuchFileException e) {
+            throw new StorageOperationException("分片上传任务不存在或已结束: uploadId=" + uploadId, e);
+        } catch (IOException e) {
+            log.error("本地存储分片上传失败, objectKey={}, partNumber={}: {}", objectKey, partNumber, e.getMessage(), e);
+            throw new StorageOperationException("本地存储分片上传失败: " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * 获取按位置写入模式的分片大小，非该模式返回 null
+     */
+    private Long getPositionalPartSize(String uploadId) {
+        Long cached = positionalPartSizes.get(uploadId);
+        if (cached != null) {
+            return cached;
+        }
+        File metaFile = new File(getTempDir(uploadId) + POSITIONAL_META_FILE);
+        if (!metaFile.isFile()) {
+            return null;
+        }
+        Properties meta = new Properties();
+        try (InputStream in = new FileInputStream(metaFile)) {
+            meta.load(in);
+            long partSize = Long.parseLong(meta.getProperty(META_PART_SIZE));
+            positionalPartSizes.put(uploadId, partSize);
+            return partSize;
+        } catch (IOException | NumberFormatException e) {
+            throw new StorageOperationException("读取分片上传元数据失败: uploadId=" + uploadId, e);
+        }
+    }
+
+    /**
+     * 完成按位置写入的分片上传：落盘后原子重命名为目标文件
+     */
+    private void completePositionalUpload(String objectKey, String uploadId) throws IOException {
+        String tempDir = getTempDir(uploadId);
+        Path dataPath = Paths.get(tempDir + POSITIONAL_DATA_FILE);
+        try (FileChannel channel = FileChannel.open(dataPath, StandardOpenOption.WRITE)) {
+            channel.force(true);
+        }
+        Path targetPath = Paths.get(resolveFullPath(objectKey));
+        Path parentDir = targetPath.getParent();
+        if (parentDir != null) {
+            Files.createDirectories(parentDir);
+        }
+        // 临时目录位于 basePath 下，与目标文件同一文件系统，可原子重命名
+        Files.move(dataPath, targetPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        positionalPartSizes.remove(uploadId);
+        FileUtil.del(tempDir);
+        log.info("本地存储分片上传完成（按位置写入）: objectKey={}, uploadId={}", objectKey, uploadId);
+    }
+
     @Override
     public Set<Integer> listParts(String objectKey, String uploadId) {
         ensureNotPrototype();
@@ -338,6 +493,9 @@ public class LocalStorageOperationService extends AbstractStorageOperationServic
         File[] files = dir.listFiles();
         if (files != null) {
             for (File file : files) {
+                if (POSITIONAL_DATA_FILE.equals(file.getName()) || POSITIONAL_META_FILE.equals(file.getName())) {
+                    continue;
+                }
                 try {
                     // 文件名即为分片号
                     int partNumber = Integer.parseInt(file.getName());
@@ -357,6 +515,11 @@ public class LocalStorageOperationService extends AbstractStorageOperationServic
         ensureNotPrototype();
 
         try {
+            if (getPositionalPartSize(uploadId) != null) {
+                completePositionalUpload(objectKey, uploadId);
+                return;
+            }
+
             // 构建最终文件路径
             String fullPath = resolveFullPath(objectKey);
             File targetFile = new File(fullPath);
@@ -414,6 +577,7 @@ public class LocalStorageOperationService extends AbstractStorageOperationServic
         try {
             // 清理临时目录
             String tempDir = getTempDir(uploadId);
+            positionalPartSizes.remove(uploadId);
             FileUtil.del(tempDir);
             log.info("本地存储分片上传已中止: objectKey={}, uploadId={}", objectKey, uploadId);
 
@@ -0,0 +1,59 @@
+package com.xddcodec.fs.file.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+
+/**
+ * 分片记录结果
+ * 由 {@link TransferTaskCacheManager#recordUploadedChunk} 一次 Redis 调用返回
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/21
+ */
+@Getter
+@AllArgsConstructor
+public class ChunkRecordResult {
+
+    /**
+     * 记录状态
+     */
+    private final State state;
+
+    /**
+     * 已传输分片数
+     */
+    private final int transferredChunks;
+
+    /**
+     * 已传输字节数
+     */
+    private final long transferredBytes;
+
+    /**
+     * 是否所有分片都已传输
+     */
+    private final boolean allTransferred;
+
+    public enum State {
+        /**
+         * 新分片，已记录 ETag 并累加字节数
+         */
+        RECORDED,
+        /**
+         * 分片此前已记录，仅更新 ETag，不重复累加字节数
+         */
+        DUPLICATE,
+        /**
+         * 缓存中不存在任务
+         */
+        TASK_NOT_CACHED,
+        /**
+         * 任务不处于上传中状态（已暂停、取消等），未记录
+         */
+        TASK_NOT_UPLOADING
+    }
+
+    public boolean isRecorded() {
+        return state == State.RECORDED || state == State.DUPLICATE;
+    }
+}
@@ -0,0 +1,133 @@
+package com.xddcodec.fs.file.cache;
+
+import cn.hutool.core.util.IdUtil;
+import com.google.common.hash.BloomFilter;
+import com.google.common.hash.Funnels;
+import com.xddcodec.fs.file.config.FileTransferProperties;
+import com.xddcodec.fs.framework.redis.repository.RedisRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+
+/**
+ * 秒传内容哈希布隆过滤器
+ * 每个存储平台一个过滤器，首次使用时从登记表加载，判定不存在的哈希无需查询数据库：
+ * 1. 新登记的哈希通过 Redis 发布/订阅同步到其他节点
+ * 2. 布隆过滤器不支持删除，已移除的登记只会造成误判，由数据库查询兜底
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/22
+ */
+@Slf4j
+@Component
+public class ContentHashBloomFilter implements MessageListener {
+
+    private static final String ADDED_CHANNEL = "file:content-hash:added";
+    private static final String MESSAGE_SEPARATOR = "|";
+
+    private final RedisRepository redisRepository;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final long expectedInsertions;
+    private final double fpp;
+    private final Map<String, BloomFilter<CharSequence>> filters = new ConcurrentHashMap<>();
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    public ContentHashBloomFilter(RedisRepository redisRepository,
+                                  RedisMessageListenerContainer listenerContainer,
+                                  FileTransferProperties properties) {
+        this.redisRepository = redisRepository;
+        this.listenerContainer = listenerContainer;
+        this.expectedInsertions = properties.getContentHashBloomExpectedInsertions();
+        this.fpp = properties.getContentHashBloomFpp();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(ADDED_CHANNEL));
+    }
+
+    /**
+     * 判断哈希是否可能已登记
+     *
+     * @param platformKey 存储平台键
+     * @param hash        内容哈希
+     * @param loader      过滤器未加载时的加载函数，逐个回调已登记哈希
+     * @return false 表示一定未登记
+     */
+    public boolean mightContain(String platformKey, String hash, Consumer<Consumer<String>> loader) {
+        return getOrLoad(platformKey, loader).mightContain(hash);
+    }
+
+    /**
+     * 记录新登记的哈希，并通知其他节点
+     *
+     * @param platformKey 存储平台键
+     * @param hash        内容哈希
+     */
+    public void put(String platformKey, String hash) {
+        putLocal(platformKey, hash);
+        try {
+            redisRepository.publish(ADDED_CHANNEL, nodeId + MESSAGE_SEPARATOR + platformKey + MESSAGE_SEPARATOR + hash);
+        } catch (Exception e) {
+            // 其他节点未同步时只会错过秒传，正常上传不受影响
+            log.warn("发布内容哈希登记消息失败: platform={}, hash={}", platformKey, hash, e);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisRepository.deserializeMessage(message.getBody());
+            if (body == null) {
+                return;
+            }
+            String[] parts = body.toString().split("\\|", 3);
+            if (parts.length != 3 || nodeId.equals(parts[0])) {
+                return;
+            }
+            putLocal(parts[1], parts[2]);
+        } catch (Exception e) {
+            log.warn("处理内容哈希登记消息失败", e);
+        }
+    }
+
+    /**
+     * 仅更新已加载的过滤器，未加载的过滤器在加载时会从数据库读到该哈希
+     */
+    private void putLocal(String platformKey, String hash) {
+        BloomFilter<CharSequence> filter = filters.get(platformKey);
+        if (filter != null) {
+            filter.put(hash);
+        }
+    }
+
+    private BloomFilter<CharSequence> getOrLoad(String platformKey, Consumer<Consumer<String>> loader) {
+        BloomFilter<CharSequence> filter = filters.get(platformKey);
+        if (filter != null) {
+            return filter;
+        }
+        synchronized (this) {
+            filter = filters.get(platformKey);
+            if (filter == null) {
+                long start = System.currentTimeMillis();
+                BloomFilter<CharSequence> loaded = BloomFilter.create(
+                        Funnels.stringFunnel(StandardCharsets.UTF_8), expectedInsertions, fpp);
+                loader.accept(loaded::put);
+                filters.put(platformKey, loaded);
+                filter = loaded;
+                log.info("加载内容哈希布隆过滤器: platform={}, approximateCount={}, cost={}ms",
+                        platformKey, loaded.approximateElementCount(), System.currentTimeMillis() - start);
+            }
+        }
+        return filter;
+    }
+}
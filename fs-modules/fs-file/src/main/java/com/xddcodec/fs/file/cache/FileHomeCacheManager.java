@@ -0,0 +1,73 @@
+package com.xddcodec.fs.file.cache;
+
+import com.xddcodec.fs.file.domain.vo.FileHomeVO;
+import com.xddcodec.fs.framework.redis.repository.RedisRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * 首页快照缓存管理器
+ * 每个用户一个 Redis 哈希，字段为存储平台，值为该平台的首页快照：
+ * 1. 首页读取只需一次 HGET
+ * 2. 用户文件变更后删除整个哈希，所有平台的快照一并失效
+ * 3. 过期时间短于最近文件缩略图链接的有效期
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/26
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileHomeCacheManager {
+
+    private static final String HOME_PREFIX = "file:home:";
+    private static final long HOME_EXPIRE_SECONDS = 600;
+
+    private final RedisRepository redisRepository;
+
+    /**
+     * 获取首页快照
+     *
+     * @param userId                   用户ID
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @return 快照，不存在时返回 null
+     */
+    public FileHomeVO get(String userId, String storagePlatformSettingId) {
+        try {
+            Object cached = redisRepository.hget(HOME_PREFIX + userId,
+                    UserStorageUsageManager.platformKey(storagePlatformSettingId));
+            if (cached instanceof FileHomeVO) {
+                return (FileHomeVO) cached;
+            }
+        } catch (Exception e) {
+            log.warn("读取首页快照失败: userId={}", userId, e);
+        }
+        return null;
+    }
+
+    /**
+     * 缓存首页快照
+     *
+     * @param userId                   用户ID
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @param home                     快照
+     */
+    public void put(String userId, String storagePlatformSettingId, FileHomeVO home) {
+        try {
+            redisRepository.hset(HOME_PREFIX + userId,
+                    UserStorageUsageManager.platformKey(storagePlatformSettingId), home, HOME_EXPIRE_SECONDS);
+        } catch (Exception e) {
+            log.warn("缓存首页快照失败: userId={}", userId, e);
+        }
+    }
+
+    /**
+     * 失效用户所有平台的首页快照
+     *
+     * @param userId 用户ID
+     */
+    public void evict(String userId) {
+        redisRepository.del(HOME_PREFIX + userId);
+    }
+}
@@ -3,9 +3,12 @@ package com.xddcodec.fs.file.cache;
 import com.xddcodec.fs.file.domain.FileTransferTask;
 import com.xddcodec.fs.file.enums.TransferTaskStatus;
 import com.xddcodec.fs.file.enums.TransferTaskType;
+import com.xddcodec.fs.file.utils.ChunkBitmapUtils;
 import com.xddcodec.fs.framework.redis.repository.RedisRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
 import org.springframework.stereotype.Component;
 
 import java.time.LocalDateTime;
@@ -20,13 +23,49 @@ import java.util.*;
 public class TransferTaskCacheManager {
 
     private final RedisRepository redisRepository;
+    private final TransferTaskNearCache nearCache;
     private static final String TASK_PREFIX = "transfer:task:";
     private static final String CHUNKS_PREFIX = "transfer:chunks:";
+    private static final String CHUNK_BITMAP_PREFIX = "transfer:bitmap:";
+    private static final String DOWNLOAD_BITMAP_PREFIX = "download:bitmap:";
     private static final String BYTES_PREFIX = "transfer:bytes:";
     private static final String START_TIME_PREFIX = "transfer:startTime:";
     private static final String MERGE_LOCK_PREFIX = "transfer:lock:merge:";
     private static final long TASK_EXPIRE_DAYS = 7 * 24 * 60 * 60;
 
+    /**
+     * 记录上传分片脚本
+     * KEYS: 任务、分片位图、分片ETag、字节数；ARGV: 分片索引、ETag、分片字节数、过期时间（秒）、总分片数
+     * 返回: {状态码, 已传输分片数, 已传输字节数, 是否全部完成}
+     * 状态码: 1 新分片，0 重复分片，-1 任务不在缓存中，-2 任务不处于上传中
+     * 分片状态以位图为准，位图不存在时先由旧版 ETag 哈希重建；ETag 参数经 value 序列化器序列化，与 hset 写入的格式一致
+     */
+    private static final RedisScript<List> RECORD_CHUNK_SCRIPT = new DefaultRedisScript<>(
+            "local taskJson = redis.call('GET', KEYS[1])\n" +
+            "if not taskJson then return {-1, 0, 0, 0} end\n" +
+            "local task = cjson.decode(taskJson)\n" +
+            "if task['status'] ~= 'uploading' then return {-2, 0, 0, 0} end\n" +
+            "local ttl = tonumber(ARGV[4])\n" +
+            "if redis.call('EXISTS', KEYS[2]) == 0 then\n" +
+            "  for _, field in ipairs(redis.call('HKEYS', KEYS[3])) do\n" +
+            "    redis.call('SETBIT', KEYS[2], tonumber(field), 1)\n" +
+            "  end\n" +
+            "end\n" +
+            "local existed = redis.call('SETBIT', KEYS[2], tonumber(ARGV[1]), 1)\n" +
+            "redis.call('HSET', KEYS[3], ARGV[1], ARGV[2])\n" +
+            "local bytes\n" +
+            "if existed == 0 then\n" +
+            "  bytes = redis.call('INCRBY', KEYS[4], ARGV[3])\n" +
+            "else\n" +
+            "  bytes = tonumber(redis.call('GET', KEYS[4]) or '0')\n" +
+            "end\n" +
+            "for i = 1, 4 do redis.call('EXPIRE', KEYS[i], ttl) end\n" +
+            "local count = redis.call('BITCOUNT', KEYS[2])\n" +
+            "local done = 0\n" +
+            "if count >= tonumber(ARGV[5]) then done = 1 end\n" +
+            "return {1 - existed, count, bytes, done}",
+            List.class);
+
     /**
      * 缓存任务 - 直接存储对象
      */
@@ -41,14 +80,19 @@ public class TransferTaskCacheManager {
         task.setUpdatedAt(LocalDateTime.now());
         String key = TASK_PREFIX + task.getTaskId();
         redisRepository.setExpire(key, task, TASK_EXPIRE_DAYS);
+        nearCache.put(task);
         log.debug("缓存任务: taskId={}, type={}, transferredChunks={}",
                 task.getTaskId(), task.getTaskType(), realCount);
     }
 
     /**
-     * 从缓存获取任务 - 直接获取对象
+     * 从缓存获取任务 - 优先读取本地近端缓存，未命中时读取 Redis
      */
     public FileTransferTask getTaskFromCache(String taskId) {
+        return nearCache.get(taskId, () -> loadTaskFromRedis(taskId));
+    }
+
+    private FileTransferTask loadTaskFromRedis(String taskId) {
         String key = TASK_PREFIX + taskId;
         Object obj = redisRepository.get(key);
         if (obj == null) {
@@ -64,26 +108,129 @@ public class TransferTaskCacheManager {
     }
 
     /**
-     * 获取已传输分片数（上传下载通用）
+     * 获取已上传分片数（BITCOUNT）
      */
     public Integer getTransferredChunks(String taskId) {
-        String key = CHUNKS_PREFIX + taskId;
-        Long size = redisRepository.hSize(key);
-        return size != null ? size.intValue() : 0;
+        Long count = redisRepository.bitCount(CHUNK_BITMAP_PREFIX + taskId);
+        if (count == null || count == 0) {
+            // 兼容升级前只记录在 ETag 哈希中的任务
+            count = redisRepository.hSize(CHUNKS_PREFIX + taskId);
+        }
+        return count != null ? count.intValue() : 0;
     }
 
     /**
-     * 记录已传输的分片（上传下载通用）
+     * 获取已上传分片位图
+     *
+     * @param taskId      任务ID
+     * @param totalChunks 总分片数
+     * @return 长度为 ceil(totalChunks / 8) 的位图
      */
-    public void addTransferredChunk(String taskId, Integer chunkIndex, String etag) {
-        String key = CHUNKS_PREFIX + taskId;
-        redisRepository.hset(key, String.valueOf(chunkIndex), etag);
+    public byte[] getTransferredChunkBitmap(String taskId, int totalChunks) {
+        byte[] bitmap = redisRepository.getBytes(CHUNK_BITMAP_PREFIX + taskId);
+        if (bitmap == null) {
+            // 兼容升级前只记录在 ETag 哈希中的任务
+            Set<Integer> legacyIndexes = new HashSet<>(getTransferredChunkList(taskId).keySet());
+            return ChunkBitmapUtils.fromIndexes(legacyIndexes, totalChunks);
+        }
+        return ChunkBitmapUtils.normalize(bitmap, totalChunks);
+    }
+
+    /**
+     * 获取已上传分片索引（由位图解码，不读取 ETag）
+     */
+    public Set<Integer> getTransferredChunkIndexes(String taskId, int totalChunks) {
+        return ChunkBitmapUtils.toIndexes(getTransferredChunkBitmap(taskId, totalChunks), totalChunks);
+    }
+
+    /**
+     * 记录已下载的分片
+     *
+     * @return 是否为新记录的分片
+     */
+    public boolean markChunkDownloaded(String taskId, Integer chunkIndex) {
+        String key = DOWNLOAD_BITMAP_PREFIX + taskId;
+        Boolean existed = redisRepository.setBit(key, chunkIndex, true);
         redisRepository.expire(key, TASK_EXPIRE_DAYS);
-        log.debug("保存分片ETag: taskId={}, chunkIndex={}, etag={}", taskId, chunkIndex, etag);
+        return !Boolean.TRUE.equals(existed);
+    }
+
+    /**
+     * 检查分片是否已下载
+     */
+    public boolean isChunkDownloaded(String taskId, Integer chunkIndex) {
+        return Boolean.TRUE.equals(redisRepository.getBit(DOWNLOAD_BITMAP_PREFIX + taskId, chunkIndex));
+    }
+
+    /**
+     * 获取已下载分片数（BITCOUNT）
+     */
+    public Integer getDownloadedChunkCount(String taskId) {
+        Long count = redisRepository.bitCount(DOWNLOAD_BITMAP_PREFIX + taskId);
+        return count != null ? count.intValue() : 0;
+    }
+
+    /**
+     * 获取已下载分片位图
+     *
+     * @param taskId      任务ID
+     * @param totalChunks 总分片数
+     * @return 长度为 ceil(totalChunks / 8) 的位图
+     */
+    public byte[] getDownloadedChunkBitmap(String taskId, int totalChunks) {
+        return ChunkBitmapUtils.normalize(redisRepository.getBytes(DOWNLOAD_BITMAP_PREFIX + taskId), totalChunks);
+    }
+
+    /**
+     * 清理下载分片记录
+     */
+    public void cleanDownloadedChunks(String taskId) {
+        redisRepository.del(DOWNLOAD_BITMAP_PREFIX + taskId);
+    }
+
+    /**
+     * 原子记录上传分片
+     * 一次往返完成：校验任务状态、记录 ETag、累加字节数、刷新过期时间、返回最新进度
+     *
+     * @param taskId      任务ID
+     * @param chunkIndex  分片索引
+     * @param etag        分片 ETag
+     * @param chunkBytes  分片字节数
+     * @param totalChunks 总分片数
+     * @return 记录结果
+     */
+    public ChunkRecordResult recordUploadedChunk(String taskId, Integer chunkIndex, String etag,
+                                                 long chunkBytes, Integer totalChunks) {
+        List<String> keys = List.of(TASK_PREFIX + taskId, CHUNK_BITMAP_PREFIX + taskId,
+                CHUNKS_PREFIX + taskId, BYTES_PREFIX + taskId);
+        List<?> reply = redisRepository.execute(RECORD_CHUNK_SCRIPT, keys,
+                chunkIndex, etag, chunkBytes, TASK_EXPIRE_DAYS, totalChunks);
+        if (reply == null || reply.size() < 4) {
+            throw new IllegalStateException("记录分片脚本返回结果无效: " + reply);
+        }
+        long code = ((Number) reply.get(0)).longValue();
+        ChunkRecordResult.State state;
+        if (code == 1) {
+            state = ChunkRecordResult.State.RECORDED;
+        } else if (code == 0) {
+            state = ChunkRecordResult.State.DUPLICATE;
+        } else if (code == -1) {
+            state = ChunkRecordResult.State.TASK_NOT_CACHED;
+        } else {
+            state = ChunkRecordResult.State.TASK_NOT_UPLOADING;
+        }
+        ChunkRecordResult result = new ChunkRecordResult(state,
+                ((Number) reply.get(1)).intValue(),
+                ((Number) reply.get(2)).longValue(),
+                ((Number) reply.get(3)).longValue() == 1);
+        log.debug("记录上传分片: taskId={}, chunkIndex={}, state={}, transferred={}/{}",
+                taskId, chunkIndex, state, result.getTransferredChunks(), totalChunks);
+        return result;
     }
 
     /**
      * 获取所有分片的 ETag（按分片号排序）
+     * 仅在合并时读取，分片状态与计数请使用位图相关方法
      */
     public Map<Integer, String> getTransferredChunkList(String taskId) {
         String key = CHUNKS_PREFIX + taskId;
@@ -110,15 +257,7 @@ public class TransferTaskCacheManager {
     }
 
     /**
-     * 检查分片是否已传输（上传下载通用）
-     */
-    public boolean isChunkTransferred(String taskId, Integer chunkIndex) {
-        String key = CHUNKS_PREFIX + taskId;
-        return redisRepository.hHasKey(key, String.valueOf(chunkIndex));
-    }
-
-    /**
-     * 检查是否所有分片都已传输（上传下载通用）
+     * 检查是否所有分片都已上传
      */
     public boolean isAllChunksTransferred(String taskId, Integer totalChunks) {
         Integer transferredCount = getTransferredChunks(taskId);
@@ -206,10 +345,13 @@ public class TransferTaskCacheManager {
         redisRepository.del(
                 TASK_PREFIX + taskId,
                 CHUNKS_PREFIX + taskId,
+                CHUNK_BITMAP_PREFIX + taskId,
                 BYTES_PREFIX + taskId,
                 START_TIME_PREFIX + taskId,
-                "download:chunks:" + taskId  // 清理下载任务的分片记录
+                DOWNLOAD_BITMAP_PREFIX + taskId,  // 清理下载任务的分片记录
+                "download:chunks:" + taskId  // 旧版下载分片集合
         );
+        nearCache.invalidate(taskId);
         log.info("清理任务缓存: taskId={}", taskId);
     }
 
@@ -229,6 +371,7 @@ public class TransferTaskCacheManager {
         long seconds = days * 24 * 60 * 60;
         redisRepository.expire(TASK_PREFIX + taskId, seconds);
         redisRepository.expire(CHUNKS_PREFIX + taskId, seconds);
+        redisRepository.expire(CHUNK_BITMAP_PREFIX + taskId, seconds);
         redisRepository.expire(BYTES_PREFIX + taskId, seconds);
         redisRepository.expire(START_TIME_PREFIX + taskId, seconds);
     }
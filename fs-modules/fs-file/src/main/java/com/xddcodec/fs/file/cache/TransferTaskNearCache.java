@@ -0,0 +1,150 @@
+package com.xddcodec.fs.file.cache;
+
+import cn.hutool.core.bean.BeanUtil;
+import cn.hutool.core.util.IdUtil;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.xddcodec.fs.file.config.FileTransferProperties;
+import com.xddcodec.fs.file.domain.FileTransferTask;
+import com.xddcodec.fs.framework.redis.repository.RedisRepository;
+import jakarta.annotation.PostConstruct;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * 传输任务本地近端缓存
+ * 位于 Redis 任务缓存之前，热路径读取（分片上传、暂停检查、进度计算）直接命中本地内存：
+ * 1. 条目数有上限且过期时间很短，过期时间只兜底失效消息丢失的情况
+ * 2. 任务写入 Redis 后通过发布/订阅通知其他节点失效，暂停、取消等状态变更毫秒级可见
+ * 3. 读写均使用副本，调用方修改返回的任务对象不会影响缓存
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/22
+ */
+@Slf4j
+@Component
+public class TransferTaskNearCache implements MessageListener {
+
+    private static final String INVALIDATE_CHANNEL = "transfer:task:invalidate";
+    private static final String MESSAGE_SEPARATOR = "|";
+
+    private final RedisRepository redisRepository;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final Cache<String, FileTransferTask> cache;
+    /**
+     * 本节点标识，用于忽略自己发布的失效消息
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+    /**
+     * 失效计数，防止失效前发起的 Redis 读取把旧数据写回本地缓存
+     */
+    private final AtomicLong invalidations = new AtomicLong();
+
+    public TransferTaskNearCache(RedisRepository redisRepository,
+                                 RedisMessageListenerContainer listenerContainer,
+                                 FileTransferProperties properties) {
+        this.redisRepository = redisRepository;
+        this.listenerContainer = listenerContainer;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(properties.getTaskNearCacheMaxSize())
+                .expireAfterWrite(Duration.ofMillis(properties.getTaskNearCacheTtl()))
+                .build();
+    }
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+        log.info("传输任务近端缓存已订阅失效频道: channel={}, nodeId={}", INVALIDATE_CHANNEL, nodeId);
+    }
+
+    /**
+     * 获取任务，本地未命中时通过 loader 从 Redis 加载
+     *
+     * @param taskId 任务ID
+     * @param loader Redis 加载函数
+     * @return 任务副本，不存在时返回 null
+     */
+    public FileTransferTask get(String taskId, Supplier<FileTransferTask> loader) {
+        FileTransferTask cached = cache.getIfPresent(taskId);
+        if (cached != null) {
+            return copy(cached);
+        }
+        long version = invalidations.get();
+        FileTransferTask loaded = loader.get();
+        if (loaded != null && invalidations.get() == version) {
+            cache.put(taskId, copy(loaded));
+        }
+        return loaded;
+    }
+
+    /**
+     * 任务写入 Redis 后调用：更新本地缓存并通知其他节点失效
+     *
+     * @param task 任务
+     */
+    public void put(FileTransferTask task) {
+        invalidations.incrementAndGet();
+        cache.put(task.getTaskId(), copy(task));
+        publishInvalidation(task.getTaskId());
+    }
+
+    /**
+     * 失效本地缓存并通知其他节点
+     *
+     * @param taskId 任务ID
+     */
+    public void invalidate(String taskId) {
+        invalidateLocal(taskId);
+        publishInvalidation(taskId);
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisRepository.deserializeMessage(message.getBody());
+            if (body == null) {
+                return;
+            }
+            String payload = body.toString();
+            int separator = payload.indexOf(MESSAGE_SEPARATOR);
+            if (separator < 0) {
+                return;
+            }
+            String sourceNode = payload.substring(0, separator);
+            if (nodeId.equals(sourceNode)) {
+                return;
+            }
+            String taskId = payload.substring(separator + 1);
+            invalidateLocal(taskId);
+            log.debug("收到任务缓存失效通知: taskId={}, sourceNode={}", taskId, sourceNode);
+        } catch (Exception e) {
+            log.warn("处理任务缓存失效消息失败", e);
+        }
+    }
+
+    private void invalidateLocal(String taskId) {
+        invalidations.incrementAndGet();
+        cache.invalidate(taskId);
+    }
+
+    private void publishInvalidation(String taskId) {
+        try {
+            redisRepository.publish(INVALIDATE_CHANNEL, nodeId + MESSAGE_SEPARATOR + taskId);
+        } catch (Exception e) {
+            // 发布失败时其他节点依赖过期时间兜底
+            log.warn("发布任务缓存失效消息失败: taskId={}", taskId, e);
+        }
+    }
+
+    private FileTransferTask copy(FileTransferTask task) {
+        return BeanUtil.copyProperties(task, FileTransferTask.class);
+    }
+}
@@ -0,0 +1,388 @@
+package com.xddcodec.fs.file.cache;
+
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.dto.StorageUsageSum;
+import com.xddcodec.fs.file.mapper.FileInfoMapper;
+import com.xddcodec.fs.framework.common.exception.BusinessException;
+import com.xddcodec.fs.framework.redis.repository.RedisRepository;
+import com.xddcodec.fs.plan.domain.SubscriptionPlan;
+import com.xddcodec.fs.plan.service.SubscriptionPlanService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.core.script.DefaultRedisScript;
+import org.springframework.data.redis.core.script.RedisScript;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.*;
+
+/**
+ * 用户存储用量计数管理器
+ * 每个用户一个 Redis 哈希保存实时用量，上传、秒传、彻底删除时原子增减：
+ * 1. total 为用户全部存储平台的已用字节，reserved 为进行中上传已预留的字节，b:/f: 前缀字段为各平台的字节数和文件数
+ * 2. 哈希不存在时从 file_info 汇总一次初始化，之后只做增量更新；
+ *    汇总期间到达的增量先记入 p 前缀的待合并字段，初始化时叠加到汇总结果上，不会被覆盖
+ * 3. 初始化上传时预留文件大小，超出套餐配额直接拒绝；上传完成时预留转为已用，取消或过期时归还
+ * 4. 变更过的用户与平台记入脏集合，由定时任务刷写到 user_quota_usage
+ * 回收站中的文件在彻底删除前仍占用配额
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/25
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserStorageUsageManager {
+
+    private static final String USAGE_PREFIX = "usage:user:";
+    private static final String RESERVATION_PREFIX = "usage:reservation:";
+    private static final String RESERVATION_EXPIRE_PREFIX = "usage:reservation:expire:";
+    private static final String QUOTA_PREFIX = "usage:quota:";
+    private static final String DIRTY_KEY = "usage:dirty";
+    private static final String FIELD_TOTAL = "total";
+    private static final String FIELD_BYTES_PREFIX = "b:";
+    private static final String FIELD_FILES_PREFIX = "f:";
+    private static final String MEMBER_SEPARATOR = "|";
+    private static final long QUOTA_CACHE_SECONDS = 600;
+    private static final long RESERVATION_EXPIRE_MILLIS = 3 * 24 * 60 * 60 * 1000L;
+    /**
+     * 初始化开始后超过该时长仍未完成，视为上次初始化已中断，丢弃其待合并增量重新开始
+     */
+    private static final long INIT_STALE_MILLIS = 60 * 1000L;
+    private static final long UNLIMITED = -1L;
+    private static final long BYTES_PER_GB = 1024L * 1024 * 1024;
+
+    /**
+     * 开始初始化脚本，在汇总数据库之前执行，此后到达的增量记入待合并字段
+     * KEYS: 用量哈希；ARGV: 当前时间、中断判定时长
+     * 返回: 1 可以初始化，0 已初始化
+     */
+    private static final RedisScript<Long> BEGIN_INIT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], 'total') == 1 then return 0 end\n" +
+            "local startedAt = tonumber(redis.call('HGET', KEYS[1], 'init_at') or '0')\n" +
+            "if tonumber(ARGV[1]) - startedAt > tonumber(ARGV[2]) then\n" +
+            "  for _, field in ipairs(redis.call('HKEYS', KEYS[1])) do\n" +
+            "    local kind = string.sub(field, 1, 3)\n" +
+            "    if kind == 'pb:' or kind == 'pf:' then redis.call('HDEL', KEYS[1], field) end\n" +
+            "  end\n" +
+            "  redis.call('HSET', KEYS[1], 'pending', 0)\n" +
+            "  redis.call('HSET', KEYS[1], 'init_at', ARGV[1])\n" +
+            "end\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * 初始化用量脚本，汇总值以 HINCRBY 写入，不覆盖哈希中已有的值，再把待合并增量叠加到对应字段
+     * KEYS: 用量哈希、脏集合；ARGV: 脏集合成员前缀、汇总总字节数、其后字段与值交替排列
+     * 返回: 1 初始化成功，0 已被其他请求初始化
+     */
+    private static final RedisScript<Long> INIT_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], 'total') == 1 then return 0 end\n" +
+            "local prefix = cjson.decode(ARGV[1])\n" +
+            "for i = 3, #ARGV, 2 do\n" +
+            "  redis.call('HINCRBY', KEYS[1], cjson.decode(ARGV[i]), ARGV[i + 1])\n" +
+            "end\n" +
+            "local fields = redis.call('HGETALL', KEYS[1])\n" +
+            "for i = 1, #fields, 2 do\n" +
+            "  local kind = string.sub(fields[i], 1, 3)\n" +
+            "  if kind == 'pb:' or kind == 'pf:' then\n" +
+            "    redis.call('HINCRBY', KEYS[1], string.sub(fields[i], 2), fields[i + 1])\n" +
+            "    redis.call('HDEL', KEYS[1], fields[i])\n" +
+            "    redis.call('SADD', KEYS[2], prefix .. string.sub(fields[i], 4))\n" +
+            "  end\n" +
+            "end\n" +
+            "local pending = redis.call('HGET', KEYS[1], 'pending') or '0'\n" +
+            "redis.call('HDEL', KEYS[1], 'pending', 'init_at')\n" +
+            "redis.call('HSET', KEYS[1], 'total', ARGV[2])\n" +
+            "redis.call('HINCRBY', KEYS[1], 'total', pending)\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * 预留配额脚本
+     * KEYS: 用量哈希、预留哈希、预留过期有序集合；ARGV: 任务ID、预留字节数、配额（-1 不限）、当前时间、过期时间
+     * 返回: 1 预留成功（同一任务重复预留视为成功），0 超出配额，-1 用量未初始化
+     * 先归还已过期的预留，每次最多处理100个
+     */
+    private static final RedisScript<Long> RESERVE_SCRIPT = new DefaultRedisScript<>(
+            "if redis.call('HEXISTS', KEYS[1], 'total') == 0 then return -1 end\n" +
+            "local expired = redis.call('ZRANGEBYSCORE', KEYS[3], '-inf', ARGV[4], 'LIMIT', 0, 100)\n" +
+            "for _, id in ipairs(expired) do\n" +
+            "  local size = redis.call('HGET', KEYS[2], id)\n" +
+            "  if size then\n" +
+            "    redis.call('HINCRBY', KEYS[1], 'reserved', -tonumber(size))\n" +
+            "    redis.call('HDEL', KEYS[2], id)\n" +
+            "  end\n" +
+            "  redis.call('ZREM', KEYS[3], id)\n" +
+            "end\n" +
+            "local taskId = cjson.decode(ARGV[1])\n" +
+            "if redis.call('HEXISTS', KEYS[2], taskId) == 1 then return 1 end\n" +
+            "local size = tonumber(ARGV[2])\n" +
+            "local quota = tonumber(ARGV[3])\n" +
+            "local used = tonumber(redis.call('HGET', KEYS[1], 'total') or '0')\n" +
+            "local reserved = tonumber(redis.call('HGET', KEYS[1], 'reserved') or '0')\n" +
+            "if quota >= 0 and used + reserved + size > quota then return 0 end\n" +
+            "redis.call('HSET', KEYS[2], taskId, size)\n" +
+            "redis.call('ZADD', KEYS[3], ARGV[5], taskId)\n" +
+            "redis.call('HINCRBY', KEYS[1], 'reserved', size)\n" +
+            "return 1",
+            Long.class);
+
+    /**
+     * 归还预留并增减用量脚本
+     * KEYS: 用量哈希、预留哈希、预留过期有序集合、脏集合；ARGV: 任务ID（无预留时为空）、平台键、字节增量、文件数增量、脏集合成员
+     * 用量未初始化时归还预留；正在初始化时增量记入待合并字段，否则丢弃，下次读取时从数据库汇总
+     */
+    private static final RedisScript<Long> ADJUST_SCRIPT = new DefaultRedisScript<>(
+            "local taskId = cjson.decode(ARGV[1])\n" +
+            "if taskId ~= '' then\n" +
+            "  local size = redis.call('HGET', KEYS[2], taskId)\n" +
+            "  if size then\n" +
+            "    redis.call('HINCRBY', KEYS[1], 'reserved', -tonumber(size))\n" +
+            "    redis.call('HDEL', KEYS[2], taskId)\n" +
+            "  end\n" +
+            "  redis.call('ZREM', KEYS[3], taskId)\n" +
+            "end\n" +
+            "if tonumber(ARGV[3]) == 0 and tonumber(ARGV[4]) == 0 then return 1 end\n" +
+            "local platform = cjson.decode(ARGV[2])\n" +
+            "if redis.call('HEXISTS', KEYS[1], 'total') == 0 then\n" +
+            "  if redis.call('HEXISTS', KEYS[1], 'init_at') == 0 then return 0 end\n" +
+            "  redis.call('HINCRBY', KEYS[1], 'pending', ARGV[3])\n" +
+            "  redis.call('HINCRBY', KEYS[1], 'pb:' .. platform, ARGV[3])\n" +
+            "  redis.call('HINCRBY', KEYS[1], 'pf:' .. platform, ARGV[4])\n" +
+            "  return 0\n" +
+            "end\n" +
+            "redis.call('HINCRBY', KEYS[1], 'total', ARGV[3])\n" +
+            "redis.call('HINCRBY', KEYS[1], 'b:' .. platform, ARGV[3])\n" +
+            "redis.call('HINCRBY', KEYS[1], 'f:' .. platform, ARGV[4])\n" +
+            "redis.call('SADD', KEYS[4], ARGV[5])\n" +
+            "return 1",
+            Long.class);
+
+    private final RedisRepository redisRepository;
+    private final FileInfoMapper fileInfoMapper;
+    private final SubscriptionPlanService subscriptionPlanService;
+
+    /**
+     * 为上传任务预留配额
+     *
+     * @param userId 用户ID
+     * @param taskId 任务ID
+     * @param size   文件大小（字节）
+     * @throws BusinessException 超出套餐存储配额
+     */
+    public void reserve(String userId, String taskId, long size) {
+        long now = System.currentTimeMillis();
+        List<String> keys = List.of(USAGE_PREFIX + userId, RESERVATION_PREFIX + userId,
+                RESERVATION_EXPIRE_PREFIX + userId);
+        long quota = getQuotaBytes(userId);
+        Long result = redisRepository.execute(RESERVE_SCRIPT, keys, taskId, size, quota, now,
+                now + RESERVATION_EXPIRE_MILLIS);
+        if (result != null && result == -1L) {
+            ensureInitialized(userId);
+            result = redisRepository.execute(RESERVE_SCRIPT, keys, taskId, size, quota, now,
+                    now + RESERVATION_EXPIRE_MILLIS);
+        }
+        if (result != null && result == 0L) {
+            log.info("存储空间不足，拒绝上传: userId={}, taskId={}, size={}, quota={}", userId, taskId, size, quota);
+            throw new BusinessException("存储空间不足，请清理文件或升级套餐");
+        }
+    }
+
+    /**
+     * 归还上传任务的预留配额，立即执行，不随事务回滚
+     *
+     * @param userId 用户ID
+     * @param taskId 任务ID
+     */
+    public void releaseReservation(String userId, String taskId) {
+        adjust(userId, taskId, null, 0L, 0);
+    }
+
+    /**
+     * 上传完成（含秒传）：归还预留并计入已用存储，事务提交后执行
+     *
+     * @param userId                   用户ID
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @param taskId                   任务ID
+     * @param size                     文件大小（字节）
+     */
+    public void commitUpload(String userId, String storagePlatformSettingId, String taskId, long size) {
+        afterCommit(() -> adjust(userId, taskId, storagePlatformSettingId, size, 1));
+    }
+
+    /**
+     * 彻底删除文件后扣减用量，按用户与平台合并后执行，目录不计入
+     *
+     * @param files 被删除的文件记录
+     */
+    public void releaseFiles(Collection<FileInfo> files) {
+        Map<String, long[]> deltas = new HashMap<>();
+        for (FileInfo file : files) {
+            if (Boolean.TRUE.equals(file.getIsDir())) {
+                continue;
+            }
+            long[] delta = deltas.computeIfAbsent(
+                    file.getUserId() + MEMBER_SEPARATOR + platformKey(file.getStoragePlatformSettingId()),
+                    k -> new long[2]);
+            delta[0] -= file.getSize() != null ? file.getSize() : 0L;
+            delta[1]--;
+        }
+        if (deltas.isEmpty()) {
+            return;
+        }
+        afterCommit(() -> deltas.forEach((member, delta) -> {
+            int separator = member.indexOf(MEMBER_SEPARATOR);
+            adjust(member.substring(0, separator), null, member.substring(separator + 1),
+                    delta[0], (int) delta[1]);
+        }));
+    }
+
+    /**
+     * 获取用户在存储平台的已用存储（字节）
+     *
+     * @param userId                   用户ID
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @return 已用字节数
+     */
+    public long getUsedBytes(String userId, String storagePlatformSettingId) {
+        ensureInitialized(userId);
+        Object value = redisRepository.hget(USAGE_PREFIX + userId,
+                FIELD_BYTES_PREFIX + platformKey(storagePlatformSettingId));
+        return toLong(value);
+    }
+
+    /**
+     * 弹出一批待刷写的用户与平台，成员格式为 用户ID|平台键
+     *
+     * @param count 数量
+     * @return 待刷写成员
+     */
+    public List<Object> popDirty(long count) {
+        List<Object> members = redisRepository.sPop(DIRTY_KEY, count);
+        return members != null ? members : Collections.emptyList();
+    }
+
+    /**
+     * 重新标记待刷写，刷写失败时调用
+     *
+     * @param member 成员，格式为 用户ID|平台键
+     */
+    public void markDirty(Object member) {
+        redisRepository.sSet(DIRTY_KEY, member);
+    }
+
+    /**
+     * 读取用户在存储平台的实时用量
+     *
+     * @param userId      用户ID
+     * @param platformKey 平台键，本地存储为空字符串
+     * @return {字节数, 文件数}，用量未初始化时返回 null
+     */
+    public long[] getUsage(String userId, String platformKey) {
+        String key = USAGE_PREFIX + userId;
+        Object bytes = redisRepository.hget(key, FIELD_BYTES_PREFIX + platformKey);
+        if (bytes == null && !redisRepository.hHasKey(key, FIELD_TOTAL)) {
+            return null;
+        }
+        return new long[]{toLong(bytes), toLong(redisRepository.hget(key, FIELD_FILES_PREFIX + platformKey))};
+    }
+
+    /**
+     * 平台键：本地存储的平台配置ID为空，统一记为空字符串
+     */
+    public static String platformKey(String storagePlatformSettingId) {
+        return storagePlatformSettingId != null ? storagePlatformSettingId : "";
+    }
+
+    private void adjust(String userId, String taskId, String platformKey, long bytes, int files) {
+        try {
+            String platform = platformKey(platformKey);
+            redisRepository.execute(ADJUST_SCRIPT,
+                    List.of(USAGE_PREFIX + userId, RESERVATION_PREFIX + userId,
+                            RESERVATION_EXPIRE_PREFIX + userId, DIRTY_KEY),
+                    taskId != null ? taskId : "", platform, bytes, files,
+                    userId + MEMBER_SEPARATOR + platform);
+        } catch (Exception e) {
+            // 计数失败不影响业务，偏差由重新初始化修正
+            log.warn("更新存储用量计数失败: userId={}, taskId={}, bytes={}, files={}", userId, taskId, bytes, files, e);
+        }
+    }
+
+    /**
+     * 用量哈希不存在时从 file_info 汇总初始化
+     * 先登记初始化开始再读取数据库，汇总期间提交的上传、删除记入待合并字段，由初始化脚本叠加，不会丢失；
+     * 登记开始前已提交但计数晚于登记的变更会同时出现在汇总和增量中，这一小段偏差由下次重新初始化修正
+     */
+    private void ensureInitialized(String userId) {
+        String key = USAGE_PREFIX + userId;
+        if (redisRepository.hHasKey(key, FIELD_TOTAL)) {
+            return;
+        }
+        Long begun = redisRepository.execute(BEGIN_INIT_SCRIPT, List.of(key),
+                System.currentTimeMillis(), INIT_STALE_MILLIS);
+        if (begun != null && begun == 0L) {
+            return;
+        }
+        List<StorageUsageSum> usages = fileInfoMapper.sumStorageUsage(userId, false);
+        List<Object> args = new ArrayList<>();
+        args.add(userId + MEMBER_SEPARATOR);
+        args.add(0L);
+        long total = 0L;
+        for (StorageUsageSum usage : usages) {
+            long used = usage.getStorageUsed() != null ? usage.getStorageUsed() : 0L;
+            long filesCount = usage.getFilesCount() != null ? usage.getFilesCount() : 0L;
+            args.add(FIELD_BYTES_PREFIX + usage.getStoragePlatformSettingId());
+            args.add(used);
+            args.add(FIELD_FILES_PREFIX + usage.getStoragePlatformSettingId());
+            args.add(filesCount);
+            total += used;
+        }
+        args.set(1, total);
+        Long initialized = redisRepository.execute(INIT_SCRIPT, List.of(key, DIRTY_KEY), args.toArray());
+        if (initialized != null && initialized == 1L) {
+            log.info("存储用量计数已初始化: userId={}, total={}", userId, total);
+        }
+    }
+
+    /**
+     * 用户套餐的存储配额（字节），缓存10分钟，套餐修改后最迟10分钟生效，-1 表示不限
+     */
+    private long getQuotaBytes(String userId) {
+        String key = QUOTA_PREFIX + userId;
+        Object cached = redisRepository.get(key);
+        if (cached != null) {
+            return toLong(cached);
+        }
+        SubscriptionPlan plan = subscriptionPlanService.getUserPlan(userId);
+        long quota = plan == null || plan.getStorageQuotaGb() == null
+                ? UNLIMITED
+                : plan.getStorageQuotaGb() * BYTES_PER_GB;
+        redisRepository.setExpire(key, quota, QUOTA_CACHE_SECONDS);
+        return quota;
+    }
+
+    /**
+     * 存在事务时提交后执行，回滚的上传或删除不会改变计数
+     */
+    private void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+
+    private long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        return value != null ? Long.parseLong(value.toString()) : 0L;
+    }
+}
@@ -0,0 +1,35 @@
+package com.xddcodec.fs.file.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文件名搜索配置
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "fs.search")
+public class FileSearchProperties {
+
+    /**
+     * 搜索引擎：auto、like、mysql-ngram、pg-trgm，默认auto
+     * auto 按数据源类型选择：MySQL 使用 ngram 全文索引，PostgreSQL 使用 pg_trgm 三元组索引，其他回退到 LIKE
+     */
+    private String engine = "auto";
+
+    /**
+     * 启动时重建搜索索引，默认false
+     * 一次性命令，例如 java -jar fs-admin.jar --fs.search.rebuild=true
+     */
+    private Boolean rebuild = false;
+
+    /**
+     * MySQL ngram 分词长度，与数据库 ngram_token_size 一致，默认2
+     * 关键词短于该长度时无法命中全文索引，回退到 LIKE
+     */
+    private Integer ngramTokenSize = 2;
+}
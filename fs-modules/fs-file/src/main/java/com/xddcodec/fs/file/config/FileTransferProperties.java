@@ -0,0 +1,104 @@
+package com.xddcodec.fs.file.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 文件传输配置
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/20
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "fs.transfer")
+public class FileTransferProperties {
+
+    /**
+     * 分片流式写入缓冲区大小（字节），默认64KB
+     * 每个进行中的分片只占用一个缓冲区，与分片大小无关
+     */
+    private Integer chunkBufferSize = 65536;
+
+    /**
+     * 缓冲池最大缓冲区数量，即同时写入存储的分片数上限，默认64
+     */
+    private Integer maxChunkBuffers = 64;
+
+    /**
+     * 获取缓冲区的最大等待时间（毫秒），默认30秒
+     * 超时说明存储端写入过慢，直接拒绝本次分片，由客户端重试
+     */
+    private Long bufferAcquireTimeout = 30000L;
+
+    /**
+     * 任务元数据本地近端缓存最大条目数，默认10000
+     */
+    private Integer taskNearCacheMaxSize = 10000;
+
+    /**
+     * 任务元数据本地近端缓存过期时间（毫秒），默认3秒
+     * 跨节点失效依赖 Redis 发布/订阅，过期时间兜底消息丢失的情况
+     */
+    private Long taskNearCacheTtl = 3000L;
+
+    /**
+     * 秒传内容哈希布隆过滤器每个存储平台的预期条目数，默认100万
+     */
+    private Long contentHashBloomExpectedInsertions = 1_000_000L;
+
+    /**
+     * 秒传内容哈希布隆过滤器误判率，默认1%
+     */
+    private Double contentHashBloomFpp = 0.01;
+
+    /**
+     * 无引用物理对象回收每批数量，默认500
+     */
+    private Integer objectReapBatchSize = 500;
+
+    /**
+     * 无引用物理对象定时回收间隔（毫秒），默认60秒
+     * 彻底删除提交后会立即唤醒回收，定时回收只兜底失败重试
+     */
+    private Long objectReapInterval = 60000L;
+
+    /**
+     * 每个存储平台同时进行的物理删除数，默认8
+     * 所有平台共用物理删除线程池，单个平台不会占满线程池
+     */
+    private Integer objectDeleteConcurrency = 8;
+
+    /**
+     * 每个存储平台每秒物理删除请求次数上限，默认50，小于等于0表示不限速
+     * 避免批量清理触发对象存储的请求限流
+     */
+    private Double objectDeleteRate = 50.0;
+
+    /**
+     * 单次物理删除请求包含的对象数，默认100
+     * 支持批量删除的存储一次请求删除一组对象，单次上限以存储为准（如 S3/OSS/七牛均为1000）
+     */
+    private Integer objectDeleteBatchSize = 100;
+
+    /**
+     * 回收站文件保留天数，超过后由定时任务彻底删除，默认7天
+     */
+    private Integer recycleRetentionDays = 7;
+
+    /**
+     * 回收站清理每批扫描数量，默认500
+     */
+    private Integer recycleCleanupBatchSize = 500;
+
+    /**
+     * 用户存储用量刷写到数据库的间隔（毫秒），默认60秒
+     */
+    private Long usageFlushInterval = 60000L;
+
+    /**
+     * 用户存储用量每批刷写数量，默认200
+     */
+    private Integer usageFlushBatchSize = 200;
+}
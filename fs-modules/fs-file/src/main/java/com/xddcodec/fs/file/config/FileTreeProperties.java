@@ -0,0 +1,28 @@
+package com.xddcodec.fs.file.config;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+/**
+ * 目录树批量操作配置
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Data
+@Component
+@ConfigurationProperties(prefix = "fs.tree")
+public class FileTreeProperties {
+
+    /**
+     * 子树节点数超过该值时分批提交，默认10000
+     * 未超过时整棵子树一条语句完成，与业务操作在同一事务中
+     */
+    private Integer chunkThreshold = 10000;
+
+    /**
+     * 分批提交时每批节点数，默认2000
+     */
+    private Integer chunkSize = 2000;
+}
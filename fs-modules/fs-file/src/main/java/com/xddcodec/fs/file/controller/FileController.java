@@ -6,6 +6,7 @@ import com.xddcodec.fs.file.domain.dto.MoveFileCmd;
 import com.xddcodec.fs.file.domain.dto.RenameFileCmd;
 import com.xddcodec.fs.file.domain.qry.FileQry;
 import com.xddcodec.fs.file.domain.vo.FileDetailVO;
+import com.xddcodec.fs.file.domain.vo.FilePageVO;
 import com.xddcodec.fs.file.domain.vo.FileRecycleVO;
 import com.xddcodec.fs.file.domain.vo.FileVO;
 import com.xddcodec.fs.file.service.FileInfoService;
@@ -52,6 +53,13 @@ public class FileController {
         return Result.ok(list);
     }
 
+    @GetMapping("/page")
+    @Operation(summary = "游标分页查询文件列表", description = "按排序字段与ID稳定分页，nextCursor 原样传回获取下一页")
+    public Result<FilePageVO> getPage(FileQry qry) {
+        FilePageVO page = fileInfoService.getPage(qry);
+        return Result.ok(page);
+    }
+
     @GetMapping("/{fileId}")
     @Operation(summary = "查询文件详情", description = "查询文件详情")
     public Result<FileDetailVO> getFileDetails(@PathVariable String fileId) {
@@ -7,7 +7,7 @@ import com.xddcodec.fs.framework.preview.config.FilePreviewConfig;
 import com.xddcodec.fs.framework.preview.core.PreviewStrategy;
 import com.xddcodec.fs.framework.preview.factory.PreviewStrategyManager;
 import com.xddcodec.fs.storage.facade.StorageServiceFacade;
-import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
+import com.xddcodec.fs.storage.plugin.boot.StorageInstanceLease;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.HttpHeaders;
@@ -53,28 +53,34 @@ public class FileStreamController {
             return ResponseEntity.notFound().build();
         }
 
-        IStorageOperationService storage = storageServiceFacade
-                .getStorageService(fileInfo.getStoragePlatformSettingId());
+        // 租约在响应流写完后归还，流式传输期间实例不会被淘汰关闭
+        StorageInstanceLease lease = storageServiceFacade
+                .leaseStorageService(fileInfo.getStoragePlatformSettingId());
+        try {
+            FileTypeEnum fileType = FileTypeEnum.fromFileName(fileInfo.getDisplayName());
+            PreviewStrategy strategy = strategyManager.getStrategy(fileType);
 
-        FileTypeEnum fileType = FileTypeEnum.fromFileName(fileInfo.getDisplayName());
-        PreviewStrategy strategy = strategyManager.getStrategy(fileType);
+            log.info("文件: {}, 类型: {}, 匹配策略: {}", fileInfo.getDisplayName(), fileType, strategy.getClass().getSimpleName());
 
-        log.info("文件: {}, 类型: {}, 匹配策略: {}", fileInfo.getDisplayName(), fileType, strategy.getClass().getSimpleName());
+            // 修复逻辑：如果策略不支持Range（说明是转换流，如Docx转PDF），则强制走FullRequest
+            // 即使前端传了Range头也不处理，防止截断
+            if (!strategy.supportRange() || rangeHeader == null || !rangeHeader.startsWith("bytes=")) {
+                return handleFullRequest(lease, fileInfo, strategy);
+            }
 
-        // 修复逻辑：如果策略不支持Range（说明是转换流，如Docx转PDF），则强制走FullRequest
-        // 即使前端传了Range头也不处理，防止截断
-        if (!strategy.supportRange() || rangeHeader == null || !rangeHeader.startsWith("bytes=")) {
-            return handleFullRequest(storage, fileInfo, strategy);
+            return handleRangeRequest(lease, fileInfo, strategy, rangeHeader);
+        } catch (RuntimeException e) {
+            lease.close();
+            throw e;
         }
-
-        return handleRangeRequest(storage, fileInfo, strategy, rangeHeader);
     }
 
     private ResponseEntity<StreamingResponseBody> handleFullRequest(
-            IStorageOperationService storage, FileInfo fileInfo, PreviewStrategy strategy) {
+            StorageInstanceLease lease, FileInfo fileInfo, PreviewStrategy strategy) {
 
         StreamingResponseBody stream = outputStream -> {
-            try (InputStream sourceStream = storage.getFileStream(fileInfo.getObjectKey());
+            try (lease;
+                 InputStream sourceStream = lease.getService().getFileStream(fileInfo.getObjectKey());
                  InputStream processedStream = strategy.processStream(sourceStream, fileInfo.getSuffix())) {
 
                 copyStream(processedStream, outputStream);
@@ -90,7 +96,7 @@ public class FileStreamController {
     }
 
     private ResponseEntity<StreamingResponseBody> handleRangeRequest(
-            IStorageOperationService storage, FileInfo fileInfo,
+            StorageInstanceLease lease, FileInfo fileInfo,
             PreviewStrategy strategy, String rangeHeader) {
 
         long fileSize = fileInfo.getSize();
@@ -115,8 +121,9 @@ public class FileStreamController {
         final long contentLength = finalEnd - finalStart + 1;
 
         StreamingResponseBody stream = outputStream -> {
-            try (InputStream inputStream = storage.getFileStream(fileInfo.getObjectKey())) {
-                skipBytes(inputStream, finalStart);
+            // 只读取请求的范围，不从对象开头跳过；远程存储开启磁盘缓存时由缓存块直接提供
+            try (lease; InputStream inputStream = lease.getService()
+                    .downloadFileRange(fileInfo.getObjectKey(), finalStart, finalEnd)) {
                 copyStreamLimited(inputStream, outputStream, contentLength);
             } catch (IOException e) {
                 log.debug("Range流传输中断: {}", fileInfo.getDisplayName());
@@ -166,21 +173,6 @@ public class FileStreamController {
         return headers;
     }
 
-    private void skipBytes(InputStream in, long skipCount) throws IOException {
-        if (skipCount <= 0) return;
-
-        long remaining = skipCount;
-        while (remaining > 0) {
-            long skipped = in.skip(remaining);
-            if (skipped == 0) {
-                if (in.read() == -1) throw new IOException("无法跳过指定字节数");
-                remaining--;
-            } else {
-                remaining -= skipped;
-            }
-        }
-    }
-
     private void copyStream(InputStream in, OutputStream out) throws IOException {
         byte[] buffer = new byte[previewConfig.getBufferSize()];
         int bytesRead;
@@ -8,16 +8,20 @@ import com.xddcodec.fs.file.domain.FileInfo;
 import com.xddcodec.fs.file.domain.qry.DownloadChunkQry;
 import com.xddcodec.fs.file.domain.qry.TransferFilesQry;
 import com.xddcodec.fs.file.domain.vo.CheckUploadResultVO;
+import com.xddcodec.fs.file.domain.vo.ChunkBitmapVO;
 import com.xddcodec.fs.file.domain.vo.FileDownloadVO;
 import com.xddcodec.fs.file.domain.vo.FileTransferTaskVO;
 import com.xddcodec.fs.file.domain.vo.InitDownloadResultVO;
 import com.xddcodec.fs.file.service.FileTransferTaskService;
 import com.xddcodec.fs.framework.common.domain.Result;
+import com.xddcodec.fs.framework.common.exception.BusinessException;
+import com.xddcodec.fs.framework.common.utils.StringUtils;
 import com.xddcodec.fs.framework.sse.SseConnectionManager;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.enums.ParameterIn;
 import io.swagger.v3.oas.annotations.tags.Tag;
+import jakarta.servlet.http.HttpServletRequest;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.commons.io.IOUtils;
@@ -32,11 +36,13 @@ import org.springframework.web.multipart.MultipartFile;
 import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
+import java.io.IOException;
 import java.io.InputStream;
 import java.net.URLEncoder;
 import java.nio.charset.StandardCharsets;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * 文件传输控制器
@@ -51,6 +57,8 @@ import java.util.Set;
 @Tag(name = "文件传输", description = "文件传输")
 public class FileTransferController {
 
+    private static final String CHUNK_MD5_HEADER = "X-Chunk-Md5";
+
     private final FileTransferTaskService fileTransferTaskService;
     private final SseConnectionManager sseConnectionManager;
 
@@ -83,8 +91,8 @@ public class FileTransferController {
     }
 
     @PostMapping("/chunk")
-    @Operation(summary = "上传分片", description = "异步上传分片，立即返回，通过SSE推送进度")
-    public Result<?> uploadChunk(
+    @Operation(summary = "上传分片", description = "流式写入存储，分片写入完成后返回，通过SSE推送进度")
+    public CompletableFuture<Result<?>> uploadChunk(
             @RequestParam("file") MultipartFile file,
             @RequestParam("taskId") String taskId,
             @RequestParam("chunkIndex") Integer chunkIndex,
@@ -94,9 +102,31 @@ public class FileTransferController {
         cmd.setTaskId(taskId);
         cmd.setChunkIndex(chunkIndex);
         cmd.setChunkMd5(chunkMd5);
-        byte[] fileBytes = file.getBytes();
-        fileTransferTaskService.uploadChunk(fileBytes, cmd);
-        return Result.ok(null, "分片接收成功，正在处理");
+        return fileTransferTaskService.uploadChunk(file.getInputStream(), file.getSize(), cmd)
+                .thenApply(v -> Result.ok(null, "分片上传成功"));
+    }
+
+    @PutMapping(value = "/chunk/{taskId}/{chunkIndex}", consumes = MediaType.APPLICATION_OCTET_STREAM_VALUE)
+    @Operation(summary = "上传分片（原始流）", description = "请求体为分片原始字节，需携带Content-Length，跳过multipart解析直接写入存储")
+    public CompletableFuture<Result<?>> uploadChunkStream(
+            @PathVariable String taskId,
+            @PathVariable Integer chunkIndex,
+            @Parameter(description = "分片MD5（十六进制，可选，携带时服务端校验）")
+            @RequestHeader(value = CHUNK_MD5_HEADER, required = false) String chunkMd5,
+            HttpServletRequest request
+    ) throws IOException {
+        long contentLength = request.getContentLengthLong();
+        // 空文件的唯一分片长度为0，只拒绝缺少长度的请求，实际长度由分片期望大小校验
+        if (contentLength < 0) {
+            throw new BusinessException("缺少有效的 Content-Length 请求头");
+        }
+        UploadChunkCmd cmd = new UploadChunkCmd();
+        cmd.setTaskId(taskId);
+        cmd.setChunkIndex(chunkIndex);
+        cmd.setChunkMd5(chunkMd5);
+        cmd.setVerifyChunkMd5(StringUtils.isNotBlank(chunkMd5));
+        return fileTransferTaskService.uploadChunk(request.getInputStream(), contentLength, cmd)
+                .thenApply(v -> Result.ok(null, "分片上传成功"));
     }
 
     @PostMapping("/pause/{taskId}")
@@ -134,6 +164,12 @@ public class FileTransferController {
         return Result.ok(uploadedChunks);
     }
 
+    @GetMapping("/chunks/{taskId}/bitmap")
+    @Operation(summary = "查询已上传的分片位图", description = "用于大文件断点续传，返回Base64编码的分片位图（可能经DEFLATE压缩）")
+    public Result<ChunkBitmapVO> getUploadedChunkBitmap(@PathVariable String taskId) {
+        return Result.ok(fileTransferTaskService.getUploadedChunkBitmap(taskId));
+    }
+
     @DeleteMapping("/clears")
     @Operation(summary = "清空已完成的传输列表", description = "清空已完成的传输列表")
     public Result<Set<Integer>> clearTransfers() {
@@ -150,41 +186,38 @@ public class FileTransferController {
 
     @GetMapping("/download/chunk")
     @Operation(summary = "下载分片", description = "下载指定分片，返回206 Partial Content")
-    public ResponseEntity<StreamingResponseBody> downloadChunk(@Validated DownloadChunkQry qry) {
-        try {
-            // 获取任务信息
-            com.xddcodec.fs.file.domain.FileTransferTask task = fileTransferTaskService.getTask(qry.getTaskId());
-            
-            // 计算字节范围
-            long startByte = (long) qry.getChunkIndex() * task.getChunkSize();
-            long endByte = Math.min(startByte + task.getChunkSize() - 1, task.getFileSize() - 1);
-            long contentLength = endByte - startByte + 1;
-            
-            // 创建流式响应
-            StreamingResponseBody responseBody = outputStream -> {
-                try (InputStream inputStream = fileTransferTaskService.downloadChunk(
-                        qry.getTaskId(), qry.getChunkIndex())) {
-                    IOUtils.copy(inputStream, outputStream);
-                    outputStream.flush();
-                } catch (Exception e) {
-                    log.error("下载分片失败: taskId={}, chunkIndex={}", qry.getTaskId(), qry.getChunkIndex(), e);
-                    throw new RuntimeException("下载分片失败", e);
-                }
-            };
-            
-            // 设置响应头
-            return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
-                    .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE)
-                    .header(HttpHeaders.CONTENT_RANGE, 
-                            String.format("bytes %d-%d/%d", startByte, endByte, task.getFileSize()))
-                    .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(contentLength))
-                    .header(HttpHeaders.CONTENT_DISPOSITION, 
-                            "attachment; filename=\"" + URLEncoder.encode(task.getFileName(), StandardCharsets.UTF_8) + "\"")
-                    .body(responseBody);
-        } catch (Exception e) {
-            log.error("下载分片失败: taskId={}, chunkIndex={}", qry.getTaskId(), qry.getChunkIndex(), e);
-            throw new RuntimeException("下载分片失败", e);
-        }
+    public CompletableFuture<ResponseEntity<StreamingResponseBody>> downloadChunk(@Validated DownloadChunkQry qry) {
+        // 获取任务信息
+        com.xddcodec.fs.file.domain.FileTransferTask task = fileTransferTaskService.getTask(qry.getTaskId());
+        
+        // 计算字节范围
+        long startByte = (long) qry.getChunkIndex() * task.getChunkSize();
+        long endByte = Math.min(startByte + task.getChunkSize() - 1, task.getFileSize() - 1);
+        long contentLength = endByte - startByte + 1;
+        
+        // 存储响应头到达后再构建流式响应，等待期间不占用请求线程
+        return fileTransferTaskService.downloadChunk(qry.getTaskId(), qry.getChunkIndex())
+                .thenApply(chunkStream -> {
+                    StreamingResponseBody responseBody = outputStream -> {
+                        try (InputStream inputStream = chunkStream) {
+                            IOUtils.copy(inputStream, outputStream);
+                            outputStream.flush();
+                        } catch (Exception e) {
+                            log.error("下载分片失败: taskId={}, chunkIndex={}", qry.getTaskId(), qry.getChunkIndex(), e);
+                            throw new RuntimeException("下载分片失败", e);
+                        }
+                    };
+                    
+                    // 设置响应头
+                    return ResponseEntity.status(HttpStatus.PARTIAL_CONTENT)
+                            .header(HttpHeaders.CONTENT_TYPE, MediaType.APPLICATION_OCTET_STREAM_VALUE)
+                            .header(HttpHeaders.CONTENT_RANGE, 
+                                    String.format("bytes %d-%d/%d", startByte, endByte, task.getFileSize()))
+                            .header(HttpHeaders.CONTENT_LENGTH, String.valueOf(contentLength))
+                            .header(HttpHeaders.CONTENT_DISPOSITION, 
+                                    "attachment; filename=\"" + URLEncoder.encode(task.getFileName(), StandardCharsets.UTF_8) + "\"")
+                            .body(responseBody);
+                });
     }
 
     @GetMapping("/download/chunks/{taskId}")
@@ -194,6 +227,12 @@ public class FileTransferController {
         return Result.ok(downloadedChunks);
     }
 
+    @GetMapping("/download/chunks/{taskId}/bitmap")
+    @Operation(summary = "查询已下载分片位图", description = "返回Base64编码的分片位图（可能经DEFLATE压缩）")
+    public Result<ChunkBitmapVO> getDownloadedChunkBitmap(@PathVariable String taskId) {
+        return Result.ok(fileTransferTaskService.getDownloadedChunkBitmap(taskId));
+    }
+
     @GetMapping("/download/{fileId}")
     @Operation(summary = "下载文件", description = "根据文件ID下载文件")
     @Parameter(name = "fileId", description = "文件ID", in = ParameterIn.PATH, required = true)
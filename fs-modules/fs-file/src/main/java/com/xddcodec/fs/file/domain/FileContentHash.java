@@ -0,0 +1,47 @@
+package com.xddcodec.fs.file.domain;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import com.xddcodec.fs.framework.orm.entity.BaseEntity;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 文件内容哈希登记表实体类
+ * 每个存储平台下同一内容哈希只登记一个物理对象，不区分用户，用于秒传查找
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/22
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Table("file_content_hash")
+public class FileContentHash extends BaseEntity {
+
+    /**
+     * 主键ID
+     */
+    @Id(keyType = KeyType.Auto)
+    private Long id;
+    /**
+     * 内容哈希（MD5）
+     */
+    private String hash;
+    /**
+     * 存储平台配置ID，本地存储为空字符串
+     */
+    private String storagePlatformSettingId;
+    /**
+     * 对象key
+     */
+    private String objectKey;
+    /**
+     * 文件大小(字节)
+     */
+    private Long size;
+    /**
+     * 引用该对象的文件记录数
+     */
+    private Integer refCount;
+}
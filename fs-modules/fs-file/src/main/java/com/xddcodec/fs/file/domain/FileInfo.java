@@ -53,6 +53,21 @@ public class FileInfo implements Serializable {
      */
     private Long size;
 
+    /**
+     * 目录聚合：子孙文件总大小（仅目录，不含回收站中的子孙）
+     */
+    private Long totalSize;
+
+    /**
+     * 目录聚合：子孙文件数（仅目录）
+     */
+    private Integer fileCount;
+
+    /**
+     * 目录聚合：子孙文件夹数（仅目录）
+     */
+    private Integer folderCount;
+
     /**
      * 存储标准MIME类型
      */
@@ -68,6 +83,11 @@ public class FileInfo implements Serializable {
      */
     private String parentId;
 
+    /**
+     * 物化路径：从根到自身的ID链，形如 /祖先ID/.../自身ID/，用于单次查询子树、祖先与面包屑
+     */
+    private String path;
+
     /**
      * 用户ID
      */
@@ -0,0 +1,39 @@
+package com.xddcodec.fs.file.domain;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import com.xddcodec.fs.framework.orm.entity.BaseEntity;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+/**
+ * 物理对象引用计数表实体类
+ * 每个 (存储平台, 对象key) 一行，记录引用该对象的文件记录数，计数归零后由回收器删除物理对象
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/23
+ */
+@EqualsAndHashCode(callSuper = true)
+@Data
+@Table("file_object_ref")
+public class FileObjectRef extends BaseEntity {
+
+    /**
+     * 主键ID
+     */
+    @Id(keyType = KeyType.Auto)
+    private Long id;
+    /**
+     * 存储平台配置ID，本地存储为空字符串
+     */
+    private String storagePlatformSettingId;
+    /**
+     * 对象key
+     */
+    private String objectKey;
+    /**
+     * 引用该对象的文件记录数，0 表示等待回收
+     */
+    private Integer refCount;
+}
@@ -0,0 +1,66 @@
+package com.xddcodec.fs.file.domain.dto;
+
+import com.xddcodec.fs.framework.common.exception.BusinessException;
+import com.xddcodec.fs.framework.common.utils.JsonUtils;
+import lombok.Data;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * 文件列表分页游标
+ * 记录上一页最后一条的分组、排序键和ID，序列化为 URL 安全的 Base64 字符串交给客户端原样回传
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/26
+ */
+@Data
+public class FileListCursor {
+
+    /**
+     * 排序字段，游标只能用于生成它的排序方式
+     */
+    private String sort;
+
+    /**
+     * 是否升序
+     */
+    private Boolean asc;
+
+    /**
+     * 最后一条是否目录
+     */
+    private Boolean dir;
+
+    /**
+     * 最后一条的排序键，目录按大小排序时为空
+     */
+    private String value;
+
+    /**
+     * 最后一条的ID
+     */
+    private String id;
+
+    public String encode() {
+        return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(JsonUtils.toJsonString(this).getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * 解析游标，格式错误或与当前排序方式不一致时拒绝
+     */
+    public static FileListCursor decode(String cursor, String sort, boolean asc) {
+        FileListCursor decoded;
+        try {
+            decoded = JsonUtils.parseObject(Base64.getUrlDecoder().decode(cursor), FileListCursor.class);
+        } catch (Exception e) {
+            throw new BusinessException("分页游标无效");
+        }
+        if (decoded == null || decoded.getId() == null || decoded.getDir() == null
+                || !sort.equals(decoded.getSort()) || !Boolean.valueOf(asc).equals(decoded.getAsc())) {
+            throw new BusinessException("分页游标无效");
+        }
+        return decoded;
+    }
+}
@@ -0,0 +1,28 @@
+package com.xddcodec.fs.file.domain.dto;
+
+import lombok.Data;
+
+/**
+ * 用户在单个存储平台的存储用量汇总
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Data
+public class StorageUsageSum {
+
+    /**
+     * 存储平台配置ID，本地存储为空字符串
+     */
+    private String storagePlatformSettingId;
+
+    /**
+     * 已使用存储(字节)
+     */
+    private Long storageUsed;
+
+    /**
+     * 文件数量
+     */
+    private Long filesCount;
+}
@@ -7,4 +7,8 @@ public class UploadChunkCmd {
     private String taskId;
     private Integer chunkIndex;
     private String chunkMd5;
+    /**
+     * 是否在写入存储时校验分片MD5（原始流上传携带校验头时启用）
+     */
+    private boolean verifyChunkMd5;
 }
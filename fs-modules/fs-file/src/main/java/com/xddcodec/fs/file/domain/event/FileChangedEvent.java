@@ -0,0 +1,27 @@
+package com.xddcodec.fs.file.domain.event;
+
+import lombok.Getter;
+import org.springframework.context.ApplicationEvent;
+
+import java.io.Serial;
+
+/**
+ * 用户文件变更事件
+ * 新增、删除、移动、重命名、收藏、分享等操作后发布，用于失效首页快照等按用户缓存的数据
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/26
+ */
+@Getter
+public class FileChangedEvent extends ApplicationEvent {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    private final String userId;
+
+    public FileChangedEvent(Object source, String userId) {
+        super(source);
+        this.userId = userId;
+    }
+}
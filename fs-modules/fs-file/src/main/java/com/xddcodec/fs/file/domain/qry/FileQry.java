@@ -1,7 +1,11 @@
 package com.xddcodec.fs.file.domain.qry;
 
+import com.xddcodec.fs.framework.common.utils.DateUtils;
 import io.swagger.v3.oas.annotations.media.Schema;
 import lombok.Data;
+import org.springframework.format.annotation.DateTimeFormat;
+
+import java.time.LocalDateTime;
 
 @Data
 @Schema(description = "文件列表查询参数")
@@ -13,11 +17,27 @@ public class FileQry {
     @Schema(description = "文件名关键词（搜索用）", example = "工作文档")
     private String keyword;
 
+    @Schema(description = "关键词匹配方式", example = "CONTAINS",
+            allowableValues = {"CONTAINS", "PREFIX", "FUZZY"})
+    private String searchMode;
+
+    @Schema(description = "后缀名过滤", example = "pdf")
+    private String suffix;
+
+    @Schema(description = "修改时间起（含）", example = "2026-01-01 00:00:00")
+    @DateTimeFormat(pattern = DateUtils.DATE_TIME_PATTERN)
+    private LocalDateTime updateTimeStart;
+
+    @Schema(description = "修改时间止（不含）", example = "2026-02-01 00:00:00")
+    @DateTimeFormat(pattern = DateUtils.DATE_TIME_PATTERN)
+    private LocalDateTime updateTimeEnd;
+
     @Schema(description = "文件类型过滤", example = "IMAGE",
             allowableValues = {"ALL", "DOCUMENT", "IMAGE", "VIDEO", "AUDIO", "OTHER"})
     private String fileType;
 
-    @Schema(description = "排序字段", example = "updateTime")
+    @Schema(description = "排序字段", example = "updateTime",
+            allowableValues = {"updateTime", "displayName", "size"})
     private String orderBy;
 
     @Schema(description = "排序方向", example = "DESC", allowableValues = {"ASC", "DESC"})
@@ -31,4 +51,13 @@ public class FileQry {
 
     @Schema(description = "是否目录", example = "true")
     private Boolean isDir;
+
+    @Schema(description = "分页游标，取上一页返回的 nextCursor，首页为空")
+    private String cursor;
+
+    @Schema(description = "每页数量", example = "100")
+    private Integer pageSize = 100;
+
+    @Schema(description = "是否统计总数", example = "false")
+    private Boolean withTotal;
 }
@@ -0,0 +1,56 @@
+package com.xddcodec.fs.file.domain.vo;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+
+/**
+ * 分片位图
+ * 位序与 Redis SETBIT 一致：分片 i 对应第 i/8 个字节的第 (7 - i%8) 位（高位在前）
+ *
+ * @author xddcode
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class ChunkBitmapVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 位图编码：raw 原始位图，deflate 为 raw DEFLATE（无 zlib 头）压缩后的位图
+     */
+    public static final String ENCODING_RAW = "raw";
+    public static final String ENCODING_DEFLATE = "deflate";
+
+    /**
+     * 任务ID
+     */
+    private String taskId;
+
+    /**
+     * 总分片数
+     */
+    private Integer totalChunks;
+
+    /**
+     * 已传输分片数
+     */
+    private Integer transferredChunks;
+
+    /**
+     * 位图编码
+     */
+    private String encoding;
+
+    /**
+     * Base64 编码的位图，长度为 ceil(totalChunks / 8) 字节（解压后）
+     */
+    private String bitmap;
+}
@@ -0,0 +1,40 @@
+package com.xddcodec.fs.file.domain.vo;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * 文件列表游标分页结果
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/26
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Schema(description = "文件列表游标分页结果")
+public class FilePageVO implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Schema(description = "当前页记录")
+    private List<FileVO> records;
+
+    @Schema(description = "下一页游标，没有下一页时为空")
+    private String nextCursor;
+
+    @Schema(description = "是否还有下一页")
+    private Boolean hasMore;
+
+    @Schema(description = "总数，仅在请求时统计")
+    private Long total;
+}
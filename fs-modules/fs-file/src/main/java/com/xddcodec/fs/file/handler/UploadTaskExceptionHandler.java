@@ -1,9 +1,11 @@
 package com.xddcodec.fs.file.handler;
 
 import com.xddcodec.fs.file.cache.TransferTaskCacheManager;
+import com.xddcodec.fs.file.cache.UserStorageUsageManager;
 import com.xddcodec.fs.file.domain.FileTransferTask;
 import com.xddcodec.fs.file.mapper.FileTransferTaskMapper;
 import com.xddcodec.fs.file.enums.TransferTaskStatus;
+import com.xddcodec.fs.file.enums.TransferTaskType;
 import com.xddcodec.fs.file.service.TransferSseService;
 import com.xddcodec.fs.framework.common.utils.ErrorMessageUtils;
 import lombok.RequiredArgsConstructor;
@@ -23,6 +25,7 @@ public class UploadTaskExceptionHandler {
     private final FileTransferTaskMapper fileTransferTaskMapper;
     private final TransferTaskCacheManager cacheManager;
     private final TransferSseService transferSseService;
+    private final UserStorageUsageManager userStorageUsageManager;
 
     /**
      * 处理任务失败
@@ -46,7 +49,12 @@ public class UploadTaskExceptionHandler {
                 task.setErrorMsg(truncateErrorMsg(errorMsg));
                 task.setUpdatedAt(LocalDateTime.now());
                 fileTransferTaskMapper.update(task);
-                
+
+                // 失败的上传不会再合并，归还预留的配额
+                if (TransferTaskType.upload.equals(task.getTaskType())) {
+                    userStorageUsageManager.releaseReservation(task.getUserId(), taskId);
+                }
+
                 // 推送失败消息通过SSE（使用用户友好的错误信息）
                 String userFriendlyMsg = ErrorMessageUtils.extractUserFriendlyMessage(errorMsg);
                 transferSseService.sendErrorEvent(task.getUserId(), taskId, "TASK_FAILED", userFriendlyMsg);
@@ -0,0 +1,34 @@
+package com.xddcodec.fs.file.listener;
+
+import com.xddcodec.fs.file.cache.FileHomeCacheManager;
+import com.xddcodec.fs.file.domain.event.FileChangedEvent;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+/**
+ * 文件变更事件监听器
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/26
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileChangedEventListener {
+
+    private final FileHomeCacheManager fileHomeCacheManager;
+
+    /**
+     * 事务提交后失效首页快照，避免并发读取把提交前的数据重新写入缓存；无事务时立即执行
+     */
+    @TransactionalEventListener(fallbackExecution = true)
+    public void handleFileChangedEvent(FileChangedEvent event) {
+        try {
+            fileHomeCacheManager.evict(event.getUserId());
+        } catch (Exception e) {
+            log.warn("失效首页快照失败: userId={}", event.getUserId(), e);
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package com.xddcodec.fs.file.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import com.xddcodec.fs.file.domain.FileContentHash;
+import org.apache.ibatis.annotations.Delete;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+/**
+ * 文件内容哈希登记 mapper 接口
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/22
+ */
+public interface FileContentHashMapper extends BaseMapper<FileContentHash> {
+
+    /**
+     * 登记物理对象：哈希未登记时插入计数为1的登记，已登记同一对象时原子加1，已登记其他对象时不修改
+     * 单条语句完成，不依赖唯一键冲突异常，不会中断调用方事务
+     */
+    @Insert(value = "INSERT INTO file_content_hash " +
+            "(hash, storage_platform_setting_id, object_key, size, ref_count, created_at, updated_at) " +
+            "VALUES (#{hash}, #{platformId}, #{objectKey}, #{size}, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE ref_count = IF(object_key = #{objectKey}, ref_count + 1, ref_count)",
+            databaseId = "mysql")
+    @Insert(value = "INSERT INTO file_content_hash " +
+            "(hash, storage_platform_setting_id, object_key, size, ref_count, created_at, updated_at) " +
+            "VALUES (#{hash}, #{platformId}, #{objectKey}, #{size}, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (hash, storage_platform_setting_id) DO UPDATE " +
+            "SET ref_count = file_content_hash.ref_count + 1, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE file_content_hash.object_key = EXCLUDED.object_key",
+            databaseId = "postgresql")
+    int upsert(@Param("hash") String hash,
+               @Param("platformId") String platformId,
+               @Param("objectKey") String objectKey,
+               @Param("size") Long size);
+
+    /**
+     * 原子调整引用计数（仅当登记的对象与 objectKey 一致时）
+     *
+     * @return 影响行数，0 表示未登记
+     */
+    @Update("UPDATE file_content_hash " +
+            "SET ref_count = ref_count + #{delta}, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE hash = #{hash} AND storage_platform_setting_id = #{platformId} " +
+            "AND object_key = #{objectKey} AND ref_count + #{delta} >= 0")
+    int addRefCount(@Param("hash") String hash,
+                    @Param("platformId") String platformId,
+                    @Param("objectKey") String objectKey,
+                    @Param("delta") int delta);
+
+    /**
+     * 删除引用计数归零的登记
+     */
+    @Delete("DELETE FROM file_content_hash " +
+            "WHERE hash = #{hash} AND storage_platform_setting_id = #{platformId} " +
+            "AND object_key = #{objectKey} AND ref_count <= 0")
+    int deleteUnreferenced(@Param("hash") String hash,
+                           @Param("platformId") String platformId,
+                           @Param("objectKey") String objectKey);
+}
@@ -1,8 +1,16 @@
 package com.xddcodec.fs.file.mapper;
 
 import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.dto.StorageUsageSum;
 import com.mybatisflex.core.BaseMapper;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Select;
+import org.apache.ibatis.annotations.Update;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 
 /**
  * 文件资源Mapper接口
@@ -12,4 +20,180 @@ import org.apache.ibatis.annotations.Mapper;
  */
 @Mapper
 public interface FileInfoMapper extends BaseMapper<FileInfo> {
-}
\ No newline at end of file
+
+    /**
+     * 替换子树路径前缀（含节点自身），移动目录时一条语句更新整棵子树
+     *
+     * @param oldPrefix 原路径前缀
+     * @param newPrefix 新路径前缀
+     * @param offset    原路径中前缀之后第一个字符的位置（从1开始），即原前缀长度加1
+     * @return 影响行数
+     */
+    @Update("UPDATE file_info SET path = CONCAT(#{newPrefix}, SUBSTR(path, #{offset})) " +
+            "WHERE path LIKE CONCAT(#{oldPrefix}, '%')")
+    int replacePathPrefix(@Param("oldPrefix") String oldPrefix,
+                          @Param("newPrefix") String newPrefix,
+                          @Param("offset") int offset);
+
+    /**
+     * 子树（含节点自身）中最长的路径长度，移动目录前校验层级深度
+     *
+     * @param prefix 子树根节点路径
+     * @return 最长路径的字符数
+     */
+    @Select("SELECT COALESCE(MAX(CHAR_LENGTH(path)), 0) FROM file_info WHERE path LIKE CONCAT(#{prefix}, '%')")
+    int selectMaxPathLength(@Param("prefix") String prefix);
+
+    /**
+     * 设置子树（含节点自身）的删除标记，一条语句完成放入回收站或恢复
+     * 只更新标记与目标不同的节点，重复执行无副作用
+     *
+     * @param prefix      子树根节点路径
+     * @param userId      用户ID
+     * @param deleted     目标删除标记
+     * @param deletedTime 删除时间，恢复时为空
+     * @return 影响行数
+     */
+    @Update("UPDATE file_info SET is_deleted = #{deleted}, deleted_time = #{deletedTime,jdbcType=TIMESTAMP} " +
+            "WHERE path LIKE CONCAT(#{prefix}, '%') AND user_id = #{userId} AND is_deleted <> #{deleted}")
+    int updateSubtreeDeleted(@Param("prefix") String prefix,
+                             @Param("userId") String userId,
+                             @Param("deleted") boolean deleted,
+                             @Param("deletedTime") LocalDateTime deletedTime);
+
+    /**
+     * 按ID设置删除标记，子树分批处理时使用
+     *
+     * @param ids         节点ID集合
+     * @param deleted     目标删除标记
+     * @param deletedTime 删除时间，恢复时为空
+     * @return 影响行数
+     */
+    @Update("<script>UPDATE file_info SET is_deleted = #{deleted}, deleted_time = #{deletedTime,jdbcType=TIMESTAMP} " +
+            "WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "AND is_deleted <> #{deleted}</script>")
+    int updateDeletedByIds(@Param("ids") Collection<String> ids,
+                           @Param("deleted") boolean deleted,
+                           @Param("deletedTime") LocalDateTime deletedTime);
+
+    /**
+     * 批量增减目录聚合计数
+     *
+     * @param ids     目录ID集合
+     * @param size    总大小增量
+     * @param files   文件数增量
+     * @param folders 文件夹数增量
+     * @return 影响行数
+     */
+    @Update("<script>UPDATE file_info SET total_size = total_size + #{size}, " +
+            "file_count = file_count + #{files}, folder_count = folder_count + #{folders} " +
+            "WHERE id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach></script>")
+    int addAggregates(@Param("ids") Collection<String> ids,
+                      @Param("size") long size,
+                      @Param("files") int files,
+                      @Param("folders") int folders);
+
+    /**
+     * 锁定子树内（含根节点）未删除的目录，重算聚合期间挡住对这些目录的增量更新
+     *
+     * @param prefix 子树根节点路径
+     * @return 锁定的目录数
+     */
+    @Select(value = "SELECT COUNT(*) FROM file_info WHERE path LIKE CONCAT(#{prefix}, '%') " +
+            "AND is_dir = true AND is_deleted = false FOR UPDATE",
+            databaseId = "mysql")
+    @Select(value = "SELECT COUNT(*) FROM (SELECT id FROM file_info WHERE path LIKE CONCAT(#{prefix}, '%') " +
+            "AND is_dir = true AND is_deleted = false FOR UPDATE) locked",
+            databaseId = "postgresql")
+    long lockSubtreeDirs(@Param("prefix") String prefix);
+
+    /**
+     * 按子树实际数据重算子树内所有未删除目录（含根节点）的聚合值，一条分组更新语句完成，只更新有偏差的目录
+     * 子孙按同一用户下的路径区间关联（路径只含 ASCII 字符，0x7F 大于其中任意字符），可走路径索引范围扫描
+     *
+     * @param prefix 子树根节点路径
+     * @return 修正的目录数
+     */
+    @Update(value = "UPDATE file_info d JOIN (" +
+            "SELECT a.id, COALESCE(SUM(CASE WHEN c.is_dir = false THEN c.size END), 0) AS total_size, " +
+            "COUNT(CASE WHEN c.is_dir = false THEN 1 END) AS file_count, " +
+            "COUNT(CASE WHEN c.is_dir = true THEN 1 END) AS folder_count " +
+            "FROM file_info a LEFT JOIN file_info c " +
+            "ON c.user_id = a.user_id AND c.path > a.path AND c.path < CONCAT(a.path, CHAR(127 USING ascii)) " +
+            "AND c.is_deleted = false " +
+            "WHERE a.path LIKE CONCAT(#{prefix}, '%') AND a.is_dir = true AND a.is_deleted = false " +
+            "GROUP BY a.id) s ON d.id = s.id " +
+            "SET d.total_size = s.total_size, d.file_count = s.file_count, d.folder_count = s.folder_count " +
+            "WHERE d.total_size <> s.total_size OR d.file_count <> s.file_count OR d.folder_count <> s.folder_count",
+            databaseId = "mysql")
+    @Update(value = "UPDATE file_info d " +
+            "SET total_size = s.total_size, file_count = s.file_count, folder_count = s.folder_count FROM (" +
+            "SELECT a.id, COALESCE(SUM(CASE WHEN c.is_dir = false THEN c.size END), 0) AS total_size, " +
+            "COUNT(CASE WHEN c.is_dir = false THEN 1 END) AS file_count, " +
+            "COUNT(CASE WHEN c.is_dir = true THEN 1 END) AS folder_count " +
+            "FROM file_info a LEFT JOIN file_info c " +
+            "ON c.user_id = a.user_id AND c.path ~>~ a.path AND c.path ~<~ (a.path || CHR(127)) " +
+            "AND c.is_deleted = false " +
+            "WHERE a.path LIKE CONCAT(#{prefix}, '%') AND a.is_dir = true AND a.is_deleted = false " +
+            "GROUP BY a.id) s " +
+            "WHERE d.id = s.id " +
+            "AND (d.total_size <> s.total_size OR d.file_count <> s.file_count OR d.folder_count <> s.folder_count)",
+            databaseId = "postgresql")
+    int recomputeSubtreeAggregates(@Param("prefix") String prefix);
+
+    /**
+     * 查询聚合值与子树实际数据不一致的目录，只读不加锁
+     *
+     * @param ids 目录ID集合
+     * @return 有偏差的目录ID
+     */
+    @Select(value = "<script>SELECT r.id FROM file_info r LEFT JOIN file_info c " +
+            "ON c.user_id = r.user_id AND c.path &gt; r.path AND c.path &lt; CONCAT(r.path, CHAR(127 USING ascii)) " +
+            "AND c.is_deleted = false " +
+            "WHERE r.id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY r.id, r.total_size, r.file_count, r.folder_count " +
+            "HAVING r.total_size &lt;&gt; COALESCE(SUM(CASE WHEN c.is_dir = false THEN c.size END), 0) " +
+            "OR r.file_count &lt;&gt; COUNT(CASE WHEN c.is_dir = false THEN 1 END) " +
+            "OR r.folder_count &lt;&gt; COUNT(CASE WHEN c.is_dir = true THEN 1 END)</script>",
+            databaseId = "mysql")
+    @Select(value = "<script>SELECT r.id FROM file_info r LEFT JOIN file_info c " +
+            "ON c.user_id = r.user_id AND c.path ~&gt;~ r.path AND c.path ~&lt;~ (r.path || CHR(127)) " +
+            "AND c.is_deleted = false " +
+            "WHERE r.id IN " +
+            "<foreach collection='ids' item='id' open='(' separator=',' close=')'>#{id}</foreach> " +
+            "GROUP BY r.id, r.total_size, r.file_count, r.folder_count " +
+            "HAVING r.total_size &lt;&gt; COALESCE(SUM(CASE WHEN c.is_dir = false THEN c.size END), 0) " +
+            "OR r.file_count &lt;&gt; COUNT(CASE WHEN c.is_dir = false THEN 1 END) " +
+            "OR r.folder_count &lt;&gt; COUNT(CASE WHEN c.is_dir = true THEN 1 END)</script>",
+            databaseId = "postgresql")
+    List<String> selectDriftedDirIds(@Param("ids") Collection<String> ids);
+
+    /**
+     * 按存储平台汇总用户的存储用量（含回收站中未彻底删除的文件）
+     *
+     * @param userId 用户ID
+     * @return 每个存储平台一行，本地存储的平台ID为空字符串
+     */
+    @Select("SELECT COALESCE(storage_platform_setting_id, '') AS storage_platform_setting_id, " +
+            "COALESCE(SUM(size), 0) AS storage_used, COUNT(*) AS files_count " +
+            "FROM file_info WHERE user_id = #{userId} AND is_dir = #{isDir} " +
+            "GROUP BY COALESCE(storage_platform_setting_id, '')")
+    List<StorageUsageSum> sumStorageUsage(@Param("userId") String userId, @Param("isDir") boolean isDir);
+
+    /**
+     * 按是否目录统计用户在存储平台的未删除文件数量，结果数量记录在 fileCount 中
+     * 平台条件保持为索引列上的等值/IS NULL 判断，由 idx_user_platform_deleted 覆盖
+     *
+     * @param userId      用户ID
+     * @param platformKey 存储平台配置ID，本地存储为空字符串
+     * @return 文件、目录各一行
+     */
+    @Select("<script>SELECT is_dir, COUNT(*) AS file_count FROM file_info WHERE user_id = #{userId} " +
+            "<choose><when test=\"platformKey.isEmpty()\">AND storage_platform_setting_id IS NULL</when>" +
+            "<otherwise>AND storage_platform_setting_id = #{platformKey}</otherwise></choose> " +
+            "AND is_deleted = false GROUP BY is_dir</script>")
+    List<FileInfo> countByType(@Param("userId") String userId, @Param("platformKey") String platformKey);
+}
@@ -0,0 +1,89 @@
+package com.xddcodec.fs.file.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import com.xddcodec.fs.file.domain.FileObjectRef;
+import org.apache.ibatis.annotations.Insert;
+import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.annotations.Update;
+
+import java.util.Collection;
+
+/**
+ * 物理对象引用计数 mapper 接口
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/23
+ */
+public interface FileObjectRefMapper extends BaseMapper<FileObjectRef> {
+
+    /**
+     * 登记物理对象：不存在时插入计数为1的登记，已存在时原子加1
+     * 计数已归零（等待回收）的对象不再增加，单条语句完成，不依赖唯一键冲突异常
+     */
+    @Insert(value = "INSERT INTO file_object_ref (storage_platform_setting_id, object_key, ref_count, created_at, updated_at) " +
+            "VALUES (#{platformId}, #{objectKey}, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON DUPLICATE KEY UPDATE ref_count = IF(ref_count > 0, ref_count + 1, ref_count)",
+            databaseId = "mysql")
+    @Insert(value = "INSERT INTO file_object_ref (storage_platform_setting_id, object_key, ref_count, created_at, updated_at) " +
+            "VALUES (#{platformId}, #{objectKey}, 1, CURRENT_TIMESTAMP, CURRENT_TIMESTAMP) " +
+            "ON CONFLICT (storage_platform_setting_id, object_key) DO UPDATE " +
+            "SET ref_count = file_object_ref.ref_count + 1, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE file_object_ref.ref_count > 0",
+            databaseId = "postgresql")
+    int upsertRefCount(@Param("platformId") String platformId,
+                       @Param("objectKey") String objectKey);
+
+    /**
+     * 原子增加引用计数，计数已归零（等待回收）的对象不再增加
+     *
+     * @return 影响行数，0 表示对象未登记或已等待回收
+     */
+    @Update("UPDATE file_object_ref " +
+            "SET ref_count = ref_count + #{delta}, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE storage_platform_setting_id = #{platformId} AND object_key = #{objectKey} " +
+            "AND ref_count > 0")
+    int increaseRefCount(@Param("platformId") String platformId,
+                         @Param("objectKey") String objectKey,
+                         @Param("delta") int delta);
+
+    /**
+     * 原子减少引用计数，不会减为负数
+     *
+     * @return 影响行数，0 表示对象未登记或计数不足
+     */
+    @Update("UPDATE file_object_ref " +
+            "SET ref_count = ref_count - #{delta}, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE storage_platform_setting_id = #{platformId} AND object_key = #{objectKey} " +
+            "AND ref_count >= #{delta}")
+    int decreaseRefCount(@Param("platformId") String platformId,
+                         @Param("objectKey") String objectKey,
+                         @Param("delta") int delta);
+
+    /**
+     * 批量释放计数恰好为 delta 的对象，计数归零等待回收
+     *
+     * @return 归零的对象数
+     */
+    @Update("<script>UPDATE file_object_ref " +
+            "SET ref_count = 0, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE storage_platform_setting_id = #{platformId} AND ref_count = #{delta} " +
+            "AND object_key IN <foreach collection='objectKeys' item='objectKey' open='(' separator=',' close=')'>#{objectKey}</foreach>" +
+            "</script>")
+    int releaseToZero(@Param("platformId") String platformId,
+                      @Param("objectKeys") Collection<String> objectKeys,
+                      @Param("delta") int delta);
+
+    /**
+     * 批量减少计数大于 delta 的对象，释放后仍有引用
+     *
+     * @return 更新的对象数
+     */
+    @Update("<script>UPDATE file_object_ref " +
+            "SET ref_count = ref_count - #{delta}, updated_at = CURRENT_TIMESTAMP " +
+            "WHERE storage_platform_setting_id = #{platformId} AND ref_count &gt; #{delta} " +
+            "AND object_key IN <foreach collection='objectKeys' item='objectKey' open='(' separator=',' close=')'>#{objectKey}</foreach>" +
+            "</script>")
+    int releaseReferenced(@Param("platformId") String platformId,
+                          @Param("objectKeys") Collection<String> objectKeys,
+                          @Param("delta") int delta);
+}
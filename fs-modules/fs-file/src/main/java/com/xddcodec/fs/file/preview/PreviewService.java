@@ -1,6 +1,7 @@
 package com.xddcodec.fs.file.preview;
 
 import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.event.FileChangedEvent;
 import com.xddcodec.fs.file.service.FileInfoService;
 import com.xddcodec.fs.framework.common.enums.FileTypeEnum;
 import com.xddcodec.fs.framework.preview.config.FilePreviewConfig;
@@ -8,6 +9,7 @@ import com.xddcodec.fs.framework.preview.core.PreviewContext;
 import com.xddcodec.fs.framework.preview.core.PreviewStrategy;
 import com.xddcodec.fs.framework.preview.factory.PreviewStrategyManager;
 import lombok.RequiredArgsConstructor;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.ui.Model;
 
@@ -22,6 +24,7 @@ public class PreviewService {
     private final FileInfoService fileInfoService;
     private final PreviewStrategyManager strategyManager;
     private final FilePreviewConfig previewConfig;
+    private final ApplicationEventPublisher eventPublisher;
 
     public String preview(String fileId, Model model) {
         if (fileId == null || fileId.trim().isEmpty()) {
@@ -56,6 +59,7 @@ public class PreviewService {
         //修改文件访问记录
         fileInfo.setLastAccessTime(LocalDateTime.now());
         fileInfoService.updateById(fileInfo);
+        eventPublisher.publishEvent(new FileChangedEvent(this, fileInfo.getUserId()));
         return strategy.getTemplatePath();
     }
 
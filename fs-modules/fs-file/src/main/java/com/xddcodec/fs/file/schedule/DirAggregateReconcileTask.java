@@ -0,0 +1,111 @@
+package com.xddcodec.fs.file.schedule;
+
+import cn.hutool.core.collection.CollUtil;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.xddcodec.fs.file.cache.TransferTaskCacheManager;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.service.FileDirAggregateService;
+import com.xddcodec.fs.file.service.FileInfoService;
+import com.xddcodec.fs.framework.redis.repository.RedisRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StopWatch;
+
+import java.util.List;
+
+import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
+
+/**
+ * 目录聚合对账定时任务
+ * 每天凌晨3点30分执行，按根目录分批检测目录聚合偏差，修正增量维护中产生的偏差：
+ * 1. 根目录按主键分页，每批处理完记录游标，任务中断后下次从游标继续
+ * 2. 每批先用一条只读查询比对根目录聚合值与子树实际数据，一致的子树直接跳过；
+ *    只比对根目录，内部目录的偏差在根目录处相互抵消时不会被发现，需要时对该子树调用 recomputeSubtree
+ * 3. 只重算有偏差的子树，重算时锁定子树目录，只更新有偏差的目录
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/24
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DirAggregateReconcileTask {
+
+    private static final String RECONCILE_LOCK_KEY = "file:aggregate:reconcile:lock";
+    private static final String RECONCILE_CURSOR_KEY = "file:aggregate:reconcile:cursor";
+    private static final long RECONCILE_LOCK_SECONDS = 3600;
+    private static final int BATCH_SIZE = 100;
+
+    private final FileInfoService fileInfoService;
+    private final FileDirAggregateService fileDirAggregateService;
+    private final TransferTaskCacheManager cacheManager;
+    private final RedisRepository redisRepository;
+
+    /**
+     * 定时对账
+     * cron表达式：每天03:30执行
+     */
+    @Scheduled(cron = "0 30 3 * * ?")
+    public void reconcile() {
+        if (!cacheManager.tryLock(RECONCILE_LOCK_KEY, RECONCILE_LOCK_SECONDS)) {
+            log.info("目录聚合对账任务正在其他节点执行，跳过");
+            return;
+        }
+        log.info("========== 开始执行目录聚合对账任务 ==========");
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        int roots = 0;
+        int driftedRoots = 0;
+        int corrected = 0;
+        try {
+            Object cursor = redisRepository.get(RECONCILE_CURSOR_KEY);
+            String lastId = cursor != null ? cursor.toString() : "";
+            while (true) {
+                List<FileInfo> batch = findRootDirs(lastId);
+                if (CollUtil.isEmpty(batch)) {
+                    break;
+                }
+                List<String> drifted = fileDirAggregateService.findDrifted(
+                        batch.stream().map(FileInfo::getId).toList());
+                for (FileInfo root : batch) {
+                    if (drifted.contains(root.getId())) {
+                        corrected += fileDirAggregateService.recomputeSubtree(root);
+                    }
+                }
+                roots += batch.size();
+                driftedRoots += drifted.size();
+                lastId = batch.get(batch.size() - 1).getId();
+                redisRepository.set(RECONCILE_CURSOR_KEY, lastId);
+                if (batch.size() < BATCH_SIZE) {
+                    break;
+                }
+            }
+            // 全部完成后清除游标，下次从头开始
+            redisRepository.del(RECONCILE_CURSOR_KEY);
+            stopWatch.stop();
+            log.info("目录聚合对账结束, 根目录: {} 个, 有偏差: {} 个, 修正目录: {} 个, 耗时: {} ms",
+                    roots, driftedRoots, corrected, stopWatch.getTotalTimeMillis());
+        } catch (Exception e) {
+            log.error("目录聚合对账任务执行异常，下次从游标处继续", e);
+        } finally {
+            cacheManager.releaseLock(RECONCILE_LOCK_KEY);
+        }
+    }
+
+    /**
+     * 按主键分页查询未删除的根目录
+     */
+    private List<FileInfo> findRootDirs(String lastId) {
+        QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(FILE_INFO.ID, FILE_INFO.PATH, FILE_INFO.IS_DIR)
+                .where(FILE_INFO.PARENT_ID.isNull())
+                .and(FILE_INFO.IS_DIR.eq(true))
+                .and(FILE_INFO.IS_DELETED.eq(false))
+                .and(FILE_INFO.ID.gt(lastId))
+                .orderBy(FILE_INFO.ID.asc())
+                .limit(BATCH_SIZE);
+        return fileInfoService.list(queryWrapper);
+    }
+}
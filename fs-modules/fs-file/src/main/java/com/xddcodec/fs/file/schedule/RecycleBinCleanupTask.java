@@ -2,24 +2,34 @@ package com.xddcodec.fs.file.schedule;
 
 import cn.hutool.core.collection.CollUtil;
 import com.mybatisflex.core.query.QueryWrapper;
+import com.xddcodec.fs.file.cache.TransferTaskCacheManager;
+import com.xddcodec.fs.file.cache.UserStorageUsageManager;
+import com.xddcodec.fs.file.config.FileTransferProperties;
 import com.xddcodec.fs.file.domain.FileInfo;
 import com.xddcodec.fs.file.service.FileInfoService;
 import com.xddcodec.fs.file.service.FileRecycleService;
+import com.xddcodec.fs.framework.redis.repository.RedisRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Component;
-import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StopWatch;
 
 import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
 
 import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
 
 /**
  * 回收站清理定时任务
- * 每天凌晨0点05分执行，清理回收站内超过7天的文件
+ * 每天凌晨0点05分执行，分批彻底删除回收站内超过保留天数的文件：
+ * 1. 按 (deleted_time, id) 键集分页扫描过期记录，只读取删除所需列
+ * 2. 每批按存储平台分组，每组一个事务批量删除记录并释放引用
+ * 3. 物理对象由回收器在事务提交后按平台并发、限速删除
+ * 4. 每批处理完记录检查点，任务中断后下次从检查点继续
  *
  * @Author: xddcode
  * @Date: 2025/11/15 20:21
@@ -29,46 +39,119 @@ import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
 @RequiredArgsConstructor
 public class RecycleBinCleanupTask {
 
+    private static final String CLEANUP_LOCK_KEY = "file:recycle:cleanup:lock";
+    private static final String CLEANUP_CURSOR_KEY = "file:recycle:cleanup:cursor";
+    private static final long CLEANUP_LOCK_SECONDS = 3600;
+    private static final String CURSOR_SEPARATOR = "|";
+
     private final FileInfoService fileInfoService;
     private final FileRecycleService recycleService;
+    private final TransferTaskCacheManager cacheManager;
+    private final RedisRepository redisRepository;
+    private final FileTransferProperties properties;
 
     /**
      * 定时清理回收站
      * cron表达式：每天00:05执行
      */
     @Scheduled(cron = "0 5 0 * * ?")
-    @Transactional(rollbackFor = Exception.class)
     public void cleanupRecycleBin() {
+        if (!cacheManager.tryLock(CLEANUP_LOCK_KEY, CLEANUP_LOCK_SECONDS)) {
+            log.info("回收站清理任务正在其他节点执行，跳过");
+            return;
+        }
         log.info("========== 开始执行回收站清理任务 ==========");
         StopWatch stopWatch = new StopWatch();
         stopWatch.start();
+        int purged = 0;
+        int failed = 0;
         try {
-            // 查询需要清理的文件（删除超过7天）
-            LocalDateTime expireTime = LocalDateTime.now().minusDays(7);
-            List<FileInfo> expiredFiles = findExpiredFiles(expireTime);
-            if (CollUtil.isEmpty(expiredFiles)) {
-                log.info("回收站无过期文件，任务结束");
-                return;
+            LocalDateTime expireTime = LocalDateTime.now().minusDays(properties.getRecycleRetentionDays());
+            int batchSize = properties.getRecycleCleanupBatchSize();
+            FileInfo cursor = readCursor();
+            if (cursor != null) {
+                log.info("从检查点继续清理: deletedTime={}, id={}", cursor.getDeletedTime(), cursor.getId());
             }
-            List<String> fileIds = expiredFiles.stream().map(FileInfo::getId).toList();
-            log.info("查询到 {} 个过期文件，开始清理", fileIds.size());
-            recycleService.permanentlyDeleteFiles(fileIds);
+            while (true) {
+                List<FileInfo> batch = findExpiredFiles(expireTime, cursor, batchSize);
+                if (CollUtil.isEmpty(batch)) {
+                    break;
+                }
+                Map<String, List<FileInfo>> byPlatform = batch.stream()
+                        .collect(Collectors.groupingBy(
+                                f -> UserStorageUsageManager.platformKey(f.getStoragePlatformSettingId()),
+                                LinkedHashMap::new, Collectors.toList()));
+                for (Map.Entry<String, List<FileInfo>> entry : byPlatform.entrySet()) {
+                    try {
+                        recycleService.purgeFiles(entry.getValue());
+                        purged += entry.getValue().size();
+                    } catch (Exception e) {
+                        // 失败的记录留在回收站，检查点清除后下次任务重试
+                        failed += entry.getValue().size();
+                        log.error("彻底删除过期文件失败: platform={}, 数量={}", entry.getKey(), entry.getValue().size(), e);
+                    }
+                }
+                cursor = batch.get(batch.size() - 1);
+                writeCursor(cursor);
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+            // 全部完成后清除检查点，下次从头开始
+            redisRepository.del(CLEANUP_CURSOR_KEY);
             stopWatch.stop();
-            log.info("回收站清理结束, 总计: {} 个, 耗时: {} ms", fileIds.size(), stopWatch.getTotalTimeMillis());
+            log.info("回收站清理结束, 删除: {} 个, 失败: {} 个, 耗时: {} ms",
+                    purged, failed, stopWatch.getTotalTimeMillis());
         } catch (Exception e) {
-            log.error("回收站清理任务执行异常", e);
-            throw e;
+            log.error("回收站清理任务执行异常，下次从检查点继续", e);
+        } finally {
+            cacheManager.releaseLock(CLEANUP_LOCK_KEY);
         }
     }
 
     /**
-     * 查询过期文件
+     * 按 (deleted_time, id) 键集分页查询过期文件，只取彻底删除所需列
      */
-    private List<FileInfo> findExpiredFiles(LocalDateTime expireTime) {
+    private List<FileInfo> findExpiredFiles(LocalDateTime expireTime, FileInfo cursor, int batchSize) {
         QueryWrapper queryWrapper = QueryWrapper.create()
+                .select(FILE_INFO.ID, FILE_INFO.USER_ID, FILE_INFO.IS_DIR, FILE_INFO.SIZE,
+                        FILE_INFO.OBJECT_KEY, FILE_INFO.CONTENT_MD5, FILE_INFO.STORAGE_PLATFORM_SETTING_ID,
+                        FILE_INFO.DELETED_TIME)
                 .where(FILE_INFO.IS_DELETED.eq(true))
-                .and(FILE_INFO.DELETED_TIME.lt(expireTime))
-                .orderBy(FILE_INFO.DELETED_TIME.asc());
+                .and(FILE_INFO.DELETED_TIME.lt(expireTime));
+        if (cursor != null) {
+            queryWrapper.and(FILE_INFO.DELETED_TIME.gt(cursor.getDeletedTime())
+                    .or(FILE_INFO.DELETED_TIME.eq(cursor.getDeletedTime()).and(FILE_INFO.ID.gt(cursor.getId()))));
+        }
+        queryWrapper.orderBy(FILE_INFO.DELETED_TIME.asc(), FILE_INFO.ID.asc())
+                .limit(batchSize);
         return fileInfoService.list(queryWrapper);
     }
+
+    /**
+     * 读取检查点，格式为 删除时间|文件ID
+     */
+    private FileInfo readCursor() {
+        Object value = redisRepository.get(CLEANUP_CURSOR_KEY);
+        if (value == null) {
+            return null;
+        }
+        String[] parts = value.toString().split("\\" + CURSOR_SEPARATOR, 2);
+        if (parts.length != 2) {
+            return null;
+        }
+        try {
+            FileInfo cursor = new FileInfo();
+            cursor.setDeletedTime(LocalDateTime.parse(parts[0]));
+            cursor.setId(parts[1]);
+            return cursor;
+        } catch (Exception e) {
+            log.warn("回收站清理检查点格式错误，从头开始: {}", value);
+            return null;
+        }
+    }
+
+    private void writeCursor(FileInfo cursor) {
+        redisRepository.set(CLEANUP_CURSOR_KEY, cursor.getDeletedTime() + CURSOR_SEPARATOR + cursor.getId());
+    }
 }
@@ -0,0 +1,225 @@
+package com.xddcodec.fs.file.schedule;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.collection.ListUtil;
+import com.google.common.util.concurrent.RateLimiter;
+import com.xddcodec.fs.file.cache.TransferTaskCacheManager;
+import com.xddcodec.fs.file.config.FileTransferProperties;
+import com.xddcodec.fs.file.domain.FileObjectRef;
+import com.xddcodec.fs.file.service.FileObjectRefService;
+import com.xddcodec.fs.storage.facade.StorageServiceFacade;
+import com.xddcodec.fs.storage.plugin.boot.StorageInstanceLease;
+import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+
+/**
+ * 无引用物理对象回收器
+ * 引用计数归零的对象登记即为待删除事件，由回收器批量删除物理对象：
+ * 1. 彻底删除事务提交后立即唤醒，另有定时兜底，节点宕机或删除失败的对象下一轮重试
+ * 2. 按主键分页扫描，同一批内按存储平台分组，存储实例只获取一次，各平台按并发与限速配置并行删除
+ *    每个请求通过存储的批量删除接口删除一组对象，删除失败的对象再批量确认是否已不存在
+ * 3. 物理删除成功后再批量删除登记，删除时再次校验引用计数仍为0
+ * 4. 多节点通过分布式锁保证同一时刻只有一个回收器运行
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/23
+ */
+@Slf4j
+@Component
+public class UnreferencedObjectReaper {
+
+    private static final String REAP_LOCK_KEY = "file:object:reap:lock";
+    private static final long REAP_LOCK_SECONDS = 600;
+
+    private final FileObjectRefService fileObjectRefService;
+    private final StorageServiceFacade storageServiceFacade;
+    private final TransferTaskCacheManager cacheManager;
+    private final FileTransferProperties properties;
+    private final ThreadPoolTaskExecutor objectReapExecutor;
+    private final ThreadPoolTaskExecutor objectDeleteExecutor;
+
+    /**
+     * 每个存储平台的删除限速器
+     */
+    private final Map<String, RateLimiter> rateLimiters = new ConcurrentHashMap<>();
+
+    public UnreferencedObjectReaper(FileObjectRefService fileObjectRefService,
+                                    StorageServiceFacade storageServiceFacade,
+                                    TransferTaskCacheManager cacheManager,
+                                    FileTransferProperties properties,
+                                    @Qualifier("objectReapExecutor") ThreadPoolTaskExecutor objectReapExecutor,
+                                    @Qualifier("objectDeleteExecutor") ThreadPoolTaskExecutor objectDeleteExecutor) {
+        this.fileObjectRefService = fileObjectRefService;
+        this.storageServiceFacade = storageServiceFacade;
+        this.cacheManager = cacheManager;
+        this.properties = properties;
+        this.objectReapExecutor = objectReapExecutor;
+        this.objectDeleteExecutor = objectDeleteExecutor;
+    }
+
+    /**
+     * 异步唤醒回收器，已有回收在排队时忽略
+     */
+    public void wakeUp() {
+        try {
+            objectReapExecutor.execute(this::reap);
+        } catch (RejectedExecutionException e) {
+            log.debug("回收器已在排队，忽略本次唤醒");
+        }
+    }
+
+    /**
+     * 定时兜底回收
+     */
+    @Scheduled(fixedDelayString = "${fs.transfer.object-reap-interval:60000}")
+    public void scheduledReap() {
+        wakeUp();
+    }
+
+    /**
+     * 回收所有引用计数为0的物理对象
+     */
+    public void reap() {
+        if (!cacheManager.tryLock(REAP_LOCK_KEY, REAP_LOCK_SECONDS)) {
+            return;
+        }
+        int reaped = 0;
+        int failed = 0;
+        try {
+            int batchSize = properties.getObjectReapBatchSize();
+            long lastId = 0;
+            while (true) {
+                List<FileObjectRef> batch = fileObjectRefService.listUnreferenced(lastId, batchSize);
+                if (CollUtil.isEmpty(batch)) {
+                    break;
+                }
+                lastId = batch.get(batch.size() - 1).getId();
+                List<Long> reapedIds = deleteObjects(batch);
+                fileObjectRefService.removeReaped(reapedIds);
+                reaped += reapedIds.size();
+                failed += batch.size() - reapedIds.size();
+                if (batch.size() < batchSize) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("回收无引用物理对象异常", e);
+        } finally {
+            cacheManager.releaseLock(REAP_LOCK_KEY);
+        }
+        if (reaped > 0 || failed > 0) {
+            log.info("回收无引用物理对象完成: 成功 {} 个, 失败 {} 个", reaped, failed);
+        }
+    }
+
+    /**
+     * 按存储平台分组并行删除物理对象
+     * 每个平台的对象按 objectDeleteBatchSize 切成若干组放入待删队列，
+     * 最多启动 objectDeleteConcurrency 个工作者共享该平台的待删队列与限速器，
+     * 所有平台共用物理删除线程池，线程池满时由回收线程自己执行
+     *
+     * @return 删除成功的登记主键
+     */
+    private List<Long> deleteObjects(List<FileObjectRef> batch) {
+        Map<String, List<FileObjectRef>> byPlatform = new LinkedHashMap<>();
+        for (FileObjectRef objectRef : batch) {
+            byPlatform.computeIfAbsent(objectRef.getStoragePlatformSettingId(), k -> new ArrayList<>()).add(objectRef);
+        }
+        int deleteBatchSize = Math.max(properties.getObjectDeleteBatchSize(), 1);
+        Queue<Long> reapedIds = new ConcurrentLinkedQueue<>();
+        List<CompletableFuture<Void>> workers = new ArrayList<>();
+        for (Map.Entry<String, List<FileObjectRef>> entry : byPlatform.entrySet()) {
+            String platform = entry.getKey();
+            // 限速删除可能持续较长时间，持有租约直到该平台的工作者全部结束
+            StorageInstanceLease lease;
+            try {
+                // 本地存储登记为空字符串
+                String configId = platform.isEmpty() ? null : platform;
+                lease = storageServiceFacade.leaseStorageService(configId);
+            } catch (Exception e) {
+                log.warn("获取存储实例失败，跳过该平台的回收: platform={}", platform, e);
+                continue;
+            }
+            Queue<List<FileObjectRef>> pending =
+                    new ConcurrentLinkedQueue<>(ListUtil.partition(entry.getValue(), deleteBatchSize));
+            RateLimiter rateLimiter = rateLimiter(platform);
+            int concurrency = Math.min(Math.max(properties.getObjectDeleteConcurrency(), 1), pending.size());
+            List<CompletableFuture<Void>> platformWorkers = new ArrayList<>(concurrency);
+            for (int i = 0; i < concurrency; i++) {
+                platformWorkers.add(CompletableFuture.runAsync(
+                        () -> drain(platform, lease.getService(), pending, rateLimiter, reapedIds),
+                        objectDeleteExecutor));
+            }
+            workers.add(CompletableFuture.allOf(platformWorkers.toArray(new CompletableFuture[0]))
+                    .whenComplete((result, e) -> lease.close()));
+        }
+        CompletableFuture.allOf(workers.toArray(new CompletableFuture[0])).join();
+        return new ArrayList<>(reapedIds);
+    }
+
+    /**
+     * 工作者逐组批量删除平台待删队列中的对象，直到队列为空
+     */
+    private void drain(String platform, IStorageOperationService storageService, Queue<List<FileObjectRef>> pending,
+                       RateLimiter rateLimiter, Queue<Long> reapedIds) {
+        List<FileObjectRef> group;
+        while ((group = pending.poll()) != null) {
+            Map<String, List<Long>> idsByKey = new LinkedHashMap<>();
+            for (FileObjectRef objectRef : group) {
+                idsByKey.computeIfAbsent(objectRef.getObjectKey(), k -> new ArrayList<>()).add(objectRef.getId());
+            }
+            if (rateLimiter != null) {
+                rateLimiter.acquire();
+            }
+            Set<String> removed = new HashSet<>();
+            try {
+                removed.addAll(storageService.deleteFiles(idsByKey.keySet()));
+            } catch (Exception e) {
+                log.error("批量删除物理文件失败: platform={}, count={}", platform, idsByKey.size(), e);
+            }
+            List<String> failed = idsByKey.keySet().stream().filter(key -> !removed.contains(key)).toList();
+            if (!failed.isEmpty()) {
+                // 删除失败的对象可能已被其他途径删除，确认不存在的同样视为回收成功
+                try {
+                    if (rateLimiter != null) {
+                        rateLimiter.acquire();
+                    }
+                    Set<String> existing = storageService.existFiles(failed);
+                    failed.stream().filter(key -> !existing.contains(key)).forEach(removed::add);
+                } catch (Exception e) {
+                    log.warn("确认物理文件是否存在失败，下一轮重试: platform={}, count={}", platform, failed.size(), e);
+                }
+            }
+            for (String objectKey : removed) {
+                reapedIds.addAll(idsByKey.getOrDefault(objectKey, List.of()));
+            }
+        }
+    }
+
+    /**
+     * 获取存储平台的删除限速器，跨批次复用；未配置限速时返回空
+     */
+    private RateLimiter rateLimiter(String platform) {
+        Double rate = properties.getObjectDeleteRate();
+        if (rate == null || rate <= 0) {
+            return null;
+        }
+        return rateLimiters.computeIfAbsent(platform, k -> RateLimiter.create(rate));
+    }
+}
@@ -0,0 +1,89 @@
+package com.xddcodec.fs.file.schedule;
+
+import cn.hutool.core.collection.CollUtil;
+import com.xddcodec.fs.file.cache.UserStorageUsageManager;
+import com.xddcodec.fs.file.config.FileTransferProperties;
+import com.xddcodec.fs.plan.service.UserQuotaUsageService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * 用户存储用量刷写定时任务
+ * 从脏集合中弹出有变更的用户与平台，将 Redis 实时用量写入 user_quota_usage：
+ * 1. 弹出操作是原子的，多节点同时执行时不会重复刷写同一成员
+ * 2. 刷写失败的成员重新放回脏集合，下一轮重试
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/25
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class UserUsageFlushTask {
+
+    private static final String MEMBER_SEPARATOR = "|";
+
+    private final UserStorageUsageManager userStorageUsageManager;
+    private final UserQuotaUsageService userQuotaUsageService;
+    private final FileTransferProperties properties;
+
+    /**
+     * 定时刷写
+     */
+    @Scheduled(fixedDelayString = "${fs.transfer.usage-flush-interval:60000}")
+    public void flush() {
+        int flushed = 0;
+        try {
+            while (true) {
+                List<Object> members = userStorageUsageManager.popDirty(properties.getUsageFlushBatchSize());
+                if (CollUtil.isEmpty(members)) {
+                    break;
+                }
+                boolean failed = false;
+                for (Object member : members) {
+                    if (flushMember(member)) {
+                        flushed++;
+                    } else {
+                        failed = true;
+                    }
+                }
+                // 有失败时留到下一轮，避免数据库异常时反复弹出同一批成员
+                if (failed || members.size() < properties.getUsageFlushBatchSize()) {
+                    break;
+                }
+            }
+        } catch (Exception e) {
+            log.error("刷写用户存储用量异常", e);
+        }
+        if (flushed > 0) {
+            log.debug("用户存储用量刷写完成, 数量: {}", flushed);
+        }
+    }
+
+    private boolean flushMember(Object member) {
+        String value = member.toString();
+        int separator = value.indexOf(MEMBER_SEPARATOR);
+        if (separator < 0) {
+            return false;
+        }
+        String userId = value.substring(0, separator);
+        String platformKey = value.substring(separator + 1);
+        try {
+            long[] usage = userStorageUsageManager.getUsage(userId, platformKey);
+            if (usage == null) {
+                // 计数已失效，等待下次读取时重新初始化
+                return false;
+            }
+            userQuotaUsageService.saveStorageUsage(userId, platformKey, usage[0], (int) usage[1]);
+            return true;
+        } catch (Exception e) {
+            log.warn("刷写用户存储用量失败: userId={}, platform={}", userId, platformKey, e);
+            userStorageUsageManager.markDirty(member);
+            return false;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.xddcodec.fs.file.search;
+
+import com.mybatisflex.core.query.QueryWrapper;
+
+/**
+ * 文件名搜索引擎
+ * 向文件列表查询追加关键词条件，索引由数据库在写入事务内同步维护
+ * 查询中 file_info 的表别名为 fi
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+public interface FileSearchEngine {
+
+    /**
+     * 引擎名称，对应配置 fs.search.engine
+     */
+    String getName();
+
+    /**
+     * 追加关键词匹配条件
+     *
+     * @param wrapper 文件列表查询
+     * @param keyword 关键词（已去除首尾空白）
+     * @param mode    匹配方式
+     */
+    void applyKeyword(QueryWrapper wrapper, String keyword, FileSearchMode mode);
+
+    /**
+     * 重建搜索索引
+     */
+    void rebuild();
+}
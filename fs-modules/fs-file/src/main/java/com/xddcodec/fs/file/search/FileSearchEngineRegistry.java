@@ -0,0 +1,65 @@
+package com.xddcodec.fs.file.search;
+
+import com.xddcodec.fs.file.config.FileSearchProperties;
+import jakarta.annotation.PostConstruct;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * 文件名搜索引擎注册表
+ * 启动时按配置选定当前引擎，配置为 auto 时按数据源类型选择
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileSearchEngineRegistry {
+
+    private static final String AUTO = "auto";
+
+    private final List<FileSearchEngine> engines;
+    private final FileSearchProperties properties;
+    private final DataSource dataSource;
+
+    /**
+     * 当前使用的搜索引擎
+     */
+    @Getter
+    private FileSearchEngine current;
+
+    @PostConstruct
+    public void init() {
+        String name = AUTO.equalsIgnoreCase(properties.getEngine()) ? detect() : properties.getEngine();
+        current = engines.stream()
+                .filter(engine -> engine.getName().equalsIgnoreCase(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("未知的文件搜索引擎: " + name));
+        log.info("文件名搜索引擎: {}", current.getName());
+    }
+
+    /**
+     * 按数据源类型选择引擎
+     */
+    private String detect() {
+        try (Connection connection = dataSource.getConnection()) {
+            String product = connection.getMetaData().getDatabaseProductName().toLowerCase();
+            if (product.contains("mysql")) {
+                return MysqlNgramFileSearchEngine.NAME;
+            }
+            if (product.contains("postgresql")) {
+                return PgTrigramFileSearchEngine.NAME;
+            }
+        } catch (Exception e) {
+            log.warn("识别数据源类型失败，文件搜索回退到 LIKE: {}", e.getMessage());
+        }
+        return LikeFileSearchEngine.NAME;
+    }
+}
@@ -0,0 +1,43 @@
+package com.xddcodec.fs.file.search;
+
+import com.xddcodec.fs.file.config.FileSearchProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StopWatch;
+
+/**
+ * 搜索索引重建命令
+ * 以 --fs.search.rebuild=true 启动时重建当前引擎的索引，用于批量导入数据或索引损坏后修复
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileSearchIndexRebuildRunner implements ApplicationRunner {
+
+    private final FileSearchProperties properties;
+    private final FileSearchEngineRegistry fileSearchEngineRegistry;
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!Boolean.TRUE.equals(properties.getRebuild())) {
+            return;
+        }
+        FileSearchEngine engine = fileSearchEngineRegistry.getCurrent();
+        log.info("开始重建文件名搜索索引: {}", engine.getName());
+        StopWatch stopWatch = new StopWatch();
+        stopWatch.start();
+        try {
+            engine.rebuild();
+            stopWatch.stop();
+            log.info("文件名搜索索引重建完成, 耗时: {} ms", stopWatch.getTotalTimeMillis());
+        } catch (Exception e) {
+            log.error("文件名搜索索引重建失败: {}", engine.getName(), e);
+        }
+    }
+}
@@ -0,0 +1,34 @@
+package com.xddcodec.fs.file.search;
+
+/**
+ * 文件名搜索匹配方式
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+public enum FileSearchMode {
+
+    /**
+     * 包含关键词
+     */
+    CONTAINS,
+
+    /**
+     * 以关键词开头
+     */
+    PREFIX,
+
+    /**
+     * 相似匹配，引擎不支持时按包含处理
+     */
+    FUZZY;
+
+    public static FileSearchMode fromCode(String code) {
+        for (FileSearchMode mode : values()) {
+            if (mode.name().equalsIgnoreCase(code)) {
+                return mode;
+            }
+        }
+        return CONTAINS;
+    }
+}
@@ -0,0 +1,40 @@
+package com.xddcodec.fs.file.search;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import org.springframework.stereotype.Component;
+
+/**
+ * LIKE 搜索引擎
+ * 不依赖额外索引，包含匹配需要扫描当前查询范围内的全部记录，作为不支持的数据库的兜底
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+@Component
+public class LikeFileSearchEngine implements FileSearchEngine {
+
+    public static final String NAME = "like";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void applyKeyword(QueryWrapper wrapper, String keyword, FileSearchMode mode) {
+        String pattern = mode == FileSearchMode.PREFIX ? escapeLike(keyword) + "%" : "%" + escapeLike(keyword) + "%";
+        wrapper.and("(fi.original_name LIKE ? OR fi.display_name LIKE ?)", pattern, pattern);
+    }
+
+    @Override
+    public void rebuild() {
+        // 无索引可重建
+    }
+
+    /**
+     * 转义 LIKE 通配符，关键词中的 % 和 _ 按字面匹配
+     */
+    static String escapeLike(String keyword) {
+        return keyword.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,62 @@
+package com.xddcodec.fs.file.search;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import com.xddcodec.fs.file.config.FileSearchProperties;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * MySQL ngram 全文索引搜索引擎
+ * 名称按 ngram 切分（中日韩文本无需分词），关键词作为短语匹配，即连续的 ngram 序列，等价于包含匹配；
+ * 前缀匹配走名称 B-Tree 索引，模糊匹配不支持，按包含处理；
+ * 索引须在关闭 InnoDB 默认英文停用词表后创建，否则含 "a"、"at" 等停用词的 ngram 被丢弃，"data" 之类的名称搜不到
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class MysqlNgramFileSearchEngine implements FileSearchEngine {
+
+    public static final String NAME = "mysql-ngram";
+
+    private static final String INDEX_NAME = "ft_name";
+
+    private final FileSearchProperties properties;
+    private final LikeFileSearchEngine likeFileSearchEngine;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void applyKeyword(QueryWrapper wrapper, String keyword, FileSearchMode mode) {
+        // 双引号是布尔模式的短语界定符，关键词中的双引号无法转义，直接去除
+        String phrase = keyword.replace("\"", "").trim();
+        if (mode == FileSearchMode.PREFIX || phrase.codePointCount(0, phrase.length()) < properties.getNgramTokenSize()) {
+            likeFileSearchEngine.applyKeyword(wrapper, keyword, mode);
+            return;
+        }
+        wrapper.and("MATCH(fi.original_name, fi.display_name) AGAINST (? IN BOOLEAN MODE)", "\"" + phrase + "\"");
+    }
+
+    @Override
+    public void rebuild() {
+        // 重建全文索引本身，不重建整张表；停用词表在建索引时绑定，同一连接内先关闭再建
+        Db.tx(() -> {
+            Db.updateBySql("SET SESSION innodb_ft_enable_stopword = OFF");
+            try {
+                Db.updateBySql("ALTER TABLE `file_info` DROP INDEX `" + INDEX_NAME + "`, "
+                        + "ADD FULLTEXT INDEX `" + INDEX_NAME + "`(`original_name`, `display_name`) WITH PARSER ngram");
+            } finally {
+                Db.updateBySql("SET SESSION innodb_ft_enable_stopword = DEFAULT");
+            }
+            return true;
+        });
+        log.info("文件名全文索引已重建: {}", INDEX_NAME);
+    }
+}
@@ -0,0 +1,47 @@
+package com.xddcodec.fs.file.search;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.core.row.Db;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+/**
+ * PostgreSQL pg_trgm 三元组索引搜索引擎
+ * 名称上的 GIN 三元组索引可直接服务 ILIKE '%kw%' 与相似度运算符 <%，
+ * 关键词不足3个字符时数据库自动退化为范围内扫描
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+@Slf4j
+@Component
+public class PgTrigramFileSearchEngine implements FileSearchEngine {
+
+    public static final String NAME = "pg-trgm";
+
+    private static final String INDEX_NAME = "idx_file_info_name_trgm";
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public void applyKeyword(QueryWrapper wrapper, String keyword, FileSearchMode mode) {
+        if (mode == FileSearchMode.FUZZY) {
+            // <% 按关键词与名称中最相近的片段比较，可走三元组索引；
+            // 阈值取 pg_trgm.word_similarity_threshold（默认0.6），可通过 ALTER DATABASE 调整
+            wrapper.and("(? <% fi.original_name OR ? <% fi.display_name)", keyword, keyword);
+            return;
+        }
+        String escaped = LikeFileSearchEngine.escapeLike(keyword);
+        String pattern = mode == FileSearchMode.PREFIX ? escaped + "%" : "%" + escaped + "%";
+        wrapper.and("(fi.original_name ILIKE ? OR fi.display_name ILIKE ?)", pattern, pattern);
+    }
+
+    @Override
+    public void rebuild() {
+        Db.updateBySql("REINDEX INDEX \"" + INDEX_NAME + "\"");
+        log.info("文件名三元组索引已重建: {}", INDEX_NAME);
+    }
+}
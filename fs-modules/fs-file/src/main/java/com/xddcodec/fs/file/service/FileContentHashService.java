@@ -0,0 +1,60 @@
+package com.xddcodec.fs.file.service;
+
+import com.mybatisflex.core.service.IService;
+import com.xddcodec.fs.file.domain.FileContentHash;
+import com.xddcodec.fs.file.domain.FileInfo;
+
+import java.util.Collection;
+
+/**
+ * 文件内容哈希登记服务接口
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/22
+ */
+public interface FileContentHashService extends IService<FileContentHash> {
+
+    /**
+     * 按内容哈希查找已登记的物理对象
+     * 布隆过滤器判定不存在时直接返回，不查询数据库
+     *
+     * @param hash                     内容哈希
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @return 登记记录，不存在返回 null
+     */
+    FileContentHash findByHash(String hash, String storagePlatformSettingId);
+
+    /**
+     * 登记新上传的物理对象（合并完成后调用）
+     * 登记按平台全局唯一，不区分用户；已登记同一对象时增加引用计数，同一哈希已登记其他对象时不覆盖
+     *
+     * @param hash                     内容哈希
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @param objectKey                对象key
+     * @param size                     文件大小
+     */
+    void register(String hash, String storagePlatformSettingId, String objectKey, Long size);
+
+    /**
+     * 增加引用（秒传复用已登记对象时调用）
+     *
+     * @param hash                     内容哈希
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @param objectKey                对象key
+     */
+    void addReference(String hash, String storagePlatformSettingId, String objectKey);
+
+    /**
+     * 释放文件记录对登记对象的引用（文件彻底删除时调用），引用归零时删除登记
+     *
+     * @param files 被彻底删除的文件记录
+     */
+    void releaseReferences(Collection<FileInfo> files);
+
+    /**
+     * 移除登记（物理对象已不存在时调用）
+     *
+     * @param contentHash 登记记录
+     */
+    void unregister(FileContentHash contentHash);
+}
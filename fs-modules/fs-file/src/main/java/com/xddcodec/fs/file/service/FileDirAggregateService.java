@@ -0,0 +1,56 @@
+package com.xddcodec.fs.file.service;
+
+import com.xddcodec.fs.file.domain.FileInfo;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 目录聚合计数服务接口
+ * 每个目录记录其未删除子孙的总大小、文件数、文件夹数，节点变化时沿物化路径增量更新祖先
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/24
+ */
+public interface FileDirAggregateService {
+
+    /**
+     * 节点加入目录树（合并、秒传、创建目录、恢复）后，将其贡献累加到所有祖先
+     *
+     * @param node 节点（目录需携带最新聚合值）
+     */
+    void addToAncestors(FileInfo node);
+
+    /**
+     * 节点离开目录树（放入回收站）后，从所有祖先扣减其贡献
+     *
+     * @param node 节点（目录需携带最新聚合值）
+     */
+    void removeFromAncestors(FileInfo node);
+
+    /**
+     * 节点移动后，从原祖先扣减、向新祖先累加其贡献，共同祖先不变
+     *
+     * @param node    节点（携带移动前路径，目录需携带最新聚合值）
+     * @param newPath 移动后路径
+     */
+    void moveBetweenAncestors(FileInfo node, String newPath);
+
+    /**
+     * 按子树实际数据重算子树内所有目录（含自身）的聚合值，只更新有偏差的目录
+     * 重算期间锁定子树目录，与并发的增量更新互斥
+     *
+     * @param root 子树根节点
+     * @return 修正的目录数
+     */
+    int recomputeSubtree(FileInfo root);
+
+    /**
+     * 检查目录的聚合值与其子树实际数据是否一致，只读不加锁
+     * 只比对传入目录自身：子孙目录的偏差若在传入目录处相互抵消（如子树内移动漏记增量）则检测不到
+     *
+     * @param dirIds 目录ID集合
+     * @return 有偏差的目录ID
+     */
+    List<String> findDrifted(Collection<String> dirIds);
+}
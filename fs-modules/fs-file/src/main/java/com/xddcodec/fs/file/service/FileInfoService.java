@@ -7,6 +7,7 @@ import com.xddcodec.fs.file.domain.dto.RenameFileCmd;
 import com.xddcodec.fs.file.domain.qry.FileQry;
 import com.mybatisflex.core.service.IService;
 import com.xddcodec.fs.file.domain.vo.FileDetailVO;
+import com.xddcodec.fs.file.domain.vo.FilePageVO;
 import com.xddcodec.fs.file.domain.vo.FileVO;
 
 import java.io.InputStream;
@@ -86,6 +87,24 @@ public interface FileInfoService extends IService<FileInfo> {
      */
     void moveFile(MoveFileCmd cmd);
 
+    /**
+     * 计算节点的物化路径
+     *
+     * @param parentId 父目录ID，为空表示根目录
+     * @param fileId   节点ID
+     * @return 物化路径
+     */
+    String resolvePath(String parentId, String fileId);
+
+    /**
+     * 查询目录下的所有子孙节点（单次路径前缀查询）
+     *
+     * @param dir       目录
+     * @param isDeleted 删除状态过滤，为空表示不过滤
+     * @return 子孙节点，不含目录自身
+     */
+    List<FileInfo> getDescendants(FileInfo dir, Boolean isDeleted);
+
     /**
      * 获取目录层级
      *
@@ -102,6 +121,14 @@ public interface FileInfoService extends IService<FileInfo> {
      */
     List<FileVO> getList(FileQry qry);
 
+    /**
+     * 游标分页查询文件列表，目录在前，按排序字段与ID稳定排序
+     *
+     * @param qry 查询参数（包含游标、每页数量、是否统计总数）
+     * @return 当前页与下一页游标
+     */
+    FilePageVO getPage(FileQry qry);
+
     /**
      * 计算已使用的存储空间
      *
@@ -0,0 +1,39 @@
+package com.xddcodec.fs.file.service;
+
+import com.xddcodec.fs.file.domain.FileInfo;
+
+/**
+ * 同级名称分配服务接口
+ * 同一用户、存储平台、父目录下未删除的同类型名称唯一，由 file_info 唯一索引保证；
+ * 冲突时分配 名称(n).扩展名 形式的后缀，只做索引点查，不加载同级节点
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+public interface FileNameAllocationService {
+
+    /**
+     * 分配同级目录下可用的名称
+     * <p>
+     * - 如果不存在重名：返回原名称
+     * - 如果存在重名：返回带 (n) 后缀的可用名称
+     *
+     * @param userId                   用户ID
+     * @param storagePlatformSettingId 存储平台设置ID
+     * @param parentId                 父目录ID
+     * @param desiredName              期望的名称
+     * @param isDir                    是否是文件夹
+     * @param excludeFileId            排除的文件ID（可选，用于重命名、移动场景）
+     * @return 可用的名称
+     */
+    String allocate(String userId, String storagePlatformSettingId, String parentId,
+                    String desiredName, boolean isDir, String excludeFileId);
+
+    /**
+     * 按节点当前名称重新分配后保存新节点
+     * 分配与写入之间被并发请求占用同名时，唯一索引拒绝写入，转换为业务异常由客户端重试
+     *
+     * @param fileInfo 新节点
+     */
+    void saveWithUniqueName(FileInfo fileInfo);
+}
@@ -0,0 +1,67 @@
+package com.xddcodec.fs.file.service;
+
+import com.mybatisflex.core.service.IService;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.FileObjectRef;
+
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 物理对象引用计数服务接口
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/23
+ */
+public interface FileObjectRefService extends IService<FileObjectRef> {
+
+    /**
+     * 登记新写入的物理对象（合并前调用），引用计数为1，随调用方事务提交
+     * 合并前提交登记，合并后写库失败时调用 {@link #abandon} 由回收器删除对象
+     *
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @param objectKey                对象key
+     */
+    void acquire(String storagePlatformSettingId, String objectKey);
+
+    /**
+     * 放弃登记的物理对象（合并或写库失败时调用），计数归零后由回收器删除
+     *
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @param objectKey                对象key
+     */
+    void abandon(String storagePlatformSettingId, String objectKey);
+
+    /**
+     * 共享已存在的物理对象（秒传），对象已等待回收时共享失败
+     *
+     * @param storagePlatformSettingId 存储平台配置ID
+     * @param objectKey                对象key
+     * @return 是否共享成功
+     */
+    boolean share(String storagePlatformSettingId, String objectKey);
+
+    /**
+     * 释放文件记录对物理对象的引用（彻底删除时在同一事务内调用）
+     *
+     * @param files 被删除的文件记录
+     * @return 引用计数归零、等待回收的对象数
+     */
+    int release(Collection<FileInfo> files);
+
+    /**
+     * 按主键顺序查询等待回收的对象
+     *
+     * @param lastId 上一页最后一条的主键
+     * @param limit  数量
+     * @return 引用计数为0的对象
+     */
+    List<FileObjectRef> listUnreferenced(long lastId, int limit);
+
+    /**
+     * 删除已回收的对象登记（仅删除引用计数仍为0的）
+     *
+     * @param ids 主键集合
+     */
+    void removeReaped(Collection<Long> ids);
+}
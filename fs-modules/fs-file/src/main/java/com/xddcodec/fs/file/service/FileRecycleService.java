@@ -1,5 +1,6 @@
 package com.xddcodec.fs.file.service;
 
+import com.xddcodec.fs.file.domain.FileInfo;
 import com.xddcodec.fs.file.domain.vo.FileRecycleVO;
 
 import java.util.List;
@@ -35,6 +36,14 @@ public interface FileRecycleService {
      */
     void permanentlyDeleteFiles(List<String> fileIds);
 
+    /**
+     * 彻底删除给定的文件记录，不展开目录子孙，供定时清理按批调用
+     * 释放内容哈希与物理对象引用、扣减存储用量、删除收藏，物理对象由回收器在提交后异步删除
+     *
+     * @param files 回收站中的文件记录，需包含ID、用户、存储平台、对象key、内容哈希与大小
+     */
+    void purgeFiles(List<FileInfo> files);
+
     /**
      * 清空回收站
      */
@@ -0,0 +1,32 @@
+package com.xddcodec.fs.file.service;
+
+import com.xddcodec.fs.file.domain.FileInfo;
+
+import java.time.LocalDateTime;
+
+/**
+ * 子树批量操作服务接口
+ * 基于物化路径前缀范围，整棵子树的标记更新只需有限条语句，不逐行加载和更新
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+public interface FileSubtreeService {
+
+    /**
+     * 将子树（含根节点）放入回收站
+     *
+     * @param root        子树根节点
+     * @param deletedTime 删除时间
+     * @return 标记的节点数
+     */
+    int softDelete(FileInfo root, LocalDateTime deletedTime);
+
+    /**
+     * 从回收站恢复子树（含根节点）
+     *
+     * @param root 子树根节点
+     * @return 恢复的节点数
+     */
+    int restore(FileInfo root);
+}
@@ -9,6 +9,7 @@ import com.xddcodec.fs.file.domain.dto.InitUploadCmd;
 import com.xddcodec.fs.file.domain.dto.UploadChunkCmd;
 import com.xddcodec.fs.file.domain.qry.TransferFilesQry;
 import com.xddcodec.fs.file.domain.vo.CheckUploadResultVO;
+import com.xddcodec.fs.file.domain.vo.ChunkBitmapVO;
 import com.xddcodec.fs.file.domain.vo.FileDownloadVO;
 import com.xddcodec.fs.file.domain.vo.FileTransferTaskVO;
 import com.xddcodec.fs.file.domain.vo.InitDownloadResultVO;
@@ -16,6 +17,7 @@ import com.xddcodec.fs.file.domain.vo.InitDownloadResultVO;
 import java.io.InputStream;
 import java.util.List;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
 
 public interface FileTransferTaskService extends IService<FileTransferTask> {
 
@@ -42,12 +44,15 @@ public interface FileTransferTaskService extends IService<FileTransferTask> {
     CheckUploadResultVO checkUpload(CheckUploadCmd cmd);
 
     /**
-     * 上传分片
+     * 上传分片（流式写入存储）
+     * 返回时分片数据已读完，返回的 Future 在存储确认并记录分片后完成
      *
-     * @param fileBytes 分片文件字节数组
-     * @param cmd       上传分片命令
+     * @param inputStream 分片数据流
+     * @param chunkSize   分片大小（字节）
+     * @param cmd         上传分片命令
+     * @return 分片上传结果
      */
-    void uploadChunk(byte[] fileBytes, UploadChunkCmd cmd);
+    CompletableFuture<Void> uploadChunk(InputStream inputStream, long chunkSize, UploadChunkCmd cmd);
 
     /**
      * 暂停传输
@@ -79,6 +84,14 @@ public interface FileTransferTaskService extends IService<FileTransferTask> {
      */
     Set<Integer> getUploadedChunks(String taskId);
 
+    /**
+     * 获取该任务下已上传分片的位图（可压缩）
+     *
+     * @param taskId 上传任务ID
+     * @return 分片位图
+     */
+    ChunkBitmapVO getUploadedChunkBitmap(String taskId);
+
     /**
      * 取消传输
      *
@@ -112,9 +125,9 @@ public interface FileTransferTaskService extends IService<FileTransferTask> {
      *
      * @param taskId     任务ID
      * @param chunkIndex 分片索引
-     * @return 分片数据流
+     * @return 分片数据流，收到存储响应头后完成
      */
-    InputStream downloadChunk(String taskId, Integer chunkIndex);
+    CompletableFuture<InputStream> downloadChunk(String taskId, Integer chunkIndex);
 
     /**
      * 获取已下载的分片列表
@@ -124,6 +137,14 @@ public interface FileTransferTaskService extends IService<FileTransferTask> {
      */
     Set<Integer> getDownloadedChunks(String taskId);
 
+    /**
+     * 获取已下载分片的位图（可压缩）
+     *
+     * @param taskId 任务ID
+     * @return 分片位图
+     */
+    ChunkBitmapVO getDownloadedChunkBitmap(String taskId);
+
     /**
      * 记录分片下载完成
      *
@@ -0,0 +1,35 @@
+package com.xddcodec.fs.file.service;
+
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.FileTransferTask;
+
+/**
+ * 上传完成服务接口
+ * 秒传与分片合并完成时写入文件记录、目录聚合、内容哈希、物理对象引用、用量与任务状态，
+ * 全部在同一事务内提交，任一步失败整体回滚
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+public interface FileUploadCompletionService {
+
+    /**
+     * 秒传：共享已存在的物理对象并创建文件记录，对象可能属于其他用户
+     *
+     * @param task      上传任务
+     * @param objectKey 内容哈希登记的物理对象key
+     * @param fileMd5   文件MD5
+     * @return 新文件记录，对象已等待回收无法共享时返回 null，此时不做任何修改
+     */
+    FileInfo completeQuickUpload(FileTransferTask task, String objectKey, String fileMd5);
+
+    /**
+     * 分片合并完成：创建文件记录
+     * 物理对象的引用在合并前已登记，事务失败时由调用方放弃登记
+     *
+     * @param task          上传任务
+     * @param uploadedCount 已上传分片数
+     * @return 新文件记录
+     */
+    FileInfo completeMerge(FileTransferTask task, int uploadedCount);
+}
@@ -0,0 +1,122 @@
+package com.xddcodec.fs.file.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.xddcodec.fs.file.cache.ContentHashBloomFilter;
+import com.xddcodec.fs.file.domain.FileContentHash;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.mapper.FileContentHashMapper;
+import com.xddcodec.fs.file.service.FileContentHashService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.function.Consumer;
+
+import static com.xddcodec.fs.file.domain.table.FileContentHashTableDef.FILE_CONTENT_HASH;
+
+/**
+ * 文件内容哈希登记服务实现
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/22
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileContentHashServiceImpl extends ServiceImpl<FileContentHashMapper, FileContentHash> implements FileContentHashService {
+
+    /**
+     * 本地存储在登记表中的平台键
+     */
+    private static final String LOCAL_PLATFORM_KEY = "";
+    private static final int BLOOM_LOAD_PAGE_SIZE = 5000;
+
+    private final ContentHashBloomFilter bloomFilter;
+
+    @Override
+    public FileContentHash findByHash(String hash, String storagePlatformSettingId) {
+        if (StrUtil.isBlank(hash)) {
+            return null;
+        }
+        String platformKey = toPlatformKey(storagePlatformSettingId);
+        if (!bloomFilter.mightContain(platformKey, hash, consumer -> loadHashes(platformKey, consumer))) {
+            return null;
+        }
+        return getOne(QueryWrapper.create()
+                .where(FILE_CONTENT_HASH.HASH.eq(hash))
+                .and(FILE_CONTENT_HASH.STORAGE_PLATFORM_SETTING_ID.eq(platformKey)));
+    }
+
+    @Override
+    public void register(String hash, String storagePlatformSettingId, String objectKey, Long size) {
+        if (StrUtil.isBlank(hash) || StrUtil.isBlank(objectKey)) {
+            return;
+        }
+        String platformKey = toPlatformKey(storagePlatformSettingId);
+        // 同一哈希已由并发上传登记了其他对象时不覆盖，本次对象仍由物理对象引用计数管理
+        getMapper().upsert(hash, platformKey, objectKey, size);
+        bloomFilter.put(platformKey, hash);
+        log.debug("登记内容哈希: hash={}, platform={}, objectKey={}", hash, platformKey, objectKey);
+    }
+
+    @Override
+    public void addReference(String hash, String storagePlatformSettingId, String objectKey) {
+        if (StrUtil.isBlank(hash) || StrUtil.isBlank(objectKey)) {
+            return;
+        }
+        if (getMapper().addRefCount(hash, toPlatformKey(storagePlatformSettingId), objectKey, 1) == 0) {
+            log.warn("增加内容哈希引用失败，登记不存在: hash={}, objectKey={}", hash, objectKey);
+        }
+    }
+
+    @Override
+    public void releaseReferences(Collection<FileInfo> files) {
+        for (FileInfo file : files) {
+            if (Boolean.TRUE.equals(file.getIsDir())
+                    || StrUtil.isBlank(file.getContentMd5())
+                    || StrUtil.isBlank(file.getObjectKey())) {
+                continue;
+            }
+            String platformKey = toPlatformKey(file.getStoragePlatformSettingId());
+            if (getMapper().addRefCount(file.getContentMd5(), platformKey, file.getObjectKey(), -1) > 0) {
+                getMapper().deleteUnreferenced(file.getContentMd5(), platformKey, file.getObjectKey());
+            }
+        }
+    }
+
+    @Override
+    public void unregister(FileContentHash contentHash) {
+        removeById(contentHash.getId());
+        log.info("移除失效的内容哈希登记: hash={}, objectKey={}", contentHash.getHash(), contentHash.getObjectKey());
+    }
+
+    /**
+     * 按主键分页加载平台下所有已登记哈希
+     */
+    private void loadHashes(String platformKey, Consumer<String> consumer) {
+        long lastId = 0;
+        while (true) {
+            List<FileContentHash> page = list(QueryWrapper.create()
+                    .select(FILE_CONTENT_HASH.ID, FILE_CONTENT_HASH.HASH)
+                    .where(FILE_CONTENT_HASH.STORAGE_PLATFORM_SETTING_ID.eq(platformKey))
+                    .and(FILE_CONTENT_HASH.ID.gt(lastId))
+                    .orderBy(FILE_CONTENT_HASH.ID.asc())
+                    .limit(BLOOM_LOAD_PAGE_SIZE));
+            for (FileContentHash contentHash : page) {
+                consumer.accept(contentHash.getHash());
+            }
+            if (page.size() < BLOOM_LOAD_PAGE_SIZE) {
+                return;
+            }
+            lastId = page.get(page.size() - 1).getId();
+        }
+    }
+
+    private String toPlatformKey(String storagePlatformSettingId) {
+        return StrUtil.isBlank(storagePlatformSettingId) ? LOCAL_PLATFORM_KEY : storagePlatformSettingId;
+    }
+}
@@ -0,0 +1,119 @@
+package com.xddcodec.fs.file.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.mapper.FileInfoMapper;
+import com.xddcodec.fs.file.service.FileDirAggregateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * 目录聚合计数服务实现
+ * 祖先ID直接取自物化路径，一次增减只需一条按主键批量更新的语句
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/24
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileDirAggregateServiceImpl implements FileDirAggregateService {
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private final FileInfoMapper fileInfoMapper;
+
+    @Override
+    public void addToAncestors(FileInfo node) {
+        applyDelta(ancestorIds(node.getPath()), node, 1);
+    }
+
+    @Override
+    public void removeFromAncestors(FileInfo node) {
+        applyDelta(ancestorIds(node.getPath()), node, -1);
+    }
+
+    @Override
+    public void moveBetweenAncestors(FileInfo node, String newPath) {
+        List<String> oldAncestors = ancestorIds(node.getPath());
+        List<String> newAncestors = ancestorIds(newPath);
+        List<String> removed = new ArrayList<>(oldAncestors);
+        removed.removeAll(newAncestors);
+        List<String> added = new ArrayList<>(newAncestors);
+        added.removeAll(oldAncestors);
+        applyDelta(removed, node, -1);
+        applyDelta(added, node, 1);
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class, isolation = Isolation.READ_COMMITTED)
+    public int recomputeSubtree(FileInfo root) {
+        if (!Boolean.TRUE.equals(root.getIsDir()) || StrUtil.isBlank(root.getPath())) {
+            return 0;
+        }
+        // 先锁定子树目录：已更新这些目录的增量事务提交后才开始重算，之后的增量等待重算提交后再累加，绝对值不会覆盖增量
+        fileInfoMapper.lockSubtreeDirs(root.getPath());
+        int corrected = fileInfoMapper.recomputeSubtreeAggregates(root.getPath());
+        if (corrected > 0) {
+            log.info("目录聚合已修正: rootId={}, 修正目录数={}", root.getId(), corrected);
+        }
+        return corrected;
+    }
+
+    @Override
+    public List<String> findDrifted(Collection<String> dirIds) {
+        if (CollUtil.isEmpty(dirIds)) {
+            return new ArrayList<>();
+        }
+        return fileInfoMapper.selectDriftedDirIds(dirIds);
+    }
+
+    /**
+     * 将节点对祖先的贡献按符号累加到指定目录
+     */
+    private void applyDelta(List<String> ancestorIds, FileInfo node, int sign) {
+        if (ancestorIds.isEmpty()) {
+            return;
+        }
+        long size;
+        int files;
+        int folders;
+        if (Boolean.TRUE.equals(node.getIsDir())) {
+            size = nullToZero(node.getTotalSize());
+            files = nullToZero(node.getFileCount());
+            folders = nullToZero(node.getFolderCount()) + 1;
+        } else {
+            size = node.getSize() != null ? node.getSize() : 0L;
+            files = 1;
+            folders = 0;
+        }
+        fileInfoMapper.addAggregates(ancestorIds, sign * size, sign * files, sign * folders);
+    }
+
+    /**
+     * 物化路径中除自身外的所有祖先ID
+     */
+    private List<String> ancestorIds(String path) {
+        if (StrUtil.isBlank(path)) {
+            return new ArrayList<>();
+        }
+        List<String> ids = StrUtil.split(path, PATH_SEPARATOR, true, true);
+        return new ArrayList<>(ids.subList(0, Math.max(ids.size() - 1, 0)));
+    }
+
+    private long nullToZero(Long value) {
+        return value != null ? value : 0L;
+    }
+
+    private int nullToZero(Integer value) {
+        return value != null ? value : 0;
+    }
+}
@@ -2,10 +2,13 @@ package com.xddcodec.fs.file.service.impl;
 
 import cn.dev33.satoken.stp.StpUtil;
 import com.mybatisflex.core.query.QueryWrapper;
+import com.xddcodec.fs.file.cache.FileHomeCacheManager;
+import com.xddcodec.fs.file.cache.UserStorageUsageManager;
 import com.xddcodec.fs.file.domain.FileInfo;
 import com.xddcodec.fs.file.domain.qry.FileQry;
 import com.xddcodec.fs.file.domain.vo.FileHomeVO;
 import com.xddcodec.fs.file.domain.vo.FileVO;
+import com.xddcodec.fs.file.mapper.FileInfoMapper;
 import com.xddcodec.fs.file.service.FileHomeService;
 import com.xddcodec.fs.file.service.FileInfoService;
 import com.xddcodec.fs.file.service.FileShareService;
@@ -16,7 +19,6 @@ import org.springframework.stereotype.Service;
 
 import java.util.List;
 
-import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
 import static com.xddcodec.fs.file.domain.table.FileShareTableDef.FILE_SHARE;
 
 @Service
@@ -25,24 +27,37 @@ public class FileHomeServiceImpl implements FileHomeService {
 
     private final FileInfoService fileInfoService;
 
+    private final FileInfoMapper fileInfoMapper;
+
     private final FileShareService fileShareService;
 
     private final FileUserFavoritesService fileUserFavoritesService;
 
+    private final FileHomeCacheManager fileHomeCacheManager;
+
     @Override
     public FileHomeVO getFileHomes() {
         String userId = StpUtil.getLoginIdAsString();
         String storagePlatformSettingId = StoragePlatformContextHolder.getConfigId();
+        // 快照在用户文件变更后失效，命中时只需一次缓存读取
+        FileHomeVO cached = fileHomeCacheManager.get(userId, storagePlatformSettingId);
+        if (cached != null) {
+            return cached;
+        }
         FileHomeVO fileHomeVO = new FileHomeVO();
-        List<FileInfo> fileInfoList = fileInfoService.list(new QueryWrapper()
-                .where(FILE_INFO.USER_ID.eq(userId)
-                        .and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId))
-                        .and(FILE_INFO.IS_DELETED.eq(false))
-                ));
-        long directoryCount = fileInfoList.stream()
-                .filter(FileInfo::getIsDir)
-                .count();
-        long fileCount = fileInfoList.size() - directoryCount;
+        // 文件与目录数量由一次分组统计得出
+        long fileCount = 0L;
+        long directoryCount = 0L;
+        List<FileInfo> counts = fileInfoMapper.countByType(
+                userId, UserStorageUsageManager.platformKey(storagePlatformSettingId));
+        for (FileInfo count : counts) {
+            long total = count.getFileCount() != null ? count.getFileCount() : 0L;
+            if (Boolean.TRUE.equals(count.getIsDir())) {
+                directoryCount += total;
+            } else {
+                fileCount += total;
+            }
+        }
         fileHomeVO.setFileCount(fileCount);
         fileHomeVO.setDirectoryCount(directoryCount);
 
@@ -64,6 +79,8 @@ public class FileHomeServiceImpl implements FileHomeService {
         fileQry.setIsRecents(Boolean.TRUE);
         List<FileVO> recentFiles = fileInfoService.getList(fileQry);
         fileHomeVO.setRecentFiles(recentFiles);
+
+        fileHomeCacheManager.put(userId, storagePlatformSettingId, fileHomeVO);
         return fileHomeVO;
     }
 }
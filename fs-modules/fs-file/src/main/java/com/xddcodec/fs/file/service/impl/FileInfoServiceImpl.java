@@ -5,21 +5,31 @@ import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.IdUtil;
 import cn.hutool.core.util.StrUtil;
 import com.mybatisflex.core.util.UpdateEntity;
+import com.xddcodec.fs.file.cache.UserStorageUsageManager;
 import com.xddcodec.fs.file.domain.FileInfo;
 import com.xddcodec.fs.file.domain.dto.CreateDirectoryCmd;
+import com.xddcodec.fs.file.domain.dto.FileListCursor;
+import com.xddcodec.fs.file.domain.event.FileChangedEvent;
 import com.xddcodec.fs.file.domain.dto.MoveFileCmd;
 import com.xddcodec.fs.file.domain.dto.RenameFileCmd;
 import com.xddcodec.fs.file.domain.qry.FileQry;
 import com.xddcodec.fs.file.domain.vo.FileDetailVO;
+import com.xddcodec.fs.file.domain.vo.FilePageVO;
 import com.xddcodec.fs.file.domain.vo.FileVO;
 import com.xddcodec.fs.file.mapper.FileInfoMapper;
+import com.xddcodec.fs.file.search.FileSearchEngineRegistry;
+import com.xddcodec.fs.file.search.FileSearchMode;
+import com.xddcodec.fs.file.service.FileDirAggregateService;
 import com.xddcodec.fs.file.service.FileInfoService;
+import com.xddcodec.fs.file.service.FileNameAllocationService;
+import com.xddcodec.fs.file.service.FileSubtreeService;
 import com.xddcodec.fs.framework.common.enums.FileTypeEnum;
 import com.xddcodec.fs.framework.common.exception.BusinessException;
 import com.xddcodec.fs.framework.common.exception.StorageOperationException;
 import com.xddcodec.fs.framework.common.utils.StringUtils;
 import com.xddcodec.fs.storage.domain.StoragePlatform;
 import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
+import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.xddcodec.fs.storage.plugin.core.context.StoragePlatformContextHolder;
@@ -27,14 +37,14 @@ import com.xddcodec.fs.storage.facade.StorageServiceFacade;
 import io.github.linpeilie.Converter;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.io.InputStream;
 import java.time.LocalDateTime;
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 import java.util.stream.Collectors;
 
 import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
@@ -50,12 +60,45 @@ import static com.xddcodec.fs.file.domain.table.FileUserFavoritesTableDef.FILE_U
 @Service
 public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> implements FileInfoService {
 
+    /**
+     * 物化路径分隔符
+     */
+    private static final String PATH_SEPARATOR = "/";
+    /**
+     * 物化路径最大长度，与 file_info.path 列宽一致
+     */
+    private static final int MAX_PATH_LENGTH = 2048;
+
+    /**
+     * 文件列表默认与最大每页数量
+     */
+    private static final int DEFAULT_PAGE_SIZE = 100;
+    private static final int MAX_PAGE_SIZE = 500;
+
     @Autowired
     private Converter converter;
 
     @Autowired
     private StorageServiceFacade storageServiceFacade;
 
+    @Autowired
+    private FileDirAggregateService fileDirAggregateService;
+
+    @Autowired
+    private FileNameAllocationService fileNameAllocationService;
+
+    @Autowired
+    private FileSubtreeService fileSubtreeService;
+
+    @Autowired
+    private FileSearchEngineRegistry fileSearchEngineRegistry;
+
+    @Autowired
+    private UserStorageUsageManager userStorageUsageManager;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public InputStream downloadFile(String fileId) {
         FileInfo fileInfo = getById(fileId);
@@ -71,8 +114,7 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
 
         // 根据文件记录中的 storagePlatformSettingId 获取对应的存储服务
         try {
-            IStorageOperationService storageService = storageServiceFacade.getStorageService(fileInfo.getStoragePlatformSettingId());
-            return storageService.downloadFile(fileInfo.getObjectKey());
+            return storageServiceFacade.downloadFile(fileInfo.getStoragePlatformSettingId(), fileInfo.getObjectKey());
         } catch (StorageOperationException e) {
             // 统一转换为友好的业务异常消息
             log.error("从存储平台下载文件失败: {}", e.getMessage(), e);
@@ -115,66 +157,80 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
             return;
         }
 
-        // 收集所有需要删除的文件（包括子文件）
-        List<FileInfo> toDeleteList = new ArrayList<>();
+        // 已随其他选中目录一起删除的节点不重复处理
+        List<String> selectedDirPaths = fileInfoList.stream()
+                .filter(f -> f.getIsDir() && !f.getIsDeleted())
+                .map(FileInfo::getPath)
+                .toList();
         LocalDateTime now = LocalDateTime.now();
-
+        List<FileInfo> recycledList = new ArrayList<>();
+        int total = 0;
         for (FileInfo fileInfo : fileInfoList) {
-            if (!fileInfo.getIsDeleted()) {
-                toDeleteList.add(fileInfo);
-
-                // 如果是文件夹，递归获取所有子文件和子文件夹
-                if (fileInfo.getIsDir()) {
-                    List<FileInfo> children = getAllChildrenRecursively(fileInfo.getId(), false);
-                    toDeleteList.addAll(children);
-                }
+            if (fileInfo.getIsDeleted() || hasSelectedAncestor(fileInfo, selectedDirPaths)) {
+                continue;
             }
+            // 按路径前缀一次标记整棵子树，再从祖先目录聚合中扣减
+            total += fileSubtreeService.softDelete(fileInfo, now);
+            fileDirAggregateService.removeFromAncestors(fileInfo);
+            recycledList.add(fileInfo);
         }
-
-        if (toDeleteList.isEmpty()) {
+        if (recycledList.isEmpty()) {
             return;
         }
+        log.info("放入回收站: 顶层节点 {} 个, 共 {} 项", recycledList.size(), total);
+        publishFileChanged(recycledList);
+    }
 
-        // 批量标记为删除
-        toDeleteList.forEach(fileInfo -> {
-            fileInfo.setIsDeleted(true);
-            fileInfo.setDeletedTime(now);
-        });
 
-        this.updateBatch(toDeleteList);
+    private boolean hasSelectedAncestor(FileInfo fileInfo, List<String> selectedDirPaths) {
+        return selectedDirPaths.stream()
+                .anyMatch(dirPath -> !dirPath.equals(fileInfo.getPath()) && fileInfo.getPath().startsWith(dirPath));
     }
 
+    @Override
+    public List<FileInfo> getDescendants(FileInfo dir, Boolean isDeleted) {
+        if (!Boolean.TRUE.equals(dir.getIsDir())) {
+            return new ArrayList<>();
+        }
+        QueryWrapper query = descendantsQuery(dir);
+        if (isDeleted != null) {
+            query.and(FILE_INFO.IS_DELETED.eq(isDeleted));
+        }
+        return list(query);
+    }
 
     /**
-     * 递归获取文件夹下的所有子文件和子文件夹
-     *
-     * @param parentId       父文件夹ID
-     * @param includeDeleted 是否包含已删除的文件
-     * @return 所有子文件列表
+     * 构建子孙节点查询条件：路径前缀范围扫描，排除目录自身
      */
-    private List<FileInfo> getAllChildrenRecursively(String parentId, boolean includeDeleted) {
-        List<FileInfo> allChildren = new ArrayList<>();
-
-        // 查询直接子文件
-        QueryWrapper query = new QueryWrapper()
-                .where(FILE_INFO.PARENT_ID.eq(parentId));
+    private QueryWrapper descendantsQuery(FileInfo dir) {
+        return new QueryWrapper()
+                .where("path LIKE ?", dir.getPath() + "%")
+                .and(FILE_INFO.ID.ne(dir.getId()));
+    }
 
-        if (!includeDeleted) {
-            query.and(FILE_INFO.IS_DELETED.eq(false));
+    @Override
+    public String resolvePath(String parentId, String fileId) {
+        if (StrUtil.isBlank(parentId)) {
+            return PATH_SEPARATOR + fileId + PATH_SEPARATOR;
         }
+        FileInfo parent = getOne(new QueryWrapper()
+                .select(FILE_INFO.ID, FILE_INFO.PATH, FILE_INFO.IS_DIR)
+                .where(FILE_INFO.ID.eq(parentId)));
+        if (parent == null || !Boolean.TRUE.equals(parent.getIsDir())) {
+            throw new BusinessException("父目录不存在");
+        }
+        return checkPathLength(parent.getPath() + fileId + PATH_SEPARATOR);
+    }
 
-        List<FileInfo> directChildren = list(query);
-
-        for (FileInfo child : directChildren) {
-            allChildren.add(child);
+    private String checkPathLength(String path) {
+        checkPathLength(path.length());
+        return path;
+    }
 
-            // 如果是文件夹，递归查询
-            if (child.getIsDir()) {
-                allChildren.addAll(getAllChildrenRecursively(child.getId(), includeDeleted));
-            }
+    private void checkPathLength(int length) {
+        if (length > MAX_PATH_LENGTH) {
+            throw new BusinessException("目录层级过深");
         }
-
-        return allChildren;
     }
 
 
@@ -186,28 +242,23 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
         String userId = StpUtil.getLoginIdAsString();
         String platformConfigId = StoragePlatformContextHolder.getConfigId();
         String baseName = cmd.getFolderName().trim();
-        String finalName = generateUniqueName(
-                userId,
-                cmd.getParentId(),
-                baseName,
-                true,
-                null,
-                platformConfigId
-        );
-        // 创建目录信息记录
+        // 创建目录信息记录，重名时保存前自动分配后缀
         FileInfo dirInfo = new FileInfo();
         dirInfo.setId(folderId);
-        dirInfo.setOriginalName(finalName);
-        dirInfo.setDisplayName(finalName);
+        dirInfo.setOriginalName(baseName);
+        dirInfo.setDisplayName(baseName);
         dirInfo.setIsDir(true);
         dirInfo.setParentId(cmd.getParentId());
+        dirInfo.setPath(resolvePath(cmd.getParentId(), folderId));
         dirInfo.setUserId(userId);
         dirInfo.setStoragePlatformSettingId(platformConfigId);
         LocalDateTime now = LocalDateTime.now();
         dirInfo.setUploadTime(now);
         dirInfo.setUpdateTime(now);
         dirInfo.setIsDeleted(false);
-        save(dirInfo);
+        fileNameAllocationService.saveWithUniqueName(dirInfo);
+        fileDirAggregateService.addToAncestors(dirInfo);
+        eventPublisher.publishEvent(new FileChangedEvent(this, userId));
         return dirInfo;
     }
 
@@ -237,7 +288,12 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
         LocalDateTime now = LocalDateTime.now();
         fileInfo.setUpdateTime(now);
         fileInfo.setLastAccessTime(now);
-        updateById(fileInfo);
+        try {
+            updateById(fileInfo);
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("当前目录下已存在同名文件，请重试");
+        }
+        eventPublisher.publishEvent(new FileChangedEvent(this, fileInfo.getUserId()));
     }
 
     @Override
@@ -248,26 +304,27 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
         }
 
         String targetDirId = StringUtils.isBlank(cmd.getDirId()) ? null : cmd.getDirId();
+        String targetPath = PATH_SEPARATOR;
 
         if (targetDirId != null) {
             FileInfo dirInfo = getById(targetDirId);
             if (dirInfo == null || !dirInfo.getIsDir()) {
                 throw new BusinessException("目标目录不存在或非法");
             }
+            targetPath = dirInfo.getPath();
         }
 
         List<FileInfo> fileInfos = listByIds(cmd.getFileIds());
-        List<FileInfo> updateList = new ArrayList<>();
+        List<FileInfo> movedList = new ArrayList<>();
 
         for (FileInfo fileInfo : fileInfos) {
             if (Objects.equals(fileInfo.getParentId(), targetDirId)) {
                 continue;
             }
 
-            if (targetDirId != null && fileInfo.getIsDir()) {
-                if (fileInfo.getId().equals(targetDirId) || isSubDirectory(fileInfo.getId(), targetDirId)) {
-                    throw new BusinessException("不能将目录 [" + fileInfo.getDisplayName() + "] 移动到自身或子目录下");
-                }
+            // 目标路径以目录自身路径为前缀，说明目标是目录自身或其子孙
+            if (fileInfo.getIsDir() && targetPath.startsWith(fileInfo.getPath())) {
+                throw new BusinessException("不能将目录 [" + fileInfo.getDisplayName() + "] 移动到自身或子目录下");
             }
 
             String finalName = generateUniqueName(
@@ -283,165 +340,50 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
             updateEntity.setParentId(targetDirId);
             updateEntity.setDisplayName(finalName);
             updateEntity.setUpdateTime(LocalDateTime.now());
-            updateList.add(updateEntity);
-        }
-
-        if (!updateList.isEmpty()) {
-            this.updateBatch(updateList);
+            // 逐条更新：同一批移动的同名节点需要看到前一条已占用的名称
+            try {
+                updateById(updateEntity);
+            } catch (DuplicateKeyException e) {
+                throw new BusinessException("目标目录下已存在同名文件 [" + finalName + "]，请重试");
+            }
+            movedList.add(fileInfo);
         }
-    }
 
-    // 检查target Id是否是source Id的子目录
-    private boolean isSubDirectory(String sourceId, String targetId) {
-        FileInfo current = getById(targetId);
-        while (current != null && current.getParentId() != null) {
-            if (current.getParentId().equals(sourceId)) {
-                return true;
+        // 先移动层级深的节点：同时移动目录及其子孙时，子孙不会被祖先的路径替换覆盖
+        movedList.sort(Comparator.comparingInt((FileInfo f) -> f.getPath().length()).reversed());
+        for (FileInfo fileInfo : movedList) {
+            String newPath = checkPathLength(targetPath + fileInfo.getId() + PATH_SEPARATOR);
+            if (fileInfo.getIsDir()) {
+                // 子孙路径随前缀一起变长，按子树中最深的路径校验
+                int deepest = getMapper().selectMaxPathLength(fileInfo.getPath());
+                checkPathLength(newPath.length() + deepest - fileInfo.getPath().length());
             }
-            current = getById(current.getParentId());
+            if (!fileInfo.getIsDeleted()) {
+                // 目录重新读取聚合值：更深的子孙可能刚被移出
+                FileInfo current = fileInfo.getIsDir() ? getById(fileInfo.getId()) : fileInfo;
+                fileDirAggregateService.moveBetweenAncestors(current, newPath);
+            }
+            getMapper().replacePathPrefix(fileInfo.getPath(), newPath, fileInfo.getPath().length() + 1);
         }
-        return false;
+        publishFileChanged(movedList);
     }
 
     /**
-     * 生成唯一的文件名（处理重名冲突）
-     * <p>
-     * - 如果不存在重名：返回原名称
-     * - 如果存在重名：自动添加 (1), (2), (3)... 后缀
-     *
-     * @param userId        用户ID
-     * @param parentId      父目录ID
-     * @param desiredName   期望的文件名
-     * @param isDir         是否是文件夹
-     * @param excludeFileId 排除的文件ID（可选，用于重命名场景）
-     * @return 唯一的文件名
+     * 发布文件变更事件，每个用户只发布一次
      */
+    private void publishFileChanged(Collection<FileInfo> files) {
+        files.stream()
+                .map(FileInfo::getUserId)
+                .distinct()
+                .forEach(userId -> eventPublisher.publishEvent(new FileChangedEvent(this, userId)));
+    }
+
     @Override
     public String generateUniqueName(String userId, String parentId,
                                      String desiredName, Boolean isDir,
                                      String excludeFileId, String storagePlatformSettingId) {
-
-        String nameWithoutExt = desiredName;
-        String extension = "";
-        if (!isDir && desiredName.contains(".")) {
-            int lastDotIndex = desiredName.lastIndexOf(".");
-            nameWithoutExt = desiredName.substring(0, lastDotIndex);
-            extension = desiredName.substring(lastDotIndex); // 包含点号
-        }
-        QueryWrapper query = buildSameLevelQuery(
-                userId,
-                parentId,
-                nameWithoutExt,
-                isDir,
-                excludeFileId,
-                storagePlatformSettingId
-        );
-        List<FileInfo> existingFiles = list(query);
-        if (existingFiles.isEmpty()) {
-            return desiredName;
-        }
-        Set<Integer> usedSuffixes = extractUsedSuffixes(existingFiles, nameWithoutExt, isDir);
-        int suffixNum = 0;
-        String finalName;
-        do {
-            suffixNum++;
-            finalName = buildNameWithSuffix(nameWithoutExt, suffixNum, extension, isDir);
-        } while (usedSuffixes.contains(suffixNum));
-        log.info("检测到重名，自动重命名：{} -> {}", desiredName, finalName);
-        return finalName;
-    }
-
-    /**
-     * 构建查询同级目录下同类型文件的条件
-     */
-    private QueryWrapper buildSameLevelQuery(String userId, String parentId,
-                                             String baseName, Boolean isDir,
-                                             String excludeFileId, String storagePlatformSettingId) {
-        QueryWrapper query = new QueryWrapper();
-
-        query.where(FILE_INFO.USER_ID.eq(userId))
-                .and(FILE_INFO.IS_DIR.eq(isDir))
-                .and(FILE_INFO.IS_DELETED.eq(false));
-
-        if (StrUtil.isBlank(parentId)) {
-            query.and(FILE_INFO.PARENT_ID.isNull());
-        } else {
-            query.and(FILE_INFO.PARENT_ID.eq(parentId));
-        }
-        // ------------------------------------
-
-        query.and(FILE_INFO.DISPLAY_NAME.like(baseName + "%"));
-
-        if (StringUtils.isEmpty(storagePlatformSettingId)) {
-            query.and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.isNull());
-        } else {
-            query.and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId));
-        }
-
-        if (StrUtil.isNotBlank(excludeFileId)) {
-            query.and(FILE_INFO.ID.ne(excludeFileId));
-        }
-        return query;
-    }
-
-    /**
-     * 提取已使用的后缀数字
-     * 示例：
-     * - photo.jpg       -> 0
-     * - photo(1).jpg    -> 1
-     * - photo(2).jpg    -> 2
-     * - photo(abc).jpg  -> -1 (忽略)
-     */
-    private Set<Integer> extractUsedSuffixes(List<FileInfo> existingFiles,
-                                             String nameWithoutExt,
-                                             Boolean isDir) {
-        return existingFiles.stream()
-                .map(f -> {
-                    String displayName = f.getDisplayName();
-
-                    // 移除扩展名（如果是文件）
-                    if (!isDir && displayName.contains(".")) {
-                        int lastDotIndex = displayName.lastIndexOf(".");
-                        displayName = displayName.substring(0, lastDotIndex);
-                    }
-
-                    // 检查是否完全匹配基础名称（表示原始文件，后缀为 0）
-                    if (displayName.equals(nameWithoutExt)) {
-                        return 0;
-                    }
-
-                    // 匹配 (n) 格式的后缀
-                    String pattern = "^" + Pattern.quote(nameWithoutExt) + "\\((\\d+)\\)$";
-                    Matcher matcher = Pattern.compile(pattern).matcher(displayName);
-
-                    if (matcher.find()) {
-                        return Integer.parseInt(matcher.group(1));
-                    }
-
-                    return -1; // 不匹配的名称（忽略）
-                })
-                .filter(n -> n >= 0)  // 只保留有效的后缀数字
-                .collect(Collectors.toSet());
-    }
-
-    /**
-     * 构建带后缀的文件名
-     *
-     * @param nameWithoutExt 不含扩展名的文件名
-     * @param suffixNum      后缀数字
-     * @param extension      扩展名（含点号）
-     * @param isDir          是否是文件夹
-     * @return 完整的文件名
-     */
-    private String buildNameWithSuffix(String nameWithoutExt, int suffixNum,
-                                       String extension, Boolean isDir) {
-        if (isDir) {
-            // 文件夹：baseName(1)
-            return nameWithoutExt + "(" + suffixNum + ")";
-        } else {
-            // 文件：baseName(1).ext
-            return nameWithoutExt + "(" + suffixNum + ")" + extension;
-        }
+        return fileNameAllocationService.allocate(userId, storagePlatformSettingId, parentId,
+                desiredName, Boolean.TRUE.equals(isDir), excludeFileId);
     }
 
     @Override
@@ -451,22 +393,18 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
             return List.of();
         }
 
-        List<FileVO> pathList = new ArrayList<>();
-        FileInfo current = fileInfo;
-
-        // 递归向上查找，直到根节点（parent_id 为 null）
-        while (current != null) {
-            FileVO fileVO = converter.convert(current, FileVO.class);
-            pathList.add(0, fileVO);
+        // 物化路径即从根到自身的ID链，一次查询取回所有祖先
+        List<String> ancestorIds = StrUtil.split(fileInfo.getPath(), PATH_SEPARATOR, true, true);
+        Map<String, FileInfo> ancestors = listByIds(ancestorIds).stream()
+                .collect(Collectors.toMap(FileInfo::getId, f -> f));
 
-            // 查找父节点
-            if (current.getParentId() != null) {
-                current = getById(current.getParentId());
-            } else {
-                break;
+        List<FileVO> pathList = new ArrayList<>(ancestorIds.size());
+        for (String ancestorId : ancestorIds) {
+            FileInfo ancestor = ancestors.get(ancestorId);
+            if (ancestor != null) {
+                pathList.add(converter.convert(ancestor, FileVO.class));
             }
         }
-
         return pathList;
     }
 
@@ -474,7 +412,99 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
     public List<FileVO> getList(FileQry qry) {
         String userId = StpUtil.getLoginIdAsString();
         String storagePlatformSettingId = StoragePlatformContextHolder.getConfigId();
-        // 构建查询条件
+        // 最近使用过滤（优先级最高）
+        if (Boolean.TRUE.equals(qry.getIsRecents())) {
+            QueryWrapper wrapper = buildListWrapper(qry, userId, storagePlatformSettingId);
+            wrapper.and(FILE_INFO.IS_DIR.eq(false))
+                    .orderBy(FILE_INFO.LAST_ACCESS_TIME.desc())
+                    .limit(20);
+
+            log.info("用户 {} 查询最近使用文件", userId);
+            return fillThumbnailUrls(this.listAs(wrapper, FileVO.class));
+        }
+        QueryWrapper wrapper = buildListWrapper(qry, userId, storagePlatformSettingId);
+        applyFileTypeFilter(wrapper, qry);
+        // 排序：目录在前，再按用户选择的字段排序，ID 保证顺序稳定
+        QueryColumn sortColumn = resolveSortColumn(qry.getOrderBy());
+        boolean isAsc = "ASC".equalsIgnoreCase(qry.getOrderDirection());
+        wrapper.orderBy(FILE_INFO.IS_DIR.desc())
+                .orderBy(sortColumn, isAsc)
+                .orderBy(FILE_INFO.ID, isAsc);
+        return fillThumbnailUrls(this.listAs(wrapper, FileVO.class));
+    }
+
+    @Override
+    public FilePageVO getPage(FileQry qry) {
+        String userId = StpUtil.getLoginIdAsString();
+        String storagePlatformSettingId = StoragePlatformContextHolder.getConfigId();
+        int pageSize = Math.min(Math.max(qry.getPageSize() != null ? qry.getPageSize() : DEFAULT_PAGE_SIZE, 1),
+                MAX_PAGE_SIZE);
+        QueryColumn sortColumn = resolveSortColumn(qry.getOrderBy());
+        String sort = sortColumn.getName();
+        boolean isAsc = "ASC".equalsIgnoreCase(qry.getOrderDirection());
+        FileListCursor cursor = StrUtil.isBlank(qry.getCursor())
+                ? null : FileListCursor.decode(qry.getCursor(), sort, isAsc);
+
+        // 目录与文件分两段查询，每段都是 is_dir 等值条件下按 (排序键, ID) 单向扫描，可直接走复合索引
+        List<FileVO> records = new ArrayList<>();
+        for (boolean isDir : new boolean[]{true, false}) {
+            if (isDir && cursor != null && !cursor.getDir()) {
+                // 游标已进入文件段
+                continue;
+            }
+            if (!isDir && Boolean.TRUE.equals(qry.getIsDir())) {
+                break;
+            }
+            int limit = pageSize + 1 - records.size();
+            if (limit <= 0) {
+                break;
+            }
+            QueryWrapper wrapper = buildListWrapper(qry, userId, storagePlatformSettingId);
+            applyFileTypeFilter(wrapper, qry);
+            wrapper.and(FILE_INFO.IS_DIR.eq(isDir));
+            if (cursor != null && cursor.getDir() == isDir) {
+                applyCursor(wrapper, sortColumn, isAsc, cursor);
+            }
+            wrapper.orderBy(sortColumn, isAsc)
+                    .orderBy(FILE_INFO.ID, isAsc)
+                    .limit(limit);
+            records.addAll(this.listAs(wrapper, FileVO.class));
+        }
+
+        boolean hasMore = records.size() > pageSize;
+        if (hasMore) {
+            records = new ArrayList<>(records.subList(0, pageSize));
+        }
+        String nextCursor = null;
+        if (hasMore) {
+            FileVO last = records.get(records.size() - 1);
+            FileListCursor next = new FileListCursor();
+            next.setSort(sort);
+            next.setAsc(isAsc);
+            next.setDir(Boolean.TRUE.equals(last.getIsDir()));
+            next.setValue(sortValue(last, sort));
+            next.setId(last.getId());
+            nextCursor = next.encode();
+        }
+        // 总数需要扫描整个目录，只在客户端明确请求时统计
+        Long total = null;
+        if (Boolean.TRUE.equals(qry.getWithTotal())) {
+            QueryWrapper countWrapper = buildListWrapper(qry, userId, storagePlatformSettingId);
+            applyFileTypeFilter(countWrapper, qry);
+            total = this.count(countWrapper);
+        }
+        return FilePageVO.builder()
+                .records(fillThumbnailUrls(records))
+                .nextCursor(nextCursor)
+                .hasMore(hasMore)
+                .total(total)
+                .build();
+    }
+
+    /**
+     * 构建文件列表的公共查询条件（用户、平台、收藏、父目录、关键词），不含排序
+     */
+    private QueryWrapper buildListWrapper(FileQry qry, String userId, String storagePlatformSettingId) {
         QueryWrapper wrapper = new QueryWrapper();
         wrapper.select(
                         "fi.*",
@@ -494,18 +524,8 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
         if (Boolean.TRUE.equals(qry.getIsDir())) {
             wrapper.and(FILE_INFO.IS_DIR.eq(true));
         }
-        // 最近使用过滤（优先级最高）
         if (Boolean.TRUE.equals(qry.getIsRecents())) {
-            wrapper.and(FILE_INFO.IS_DIR.eq(false))
-                    .orderBy(FILE_INFO.LAST_ACCESS_TIME.desc())
-                    .limit(20);
-
-            log.info("用户 {} 查询最近使用文件", userId);
-            List<FileVO> list = this.listAs(wrapper, FileVO.class);
-            if (CollUtil.isNotEmpty(list)) {
-                list.parallelStream().forEach(vo -> vo.setThumbnailUrl(fillThumbnailUrl(vo.getSuffix(), vo.getObjectKey())));
-            }
-            return list;
+            return wrapper;
         }
         // 收藏过滤
         if (Boolean.TRUE.equals(qry.getIsFavorite()) && qry.getParentId() == null) {
@@ -527,24 +547,72 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
             }
         }
 
-        // 关键词搜索
+        // 关键词搜索，由当前搜索引擎生成可走索引的匹配条件
         if (StrUtil.isNotBlank(qry.getKeyword())) {
-            String keyword = "%" + qry.getKeyword().trim() + "%";
-            wrapper.and(
-                    FILE_INFO.ORIGINAL_NAME.like(keyword)
-                            .or(FILE_INFO.DISPLAY_NAME.like(keyword))
-            );
+            fileSearchEngineRegistry.getCurrent().applyKeyword(wrapper, qry.getKeyword().trim(),
+                    FileSearchMode.fromCode(qry.getSearchMode()));
         }
-        // 文件类型过滤
-        applyFileTypeFilter(wrapper, qry);
-        // 排序
-        String orderBy = StrUtil.toUnderlineCase(qry.getOrderBy());
-        boolean isAsc = "ASC".equalsIgnoreCase(qry.getOrderDirection());
-        wrapper.orderBy(FILE_INFO.IS_DIR.desc())
-                .orderBy(FILE_INFO.UPDATE_TIME.desc())
-                .orderBy(orderBy, isAsc);
-        List<FileVO> list = this.listAs(wrapper, FileVO.class);
+        if (StrUtil.isNotBlank(qry.getSuffix())) {
+            wrapper.and(FILE_INFO.SUFFIX.eq(StrUtil.removePrefix(qry.getSuffix().trim(), ".")));
+        }
+        if (qry.getUpdateTimeStart() != null) {
+            wrapper.and(FILE_INFO.UPDATE_TIME.ge(qry.getUpdateTimeStart()));
+        }
+        if (qry.getUpdateTimeEnd() != null) {
+            wrapper.and(FILE_INFO.UPDATE_TIME.lt(qry.getUpdateTimeEnd()));
+        }
+        return wrapper;
+    }
+
+    /**
+     * 排序字段白名单，每个字段都有 (user_id, parent_id, is_dir, 字段, id) 复合索引，其他值按修改时间排序
+     */
+    private QueryColumn resolveSortColumn(String orderBy) {
+        if ("displayName".equals(orderBy)) {
+            return FILE_INFO.DISPLAY_NAME;
+        }
+        if ("size".equals(orderBy)) {
+            return FILE_INFO.SIZE;
+        }
+        return FILE_INFO.UPDATE_TIME;
+    }
+
+    /**
+     * 追加游标条件：(排序键, ID) 严格位于游标之后
+     * 同一段内排序键要么全为空（目录按大小排序），要么全不为空，为空时只比较ID
+     */
+    private void applyCursor(QueryWrapper wrapper, QueryColumn sortColumn, boolean isAsc, FileListCursor cursor) {
+        if (cursor.getValue() == null) {
+            wrapper.and(isAsc ? FILE_INFO.ID.gt(cursor.getId()) : FILE_INFO.ID.lt(cursor.getId()));
+            return;
+        }
+        Object value = parseSortValue(sortColumn.getName(), cursor.getValue());
+        wrapper.and((isAsc ? sortColumn.gt(value) : sortColumn.lt(value))
+                .or(sortColumn.eq(value).and(isAsc ? FILE_INFO.ID.gt(cursor.getId()) : FILE_INFO.ID.lt(cursor.getId()))));
+    }
+
+    private String sortValue(FileVO vo, String sort) {
+        Object value = switch (sort) {
+            case "display_name" -> vo.getDisplayName();
+            case "size" -> vo.getSize();
+            default -> vo.getUpdateTime();
+        };
+        return value != null ? value.toString() : null;
+    }
+
+    private Object parseSortValue(String sort, String value) {
+        try {
+            return switch (sort) {
+                case "display_name" -> value;
+                case "size" -> Long.parseLong(value);
+                default -> LocalDateTime.parse(value);
+            };
+        } catch (Exception e) {
+            throw new BusinessException("分页游标无效");
+        }
+    }
 
+    private List<FileVO> fillThumbnailUrls(List<FileVO> list) {
         if (CollUtil.isNotEmpty(list)) {
             list.parallelStream().forEach(vo -> vo.setThumbnailUrl(fillThumbnailUrl(vo.getSuffix(), vo.getObjectKey())));
         }
@@ -569,21 +637,8 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
     public Long calculateUsedStorage() {
         String userId = StpUtil.getLoginIdAsString();
         String storagePlatformSettingId = StoragePlatformContextHolder.getConfigId();
-
-        // 查询所有未删除的文件
-        List<FileInfo> fileInfoList = this.list(new QueryWrapper()
-                .where(FILE_INFO.USER_ID.eq(userId)
-                        .and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId))
-                        .and(FILE_INFO.IS_DELETED.eq(false))
-                        .and(FILE_INFO.IS_DIR.eq(false)) // 只统计文件，不统计文件夹
-                ));
-
-        // 统计总大小
-        return fileInfoList.stream()
-                .map(FileInfo::getSize)
-                .filter(Objects::nonNull)
-                .mapToLong(Long::longValue)
-                .sum();
+        // 实时用量计数，回收站中的文件在彻底删除前仍计入
+        return userStorageUsageManager.getUsedBytes(userId, storagePlatformSettingId);
     }
 
     @Override
@@ -594,17 +649,10 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
         }
         FileDetailVO vo = converter.convert(fileInfo, FileDetailVO.class);
         if (vo.getIsDir()) {
-            Map<String, Long> stats = new HashMap<>();
-            stats.put("size", 0L);
-            stats.getOrDefault("fileCount", 0L);
-            stats.put("fileCount", 0L);
-            stats.put("folderCount", 0L);
-            recursiveAccumulate(fileId, stats);
-
-            //如果为文件夹则需要统计该文件夹下所有文件
-            vo.setSize(stats.get("size"));
-            vo.setIncludeFiles(stats.get("fileCount").intValue());
-            vo.setIncludeFolders(stats.get("folderCount").intValue());
+            //文件夹直接读取增量维护的聚合值
+            vo.setSize(fileInfo.getTotalSize() != null ? fileInfo.getTotalSize() : 0L);
+            vo.setIncludeFiles(fileInfo.getFileCount() != null ? fileInfo.getFileCount() : 0);
+            vo.setIncludeFolders(fileInfo.getFolderCount() != null ? fileInfo.getFolderCount() : 0);
         } else {
             vo.setIncludeFiles(0);
             vo.setIncludeFolders(0);
@@ -613,37 +661,6 @@ public class FileInfoServiceImpl extends ServiceImpl<FileInfoMapper, FileInfo> i
         return vo;
     }
 
-    /**
-     * 递归统计文件夹信息
-     */
-    private void recursiveAccumulate(String parentId, Map<String, Long> stats) {
-        String userId = StpUtil.getLoginIdAsString();
-        String storagePlatformSettingId = StoragePlatformContextHolder.getConfigId();
-        // 查询当前目录下的直接子级
-        List<FileInfo> children = this.list(new QueryWrapper()
-                .where(FILE_INFO.PARENT_ID.eq(parentId))
-                .and(FILE_INFO.USER_ID.eq(userId))
-                .and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId))
-                .and(FILE_INFO.IS_DELETED.eq(false)));
-
-        if (CollUtil.isEmpty(children)) {
-            return;
-        }
-
-        for (FileInfo child : children) {
-            if (child.getIsDir()) {
-                // 统计文件夹个数并向下递归
-                stats.put("folderCount", stats.get("folderCount") + 1);
-                recursiveAccumulate(child.getId(), stats);
-            } else {
-                // 统计文件个数及大小
-                stats.put("fileCount", stats.get("fileCount") + 1);
-                long fileSize = child.getSize() != null ? child.getSize() : 0L;
-                stats.put("size", stats.get("size") + fileSize);
-            }
-        }
-    }
-
     @Override
     public List<FileVO> getDirs(String parentId) {
         String userId = StpUtil.getLoginIdAsString();
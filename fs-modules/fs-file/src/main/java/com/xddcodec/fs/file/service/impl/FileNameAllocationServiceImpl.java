@@ -0,0 +1,127 @@
+package com.xddcodec.fs.file.service.impl;
+
+import cn.hutool.core.util.StrUtil;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.mapper.FileInfoMapper;
+import com.xddcodec.fs.file.service.FileNameAllocationService;
+import com.xddcodec.fs.framework.common.exception.BusinessException;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
+
+/**
+ * 同级名称分配服务实现
+ * 后缀按倍增探测 (1)、(2)、(4)... 找到第一个空闲位置，再在最后一个占用与该空闲位置之间二分，
+ * 每次探测是一次唯一名称的索引点查，n 个同名节点只需 O(log n) 次查询
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/27
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileNameAllocationServiceImpl implements FileNameAllocationService {
+
+    /**
+     * 后缀上限，超出说明同名节点异常多，拒绝继续分配
+     */
+    private static final int MAX_SUFFIX = 1 << 20;
+
+    private final FileInfoMapper fileInfoMapper;
+
+    @Override
+    public String allocate(String userId, String storagePlatformSettingId, String parentId,
+                           String desiredName, boolean isDir, String excludeFileId) {
+        if (!isTaken(userId, storagePlatformSettingId, parentId, desiredName, isDir, excludeFileId)) {
+            return desiredName;
+        }
+        String nameWithoutExt = desiredName;
+        String extension = "";
+        if (!isDir && desiredName.contains(".")) {
+            int lastDotIndex = desiredName.lastIndexOf(".");
+            nameWithoutExt = desiredName.substring(0, lastDotIndex);
+            extension = desiredName.substring(lastDotIndex); // 包含点号
+        }
+        // low 为已知占用的后缀（0 表示原名），high 为已知空闲的后缀
+        int low = 0;
+        int high = 1;
+        while (isTaken(userId, storagePlatformSettingId, parentId,
+                buildNameWithSuffix(nameWithoutExt, high, extension), isDir, excludeFileId)) {
+            if (high >= MAX_SUFFIX) {
+                throw new BusinessException("同名文件过多，请更换名称");
+            }
+            low = high;
+            high <<= 1;
+        }
+        while (high - low > 1) {
+            int mid = (low + high) >>> 1;
+            if (isTaken(userId, storagePlatformSettingId, parentId,
+                    buildNameWithSuffix(nameWithoutExt, mid, extension), isDir, excludeFileId)) {
+                low = mid;
+            } else {
+                high = mid;
+            }
+        }
+        String finalName = buildNameWithSuffix(nameWithoutExt, high, extension);
+        log.info("检测到重名，自动重命名：{} -> {}", desiredName, finalName);
+        return finalName;
+    }
+
+    @Override
+    public void saveWithUniqueName(FileInfo fileInfo) {
+        fileInfo.setDisplayName(allocate(
+                fileInfo.getUserId(),
+                fileInfo.getStoragePlatformSettingId(),
+                fileInfo.getParentId(),
+                fileInfo.getDisplayName(),
+                Boolean.TRUE.equals(fileInfo.getIsDir()),
+                null
+        ));
+        try {
+            fileInfoMapper.insert(fileInfo);
+        } catch (DuplicateKeyException e) {
+            log.warn("同名节点并发写入: parentId={}, name={}", fileInfo.getParentId(), fileInfo.getDisplayName());
+            throw new BusinessException("目标目录下已存在同名文件，请重试");
+        }
+    }
+
+    /**
+     * 名称是否已被同级未删除的同类型节点占用
+     * 等值条件命中 (user_id, parent_id, is_dir, display_name) 索引，只读取一条
+     */
+    private boolean isTaken(String userId, String storagePlatformSettingId, String parentId,
+                            String name, boolean isDir, String excludeFileId) {
+        QueryWrapper query = QueryWrapper.create()
+                .select(FILE_INFO.ID)
+                .where(FILE_INFO.USER_ID.eq(userId))
+                .and(FILE_INFO.IS_DIR.eq(isDir))
+                .and(FILE_INFO.DISPLAY_NAME.eq(name))
+                .and(FILE_INFO.IS_DELETED.eq(false));
+        if (StrUtil.isBlank(parentId)) {
+            query.and(FILE_INFO.PARENT_ID.isNull());
+        } else {
+            query.and(FILE_INFO.PARENT_ID.eq(parentId));
+        }
+        if (StrUtil.isEmpty(storagePlatformSettingId)) {
+            query.and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.isNull());
+        } else {
+            query.and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId));
+        }
+        if (StrUtil.isNotBlank(excludeFileId)) {
+            query.and(FILE_INFO.ID.ne(excludeFileId));
+        }
+        query.limit(1);
+        return fileInfoMapper.selectOneByQuery(query) != null;
+    }
+
+    /**
+     * 构建带后缀的名称：文件为 baseName(n).ext，文件夹为 baseName(n)
+     */
+    private String buildNameWithSuffix(String nameWithoutExt, int suffixNum, String extension) {
+        return nameWithoutExt + "(" + suffixNum + ")" + extension;
+    }
+}
@@ -0,0 +1,116 @@
+package com.xddcodec.fs.file.service.impl;
+
+import cn.hutool.core.collection.CollUtil;
+import cn.hutool.core.util.StrUtil;
+import com.mybatisflex.core.query.QueryWrapper;
+import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.FileObjectRef;
+import com.xddcodec.fs.file.mapper.FileObjectRefMapper;
+import com.xddcodec.fs.file.service.FileObjectRefService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static com.xddcodec.fs.file.domain.table.FileObjectRefTableDef.FILE_OBJECT_REF;
+
+/**
+ * 物理对象引用计数服务实现
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/23
+ */
+@Slf4j
+@Service
+public class FileObjectRefServiceImpl extends ServiceImpl<FileObjectRefMapper, FileObjectRef> implements FileObjectRefService {
+
+    /**
+     * 本地存储在引用表中的平台键
+     */
+    private static final String LOCAL_PLATFORM_KEY = "";
+
+    @Override
+    public void acquire(String storagePlatformSettingId, String objectKey) {
+        if (StrUtil.isBlank(objectKey)) {
+            return;
+        }
+        // 对象key由任务生成，正常不会重复；重复时按共享处理，单条 upsert 不会因唯一键冲突中断事务
+        getMapper().upsertRefCount(toPlatformKey(storagePlatformSettingId), objectKey);
+    }
+
+    @Override
+    public void abandon(String storagePlatformSettingId, String objectKey) {
+        if (StrUtil.isBlank(objectKey)) {
+            return;
+        }
+        if (getMapper().decreaseRefCount(toPlatformKey(storagePlatformSettingId), objectKey, 1) == 0) {
+            log.warn("放弃物理对象登记失败，对象未登记或计数不足: platform={}, objectKey={}",
+                    storagePlatformSettingId, objectKey);
+        }
+    }
+
+    @Override
+    public boolean share(String storagePlatformSettingId, String objectKey) {
+        if (StrUtil.isBlank(objectKey)) {
+            return false;
+        }
+        return getMapper().increaseRefCount(toPlatformKey(storagePlatformSettingId), objectKey, 1) > 0;
+    }
+
+    @Override
+    public int release(Collection<FileInfo> files) {
+        // 同一对象被多条记录引用时合并为一次扣减，同一平台同一扣减量的对象批量更新
+        Map<String, Map<String, Long>> releases = files.stream()
+                .filter(file -> !Boolean.TRUE.equals(file.getIsDir()) && StrUtil.isNotBlank(file.getObjectKey()))
+                .collect(Collectors.groupingBy(file -> toPlatformKey(file.getStoragePlatformSettingId()),
+                        Collectors.groupingBy(FileInfo::getObjectKey, Collectors.counting())));
+        int unreferenced = 0;
+        for (Map.Entry<String, Map<String, Long>> platformEntry : releases.entrySet()) {
+            String platformKey = platformEntry.getKey();
+            Map<Integer, List<String>> keysByDelta = platformEntry.getValue().entrySet().stream()
+                    .collect(Collectors.groupingBy(entry -> entry.getValue().intValue(),
+                            Collectors.mapping(Map.Entry::getKey, Collectors.toList())));
+            for (Map.Entry<Integer, List<String>> entry : keysByDelta.entrySet()) {
+                int delta = entry.getKey();
+                List<String> objectKeys = entry.getValue();
+                // 计数恰好归零与仍有引用的对象分两条语句更新，直接得到归零数，不逐个回查计数
+                int released = getMapper().releaseToZero(platformKey, objectKeys, delta);
+                int updated = released + getMapper().releaseReferenced(platformKey, objectKeys, delta);
+                unreferenced += released;
+                if (updated < objectKeys.size()) {
+                    // 未登记的对象不做物理删除，宁可遗留也不误删
+                    log.warn("释放物理对象引用失败，部分对象未登记或计数不足: platform={}, delta={}, 失败 {}/{}",
+                            platformKey, delta, objectKeys.size() - updated, objectKeys.size());
+                }
+            }
+        }
+        return unreferenced;
+    }
+
+    @Override
+    public List<FileObjectRef> listUnreferenced(long lastId, int limit) {
+        return list(QueryWrapper.create()
+                .where(FILE_OBJECT_REF.REF_COUNT.eq(0))
+                .and(FILE_OBJECT_REF.ID.gt(lastId))
+                .orderBy(FILE_OBJECT_REF.ID.asc())
+                .limit(limit));
+    }
+
+    @Override
+    public void removeReaped(Collection<Long> ids) {
+        if (CollUtil.isEmpty(ids)) {
+            return;
+        }
+        remove(QueryWrapper.create()
+                .where(FILE_OBJECT_REF.ID.in(ids))
+                .and(FILE_OBJECT_REF.REF_COUNT.eq(0)));
+    }
+
+    private String toPlatformKey(String storagePlatformSettingId) {
+        return StrUtil.isBlank(storagePlatformSettingId) ? LOCAL_PLATFORM_KEY : storagePlatformSettingId;
+    }
+}
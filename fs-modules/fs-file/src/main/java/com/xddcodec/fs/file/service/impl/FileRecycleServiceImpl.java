@@ -3,27 +3,36 @@ package com.xddcodec.fs.file.service.impl;
 import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.collection.CollUtil;
 import cn.hutool.core.util.StrUtil;
+import com.mybatisflex.core.query.QueryColumn;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.core.update.UpdateChain;
+import com.xddcodec.fs.file.cache.UserStorageUsageManager;
+import com.xddcodec.fs.file.config.FileTransferProperties;
 import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.event.FileChangedEvent;
 import com.xddcodec.fs.file.domain.vo.FileRecycleVO;
+import com.xddcodec.fs.file.schedule.UnreferencedObjectReaper;
+import com.xddcodec.fs.file.service.FileContentHashService;
+import com.xddcodec.fs.file.service.FileDirAggregateService;
 import com.xddcodec.fs.file.service.FileInfoService;
+import com.xddcodec.fs.file.service.FileNameAllocationService;
+import com.xddcodec.fs.file.service.FileObjectRefService;
 import com.xddcodec.fs.file.service.FileRecycleService;
+import com.xddcodec.fs.file.service.FileSubtreeService;
 import com.xddcodec.fs.file.service.FileUserFavoritesService;
 import com.xddcodec.fs.framework.common.exception.BusinessException;
-import com.xddcodec.fs.storage.facade.StorageServiceFacade;
-import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.context.StoragePlatformContextHolder;
 import io.github.linpeilie.Converter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 import org.springframework.transaction.support.TransactionSynchronization;
 import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.util.*;
-import java.util.function.Consumer;
 import java.util.stream.Collectors;
 
 import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
@@ -39,13 +48,37 @@ import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
 @RequiredArgsConstructor
 public class FileRecycleServiceImpl implements FileRecycleService {
 
+    /**
+     * 彻底删除所需列
+     */
+    private static final QueryColumn[] PURGE_COLUMNS = {
+            FILE_INFO.ID, FILE_INFO.USER_ID, FILE_INFO.IS_DIR, FILE_INFO.SIZE, FILE_INFO.PATH,
+            FILE_INFO.OBJECT_KEY, FILE_INFO.CONTENT_MD5, FILE_INFO.STORAGE_PLATFORM_SETTING_ID
+    };
+
     private final Converter converter;
 
     private final FileInfoService fileInfoService;
 
     private final FileUserFavoritesService fileUserFavoritesService;
 
-    private final StorageServiceFacade storageServiceFacade;
+    private final FileContentHashService fileContentHashService;
+
+    private final FileObjectRefService fileObjectRefService;
+
+    private final FileDirAggregateService fileDirAggregateService;
+
+    private final FileNameAllocationService fileNameAllocationService;
+
+    private final FileSubtreeService fileSubtreeService;
+
+    private final UnreferencedObjectReaper unreferencedObjectReaper;
+
+    private final UserStorageUsageManager userStorageUsageManager;
+
+    private final ApplicationEventPublisher eventPublisher;
+
+    private final FileTransferProperties properties;
 
     @Override
     public List<FileRecycleVO> getRecycles(String keyword) {
@@ -101,25 +134,51 @@ public class FileRecycleServiceImpl implements FileRecycleService {
 
         String userId = StpUtil.getLoginIdAsString();
 
-        Set<String> allFileIds = collectFileIdsRecursively(
-                fileIds,
-                userId,
-                wrapper -> wrapper.and(FILE_INFO.IS_DELETED.eq(true)) // 只收集已删除的
-        );
-
-        if (CollUtil.isEmpty(allFileIds)) {
+        List<FileInfo> selected = fileInfoService.list(new QueryWrapper()
+                .where(FILE_INFO.ID.in(fileIds))
+                .and(FILE_INFO.USER_ID.eq(userId))
+                .and(FILE_INFO.IS_DELETED.eq(true)));
+        if (CollUtil.isEmpty(selected)) {
             throw new BusinessException("未找到要恢复的文件或文件夹");
         }
 
-        // 批量恢复
-        UpdateChain.of(FileInfo.class)
-                .set(FileInfo::getIsDeleted, false)
-                .set(FileInfo::getDeletedTime, null)
-                .where(FILE_INFO.ID.in(allFileIds))
-                .and(FILE_INFO.USER_ID.eq(userId))
-                .update();
+        // 只处理顶层节点，选中的子孙随所在子树一起恢复
+        Set<String> selectedPaths = selected.stream().map(FileInfo::getPath).collect(Collectors.toSet());
+        List<FileInfo> restoredRoots = selected.stream()
+                .filter(root -> selectedPaths.stream()
+                        .noneMatch(path -> !path.equals(root.getPath()) && root.getPath().startsWith(path)))
+                .toList();
+        int total = 0;
+        try {
+            for (FileInfo root : restoredRoots) {
+                // 原目录下可能已新建同名节点，恢复前重新分配名称
+                String name = fileNameAllocationService.allocate(userId, root.getStoragePlatformSettingId(),
+                        root.getParentId(), root.getDisplayName(), Boolean.TRUE.equals(root.getIsDir()), root.getId());
+                if (!name.equals(root.getDisplayName())) {
+                    UpdateChain.of(FileInfo.class)
+                            .set(FileInfo::getDisplayName, name)
+                            .where(FILE_INFO.ID.eq(root.getId()))
+                            .update();
+                    root.setDisplayName(name);
+                }
+                // 按路径前缀一次恢复整棵子树
+                total += fileSubtreeService.restore(root);
+            }
+        } catch (DuplicateKeyException e) {
+            throw new BusinessException("恢复位置已存在同名文件，请重试");
+        }
+
+        // 重算恢复的目录子树聚合，再将顶层节点累加到祖先目录
+        for (FileInfo root : restoredRoots) {
+            FileInfo current = root;
+            if (root.getIsDir() && fileDirAggregateService.recomputeSubtree(root) > 0) {
+                current = fileInfoService.getById(root.getId());
+            }
+            fileDirAggregateService.addToAncestors(current);
+        }
 
-        log.info("用户 {} 恢复文件/文件夹，共 {} 项", userId, allFileIds.size());
+        eventPublisher.publishEvent(new FileChangedEvent(this, userId));
+        log.info("用户 {} 恢复文件/文件夹，共 {} 项", userId, total);
     }
 
     @Override
@@ -129,174 +188,136 @@ public class FileRecycleServiceImpl implements FileRecycleService {
             return;
         }
         String userId = StpUtil.getLoginIdAsString();
-        Set<String> allFileIds = collectFileIdsRecursively(
-                fileIds,
-                userId,
-                wrapper -> wrapper.and(FILE_INFO.IS_DELETED.eq(true)) // 只能删除回收站中的
-        );
-        if (CollUtil.isEmpty(allFileIds)) {
+        // 只能删除回收站中的
+        List<FileInfo> selected = fileInfoService.list(new QueryWrapper()
+                .select(PURGE_COLUMNS)
+                .where(FILE_INFO.ID.in(fileIds))
+                .and(FILE_INFO.USER_ID.eq(userId))
+                .and(FILE_INFO.IS_DELETED.eq(true)));
+        if (CollUtil.isEmpty(selected)) {
             throw new BusinessException("未找到要删除的文件或文件夹");
         }
-        List<FileInfo> allFiles = fileInfoService.listByIds(allFileIds);
-        // 找出需要删除物理文件的（没有其他引用的）
-        List<FileInfo> physicalFilesToDelete = new ArrayList<>();
-        for (FileInfo file : allFiles) {
-            if (StrUtil.isBlank(file.getObjectKey())) {
-                continue;
-            }
 
-            // 查询除了本次要删除的文件外，还有没有其他文件引用这个objectKey
-            long count = fileInfoService.count(new QueryWrapper()
-                    .where(FILE_INFO.OBJECT_KEY.eq(file.getObjectKey())
-                            .and(FILE_INFO.ID.notIn(allFileIds))));
-
-            if (count == 0) {
-                physicalFilesToDelete.add(file);
+        // 只处理顶层节点，选中的子孙随所在子树一起删除
+        Set<String> selectedPaths = selected.stream().map(FileInfo::getPath).collect(Collectors.toSet());
+        List<FileInfo> roots = selected.stream()
+                .filter(root -> selectedPaths.stream()
+                        .noneMatch(path -> !path.equals(root.getPath()) && root.getPath().startsWith(path)))
+                .toList();
+
+        // 文件直接删除，目录按路径分批删除整棵子树（含目录本身）
+        int batchSize = properties.getRecycleCleanupBatchSize();
+        List<FileInfo> plainFiles = roots.stream().filter(root -> !Boolean.TRUE.equals(root.getIsDir())).toList();
+        for (int from = 0; from < plainFiles.size(); from += batchSize) {
+            purgeFiles(plainFiles.subList(from, Math.min(from + batchSize, plainFiles.size())));
+        }
+        int total = plainFiles.size();
+        for (FileInfo root : roots) {
+            if (Boolean.TRUE.equals(root.getIsDir())) {
+                total += purgeSubtree(root, userId, batchSize);
             }
         }
-
-        // 删除文件信息记录
-        fileInfoService.removeByIds(allFileIds);
-
-        // 删除用户收藏记录
-        fileUserFavoritesService.removeByFileIds(allFileIds, userId);
-
-        TransactionSynchronizationManager.registerSynchronization(
-                new TransactionSynchronization() {
-                    @Override
-                    public void afterCommit() {
-                        for (FileInfo file : physicalFilesToDelete) {
-                            try {
-                                deletePhysicalFile(file);
-                            } catch (Exception e) {
-                                log.error("删除物理文件失败: {}", file.getObjectKey(), e);
-                            }
-                        }
-                    }
-                }
-        );
+        log.info("用户 {} 彻底删除文件/文件夹，共 {} 项", userId, total);
     }
 
     /**
-     * 删除物理文件
-     *
-     * @param file 文件信息
+     * 按路径键集分页彻底删除目录子树，每批数量与回收站定时清理一致
      */
-    private void deletePhysicalFile(FileInfo file) {
-        IStorageOperationService storageService = storageServiceFacade.getStorageService(file.getStoragePlatformSettingId());
-        storageService.deleteFile(file.getObjectKey());
+    private int purgeSubtree(FileInfo root, String userId, int batchSize) {
+        String lastPath = "";
+        int total = 0;
+        while (true) {
+            List<FileInfo> batch = fileInfoService.list(new QueryWrapper()
+                    .select(PURGE_COLUMNS)
+                    .where("path LIKE ?", root.getPath() + "%")
+                    .and(FILE_INFO.PATH.gt(lastPath))
+                    .and(FILE_INFO.USER_ID.eq(userId))
+                    .and(FILE_INFO.IS_DELETED.eq(true))
+                    .orderBy(FILE_INFO.PATH.asc())
+                    .limit(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            purgeFiles(batch);
+            total += batch.size();
+            lastPath = batch.get(batch.size() - 1).getPath();
+            if (batch.size() < batchSize) {
+                break;
+            }
+        }
+        return total;
     }
 
-    @Transactional(rollbackFor = Exception.class)
     @Override
-    public void clearRecycles() {
-        String userId = StpUtil.getLoginIdAsString();
-        String storagePlatformSettingId = StoragePlatformContextHolder.getConfigId();
-
-        // 查询所有已删除的文件
-        List<FileInfo> allDeletedFiles = fileInfoService.list(new QueryWrapper()
-                .where(FILE_INFO.USER_ID.eq(userId))
-                .and(FILE_INFO.IS_DELETED.eq(true))
-                .and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId))
-        );
-
-        if (CollUtil.isEmpty(allDeletedFiles)) {
+    @Transactional(rollbackFor = Exception.class)
+    public void purgeFiles(List<FileInfo> files) {
+        if (CollUtil.isEmpty(files)) {
             return;
         }
+        List<String> fileIds = files.stream().map(FileInfo::getId).toList();
 
-        // 构建已删除文件的ID集合
-        Set<String> deletedFileIds = allDeletedFiles.stream()
-                .map(FileInfo::getId)
-                .collect(Collectors.toSet());
-
-        // 过滤出顶层删除项
-        List<String> topLevelDeletedFileIds = allDeletedFiles.stream()
-                .filter(file -> {
-                    String parentId = file.getParentId();
-                    return StrUtil.isBlank(parentId) || !deletedFileIds.contains(parentId);
-                })
-                .map(FileInfo::getId)
-                .collect(Collectors.toList());
-
-        // 递归删除顶层项（会自动处理子项）
-        this.permanentlyDeleteFiles(topLevelDeletedFileIds);
-    }
-
-
-    /**
-     * 递归收集文件ID（通用方法）
-     *
-     * @param fileIds 初始文件ID列表
-     * @param userId  用户ID
-     * @param filter  过滤条件（可选）
-     * @return 收集到的所有文件ID集合
-     */
-    private Set<String> collectFileIdsRecursively(
-            List<String> fileIds,
-            String userId,
-            Consumer<QueryWrapper> filter) {
-
-        // 查询初始文件列表
-        QueryWrapper initialWrapper = new QueryWrapper()
-                .where(FILE_INFO.ID.in(fileIds))
-                .and(FILE_INFO.USER_ID.eq(userId));
+        // 删除文件信息记录
+        fileInfoService.removeByIds(fileIds);
 
-        // 应用额外过滤条件
-        if (filter != null) {
-            filter.accept(initialWrapper);
-        }
+        // 释放内容哈希登记的引用
+        fileContentHashService.releaseReferences(files);
 
-        List<FileInfo> files = fileInfoService.list(initialWrapper);
+        // 释放物理对象引用，计数归零的对象由回收器异步删除
+        int unreferenced = fileObjectRefService.release(files);
 
-        if (CollUtil.isEmpty(files)) {
-            return Collections.emptySet();
-        }
+        // 扣减用户存储用量，事务提交后生效
+        userStorageUsageManager.releaseFiles(files);
 
-        // 递归收集
-        Set<String> allFileIds = new HashSet<>();
-        files.forEach(file -> {
-            collectFileIdsRecursive(file, allFileIds, userId, filter);
+        // 按用户删除收藏记录并发布变更事件
+        Map<String, List<String>> idsByUser = files.stream()
+                .collect(Collectors.groupingBy(FileInfo::getUserId,
+                        Collectors.mapping(FileInfo::getId, Collectors.toList())));
+        idsByUser.forEach((userId, ids) -> {
+            fileUserFavoritesService.removeByFileIds(ids, userId);
+            eventPublisher.publishEvent(new FileChangedEvent(this, userId));
         });
 
-        return allFileIds;
+        if (unreferenced > 0) {
+            TransactionSynchronizationManager.registerSynchronization(
+                    new TransactionSynchronization() {
+                        @Override
+                        public void afterCommit() {
+                            unreferencedObjectReaper.wakeUp();
+                        }
+                    }
+            );
+        }
     }
 
-    /**
-     * 递归收集单个文件及其子文件的ID
-     *
-     * @param file       文件信息
-     * @param allFileIds 收集的文件ID集合
-     * @param userId     用户ID
-     * @param filter     过滤条件（可选）
-     */
-    private void collectFileIdsRecursive(
-            FileInfo file,
-            Set<String> allFileIds,
-            String userId,
-            Consumer<QueryWrapper> filter) {
-
-        // 添加当前文件ID
-        allFileIds.add(file.getId());
-
-        // 如果是文件夹，递归处理子项
-        if (file.getIsDir()) {
-            log.debug("收集文件夹 {} 的子项", file.getDisplayName());
-
-            // 构建查询条件
-            QueryWrapper wrapper = new QueryWrapper()
-                    .where(FILE_INFO.PARENT_ID.eq(file.getId()))
-                    .and(FILE_INFO.USER_ID.eq(userId));
-
-            // 应用额外过滤条件
-            if (filter != null) {
-                filter.accept(wrapper);
-            }
-
-            // 查询所有子文件
-            List<FileInfo> children = fileInfoService.list(wrapper);
+    @Transactional(rollbackFor = Exception.class)
+    @Override
+    public void clearRecycles() {
+        String userId = StpUtil.getLoginIdAsString();
+        String storagePlatformSettingId = StoragePlatformContextHolder.getConfigId();
 
-            // 递归收集子项ID
-            children.forEach(child -> collectFileIdsRecursive(child, allFileIds, userId, filter));
+        // 回收站中的记录都属于某个已删除的顶层项，按ID键集分批全部删除
+        int batchSize = properties.getRecycleCleanupBatchSize();
+        String lastId = "";
+        int total = 0;
+        while (true) {
+            List<FileInfo> batch = fileInfoService.list(new QueryWrapper()
+                    .select(PURGE_COLUMNS)
+                    .where(FILE_INFO.USER_ID.eq(userId))
+                    .and(FILE_INFO.IS_DELETED.eq(true))
+                    .and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId))
+                    .and(FILE_INFO.ID.gt(lastId))
+                    .orderBy(FILE_INFO.ID.asc())
+                    .limit(batchSize));
+            if (batch.isEmpty()) {
+                break;
+            }
+            purgeFiles(batch);
+            total += batch.size();
+            lastId = batch.get(batch.size() - 1).getId();
+            if (batch.size() < batchSize) {
+                break;
+            }
         }
+        log.info("用户 {} 清空回收站，共 {} 项", userId, total);
     }
 }
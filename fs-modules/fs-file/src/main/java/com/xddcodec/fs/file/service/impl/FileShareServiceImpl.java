@@ -11,6 +11,7 @@ import com.xddcodec.fs.file.domain.dto.CreateFileShareAccessRecordCmd;
 import com.xddcodec.fs.file.domain.dto.CreateShareCmd;
 import com.xddcodec.fs.file.domain.dto.VerifyShareCodeCmd;
 import com.xddcodec.fs.file.domain.event.CreateFileShareAccessRecordEvent;
+import com.xddcodec.fs.file.domain.event.FileChangedEvent;
 import com.xddcodec.fs.file.domain.qry.FileQry;
 import com.xddcodec.fs.file.domain.qry.FileShareQry;
 import com.xddcodec.fs.file.domain.vo.FileDownloadVO;
@@ -152,6 +153,7 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
 
         // 更新被分享文件的访问时间
         updateFileLastAccessTime(cmd.getFileIds());
+        eventPublisher.publishEvent(new FileChangedEvent(this, userId));
 
         return buildShareVO(share);
     }
@@ -190,16 +192,18 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
     @Override
     @Transactional(rollbackFor = Exception.class)
     public void cancelShares(List<String> ids) {
+        String userId = StpUtil.getLoginIdAsString();
         for (String id : ids) {
             FileShare share = this.getById(id);
             if (share == null) {
                 continue;
             }
-            if (share.getUserId().equals(StpUtil.getLoginIdAsString())) {
+            if (share.getUserId().equals(userId)) {
                 this.removeById(id);
                 fileShareItemService.removeByShareId(id);
             }
         }
+        eventPublisher.publishEvent(new FileChangedEvent(this, userId));
     }
 
     @Override
@@ -284,7 +288,8 @@ public class FileShareServiceImpl extends ServiceImpl<FileShareMapper, FileShare
             throw new BusinessException("下载失败，该文件不存在");
         }
 
-        InputStream inputStream = storageService.downloadFile(fileInfo.getObjectKey());
+        InputStream inputStream = storageServiceFacade.downloadFile(
+                fileInfo.getStoragePlatformSettingId(), fileInfo.getObjectKey());
         // 将 InputStream 包装成 Resource
         InputStreamResource resource = new InputStreamResource(inputStream);
 
@@ -0,0 +1,111 @@
+package com.xddcodec.fs.file.service.impl;
+
+import com.mybatisflex.core.query.QueryWrapper;
+import com.xddcodec.fs.file.config.FileTreeProperties;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.mapper.FileInfoMapper;
+import com.xddcodec.fs.file.service.FileSubtreeService;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
+
+/**
+ * 子树批量操作服务实现
+ * 1. 普通子树：一条按路径前缀的 UPDATE，随调用方事务提交
+ * 2. 超大子树：子孙节点按路径顺序分批，每批在独立事务中提交，避免长事务与大量行锁；
+ * 最后仍在调用方事务中执行整棵子树的语句，更新根节点和分批期间新增的节点。
+ * 中途失败时已提交的批次保持新标记，重新执行会从剩余节点继续
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Slf4j
+@Service
+public class FileSubtreeServiceImpl implements FileSubtreeService {
+
+    private final FileInfoMapper fileInfoMapper;
+    private final FileTreeProperties properties;
+    private final TransactionTemplate chunkTransactionTemplate;
+
+    public FileSubtreeServiceImpl(FileInfoMapper fileInfoMapper,
+                                  FileTreeProperties properties,
+                                  PlatformTransactionManager transactionManager) {
+        this.fileInfoMapper = fileInfoMapper;
+        this.properties = properties;
+        this.chunkTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.chunkTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+    }
+
+    @Override
+    public int softDelete(FileInfo root, LocalDateTime deletedTime) {
+        return updateDeleted(root, true, deletedTime);
+    }
+
+    @Override
+    public int restore(FileInfo root) {
+        return updateDeleted(root, false, null);
+    }
+
+    private int updateDeleted(FileInfo root, boolean deleted, LocalDateTime deletedTime) {
+        int updated = 0;
+        if (isHuge(root)) {
+            updated += updateDescendantsInChunks(root, deleted, deletedTime);
+        }
+        updated += fileInfoMapper.updateSubtreeDeleted(root.getPath(), root.getUserId(), deleted, deletedTime);
+        return updated;
+    }
+
+    /**
+     * 按路径键集分页逐批更新子孙节点（不含根节点），每批独立提交
+     * 根节点由调用方事务更新，调用方事务中已写过的根节点行不会被分批事务等待
+     */
+    private int updateDescendantsInChunks(FileInfo root, boolean deleted, LocalDateTime deletedTime) {
+        int chunkSize = properties.getChunkSize();
+        String lastPath = root.getPath();
+        int updated = 0;
+        int chunks = 0;
+        while (true) {
+            List<FileInfo> chunk = fileInfoMapper.selectListByQuery(QueryWrapper.create()
+                    .select(FILE_INFO.ID, FILE_INFO.PATH)
+                    .where("path LIKE ?", root.getPath() + "%")
+                    .and(FILE_INFO.PATH.gt(lastPath))
+                    .and(FILE_INFO.USER_ID.eq(root.getUserId()))
+                    .and(FILE_INFO.IS_DELETED.eq(!deleted))
+                    .orderBy(FILE_INFO.PATH.asc())
+                    .limit(chunkSize));
+            if (chunk.isEmpty()) {
+                break;
+            }
+            List<String> ids = chunk.stream().map(FileInfo::getId).toList();
+            Integer count = chunkTransactionTemplate.execute(status ->
+                    fileInfoMapper.updateDeletedByIds(ids, deleted, deletedTime));
+            updated += count != null ? count : 0;
+            chunks++;
+            lastPath = chunk.get(chunk.size() - 1).getPath();
+            if (chunk.size() < chunkSize) {
+                break;
+            }
+        }
+        log.info("子树分批{}完成: rootId={}, 批次={}, 节点数={}", deleted ? "删除" : "恢复", root.getId(), chunks, updated);
+        return updated;
+    }
+
+    /**
+     * 按目录聚合计数估算子树规模，不额外查询
+     */
+    private boolean isHuge(FileInfo root) {
+        if (!Boolean.TRUE.equals(root.getIsDir())) {
+            return false;
+        }
+        long size = (root.getFileCount() != null ? root.getFileCount() : 0)
+                + (root.getFolderCount() != null ? root.getFolderCount() : 0);
+        return size > properties.getChunkThreshold();
+    }
+}
@@ -5,15 +5,20 @@ import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.util.IdUtil;
 import com.mybatisflex.core.query.QueryWrapper;
 import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.xddcodec.fs.file.cache.ChunkRecordResult;
 import com.xddcodec.fs.file.cache.TransferTaskCacheManager;
+import com.xddcodec.fs.file.cache.UserStorageUsageManager;
+import com.xddcodec.fs.file.domain.FileContentHash;
 import com.xddcodec.fs.file.domain.FileInfo;
 import com.xddcodec.fs.file.domain.FileTransferTask;
 import com.xddcodec.fs.file.domain.dto.CheckUploadCmd;
+import com.xddcodec.fs.file.domain.event.FileChangedEvent;
 import com.xddcodec.fs.file.domain.dto.InitDownloadCmd;
 import com.xddcodec.fs.file.domain.dto.InitUploadCmd;
 import com.xddcodec.fs.file.domain.dto.UploadChunkCmd;
 import com.xddcodec.fs.file.domain.qry.TransferFilesQry;
 import com.xddcodec.fs.file.domain.vo.CheckUploadResultVO;
+import com.xddcodec.fs.file.domain.vo.ChunkBitmapVO;
 import com.xddcodec.fs.file.domain.vo.FileDownloadVO;
 import com.xddcodec.fs.file.domain.vo.FileTransferTaskVO;
 import com.xddcodec.fs.file.domain.vo.InitDownloadResultVO;
@@ -21,8 +26,13 @@ import com.xddcodec.fs.file.enums.TransferTaskType;
 import com.xddcodec.fs.file.handler.UploadTaskExceptionHandler;
 import com.xddcodec.fs.file.handler.DownloadTaskExceptionHandler;
 import com.xddcodec.fs.file.mapper.FileTransferTaskMapper;
+import com.xddcodec.fs.file.schedule.UnreferencedObjectReaper;
+import com.xddcodec.fs.file.service.FileContentHashService;
+import com.xddcodec.fs.file.service.FileDirAggregateService;
+import com.xddcodec.fs.file.service.FileObjectRefService;
 import com.xddcodec.fs.file.service.FileInfoService;
 import com.xddcodec.fs.file.service.FileTransferTaskService;
+import com.xddcodec.fs.file.service.FileUploadCompletionService;
 import com.xddcodec.fs.file.enums.TransferTaskStatus;
 import com.xddcodec.fs.framework.common.exception.BusinessException;
 import com.xddcodec.fs.framework.common.exception.StorageOperationException;
@@ -30,7 +40,12 @@ import com.xddcodec.fs.framework.common.utils.ErrorMessageUtils;
 import com.xddcodec.fs.framework.common.utils.FileUtils;
 import com.xddcodec.fs.framework.common.utils.StringUtils;
 import com.xddcodec.fs.file.service.TransferSseService;
+import com.xddcodec.fs.file.transfer.ChunkBufferPool;
+import com.xddcodec.fs.file.transfer.PooledChunkInputStream;
+import com.xddcodec.fs.file.utils.ChunkBitmapUtils;
 import com.xddcodec.fs.storage.facade.StorageServiceFacade;
+import com.xddcodec.fs.storage.plugin.boot.StorageInstanceLease;
+import com.xddcodec.fs.storage.plugin.core.IAsyncStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.context.StoragePlatformContextHolder;
 import com.xddcodec.fs.system.domain.SysUserTransferSetting;
@@ -40,17 +55,21 @@ import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayInputStream;
 import java.io.IOException;
 import java.io.InputStream;
+import java.security.DigestInputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.time.LocalDateTime;
 import java.util.*;
 import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 import java.util.stream.Collectors;
 
 import static com.xddcodec.fs.file.domain.table.FileInfoTableDef.FILE_INFO;
@@ -78,6 +97,14 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
     private final ThreadPoolTaskExecutor fileMergeExecutor;
     private final StorageServiceFacade storageServiceFacade;
     private final SysUserTransferSettingService userTransferSettingService;
+    private final ChunkBufferPool chunkBufferPool;
+    private final FileContentHashService fileContentHashService;
+    private final FileObjectRefService fileObjectRefService;
+    private final FileDirAggregateService fileDirAggregateService;
+    private final FileUploadCompletionService fileUploadCompletionService;
+    private final UnreferencedObjectReaper unreferencedObjectReaper;
+    private final UserStorageUsageManager userStorageUsageManager;
+    private final ApplicationEventPublisher eventPublisher;
     @Value("${spring.application.name:free-fs}")
     private String applicationName;
 
@@ -179,8 +206,12 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
     public String initUpload(InitUploadCmd cmd) {
         String userId = StpUtil.getLoginIdAsString();
         String storagePlatformSettingId = StoragePlatformContextHolder.getConfigId();
+        String taskId = IdUtil.fastSimpleUUID();
+        // 分片参数由客户端提交，先校验一致性，保证每个分片都有确定的期望大小
+        validateChunkGeometry(cmd.getFileSize(), cmd.getChunkSize(), cmd.getTotalChunks());
+        // 先预留配额，超出配额时在传输任何数据前拒绝
+        userStorageUsageManager.reserve(userId, taskId, cmd.getFileSize());
         try {
-            String taskId = IdUtil.fastSimpleUUID();
             String suffix = FileUtils.extName(cmd.getFileName());
             String tempFileName = IdUtil.fastSimpleUUID() + "." + suffix;
             String objectKey = FileUtils.generateObjectKey(applicationName, userId, tempFileName);
@@ -222,6 +253,7 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
             return task.getTaskId();
         } catch (Exception e) {
             log.error("初始化上传失败: fileName={}", cmd.getFileName(), e);
+            userStorageUsageManager.releaseReservation(userId, taskId);
             throw new StorageOperationException("初始化上传失败: " + e.getMessage(), e);
         }
     }
@@ -243,33 +275,40 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
             transferSseService.sendStatusEvent(userId, taskId, 
                 TransferTaskStatus.checking.name(), "正在校验文件");
 
-            // 检查同存储平台是否存在相同MD5的文件（秒传）
-            QueryWrapper queryWrapper = new QueryWrapper();
-            queryWrapper.where(FILE_INFO.CONTENT_MD5.eq(cmd.getFileMd5())
-                    .and(FILE_INFO.USER_ID.eq(userId))
-                    .and(FILE_INFO.IS_DELETED.eq(false)));
-            if (StringUtils.isEmpty(storagePlatformSettingId)) {
-                queryWrapper.and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.isNull());
-            } else {
-                queryWrapper.and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId));
-            }
-            FileInfo existFile = fileInfoService.getOne(queryWrapper);
-            if (existFile != null) {
+            // 检查同存储平台是否已登记相同MD5的对象（秒传），布隆过滤器判定不存在时不查询数据库
+            // 登记按平台全局唯一，对象可能由其他用户上传，秒传时通过物理对象引用计数共享
+            FileContentHash contentHash = fileContentHashService.findByHash(cmd.getFileMd5(), storagePlatformSettingId);
+            if (contentHash != null && Objects.equals(contentHash.getSize(), task.getFileSize())) {
                 // 验证存储插件中文件是否真实存在
                 IStorageOperationService storageService =
                         storageServiceFacade.getStorageService(storagePlatformSettingId);
-                if (storageService.isFileExist(existFile.getObjectKey())) {
-                    // 执行秒传：直接创建文件记录
-                    return handleQuickUpload(task, existFile, cmd.getFileMd5(), storagePlatformSettingId);
+                if (!storageService.isFileExist(contentHash.getObjectKey())) {
+                    // 清理无效的登记，以及当前用户引用该对象的记录
+                    fileContentHashService.unregister(contentHash);
+                    FileInfo existFile = findUserFileByObjectKey(
+                            userId, contentHash.getObjectKey(), storagePlatformSettingId);
+                    if (existFile != null) {
+                        fileInfoService.removeById(existFile.getId());
+                        fileDirAggregateService.removeFromAncestors(existFile);
+                        fileObjectRefService.release(List.of(existFile));
+                        userStorageUsageManager.releaseFiles(List.of(existFile));
+                        eventPublisher.publishEvent(new FileChangedEvent(this, userId));
+                    }
                 } else {
-                    // 清理无效的数据库记录
-                    fileInfoService.removeById(existFile.getId());
+                    // 执行秒传：共享对象并创建文件记录，同一事务提交
+                    FileInfo quickFile = fileUploadCompletionService.completeQuickUpload(
+                            task, contentHash.getObjectKey(), cmd.getFileMd5());
+                    if (quickFile != null) {
+                        return handleQuickUpload(task, quickFile, contentHash.getObjectKey());
+                    }
                 }
+                // 对象已等待回收时不能共享，按正常上传处理
             }
             // 不是秒传，需要正常上传
             // 调用存储插件初始化分片上传
             IStorageOperationService storageService = storageServiceFacade.getStorageService(storagePlatformSettingId);
-            String uploadId = storageService.initiateMultipartUpload(task.getObjectKey(), task.getMimeType());
+            String uploadId = storageService.initiateMultipartUpload(task.getObjectKey(), task.getMimeType(),
+                    task.getFileSize(), task.getChunkSize());
             // 更新任务信息
             task.setFileMd5(cmd.getFileMd5());
             task.setUploadId(uploadId);
@@ -293,206 +332,260 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
         }
     }
 
+    /**
+     * 查询用户引用指定对象的文件（秒传仅复用用户自己的文件）
+     */
+    private FileInfo findUserFileByObjectKey(String userId, String objectKey, String storagePlatformSettingId) {
+        QueryWrapper queryWrapper = new QueryWrapper();
+        queryWrapper.where(FILE_INFO.OBJECT_KEY.eq(objectKey)
+                .and(FILE_INFO.USER_ID.eq(userId))
+                .and(FILE_INFO.IS_DELETED.eq(false)));
+        if (StringUtils.isEmpty(storagePlatformSettingId)) {
+            queryWrapper.and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.isNull());
+        } else {
+            queryWrapper.and(FILE_INFO.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId));
+        }
+        queryWrapper.limit(1);
+        return fileInfoService.getOne(queryWrapper);
+    }
+
     /**
      * 处理秒传
+     * 文件记录已在事务中提交，清理任务缓存并推送完成事件
      */
-    protected CheckUploadResultVO handleQuickUpload(FileTransferTask task,
-                                                    FileInfo existFile,
-                                                    String fileMd5, String storagePlatformSettingId) {
+    private CheckUploadResultVO handleQuickUpload(FileTransferTask task, FileInfo fileInfo, String refObjectKey) {
         String taskId = task.getTaskId();
+        cacheManager.cleanTask(taskId);
 
-        try {
-            // 创建新的文件记录（引用相同的 objectKey）
-            String fileId = IdUtil.fastSimpleUUID();
-            LocalDateTime now = LocalDateTime.now();
-            String displayName = fileInfoService.generateUniqueName(
-                    task.getUserId(),
-                    task.getParentId(),
-                    task.getFileName(),
-                    false,
-                    null,
-                    storagePlatformSettingId
-            );
-            FileInfo newFileInfo = new FileInfo();
-            newFileInfo.setId(fileId);
-            // 复用已存在文件的 objectKey
-            newFileInfo.setObjectKey(existFile.getObjectKey());
-            newFileInfo.setOriginalName(task.getFileName());
-            newFileInfo.setDisplayName(displayName);
-            newFileInfo.setSuffix(task.getSuffix());
-            newFileInfo.setSize(task.getFileSize());
-            newFileInfo.setMimeType(task.getMimeType());
-            newFileInfo.setIsDir(false);
-            newFileInfo.setParentId(task.getParentId());
-            newFileInfo.setUserId(task.getUserId());
-            newFileInfo.setContentMd5(fileMd5);
-            newFileInfo.setStoragePlatformSettingId(task.getStoragePlatformSettingId());
-            newFileInfo.setUploadTime(now);
-            newFileInfo.setUpdateTime(now);
-            newFileInfo.setIsDeleted(false);
-
-            fileInfoService.save(newFileInfo);
-
-            // 更新任务状态为已完成
-            task.setFileMd5(fileMd5);
-            task.setUploadedChunks(task.getTotalChunks()); // 标记为全部完成
-            task.setStatus(TransferTaskStatus.completed);
-            task.setCompleteTime(now);
-            this.updateById(task);
-
-            // 清理缓存
-            cacheManager.cleanTask(taskId);
+        // 推送完成事件
+        transferSseService.sendCompleteEvent(task.getUserId(), taskId, fileInfo.getId(),
+            fileInfo.getDisplayName(), task.getFileSize());
 
-            // 推送完成事件
-            transferSseService.sendCompleteEvent(task.getUserId(), taskId, fileId, 
-                displayName, task.getFileSize());
-
-            log.info("秒传成功: taskId={}, newFileId={}, refObjectKey={}",
-                    taskId, fileId, existFile.getObjectKey());
+        log.info("秒传成功: taskId={}, newFileId={}, refObjectKey={}", taskId, fileInfo.getId(), refObjectKey);
 
-            return CheckUploadResultVO.builder()
-                    .isQuickUpload(true)
-                    .taskId(taskId)
-                    .fileId(fileId)
-                    .message("秒传成功")
-                    .build();
-        } catch (Exception e) {
-            log.error("秒传处理失败: taskId={}", taskId, e);
-            throw new StorageOperationException("秒传处理失败: " + e.getMessage(), e);
-        }
+        return CheckUploadResultVO.builder()
+                .isQuickUpload(true)
+                .taskId(taskId)
+                .fileId(fileInfo.getId())
+                .message("秒传成功")
+                .build();
     }
 
     /**
      * 上传分片
+     * 请求线程将分片流经池化缓冲区写入存储请求体，等待存储响应不占用线程，
+     * 存储确认后在分片线程池中记录分片，所有分片完成时异步触发合并
      *
-     * @param fileBytes 分片文件字节数组
-     * @param cmd       上传分片命令
+     * @param inputStream 分片数据流
+     * @param chunkSize   分片大小（字节）
+     * @param cmd         上传分片命令
      */
     @Override
-    public void uploadChunk(byte[] fileBytes, UploadChunkCmd cmd) {
+    public CompletableFuture<Void> uploadChunk(InputStream inputStream, long chunkSize, UploadChunkCmd cmd) {
         String taskId = cmd.getTaskId();
         Integer chunkIndex = cmd.getChunkIndex();
-        // 异步上传分片
-        CompletableFuture.runAsync(() -> {
-            try {
-                doUploadChunk(fileBytes, cmd);
-                
-                // 检查是否所有分片都已上传完成
-                checkAndAutoMerge(taskId);
-            } catch (Exception e) {
-                log.error("分片上传失败: taskId={}, chunkIndex={}", taskId, cmd.getChunkIndex(), e);
-                exceptionHandler.handleChunkUploadFailed(taskId, chunkIndex, e.getMessage(), e);
+        CompletableFuture<ChunkRecordResult> upload;
+        try {
+            upload = doUploadChunk(inputStream, chunkSize, cmd);
+        } catch (Exception e) {
+            throw chunkUploadFailure(taskId, chunkIndex, e);
+        }
+        return upload.handle((recordResult, e) -> {
+            if (e != null) {
+                Throwable cause = e instanceof CompletionException && e.getCause() != null ? e.getCause() : e;
+                throw chunkUploadFailure(taskId, chunkIndex, cause);
             }
-        }, chunkUploadExecutor);
+            // 所有分片都上传完成时触发合并
+            if (recordResult != null && recordResult.isAllTransferred()) {
+                CompletableFuture.runAsync(() -> triggerAutoMerge(taskId), chunkUploadExecutor);
+            }
+            return null;
+        });
+    }
+
+    /**
+     * 记录分片上传失败，并转换为对外抛出的异常
+     */
+    private RuntimeException chunkUploadFailure(String taskId, Integer chunkIndex, Throwable e) {
+        log.error("分片上传失败: taskId={}, chunkIndex={}", taskId, chunkIndex, e);
+        Exception exception = e instanceof Exception ? (Exception) e : new StorageOperationException(e.getMessage(), e);
+        exceptionHandler.handleChunkUploadFailed(taskId, chunkIndex, e.getMessage(), exception);
+        if (e instanceof BusinessException) {
+            return (BusinessException) e;
+        }
+        return new StorageOperationException("分片上传失败: " + e.getMessage(), e);
     }
     
     /**
-     * 检查并自动触发合并（当所有分片上传完成时）
+     * 触发自动合并（所有分片上传完成后调用）
      */
-    private void checkAndAutoMerge(String taskId) {
+    private void triggerAutoMerge(String taskId) {
+        // 使用分布式锁防止并发检查导致重复触发合并
+        String lockKey = "merge:lock:" + taskId;
         try {
-            FileTransferTask task = getTaskFromCacheOrDB(taskId);
+            boolean locked = cacheManager.tryLock(lockKey, 300); // 5分钟锁
             
-            // 只有 uploading 状态才检查
-            if (!TransferTaskStatus.uploading.equals(task.getStatus())) {
+            if (!locked) {
+                log.debug("合并任务已被其他线程触发，跳过: taskId={}", taskId);
                 return;
             }
             
-            Integer uploadedCount = cacheManager.getTransferredChunks(taskId);
-            
-            // 所有分片都上传完成
-            if (uploadedCount.equals(task.getTotalChunks())) {
-                // 使用分布式锁防止并发检查导致重复触发合并
-                String lockKey = "merge:lock:" + taskId;
-                boolean locked = cacheManager.tryLock(lockKey, 300); // 5分钟锁
-                
-                if (!locked) {
-                    log.debug("合并任务已被其他线程触发，跳过: taskId={}", taskId);
+            try {
+                // 再次检查状态（双重检查，防止状态已变更）
+                FileTransferTask task = getTaskFromCacheOrDB(taskId);
+                if (!TransferTaskStatus.uploading.equals(task.getStatus())) {
+                    log.debug("任务状态已变更，跳过合并: taskId={}, status={}", taskId, task.getStatus());
+                    cacheManager.releaseLock(lockKey);
                     return;
                 }
                 
-                try {
-                    // 再次检查状态（双重检查，防止状态已变更）
-                    task = getTaskFromCacheOrDB(taskId);
-                    if (!TransferTaskStatus.uploading.equals(task.getStatus())) {
-                        log.debug("任务状态已变更，跳过合并: taskId={}, status={}", taskId, task.getStatus());
-                        return;
+                log.info("所有分片上传完成，触发自动合并: taskId={}", taskId);
+                
+                // 异步执行合并，避免阻塞上传线程
+                // 注意：锁会在合并完成后由合并任务自己释放
+                CompletableFuture.runAsync(() -> {
+                    try {
+                        mergeChunks(taskId);
+                    } catch (Exception e) {
+                        log.error("自动合并失败: taskId={}", taskId, e);
+                        exceptionHandler.handleTaskFailed(taskId, "文件合并失败: " + e.getMessage(), e);
+                    } finally {
+                        // 合并完成后释放锁
+                        cacheManager.releaseLock(lockKey);
                     }
-                    
-                    log.info("所有分片上传完成，触发自动合并: taskId={}", taskId);
-                    
-                    // 异步执行合并，避免阻塞上传线程
-                    // 注意：锁会在合并完成后由合并任务自己释放
-                    CompletableFuture.runAsync(() -> {
-                        try {
-                            doMergeChunks(taskId);
-                        } catch (Exception e) {
-                            log.error("自动合并失败: taskId={}", taskId, e);
-                            exceptionHandler.handleTaskFailed(taskId, "文件合并失败: " + e.getMessage(), e);
-                        } finally {
-                            // 合并完成后释放锁
-                            cacheManager.releaseLock(lockKey);
-                        }
-                    }, fileMergeExecutor);
-                } catch (Exception e) {
-                    // 如果提交异步任务失败，需要释放锁
-                    cacheManager.releaseLock(lockKey);
-                    throw e;
-                }
+                }, fileMergeExecutor);
+            } catch (Exception e) {
+                // 如果提交异步任务失败，需要释放锁
+                cacheManager.releaseLock(lockKey);
+                throw e;
             }
         } catch (Exception e) {
-            log.error("检查自动合并失败: taskId={}", taskId, e);
+            log.error("触发自动合并失败: taskId={}", taskId, e);
             // 不抛出异常，避免影响分片上传
         }
     }
 
     /**
      * 上传分片
+     * 返回前分片数据已读完并校验，返回的 Future 在存储确认并记录分片后完成
+     *
+     * @return 分片记录结果（任务暂停/取消时结果为 null）
      */
-    private void doUploadChunk(byte[] fileBytes, UploadChunkCmd cmd) throws IOException {
+    private CompletableFuture<ChunkRecordResult> doUploadChunk(InputStream inputStream, long chunkSize,
+                                                               UploadChunkCmd cmd) throws IOException {
         String taskId = cmd.getTaskId();
         Integer chunkIndex = cmd.getChunkIndex();
         FileTransferTask task = getTaskFromCacheOrDB(taskId);
         if (task.getStatus() == TransferTaskStatus.canceled) {
             log.info("任务已取消，停止上传: taskId={}, chunkIndex={}", taskId, chunkIndex);
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         if (task.getStatus() == TransferTaskStatus.paused) {
             log.info("任务已暂停，停止上传: taskId={}, chunkIndex={}", taskId, chunkIndex);
-            return;
+            return CompletableFuture.completedFuture(null);
         }
         if (!TransferTaskStatus.uploading.equals(task.getStatus())) {
             throw new BusinessException("任务状态不正确: " + task.getStatus());
         }
-        // 检查分片是否已存在（避免重复上传）
-        if (cacheManager.isChunkTransferred(taskId, chunkIndex)) {
-            log.info("分片已存在，跳过上传: taskId={}, chunkIndex={}", taskId, chunkIndex);
-            return;
+
+        if (chunkIndex == null || chunkIndex < 0 || chunkIndex >= task.getTotalChunks()) {
+            throw new BusinessException(
+                    String.format("分片索引无效: %s，有效范围: [0, %d)", chunkIndex, task.getTotalChunks()));
+        }
+        long expectedSize = expectedChunkSize(task, chunkIndex);
+        if (chunkSize != expectedSize) {
+            throw new BusinessException(
+                    String.format("分片大小无效: %d，分片 %d 应为: %d", chunkSize, chunkIndex, expectedSize));
         }
 
-        IStorageOperationService storageService =
-                storageServiceFacade.getStorageService(task.getStoragePlatformSettingId());
+        // 租约在存储确认分片后归还，上传期间实例不会被淘汰关闭
+        StorageInstanceLease lease = storageServiceFacade.leaseStorageService(task.getStoragePlatformSettingId());
+        try {
+            IAsyncStorageOperationService storageService = storageServiceFacade.getAsyncStorageService(lease.getService());
+            return uploadChunkToStorage(inputStream, chunkSize, cmd, task, storageService)
+                    .whenComplete((recordResult, e) -> lease.close());
+        } catch (Exception e) {
+            lease.close();
+            throw e;
+        }
+    }
 
-        String eTag;
-        try (ByteArrayInputStream bis = new ByteArrayInputStream(fileBytes)) {
-            eTag = storageService.uploadPart(
+    /**
+     * 将已校验的分片写入存储，校验分片MD5后在存储确认时记录分片
+     */
+    private CompletableFuture<ChunkRecordResult> uploadChunkToStorage(InputStream inputStream, long chunkSize,
+                                                                      UploadChunkCmd cmd, FileTransferTask task,
+                                                                      IAsyncStorageOperationService storageService)
+            throws IOException {
+        String taskId = cmd.getTaskId();
+        Integer chunkIndex = cmd.getChunkIndex();
+        MessageDigest md5Digest = cmd.isVerifyChunkMd5() ? newMd5Digest() : null;
+        InputStream source = md5Digest != null ? new DigestInputStream(inputStream, md5Digest) : inputStream;
+        CompletableFuture<String> upload;
+        // 分片数据在 uploadPartAsync 返回前已读完，缓冲区可以立即归还
+        try (PooledChunkInputStream chunkStream = chunkBufferPool.wrap(source, chunkSize)) {
+            upload = storageService.uploadPartAsync(
                     task.getObjectKey(),
                     task.getUploadId(),
                     chunkIndex,
-                    fileBytes.length,
-                    bis);
+                    chunkSize,
+                    chunkStream);
+            if (upload.isCompletedExceptionally()) {
+                return upload.thenApply(eTag -> null);
+            }
+            if (chunkStream.getConsumed() != chunkSize) {
+                throw new StorageOperationException(String.format("分片数据不完整：期望 %d 字节，实际写入 %d 字节",
+                        chunkSize, chunkStream.getConsumed()));
+            }
+        }
+        // 校验失败不记录分片，存储端已写入的分片会被客户端重传覆盖
+        if (md5Digest != null) {
+            String actualMd5 = HexFormat.of().formatHex(md5Digest.digest());
+            if (!actualMd5.equalsIgnoreCase(cmd.getChunkMd5())) {
+                throw new BusinessException(String.format("分片 %d 校验失败：期望MD5 %s，实际 %s",
+                        chunkIndex, cmd.getChunkMd5(), actualMd5));
+            }
+        }
+        return upload.thenApplyAsync(eTag -> recordChunk(task, chunkIndex, eTag, chunkSize), chunkUploadExecutor);
+    }
+
+    /**
+     * 存储确认分片后记录分片并推送进度
+     *
+     * @return 分片记录结果（任务状态已变更时返回 null）
+     */
+    private ChunkRecordResult recordChunk(FileTransferTask task, Integer chunkIndex, String eTag, long chunkSize) {
+        String taskId = task.getTaskId();
+        // 重复分片由脚本幂等处理：覆盖 ETag，不重复累加字节数
+        ChunkRecordResult recordResult = cacheManager.recordUploadedChunk(
+                taskId, chunkIndex, eTag, chunkSize, task.getTotalChunks());
+        if (recordResult.getState() == ChunkRecordResult.State.TASK_NOT_CACHED) {
+            cacheManager.cacheTask(task);
+            recordResult = cacheManager.recordUploadedChunk(
+                    taskId, chunkIndex, eTag, chunkSize, task.getTotalChunks());
+        }
+        if (!recordResult.isRecorded()) {
+            log.info("任务状态已变更，分片未记录: taskId={}, chunkIndex={}, state={}",
+                    taskId, chunkIndex, recordResult.getState());
+            return null;
         }
-        cacheManager.addTransferredChunk(taskId, chunkIndex, eTag);
-        cacheManager.recordTransferredBytes(taskId, fileBytes.length);
 
         // 推送进度事件
-        Integer uploadedChunks = cacheManager.getTransferredChunks(taskId);
-        long uploadedBytes = cacheManager.getTransferredBytes(taskId);
-        transferSseService.sendProgressEvent(task.getUserId(), taskId, 
-            uploadedBytes, task.getFileSize(), uploadedChunks, task.getTotalChunks());
+        transferSseService.sendProgressEvent(task.getUserId(), taskId,
+            recordResult.getTransferredBytes(), task.getFileSize(),
+            recordResult.getTransferredChunks(), task.getTotalChunks());
 
         log.info("分片上传成功: taskId={}, chunkIndex={}, progress={}/{}",
-                taskId, chunkIndex, uploadedChunks, task.getTotalChunks());
+                taskId, chunkIndex, recordResult.getTransferredChunks(), task.getTotalChunks());
+        return recordResult;
+    }
+
+    private MessageDigest newMd5Digest() {
+        try {
+            return MessageDigest.getInstance("MD5");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("MD5 算法不可用", e);
+        }
     }
 
     @Override
@@ -554,15 +647,10 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
             // 更新任务状态
             updateTaskStatus(task, newStatus);
 
-            // 获取已传输的分片信息（上传任务使用 transferredChunkList，下载任务使用 downloadedChunks）
-            int transferredCount;
-            if (task.getTaskType() == TransferTaskType.upload) {
-                Map<Integer, String> transferredChunks = cacheManager.getTransferredChunkList(taskId);
-                transferredCount = transferredChunks.size();
-            } else {
-                Set<Integer> downloadedChunks = getDownloadedChunks(taskId);
-                transferredCount = downloadedChunks.size();
-            }
+            // 获取已传输的分片数（位图计数，不读取分片明细）
+            int transferredCount = task.getTaskType() == TransferTaskType.upload
+                    ? cacheManager.getTransferredChunks(taskId)
+                    : cacheManager.getDownloadedChunkCount(taskId);
             
             // 推送恢复状态事件
             String taskTypeDesc = task.getTaskType() == TransferTaskType.upload ? "上传" : "下载";
@@ -584,8 +672,41 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
 
     @Override
     public Set<Integer> getUploadedChunks(String taskId) {
-        Map<Integer, String> chunks = cacheManager.getTransferredChunkList(taskId);
-        return chunks.keySet();
+        FileTransferTask task = getTaskFromCacheOrDB(taskId);
+        return cacheManager.getTransferredChunkIndexes(taskId, task.getTotalChunks());
+    }
+
+    @Override
+    public ChunkBitmapVO getUploadedChunkBitmap(String taskId) {
+        FileTransferTask task = getTaskFromCacheOrDB(taskId);
+        byte[] bitmap = cacheManager.getTransferredChunkBitmap(taskId, task.getTotalChunks());
+        return buildChunkBitmapVO(taskId, task.getTotalChunks(), bitmap);
+    }
+
+    @Override
+    public ChunkBitmapVO getDownloadedChunkBitmap(String taskId) {
+        FileTransferTask task = getTaskFromCacheOrDB(taskId);
+        byte[] bitmap = cacheManager.getDownloadedChunkBitmap(taskId, task.getTotalChunks());
+        return buildChunkBitmapVO(taskId, task.getTotalChunks(), bitmap);
+    }
+
+    /**
+     * 构建分片位图，压缩后更小时返回 DEFLATE 编码
+     */
+    private ChunkBitmapVO buildChunkBitmapVO(String taskId, int totalChunks, byte[] bitmap) {
+        int transferredChunks = 0;
+        for (byte b : bitmap) {
+            transferredChunks += Integer.bitCount(b & 0xFF);
+        }
+        byte[] compressed = ChunkBitmapUtils.deflate(bitmap);
+        boolean useDeflate = compressed.length < bitmap.length;
+        return ChunkBitmapVO.builder()
+                .taskId(taskId)
+                .totalChunks(totalChunks)
+                .transferredChunks(transferredChunks)
+                .encoding(useDeflate ? ChunkBitmapVO.ENCODING_DEFLATE : ChunkBitmapVO.ENCODING_RAW)
+                .bitmap(Base64.getEncoder().encodeToString(useDeflate ? compressed : bitmap))
+                .build();
     }
 
     @Override
@@ -637,6 +758,11 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
 
             // 删除任务记录
             this.removeById(task.getId());
+
+            // 归还上传预留的配额
+            if (TransferTaskType.upload.equals(task.getTaskType())) {
+                userStorageUsageManager.releaseReservation(task.getUserId(), taskId);
+            }
             
             // 清理缓存（包括下载任务的进度记录）
             cacheManager.cleanTask(taskId);
@@ -657,13 +783,13 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
         }
     }
 
+    /**
+     * 合并分片
+     * 合并前提交物理对象登记，合并后在 {@link FileUploadCompletionService} 的事务中写库；
+     * 合并或写库失败时放弃登记，已合并的对象由回收器删除，不会遗留无登记的对象
+     */
     @Override
-    @Transactional
     public FileInfo mergeChunks(String taskId) {
-        return doMergeChunks(taskId);
-    }
-
-    public FileInfo doMergeChunks(String taskId) {
         FileTransferTask task = null;
         try {
             log.info("开始合并文件: taskId={}", taskId);
@@ -696,7 +822,6 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
                 TransferTaskStatus.merging.name(), "正在合并分片");
             
             log.info("状态已更新为 merging: taskId={}", taskId);
-            IStorageOperationService storageService = storageServiceFacade.getStorageService(task.getStoragePlatformSettingId());
             Map<Integer, String> chunkETags = cacheManager.getTransferredChunkList(taskId);
             
             // 验证所有分片的 ETag 都存在
@@ -729,41 +854,25 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
             }
             
             log.info("分片ETag验证通过，准备合并: taskId={}, partCount={}", taskId, partETags.size());
-            storageService.completeMultipartUpload(
-                    task.getObjectKey(),
-                    task.getUploadId(),
-                    partETags
-            );
-
-            String fileId = IdUtil.fastSimpleUUID();
-
-            LocalDateTime completeTime = LocalDateTime.now();
-
-            FileInfo fileInfo = new FileInfo();
-            fileInfo.setId(fileId);
-            fileInfo.setObjectKey(task.getObjectKey());
-            fileInfo.setOriginalName(task.getFileName());
-            fileInfo.setDisplayName(task.getFileName());
-            fileInfo.setSuffix(task.getSuffix());
-            fileInfo.setSize(task.getFileSize());
-            fileInfo.setMimeType(task.getMimeType());
-            fileInfo.setIsDir(false);
-            fileInfo.setParentId(task.getParentId());
-            fileInfo.setUserId(task.getUserId());
-            fileInfo.setContentMd5(task.getFileMd5());
-            fileInfo.setStoragePlatformSettingId(task.getStoragePlatformSettingId());
-            fileInfo.setUploadTime(completeTime);
-            fileInfo.setUpdateTime(completeTime);
-            fileInfo.setIsDeleted(false);
-
-            fileInfoService.save(fileInfo);
-
-            // 更新任务状态为已完成
-            task.setStatus(TransferTaskStatus.completed);
-            // 最终同步一次分片数量
-            task.setUploadedChunks(uploadedCount);
-            task.setCompleteTime(completeTime);
-            this.updateById(task);
+            // 合并前登记物理对象（不在事务中，立即提交），之后任一步失败都放弃登记，由回收器删除对象
+            fileObjectRefService.acquire(task.getStoragePlatformSettingId(), task.getObjectKey());
+            FileInfo fileInfo;
+            try {
+                // 合并大文件耗时较长，持有租约避免期间实例被淘汰关闭
+                try (StorageInstanceLease lease =
+                             storageServiceFacade.leaseStorageService(task.getStoragePlatformSettingId())) {
+                    lease.getService().completeMultipartUpload(
+                            task.getObjectKey(),
+                            task.getUploadId(),
+                            partETags
+                    );
+                }
+                fileInfo = fileUploadCompletionService.completeMerge(task, uploadedCount);
+            } catch (Exception e) {
+                fileObjectRefService.abandon(task.getStoragePlatformSettingId(), task.getObjectKey());
+                unreferencedObjectReaper.wakeUp();
+                throw e;
+            }
 
             cacheManager.cleanTask(taskId);
 
@@ -911,8 +1020,45 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
         task.setStatus(newStatus);
         task.setUpdatedAt(LocalDateTime.now());
         this.updateById(task);
+        // 整个任务写回缓存，状态与本次一起修改的字段（如 uploadId）一次写入
         cacheManager.cacheTask(task);
-        cacheManager.updateTaskStatus(task.getTaskId(), newStatus);
+    }
+
+    /**
+     * 校验上传的分片参数：分片大小为正，分片总数等于 ceil(文件大小 / 分片大小)
+     * 空文件按一个空分片上传，分片总数必须为1
+     *
+     * @param fileSize    文件大小（字节）
+     * @param chunkSize   分片大小（字节）
+     * @param totalChunks 分片总数
+     */
+    private void validateChunkGeometry(long fileSize, long chunkSize, int totalChunks) {
+        if (fileSize < 0) {
+            throw new BusinessException("文件大小无效");
+        }
+        if (chunkSize <= 0) {
+            throw new BusinessException("分片大小无效");
+        }
+        long expectedChunks = fileSize == 0 ? 1 : (fileSize + chunkSize - 1) / chunkSize;
+        if (totalChunks != expectedChunks) {
+            throw new BusinessException(
+                    String.format("分片总数无效: %d，应为: %d", totalChunks, expectedChunks));
+        }
+    }
+
+    /**
+     * 分片应有的大小：最后一个分片为文件剩余字节（空文件为0），其余分片为任务分片大小
+     *
+     * @param task       上传任务
+     * @param chunkIndex 分片索引
+     * @return 分片大小（字节）
+     */
+    private long expectedChunkSize(FileTransferTask task, int chunkIndex) {
+        long chunkSize = task.getChunkSize();
+        if (chunkIndex < task.getTotalChunks() - 1) {
+            return chunkSize;
+        }
+        return task.getFileSize() - chunkSize * (task.getTotalChunks() - 1);
     }
 
     /**
@@ -974,7 +1120,8 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
         if (!storageService.isFileExist(fileInfo.getObjectKey())) {
             throw new BusinessException("下载失败，该文件不存在");
         }
-        InputStream inputStream = storageService.downloadFile(fileInfo.getObjectKey());
+        InputStream inputStream = storageServiceFacade.downloadFile(
+                fileInfo.getStoragePlatformSettingId(), fileInfo.getObjectKey());
         InputStreamResource resource = new InputStreamResource(inputStream);
         FileDownloadVO downloadVO = new FileDownloadVO();
         downloadVO.setFileName(fileInfo.getDisplayName());
@@ -1109,6 +1256,7 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
 
     /**
      * 下载分片
+     * 收到存储响应头即完成，等待存储响应不占用请求线程
      *
      * @param taskId     任务ID
      * @param chunkIndex 分片索引
@@ -1116,9 +1264,8 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
      * @author xddcode
      */
     @Override
-    public InputStream downloadChunk(String taskId, Integer chunkIndex) {
+    public CompletableFuture<InputStream> downloadChunk(String taskId, Integer chunkIndex) {
         FileTransferTask task = null;
-        
         try {
             task = getTaskFromCacheOrDB(taskId);
             
@@ -1138,65 +1285,94 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
             log.info("下载分片: taskId={}, chunkIndex={}, range=[{}, {}]", 
                 taskId, chunkIndex, startByte, endByte);
             
-            IStorageOperationService storageService = 
-                storageServiceFacade.getStorageService(task.getStoragePlatformSettingId());
-            InputStream inputStream = storageService.downloadFileRange(
-                task.getObjectKey(), startByte, endByte);
-            
+            // 用户设置依赖登录上下文，需在请求线程读取
             SysUserTransferSetting userSetting = userTransferSettingService.getByUser();
-            if (userSetting != null && userSetting.getDownloadSpeedLimit() != null 
-                    && userSetting.getDownloadSpeedLimit() > 0) {
-                long maxBytesPerSecond = (long) userSetting.getDownloadSpeedLimit() * 1024 * 1024;
-                inputStream = new com.xddcodec.fs.file.utils.ThrottledInputStream(inputStream, maxBytesPerSecond);
-                log.debug("应用下载速率限制: taskId={}, speedLimit={} MB/s", 
-                    taskId, userSetting.getDownloadSpeedLimit());
-            }
-            
-            CompletableFuture.runAsync(() -> {
-                try {
-                    markChunkDownloaded(taskId, chunkIndex);
-                } catch (Exception e) {
-                    log.error("记录下载进度失败: taskId={}, chunkIndex={}", taskId, chunkIndex, e);
-                }
-            }, chunkUploadExecutor);
+            long maxBytesPerSecond = userSetting != null && userSetting.getDownloadSpeedLimit() != null
+                    && userSetting.getDownloadSpeedLimit() > 0
+                    ? (long) userSetting.getDownloadSpeedLimit() * 1024 * 1024 : 0;
             
-            return inputStream;
+            // 租约绑定到返回的数据流，客户端读完关闭流后归还
+            StorageInstanceLease lease = storageServiceFacade.leaseStorageService(task.getStoragePlatformSettingId());
+            CompletableFuture<InputStream> download;
+            try {
+                IAsyncStorageOperationService storageService =
+                    storageServiceFacade.getAsyncStorageService(lease.getService());
+                download = storageService.downloadFileRangeAsync(task.getObjectKey(), startByte, endByte);
+            } catch (Exception e) {
+                lease.close();
+                throw e;
+            }
             
-        } catch (BusinessException e) {
+            FileTransferTask downloadTask = task;
+            return download
+                .handle((inputStream, e) -> {
+                    if (e != null) {
+                        lease.close();
+                        Throwable cause = e instanceof CompletionException && e.getCause() != null
+                                ? e.getCause() : e;
+                        throw downloadChunkFailure(downloadTask, taskId, chunkIndex, cause);
+                    }
+                    inputStream = lease.bind(inputStream);
+                    if (maxBytesPerSecond > 0) {
+                        inputStream = new com.xddcodec.fs.file.utils.ThrottledInputStream(inputStream, maxBytesPerSecond);
+                        log.debug("应用下载速率限制: taskId={}, speedLimit={} MB/s", 
+                            taskId, userSetting.getDownloadSpeedLimit());
+                    }
+                    CompletableFuture.runAsync(() -> {
+                        try {
+                            markChunkDownloaded(taskId, chunkIndex);
+                        } catch (Exception ex) {
+                            log.error("记录下载进度失败: taskId={}, chunkIndex={}", taskId, chunkIndex, ex);
+                        }
+                    }, chunkUploadExecutor);
+                    return inputStream;
+                });
+        } catch (Exception e) {
+            throw downloadChunkFailure(task, taskId, chunkIndex, e);
+        }
+    }
+
+    /**
+     * 记录分片下载失败，并转换为对外抛出的异常
+     */
+    private RuntimeException downloadChunkFailure(FileTransferTask task, String taskId, Integer chunkIndex,
+                                                  Throwable e) {
+        Exception exception = e instanceof Exception ? (Exception) e : new StorageOperationException(e.getMessage(), e);
+        if (e instanceof BusinessException) {
             log.error("下载分片失败: taskId={}, chunkIndex={}", taskId, chunkIndex, e);
             
             // 处理业务异常
             if (task != null) {
                 if (e.getMessage().contains("分片索引无效")) {
                     downloadExceptionHandler.handleChunkDownloadFailed(taskId, chunkIndex, 
-                        "分片索引无效", e);
+                        "分片索引无效", exception);
                 } else if (e.getMessage().contains("任务类型不正确")) {
                     downloadExceptionHandler.handleChunkDownloadFailed(taskId, chunkIndex, 
-                        "任务类型不正确", e);
+                        "任务类型不正确", exception);
                 } else {
                     downloadExceptionHandler.handleChunkDownloadFailed(taskId, chunkIndex, 
-                        e.getMessage(), e);
+                        e.getMessage(), exception);
                 }
             }
-            throw e;
-        } catch (StorageOperationException e) {
+            return (BusinessException) e;
+        }
+        if (e instanceof StorageOperationException) {
             log.error("存储读取失败: taskId={}, chunkIndex={}", taskId, chunkIndex, e);
             
             // 处理存储操作异常
             if (task != null) {
-                downloadExceptionHandler.handleStorageReadFailed(taskId, task.getObjectKey(), e);
-            }
-            throw e;
-        } catch (Exception e) {
-            log.error("下载分片失败: taskId={}, chunkIndex={}", taskId, chunkIndex, e);
-            
-            // 处理其他异常
-            if (task != null) {
-                downloadExceptionHandler.handleChunkDownloadFailed(taskId, chunkIndex, 
-                    "下载分片失败: " + e.getMessage(), e);
+                downloadExceptionHandler.handleStorageReadFailed(taskId, task.getObjectKey(), exception);
             }
-            throw new StorageOperationException("下载分片失败: " + e.getMessage(), e);
+            return (StorageOperationException) e;
         }
+        log.error("下载分片失败: taskId={}, chunkIndex={}", taskId, chunkIndex, e);
+        
+        // 处理其他异常
+        if (task != null) {
+            downloadExceptionHandler.handleChunkDownloadFailed(taskId, chunkIndex, 
+                "下载分片失败: " + e.getMessage(), exception);
+        }
+        return new StorageOperationException("下载分片失败: " + e.getMessage(), e);
     }
 
     /**
@@ -1209,18 +1385,15 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
     @Override
     public void markChunkDownloaded(String taskId, Integer chunkIndex) {
         try {
-            String chunksKey = "download:chunks:" + taskId;
-            if (cacheManager.sHasKey(chunksKey, chunkIndex)) {
+            if (!cacheManager.markChunkDownloaded(taskId, chunkIndex)) {
                 log.debug("分片已记录，跳过: taskId={}, chunkIndex={}", taskId, chunkIndex);
                 return;
             }
             
             FileTransferTask task = getTaskFromCacheOrDB(taskId);
             
-            cacheManager.sSetAndTime(chunksKey, 7 * 24 * 60 * 60, chunkIndex);
-            
-            Long downloadedCount = cacheManager.sGetSetSize(chunksKey);
-            task.setUploadedChunks(downloadedCount.intValue());
+            Integer downloadedCount = cacheManager.getDownloadedChunkCount(taskId);
+            task.setUploadedChunks(downloadedCount);
             this.updateById(task);
             
             long chunkBytes = task.getChunkSize();
@@ -1232,12 +1405,12 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
             
             long downloadedBytes = cacheManager.getTransferredBytes(taskId);
             transferSseService.sendProgressEvent(task.getUserId(), taskId, 
-                downloadedBytes, task.getFileSize(), downloadedCount.intValue(), task.getTotalChunks());
+                downloadedBytes, task.getFileSize(), downloadedCount, task.getTotalChunks());
             
             log.info("记录下载进度: taskId={}, chunkIndex={}, progress={}/{}", 
                 taskId, chunkIndex, downloadedCount, task.getTotalChunks());
             
-            if (downloadedCount.intValue() >= task.getTotalChunks()) {
+            if (downloadedCount >= task.getTotalChunks()) {
                 updateTaskStatus(task, TransferTaskStatus.completed);
                 task.setCompleteTime(LocalDateTime.now());
                 this.updateById(task);
@@ -1246,7 +1419,7 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
                     task.getFileName(), task.getFileName(), task.getFileSize());
                 
                 try {
-                    cacheManager.deleteKey(chunksKey);
+                    cacheManager.cleanDownloadedChunks(taskId);
                     log.debug("清理下载分片记录: taskId={}", taskId);
                 } catch (Exception cleanupEx) {
                     log.warn("清理下载分片记录失败: taskId={}", taskId, cleanupEx);
@@ -1271,26 +1444,9 @@ public class FileTransferTaskServiceImpl extends ServiceImpl<FileTransferTaskMap
     @Override
     public Set<Integer> getDownloadedChunks(String taskId) {
         try {
-            String chunksKey = "download:chunks:" + taskId;
-            Set<Object> chunks = cacheManager.sGet(chunksKey);
-            
-            if (chunks == null || chunks.isEmpty()) {
-                return Collections.emptySet();
-            }
-            
-            // 转换为 Integer Set
-            Set<Integer> result = new HashSet<>();
-            for (Object chunk : chunks) {
-                if (chunk instanceof Integer) {
-                    result.add((Integer) chunk);
-                } else {
-                    try {
-                        result.add(Integer.parseInt(chunk.toString()));
-                    } catch (NumberFormatException e) {
-                        log.error("解析分片索引失败: chunk={}", chunk, e);
-                    }
-                }
-            }
+            FileTransferTask task = getTaskFromCacheOrDB(taskId);
+            byte[] bitmap = cacheManager.getDownloadedChunkBitmap(taskId, task.getTotalChunks());
+            Set<Integer> result = ChunkBitmapUtils.toIndexes(bitmap, task.getTotalChunks());
             
             log.debug("查询已下载分片: taskId={}, count={}", taskId, result.size());
             return result;
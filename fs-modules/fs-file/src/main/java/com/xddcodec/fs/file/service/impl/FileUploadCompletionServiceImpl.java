@@ -0,0 +1,116 @@
+package com.xddcodec.fs.file.service.impl;
+
+import cn.hutool.core.util.IdUtil;
+import com.xddcodec.fs.file.cache.UserStorageUsageManager;
+import com.xddcodec.fs.file.domain.FileInfo;
+import com.xddcodec.fs.file.domain.FileTransferTask;
+import com.xddcodec.fs.file.domain.event.FileChangedEvent;
+import com.xddcodec.fs.file.enums.TransferTaskStatus;
+import com.xddcodec.fs.file.mapper.FileTransferTaskMapper;
+import com.xddcodec.fs.file.service.FileContentHashService;
+import com.xddcodec.fs.file.service.FileDirAggregateService;
+import com.xddcodec.fs.file.service.FileInfoService;
+import com.xddcodec.fs.file.service.FileNameAllocationService;
+import com.xddcodec.fs.file.service.FileObjectRefService;
+import com.xddcodec.fs.file.service.FileUploadCompletionService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+
+/**
+ * 上传完成服务实现
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class FileUploadCompletionServiceImpl implements FileUploadCompletionService {
+
+    private final FileInfoService fileInfoService;
+    private final FileNameAllocationService fileNameAllocationService;
+    private final FileDirAggregateService fileDirAggregateService;
+    private final FileContentHashService fileContentHashService;
+    private final FileObjectRefService fileObjectRefService;
+    private final UserStorageUsageManager userStorageUsageManager;
+    private final FileTransferTaskMapper fileTransferTaskMapper;
+    private final ApplicationEventPublisher eventPublisher;
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileInfo completeQuickUpload(FileTransferTask task, String objectKey, String fileMd5) {
+        String storagePlatformSettingId = task.getStoragePlatformSettingId();
+        // 共享引用与文件记录同一事务提交，写库失败时引用计数随之回滚
+        if (!fileObjectRefService.share(storagePlatformSettingId, objectKey)) {
+            return null;
+        }
+        LocalDateTime now = LocalDateTime.now();
+        // 复用已登记对象的 objectKey
+        FileInfo fileInfo = newFileInfo(task, objectKey, fileMd5, now);
+        saveFileInfo(fileInfo);
+        fileContentHashService.addReference(fileMd5, storagePlatformSettingId, objectKey);
+        task.setFileMd5(fileMd5);
+        completeTask(task, fileInfo, task.getTotalChunks(), now);
+        fileTransferTaskMapper.update(task);
+        return fileInfo;
+    }
+
+    @Override
+    @Transactional(rollbackFor = Exception.class)
+    public FileInfo completeMerge(FileTransferTask task, int uploadedCount) {
+        LocalDateTime now = LocalDateTime.now();
+        FileInfo fileInfo = newFileInfo(task, task.getObjectKey(), task.getFileMd5(), now);
+        saveFileInfo(fileInfo);
+        fileContentHashService.register(task.getFileMd5(), task.getStoragePlatformSettingId(),
+                task.getObjectKey(), task.getFileSize());
+        completeTask(task, fileInfo, uploadedCount, now);
+        fileTransferTaskMapper.update(task);
+        return fileInfo;
+    }
+
+    private FileInfo newFileInfo(FileTransferTask task, String objectKey, String fileMd5, LocalDateTime now) {
+        String fileId = IdUtil.fastSimpleUUID();
+        FileInfo fileInfo = new FileInfo();
+        fileInfo.setId(fileId);
+        fileInfo.setObjectKey(objectKey);
+        fileInfo.setOriginalName(task.getFileName());
+        fileInfo.setDisplayName(task.getFileName());
+        fileInfo.setSuffix(task.getSuffix());
+        fileInfo.setSize(task.getFileSize());
+        fileInfo.setMimeType(task.getMimeType());
+        fileInfo.setIsDir(false);
+        fileInfo.setParentId(task.getParentId());
+        fileInfo.setPath(fileInfoService.resolvePath(task.getParentId(), fileId));
+        fileInfo.setUserId(task.getUserId());
+        fileInfo.setContentMd5(fileMd5);
+        fileInfo.setStoragePlatformSettingId(task.getStoragePlatformSettingId());
+        fileInfo.setUploadTime(now);
+        fileInfo.setUpdateTime(now);
+        fileInfo.setIsDeleted(false);
+        return fileInfo;
+    }
+
+    private void saveFileInfo(FileInfo fileInfo) {
+        // 任务初始化后同级可能新增了同名文件，保存时重新分配名称
+        fileNameAllocationService.saveWithUniqueName(fileInfo);
+        fileDirAggregateService.addToAncestors(fileInfo);
+    }
+
+    /**
+     * 提交用量并将任务标记为已完成，用量在事务提交后生效
+     */
+    private void completeTask(FileTransferTask task, FileInfo fileInfo, int uploadedCount, LocalDateTime now) {
+        userStorageUsageManager.commitUpload(task.getUserId(), task.getStoragePlatformSettingId(),
+                task.getTaskId(), task.getFileSize());
+        eventPublisher.publishEvent(new FileChangedEvent(this, task.getUserId()));
+        task.setStatus(TransferTaskStatus.completed);
+        task.setUploadedChunks(uploadedCount);
+        task.setCompleteTime(now);
+        log.debug("上传完成写库: taskId={}, fileId={}", task.getTaskId(), fileInfo.getId());
+    }
+}
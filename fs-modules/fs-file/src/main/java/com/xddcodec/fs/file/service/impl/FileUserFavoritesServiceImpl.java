@@ -4,6 +4,7 @@ import cn.dev33.satoken.stp.StpUtil;
 import cn.hutool.core.collection.CollUtil;
 import com.xddcodec.fs.file.domain.FileInfo;
 import com.xddcodec.fs.file.domain.FileUserFavorites;
+import com.xddcodec.fs.file.domain.event.FileChangedEvent;
 import com.xddcodec.fs.file.mapper.FileUserFavoritesMapper;
 import com.xddcodec.fs.file.service.FileUserFavoritesService;
 import com.xddcodec.fs.framework.common.exception.BusinessException;
@@ -12,6 +13,7 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.xddcodec.fs.storage.plugin.core.context.StoragePlatformContextHolder;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
@@ -37,6 +39,8 @@ public class FileUserFavoritesServiceImpl extends ServiceImpl<FileUserFavoritesM
 
     private final FileInfoServiceImpl fileInfoService;
 
+    private final ApplicationEventPublisher eventPublisher;
+
     @Transactional(rollbackFor = Exception.class)
     @Override
     public void favoritesFile(List<String> fileIds) {
@@ -93,6 +97,7 @@ public class FileUserFavoritesServiceImpl extends ServiceImpl<FileUserFavoritesM
             fileInfoService.updateById(fileInfo);
         });
 
+        eventPublisher.publishEvent(new FileChangedEvent(this, userId));
         log.info("用户 {} 成功收藏 {} 个文件，并更新了访问时间", userId, favoritesToAdd.size());
     }
 
@@ -121,6 +126,7 @@ public class FileUserFavoritesServiceImpl extends ServiceImpl<FileUserFavoritesM
             fileInfoService.updateById(fileInfo);
         });
 
+        eventPublisher.publishEvent(new FileChangedEvent(this, userId));
         log.info("用户 {} 成功取消收藏 {} 个文件，并更新了访问时间", userId, distinctFileIds.size());
     }
 
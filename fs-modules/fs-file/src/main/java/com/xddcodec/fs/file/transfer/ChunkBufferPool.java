@@ -0,0 +1,92 @@
+package com.xddcodec.fs.file.transfer;
+
+import com.xddcodec.fs.file.config.FileTransferProperties;
+import com.xddcodec.fs.framework.common.exception.BusinessException;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.InputStream;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 分片缓冲池
+ * 固定大小、数量有上限的字节缓冲区池，用于分片流式写入存储：
+ * 1. 每个进行中的分片只持有一个缓冲区，堆内存占用与分片大小无关
+ * 2. 缓冲区耗尽时请求线程阻塞等待，不再读取请求体，TCP 窗口随之收缩，实现端到端背压
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/20
+ */
+@Slf4j
+@Component
+public class ChunkBufferPool {
+
+    private final int bufferSize;
+    private final int maxBuffers;
+    private final long acquireTimeoutMillis;
+    private final Semaphore permits;
+    private final ConcurrentLinkedQueue<byte[]> freeBuffers = new ConcurrentLinkedQueue<>();
+
+    public ChunkBufferPool(FileTransferProperties properties) {
+        this.bufferSize = properties.getChunkBufferSize();
+        this.maxBuffers = properties.getMaxChunkBuffers();
+        this.acquireTimeoutMillis = properties.getBufferAcquireTimeout();
+        this.permits = new Semaphore(maxBuffers, true);
+        log.info("分片缓冲池初始化: bufferSize={}, maxBuffers={}", bufferSize, maxBuffers);
+    }
+
+    /**
+     * 获取缓冲区，池耗尽时阻塞等待
+     *
+     * @return 缓冲区
+     */
+    public byte[] acquire() {
+        try {
+            if (!permits.tryAcquire(acquireTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                throw new BusinessException("服务器繁忙，请稍后重试");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new BusinessException("获取分片缓冲区被中断");
+        }
+        byte[] buffer = freeBuffers.poll();
+        return buffer != null ? buffer : new byte[bufferSize];
+    }
+
+    /**
+     * 归还缓冲区
+     *
+     * @param buffer 缓冲区
+     */
+    public void release(byte[] buffer) {
+        if (buffer == null) {
+            return;
+        }
+        freeBuffers.offer(buffer);
+        permits.release();
+    }
+
+    /**
+     * 包装分片输入流，读取经由池化缓冲区完成
+     *
+     * @param source 原始输入流（请求体）
+     * @param length 分片长度（字节）
+     * @return 池化分片输入流，关闭时归还缓冲区
+     */
+    public PooledChunkInputStream wrap(InputStream source, long length) {
+        return new PooledChunkInputStream(source, length, this);
+    }
+
+    /**
+     * 当前可用缓冲区数量
+     */
+    public int getAvailableBuffers() {
+        return permits.availablePermits();
+    }
+
+    public int getMaxBuffers() {
+        return maxBuffers;
+    }
+}
@@ -0,0 +1,112 @@
+package com.xddcodec.fs.file.transfer;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * 池化分片输入流
+ * 通过 {@link ChunkBufferPool} 中的缓冲区读取原始流，严格读取 length 个字节：
+ * 原始流提前结束时抛出 {@link EOFException}，超出部分不会被读取
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/20
+ */
+public class PooledChunkInputStream extends InputStream {
+
+    private final InputStream source;
+    private final long length;
+    private final ChunkBufferPool pool;
+    private byte[] buffer;
+    private int pos;
+    private int limit;
+    private long consumed;
+
+    PooledChunkInputStream(InputStream source, long length, ChunkBufferPool pool) {
+        this.source = source;
+        this.length = length;
+        this.pool = pool;
+        this.buffer = pool.acquire();
+    }
+
+    @Override
+    public int read() throws IOException {
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        return buffer[pos++] & 0xFF;
+    }
+
+    @Override
+    public int read(byte[] b, int off, int len) throws IOException {
+        if (len == 0) {
+            return 0;
+        }
+        if (pos >= limit && !fill()) {
+            return -1;
+        }
+        int n = Math.min(len, limit - pos);
+        System.arraycopy(buffer, pos, b, off, n);
+        pos += n;
+        return n;
+    }
+
+    /**
+     * 只返回缓冲区中已读入的字节数，剩余部分读取时仍可能阻塞或因原始流提前结束而失败
+     */
+    @Override
+    public int available() {
+        return limit - pos;
+    }
+
+    /**
+     * 已从原始流读取的字节数
+     */
+    public long getConsumed() {
+        return consumed;
+    }
+
+    /**
+     * 从原始流填充缓冲区
+     *
+     * @return false 表示已读满 length 个字节
+     */
+    private boolean fill() throws IOException {
+        ensureOpen();
+        long remaining = length - consumed;
+        if (remaining <= 0) {
+            return false;
+        }
+        int toRead = (int) Math.min(buffer.length, remaining);
+        int n = source.read(buffer, 0, toRead);
+        if (n < 0) {
+            throw new EOFException(String.format("分片数据不完整：期望 %d 字节，实际 %d 字节", length, consumed));
+        }
+        consumed += n;
+        pos = 0;
+        limit = n;
+        return true;
+    }
+
+    private void ensureOpen() throws IOException {
+        if (buffer == null) {
+            throw new IOException("分片输入流已关闭");
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (buffer == null) {
+            return;
+        }
+        byte[] released = buffer;
+        buffer = null;
+        pos = 0;
+        limit = 0;
+        try {
+            source.close();
+        } finally {
+            pool.release(released);
+        }
+    }
+}
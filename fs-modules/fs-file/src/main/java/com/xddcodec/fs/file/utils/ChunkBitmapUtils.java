@@ -0,0 +1,105 @@
+package com.xddcodec.fs.file.utils;
+
+import java.io.ByteArrayOutputStream;
+import java.util.Arrays;
+import java.util.LinkedHashSet;
+import java.util.Set;
+import java.util.zip.Deflater;
+
+/**
+ * 分片位图工具
+ * 位序与 Redis SETBIT 一致：分片 i 对应第 i/8 个字节的第 (7 - i%8) 位（高位在前）
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/21
+ */
+public final class ChunkBitmapUtils {
+
+    private ChunkBitmapUtils() {
+    }
+
+    /**
+     * 位图转分片索引集合（升序）
+     *
+     * @param bitmap      位图
+     * @param totalChunks 总分片数，超出部分忽略
+     * @return 分片索引集合
+     */
+    public static Set<Integer> toIndexes(byte[] bitmap, int totalChunks) {
+        Set<Integer> indexes = new LinkedHashSet<>();
+        if (bitmap == null) {
+            return indexes;
+        }
+        int limit = Math.min(totalChunks, bitmap.length * 8);
+        for (int i = 0; i < limit; i++) {
+            if (isSet(bitmap, i)) {
+                indexes.add(i);
+            }
+        }
+        return indexes;
+    }
+
+    /**
+     * 分片索引集合转位图
+     *
+     * @param indexes     分片索引集合
+     * @param totalChunks 总分片数
+     * @return 位图
+     */
+    public static byte[] fromIndexes(Set<Integer> indexes, int totalChunks) {
+        byte[] bitmap = new byte[byteLength(totalChunks)];
+        for (Integer index : indexes) {
+            if (index != null && index >= 0 && index < totalChunks) {
+                bitmap[index >>> 3] |= (byte) (0x80 >>> (index & 7));
+            }
+        }
+        return bitmap;
+    }
+
+    /**
+     * 判断分片是否已置位
+     */
+    public static boolean isSet(byte[] bitmap, int index) {
+        int byteIndex = index >>> 3;
+        return byteIndex < bitmap.length && (bitmap[byteIndex] & (0x80 >>> (index & 7))) != 0;
+    }
+
+    /**
+     * 将位图补齐/截断到总分片数对应的字节长度
+     * Redis 位图只会扩展到最高置位所在字节
+     */
+    public static byte[] normalize(byte[] bitmap, int totalChunks) {
+        int length = byteLength(totalChunks);
+        byte[] result = bitmap == null ? new byte[length] : Arrays.copyOf(bitmap, length);
+        int tailBits = totalChunks & 7;
+        if (tailBits != 0 && length > 0) {
+            result[length - 1] &= (byte) (0xFF << (8 - tailBits));
+        }
+        return result;
+    }
+
+    /**
+     * DEFLATE 压缩位图
+     * 几乎全空或全满的位图可压缩到数十字节
+     */
+    public static byte[] deflate(byte[] bitmap) {
+        Deflater deflater = new Deflater(Deflater.BEST_COMPRESSION, true);
+        try {
+            deflater.setInput(bitmap);
+            deflater.finish();
+            ByteArrayOutputStream out = new ByteArrayOutputStream(Math.max(64, bitmap.length / 4));
+            byte[] buffer = new byte[1024];
+            while (!deflater.finished()) {
+                int n = deflater.deflate(buffer);
+                out.write(buffer, 0, n);
+            }
+            return out.toByteArray();
+        } finally {
+            deflater.end();
+        }
+    }
+
+    private static int byteLength(int totalChunks) {
+        return (Math.max(totalChunks, 0) + 7) >>> 3;
+    }
+}
@@ -0,0 +1,74 @@
+package com.xddcodec.fs.plan.domain;
+
+import com.mybatisflex.annotation.Id;
+import com.mybatisflex.annotation.KeyType;
+import com.mybatisflex.annotation.Table;
+import lombok.Data;
+import lombok.EqualsAndHashCode;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * 用户配额使用情况表实体
+ * 每个用户在每个存储平台一行，由 Redis 实时计数定期刷写
+ *
+ * @Author: xddcodec
+ * @Date: 2026/01/25
+ */
+@Data
+@EqualsAndHashCode(callSuper = false)
+@Table("user_quota_usage")
+public class UserQuotaUsage implements Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    /**
+     * 主键ID
+     */
+    @Id(keyType = KeyType.Auto)
+    private Long id;
+
+    /**
+     * 用户ID
+     */
+    private String userId;
+
+    /**
+     * 存储平台配置ID，本地存储为空字符串
+     */
+    private String storagePlatformSettingId;
+
+    /**
+     * 已使用存储(字节)
+     */
+    private Long storageUsed;
+
+    /**
+     * 文件数量
+     */
+    private Integer filesCount;
+
+    /**
+     * 带宽使用情况(按月统计)
+     */
+    private Long bandwidthUsedMonth;
+
+    /**
+     * 带宽重置日期
+     */
+    private LocalDate bandwidthResetDate;
+
+    /**
+     * 最后统计时间
+     */
+    private LocalDateTime lastCalculatedAt;
+
+    /**
+     * 更新时间
+     */
+    private LocalDateTime updatedAt;
+}
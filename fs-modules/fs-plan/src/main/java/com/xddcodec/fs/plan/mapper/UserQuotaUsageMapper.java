@@ -0,0 +1,13 @@
+package com.xddcodec.fs.plan.mapper;
+
+import com.mybatisflex.core.BaseMapper;
+import com.xddcodec.fs.plan.domain.UserQuotaUsage;
+
+/**
+ * 用户配额使用情况表Mapper
+ *
+ * @Author: xddcodec
+ * @Date: 2026/01/25
+ */
+public interface UserQuotaUsageMapper extends BaseMapper<UserQuotaUsage> {
+}
@@ -48,6 +48,14 @@ public interface SubscriptionPlanService extends IService<SubscriptionPlan> {
      */
     SubscriptionPlan getDefaultPlan();
 
+    /**
+     * 获取用户当前生效的套餐，没有生效中的订阅时返回默认套餐
+     *
+     * @param userId 用户ID
+     * @return 套餐，未配置默认套餐时返回 null
+     */
+    SubscriptionPlan getUserPlan(String userId);
+
     /**
      * 获取套餐详情
      *
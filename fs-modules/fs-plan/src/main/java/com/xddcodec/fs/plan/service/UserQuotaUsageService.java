@@ -0,0 +1,23 @@
+package com.xddcodec.fs.plan.service;
+
+import com.mybatisflex.core.service.IService;
+import com.xddcodec.fs.plan.domain.UserQuotaUsage;
+
+/**
+ * 用户配额使用情况表Service
+ *
+ * @Author: xddcodec
+ * @Date: 2026/01/25
+ */
+public interface UserQuotaUsageService extends IService<UserQuotaUsage> {
+
+    /**
+     * 写入用户在存储平台的存储用量（不存在则新增）
+     *
+     * @param userId                   用户ID
+     * @param storagePlatformSettingId 存储平台配置ID，本地存储为空字符串
+     * @param storageUsed              已使用存储(字节)
+     * @param filesCount               文件数量
+     */
+    void saveStorageUsage(String userId, String storagePlatformSettingId, long storageUsed, int filesCount);
+}
@@ -6,6 +6,7 @@ import com.mybatisflex.spring.service.impl.ServiceImpl;
 import com.xddcodec.fs.framework.common.domain.PageResult;
 import com.xddcodec.fs.framework.common.exception.BusinessException;
 import com.xddcodec.fs.plan.domain.SubscriptionPlan;
+import com.xddcodec.fs.plan.domain.UserSubscription;
 import com.xddcodec.fs.plan.domain.cmd.SubscriptionPlanAddCmd;
 import com.xddcodec.fs.plan.domain.cmd.SubscriptionPlanEditCmd;
 import com.xddcodec.fs.plan.domain.qry.SubscriptionPlanPageQry;
@@ -23,6 +24,7 @@ import java.time.LocalDateTime;
 import java.util.List;
 
 import static com.xddcodec.fs.plan.domain.table.SubscriptionPlanTableDef.SUBSCRIPTION_PLAN;
+import static com.xddcodec.fs.plan.domain.table.UserSubscriptionTableDef.USER_SUBSCRIPTION;
 
 /**
  * 套餐表业务服务实现类
@@ -77,6 +79,24 @@ public class SubscriptionPlanServiceImpl extends ServiceImpl<SubscriptionPlanMap
         );
     }
 
+    @Override
+    public SubscriptionPlan getUserPlan(String userId) {
+        UserSubscription subscription = userSubscriptionService.getOne(
+                new QueryWrapper()
+                        .where(USER_SUBSCRIPTION.USER_ID.eq(userId))
+                        .and(USER_SUBSCRIPTION.EXPIRE_DATE.gt(LocalDateTime.now()))
+                        .orderBy(USER_SUBSCRIPTION.EXPIRE_DATE.desc())
+                        .limit(1)
+        );
+        if (subscription != null) {
+            SubscriptionPlan plan = this.getById(subscription.getPlanId());
+            if (plan != null) {
+                return plan;
+            }
+        }
+        return getDefaultPlan();
+    }
+
     @Override
     public SubscriptionPlanVO getDetail(Long planId) {
         SubscriptionPlan subscriptionPlan = this.getById(planId);
@@ -0,0 +1,57 @@
+package com.xddcodec.fs.plan.service.impl;
+
+import com.mybatisflex.core.update.UpdateChain;
+import com.mybatisflex.spring.service.impl.ServiceImpl;
+import com.xddcodec.fs.plan.domain.UserQuotaUsage;
+import com.xddcodec.fs.plan.mapper.UserQuotaUsageMapper;
+import com.xddcodec.fs.plan.service.UserQuotaUsageService;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDateTime;
+
+import static com.xddcodec.fs.plan.domain.table.UserQuotaUsageTableDef.USER_QUOTA_USAGE;
+
+/**
+ * 用户配额使用情况表Service Impl
+ *
+ * @Author: xddcodec
+ * @Date: 2026/01/25
+ */
+@Service
+public class UserQuotaUsageServiceImpl extends ServiceImpl<UserQuotaUsageMapper, UserQuotaUsage> implements UserQuotaUsageService {
+
+    @Override
+    public void saveStorageUsage(String userId, String storagePlatformSettingId, long storageUsed, int filesCount) {
+        LocalDateTime now = LocalDateTime.now();
+        if (updateStorageUsage(userId, storagePlatformSettingId, storageUsed, filesCount, now)) {
+            return;
+        }
+        UserQuotaUsage usage = new UserQuotaUsage();
+        usage.setUserId(userId);
+        usage.setStoragePlatformSettingId(storagePlatformSettingId);
+        usage.setStorageUsed(storageUsed);
+        usage.setFilesCount(filesCount);
+        usage.setBandwidthUsedMonth(0L);
+        usage.setLastCalculatedAt(now);
+        usage.setUpdatedAt(now);
+        try {
+            this.save(usage);
+        } catch (DuplicateKeyException e) {
+            // 并发刷写时另一节点已新增
+            updateStorageUsage(userId, storagePlatformSettingId, storageUsed, filesCount, now);
+        }
+    }
+
+    private boolean updateStorageUsage(String userId, String storagePlatformSettingId,
+                                       long storageUsed, int filesCount, LocalDateTime now) {
+        return UpdateChain.of(UserQuotaUsage.class)
+                .set(UserQuotaUsage::getStorageUsed, storageUsed)
+                .set(UserQuotaUsage::getFilesCount, filesCount)
+                .set(UserQuotaUsage::getLastCalculatedAt, now)
+                .set(UserQuotaUsage::getUpdatedAt, now)
+                .where(USER_QUOTA_USAGE.USER_ID.eq(userId))
+                .and(USER_QUOTA_USAGE.STORAGE_PLATFORM_SETTING_ID.eq(storagePlatformSettingId))
+                .update();
+    }
+}
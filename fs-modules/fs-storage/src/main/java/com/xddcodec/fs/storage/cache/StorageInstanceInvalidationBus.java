@@ -0,0 +1,114 @@
+package com.xddcodec.fs.storage.cache;
+
+import cn.hutool.core.util.IdUtil;
+import com.xddcodec.fs.framework.redis.repository.RedisRepository;
+import com.xddcodec.fs.storage.plugin.boot.StoragePluginManager;
+import com.xddcodec.fs.storage.plugin.core.utils.StorageUtils;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.redis.connection.Message;
+import org.springframework.data.redis.connection.MessageListener;
+import org.springframework.data.redis.listener.ChannelTopic;
+import org.springframework.data.redis.listener.RedisMessageListenerContainer;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * 存储实例集群失效总线
+ * 存储配置修改、删除、启用/禁用后通知所有节点失效对应的存储实例，下次使用时按新配置重建：
+ * 1. 事务提交后才发布，其他节点收到消息时一定能读到新配置
+ * 2. 每次发布通过 Redis 自增生成配置版本，节点只处理比已收到版本更高的消息，乱序到达的旧消息被忽略
+ * 3. 节点在加载配置前记录版本，失效前开始加载的旧配置实例会被视为过期，不会在失效后复活
+ * 4. 消息丢失时旧实例最迟在空闲淘汰后重建
+ *
+ * @Author: xddcode
+ * @Date: 2026/01/28
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class StorageInstanceInvalidationBus implements MessageListener {
+
+    private static final String INVALIDATE_CHANNEL = "storage:instance:invalidate";
+    private static final String VERSION_KEY_PREFIX = "storage:config:version:";
+    private static final String MESSAGE_SEPARATOR = "|";
+
+    private final RedisRepository redisRepository;
+    private final RedisMessageListenerContainer listenerContainer;
+    private final StoragePluginManager pluginManager;
+
+    /**
+     * 本节点标识，用于忽略自己发布的失效消息
+     */
+    private final String nodeId = IdUtil.fastSimpleUUID();
+
+    @PostConstruct
+    public void subscribe() {
+        listenerContainer.addMessageListener(this, new ChannelTopic(INVALIDATE_CHANNEL));
+        log.info("存储实例已订阅集群失效频道: channel={}, nodeId={}", INVALIDATE_CHANNEL, nodeId);
+    }
+
+    /**
+     * 失效所有节点上该配置的存储实例
+     * 存在事务时在提交后执行，回滚的修改不会发布
+     *
+     * @param configId 配置ID
+     */
+    public void publish(String configId) {
+        if (StorageUtils.isLocalConfig(configId)) {
+            return;
+        }
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doPublish(configId);
+                }
+            });
+        } else {
+            doPublish(configId);
+        }
+    }
+
+    @Override
+    public void onMessage(Message message, byte[] pattern) {
+        try {
+            Object body = redisRepository.deserializeMessage(message.getBody());
+            if (body == null) {
+                return;
+            }
+            String[] parts = body.toString().split("\\" + MESSAGE_SEPARATOR);
+            if (parts.length != 3 || nodeId.equals(parts[0])) {
+                return;
+            }
+            String configId = parts[1];
+            long version = Long.parseLong(parts[2]);
+            boolean invalidated = pluginManager.invalidateConfig(configId, version);
+            log.debug("收到存储实例失效通知: configId={}, version={}, sourceNode={}, invalidated={}",
+                    configId, version, parts[0], invalidated);
+        } catch (Exception e) {
+            log.warn("处理存储实例失效消息失败", e);
+        }
+    }
+
+    private void doPublish(String configId) {
+        long version;
+        try {
+            version = redisRepository.incr(VERSION_KEY_PREFIX + configId, 1);
+        } catch (Exception e) {
+            // 无法生成版本时只失效本节点，其他节点依赖空闲淘汰兜底
+            log.warn("生成存储配置版本失败，仅失效本节点实例: configId={}", configId, e);
+            pluginManager.invalidateConfig(configId);
+            return;
+        }
+        pluginManager.invalidateConfig(configId, version);
+        try {
+            redisRepository.publish(INVALIDATE_CHANNEL,
+                    nodeId + MESSAGE_SEPARATOR + configId + MESSAGE_SEPARATOR + version);
+        } catch (Exception e) {
+            log.warn("发布存储实例失效消息失败: configId={}, version={}", configId, version, e);
+        }
+    }
+}
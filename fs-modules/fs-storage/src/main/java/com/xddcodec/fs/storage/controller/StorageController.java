@@ -9,6 +9,8 @@ import com.xddcodec.fs.storage.domain.cmd.StorageSettingEditCmd;
 import com.xddcodec.fs.storage.domain.vo.StorageActivePlatformsVO;
 import com.xddcodec.fs.storage.domain.vo.StoragePlatformVO;
 import com.xddcodec.fs.storage.domain.vo.StorageSettingUserVO;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCacheStats;
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
 import com.xddcodec.fs.storage.service.StoragePlatformService;
 import com.xddcodec.fs.storage.service.StorageSettingService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -51,6 +53,20 @@ public class StorageController {
         return Result.ok(detail);
     }
 
+    @Operation(summary = "获取存储平台配置的连接池指标", description = "返回已创建实例的连接数、排队数与空闲数，实例未创建时为空")
+    @GetMapping("/settings/{id}/transport-metrics")
+    public Result<List<StorageTransportMetrics>> getTransportMetrics(@PathVariable("id") String id) {
+        List<StorageTransportMetrics> result = storageSettingService.getTransportMetrics(id);
+        return Result.ok(result);
+    }
+
+    @Operation(summary = "获取存储平台配置的磁盘缓存统计", description = "返回本地磁盘缓存的命中率、淘汰次数与占用空间")
+    @GetMapping("/settings/{id}/disk-cache")
+    public Result<StorageDiskCacheStats> getDiskCacheStats(@PathVariable("id") String id) {
+        StorageDiskCacheStats result = storageSettingService.getDiskCacheStats(id);
+        return Result.ok(result);
+    }
+
     @Operation(summary = "启用或禁用存储平台")
     @PostMapping("/settings/{id}/{action}")
     public Result<StorageSetting> enableOrDisableStoragePlatform(@PathVariable("id") String id, @PathVariable("action") Integer action) {
@@ -5,17 +5,28 @@ import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.xddcodec.fs.framework.common.exception.BusinessException;
 import com.xddcodec.fs.framework.common.exception.StorageConfigException;
+import com.xddcodec.fs.storage.cache.StorageInstanceInvalidationBus;
 import com.xddcodec.fs.storage.domain.StorageSetting;
 import com.xddcodec.fs.storage.mapper.StorageSettingMapper;
+import com.xddcodec.fs.storage.plugin.boot.StorageInstanceCacheStats;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCacheStats;
+import com.xddcodec.fs.storage.plugin.boot.StorageInstanceLease;
 import com.xddcodec.fs.storage.plugin.boot.StoragePluginManager;
+import com.xddcodec.fs.storage.plugin.core.BlockingStorageAsyncAdapter;
+import com.xddcodec.fs.storage.plugin.core.IAsyncStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.IStorageOperationService;
 import com.xddcodec.fs.storage.plugin.core.config.StorageConfig;
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
 import com.xddcodec.fs.storage.plugin.core.context.StoragePlatformContextHolder;
 import com.xddcodec.fs.storage.plugin.core.utils.StorageUtils;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 import org.springframework.stereotype.Component;
 
+import java.io.InputStream;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -36,6 +47,9 @@ public class StorageServiceFacade {
     private final StoragePluginManager pluginManager;
     private final StorageSettingMapper storageSettingMapper;
     private final ObjectMapper objectMapper;
+    private final StorageInstanceInvalidationBus invalidationBus;
+    @Qualifier("storageBlockingExecutor")
+    private final ThreadPoolTaskExecutor storageBlockingExecutor;
 
     /**
      * 获取当前上下文的存储服务
@@ -69,9 +83,95 @@ public class StorageServiceFacade {
         );
     }
 
+    /**
+     * 根据配置ID获取存储服务并持有租约
+     * 租约归还前实例不会被缓存淘汰关闭，分片上传、下载、合并等持续时间较长的操作应使用租约
+     *
+     * @param configId 配置ID
+     * @return 租约，使用完毕后必须关闭
+     */
+    public StorageInstanceLease leaseStorageService(String configId) {
+        return pluginManager.leaseInstance(
+                configId,
+                () -> loadConfigFromDatabase(configId)
+        );
+    }
+
+    /**
+     * 下载文件，租约绑定到返回的数据流
+     * 数据流关闭前实例不会被缓存淘汰关闭，调用方必须关闭数据流
+     *
+     * @param configId  配置ID
+     * @param objectKey 对象键
+     * @return 文件数据流
+     */
+    public InputStream downloadFile(String configId, String objectKey) {
+        StorageInstanceLease lease = leaseStorageService(configId);
+        try {
+            return lease.bind(lease.getService().downloadFile(objectKey));
+        } catch (RuntimeException e) {
+            lease.close();
+            throw e;
+        }
+    }
+
+    /**
+     * 根据配置ID获取异步存储服务
+     * 插件自身支持异步时直接返回，否则包装为在独立线程池中执行的适配器
+     *
+     * @param configId 配置ID
+     * @return 异步存储服务
+     */
+    public IAsyncStorageOperationService getAsyncStorageService(String configId) {
+        return getAsyncStorageService(getStorageService(configId));
+    }
+
+    /**
+     * 将存储服务转换为异步存储服务
+     *
+     * @param storageService 存储服务（通常来自租约）
+     * @return 异步存储服务
+     */
+    public IAsyncStorageOperationService getAsyncStorageService(IStorageOperationService storageService) {
+        if (storageService instanceof IAsyncStorageOperationService asyncStorageService) {
+            return asyncStorageService;
+        }
+        return new BlockingStorageAsyncAdapter(storageService, storageBlockingExecutor);
+    }
+
+    /**
+     * 获取存储实例的HTTP连接池指标
+     * 只读取已创建的实例，不会为查询指标而创建实例
+     *
+     * @param configId 配置ID
+     * @return 连接池指标
+     */
+    public List<StorageTransportMetrics> getTransportMetrics(String configId) {
+        return pluginManager.getTransportMetrics(configId);
+    }
+
+    /**
+     * 获取存储实例缓存统计
+     *
+     * @return 命中、淘汰、关闭等累计统计
+     */
+    public StorageInstanceCacheStats getInstanceCacheStats() {
+        return pluginManager.getCacheStats();
+    }
+
+    /**
+     * 获取存储配置的本地磁盘缓存统计
+     *
+     * @param configId 配置ID
+     * @return 命中率、淘汰与占用空间统计
+     */
+    public StorageDiskCacheStats getDiskCacheStats(String configId) {
+        return pluginManager.getDiskCacheStats(configId);
+    }
+
     /**
      * 刷新存储实例
-     * 先失效缓存，下次使用时自动重新加载
+     * 通知所有节点失效缓存，下次使用时自动重新加载
      *
      * @param configId 配置ID
      */
@@ -81,14 +181,8 @@ public class StorageServiceFacade {
             return;
         }
 
-        // 检查是否有缓存实例
-        boolean hasInstance = pluginManager.hasInstance(configId);
-        if (!hasInstance) {
-            return;
-        }
-
-        // 失效缓存，下次使用时自动重新加载
-        pluginManager.invalidateConfig(configId);
+        // 本节点没有缓存时其他节点仍可能有，始终发布集群失效
+        invalidationBus.publish(configId);
     }
 
     /**
@@ -105,8 +199,8 @@ public class StorageServiceFacade {
 
         log.info("移除存储实例: configId={}", configId);
 
-        // 直接失效缓存，不需要加载配置
-        pluginManager.invalidateConfig(configId);
+        // 直接失效所有节点的缓存，不需要加载配置
+        invalidationBus.publish(configId);
     }
 
     /**
@@ -6,6 +6,8 @@ import com.mybatisflex.core.service.IService;
 import com.xddcodec.fs.storage.domain.cmd.StorageSettingEditCmd;
 import com.xddcodec.fs.storage.domain.vo.StorageActivePlatformsVO;
 import com.xddcodec.fs.storage.domain.vo.StorageSettingUserVO;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCacheStats;
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
 
 import java.util.List;
 
@@ -66,4 +68,20 @@ public interface StorageSettingService extends IService<StorageSetting> {
      * @return
      */
     List<StorageSetting> listByPlatformIdentifier(String platformIdentifier);
+
+    /**
+     * 获取存储平台配置对应实例的HTTP连接池指标
+     *
+     * @param id 配置ID
+     * @return 连接池指标
+     */
+    List<StorageTransportMetrics> getTransportMetrics(String id);
+
+    /**
+     * 获取存储平台配置的本地磁盘缓存统计
+     *
+     * @param id 配置ID
+     * @return 磁盘缓存统计
+     */
+    StorageDiskCacheStats getDiskCacheStats(String id);
 }
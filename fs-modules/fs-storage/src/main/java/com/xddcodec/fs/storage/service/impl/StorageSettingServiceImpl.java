@@ -17,6 +17,8 @@ import com.xddcodec.fs.storage.mapper.StorageSettingMapper;
 import com.xddcodec.fs.storage.plugin.boot.StoragePluginRegistry;
 import com.xddcodec.fs.storage.plugin.core.context.StoragePlatformContextHolder;
 import com.xddcodec.fs.storage.plugin.core.dto.StoragePluginMetadata;
+import com.xddcodec.fs.storage.plugin.boot.cache.StorageDiskCacheStats;
+import com.xddcodec.fs.storage.plugin.core.dto.StorageTransportMetrics;
 import com.xddcodec.fs.storage.plugin.core.utils.StorageUtils;
 import com.xddcodec.fs.storage.service.StoragePlatformService;
 import com.xddcodec.fs.storage.service.StorageSettingService;
@@ -155,9 +157,15 @@ public class StorageSettingServiceImpl extends ServiceImpl<StorageSettingMapper,
             );
             storageSettings.forEach(s -> s.setEnabled(CommonConstant.N));
             this.updateBatch(storageSettings);
+            // 被禁用的配置通知所有节点失效实例
+            storageSettings.stream()
+                    .filter(s -> !s.getId().equals(settingId))
+                    .forEach(s -> storageServiceFacade.refreshInstance(s.getId()));
         }
         storageSetting.setEnabled(newStatus);
         this.updateById(storageSetting);
+        // 启用状态变化后通知所有节点重建实例
+        storageServiceFacade.refreshInstance(settingId);
     }
 
     @Transactional(rollbackFor = Exception.class)
@@ -301,4 +309,30 @@ public class StorageSettingServiceImpl extends ServiceImpl<StorageSettingMapper,
                         .and(STORAGE_SETTING.ENABLED.eq(CommonConstant.Y))
         );
     }
+
+    @Override
+    public List<StorageTransportMetrics> getTransportMetrics(String id) {
+        String userId = StpUtil.getLoginIdAsString();
+        StorageSetting storageSetting = this.getById(id);
+        if (storageSetting == null) {
+            throw new BusinessException("存储配置不存在");
+        }
+        if (!storageSetting.getUserId().equals(userId)) {
+            throw new BusinessException("无权限查看此配置");
+        }
+        return storageServiceFacade.getTransportMetrics(id);
+    }
+
+    @Override
+    public StorageDiskCacheStats getDiskCacheStats(String id) {
+        String userId = StpUtil.getLoginIdAsString();
+        StorageSetting storageSetting = this.getById(id);
+        if (storageSetting == null) {
+            throw new BusinessException("存储配置不存在");
+        }
+        if (!storageSetting.getUserId().equals(userId)) {
+            throw new BusinessException("无权限查看此配置");
+        }
+        return storageServiceFacade.getDiskCacheStats(id);
+    }
 }